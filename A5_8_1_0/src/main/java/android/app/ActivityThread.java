@@ -148,6 +148,7 @@ import libcore.io.DropBox.Reporter;
 import libcore.io.EventLogger;
 import libcore.io.IoUtils;
 import libcore.net.event.NetworkEventDispatcher;
+import oppo.content.res.OppoThemeZipFileCache;
 import org.apache.harmony.dalvik.ddmc.DdmVmInternal;
 
 public final class ActivityThread {
@@ -865,6 +866,8 @@ public final class ActivityThread {
                 pw.println(" Asset Allocations");
                 pw.print(assetAlloc);
             }
+            pw.println(WifiEnterpriseConfig.CA_CERT_ALIAS_DELIMITER);
+            OppoThemeZipFileCache.getInstance().dump(pw);
             if (dumpUnreachable) {
                 boolean showContents;
                 if (ActivityThread.this.mBoundApplication == null || (ActivityThread.this.mBoundApplication.appInfo.flags & 2) == 0) {
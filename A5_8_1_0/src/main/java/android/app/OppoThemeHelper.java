@@ -19,15 +19,20 @@ import android.os.Handler;
 import android.text.TextUtils;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import com.android.internal.os.BackgroundThread;
 import com.oppo.theme.OppoAppIconInfo;
 import com.oppo.theme.OppoConvertIcon;
 import com.oppo.theme.OppoThirdPartUtil;
+import oppo.content.res.OppoThemeZipFile;
 
 public class OppoThemeHelper {
     private static final int COMPLEX_UNIT_DIP = 1;
     private static final int COMPLEX_UNIT_PX = 0;
     private static final int COMPLEX_UNIT_SP = 2;
+    private static final long INDEX_BUILD_DELAY = 2000;
     private static final String TAG = "OppoThemeHelper";
+    private static Runnable sBuildValueIndexes;
+    private static final Object sIndexLock = new Object();
 
     public static void handleExtraConfigurationChanges(int i) {
         if ((134217728 & i) != 0) {
@@ -35,10 +40,29 @@ public class OppoThemeHelper {
         }
     }
 
-    public static void handleExtraConfigurationChanges(int i, Configuration configuration, Context context, Handler handler) {
+    /**
+     * Called by the system on a configuration change. Applying a theme or a
+     * locale rebuilds the theme value indexes that app processes map at
+     * start; repeated changes are coalesced into one rebuild.
+     */
+    public static void handleExtraConfigurationChanges(int i, Configuration configuration, final Context context, Handler handler) {
         if ((134217728 & i) != 0) {
             handleExtraConfigurationChanges(i);
         }
+        if ((134217732 & i) != 0) {
+            Handler background = BackgroundThread.getHandler();
+            synchronized (sIndexLock) {
+                if (sBuildValueIndexes == null) {
+                    sBuildValueIndexes = new Runnable() {
+                        public void run() {
+                            OppoThemeZipFile.buildValueIndexes(context);
+                        }
+                    };
+                }
+                background.removeCallbacks(sBuildValueIndexes);
+                background.postDelayed(sBuildValueIndexes, INDEX_BUILD_DELAY);
+            }
+        }
     }
 
     public static Drawable getDrawable(PackageManager packagemanager, String packageName, int id, ApplicationInfo applicationinfo, PackageItemInfo packageiteminfo, boolean flag) {
@@ -106,6 +106,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
 import libcore.io.IoUtils;
@@ -189,6 +190,10 @@ public class PackageParser {
     private static final String TAG_USES_SPLIT = "uses-split";
     private static AtomicReference<byte[]> sBuffer = new AtomicReference();
     public static final AtomicInteger sCachedPackageReadCount = new AtomicInteger();
+    public static final AtomicLong sCacheReadNanos = new AtomicLong();
+    public static final AtomicLong sCacheWriteNanos = new AtomicLong();
+    public static final AtomicInteger sParsedPackageCount = new AtomicInteger();
+    public static final AtomicLong sParseNanos = new AtomicLong();
     private static boolean sCompatibilityModeEnabled = true;
     private static boolean sIsPerfLockAcquired = false;
     private static BoostFramework sPerfBoost = null;
@@ -2180,21 +2185,28 @@ public class PackageParser {
     }
 
     public Package parsePackage(File packageFile, int flags, boolean useCaches) throws PackageParserException {
+        long startNanos = System.nanoTime();
         Package parsed = useCaches ? getCachedResult(packageFile, flags) : null;
         if (parsed != null) {
+            sCacheReadNanos.addAndGet(System.nanoTime() - startNanos);
             if (packageFile != null) {
                 Slog.i(TAG, "parsePackage use cache for " + packageFile.getName() + ", flag=" + flags);
             }
             return parsed;
         }
         long parseTime = LOG_PARSE_TIMINGS ? SystemClock.uptimeMillis() : 0;
+        long parseNanos = System.nanoTime();
         if (packageFile.isDirectory()) {
             parsed = parseClusterPackage(packageFile, flags);
         } else {
             parsed = parseMonolithicPackage(packageFile, flags);
         }
         long cacheTime = LOG_PARSE_TIMINGS ? SystemClock.uptimeMillis() : 0;
+        long cacheNanos = System.nanoTime();
+        sParsedPackageCount.incrementAndGet();
+        sParseNanos.addAndGet(cacheNanos - parseNanos);
         cacheResult(packageFile, flags, parsed);
+        sCacheWriteNanos.addAndGet(System.nanoTime() - cacheNanos);
         if (LOG_PARSE_TIMINGS) {
             parseTime = cacheTime - parseTime;
             cacheTime = SystemClock.uptimeMillis() - cacheTime;
@@ -433,6 +433,7 @@ public class BatteryStatsImpl extends BatteryStats {
     final StopwatchTimer[] mWifiSupplStateTimer;
     final ArrayList<StopwatchTimer> mWindowTimers;
     final ReentrantLock mWriteLock;
+    boolean mWriteScheduled;
 
     public interface TimeBaseObs {
         void onTimeStarted(long j, long j2, long j3);
@@ -9692,22 +9693,36 @@ public class BatteryStatsImpl extends BatteryStats {
         writeLocked(true);
     }
 
+    /**
+     * Asynchronous writes are coalesced: the summary is serialized on the
+     * background thread when the posted write runs, so a burst of
+     * writeAsyncLocked() calls produces one parcel and one file write of
+     * the latest state instead of serializing every uid's timers for each
+     * call and discarding all but the last parcel.
+     */
     void writeLocked(boolean sync) {
         if (this.mFile == null) {
             Slog.w("BatteryStats", "writeLocked: no file associated with this instance");
         } else if (!this.mShuttingDown) {
-            Parcel out = Parcel.obtain();
-            writeSummaryToParcel(out, true);
             this.mLastWriteTime = this.mClocks.elapsedRealtime();
-            if (this.mPendingWrite != null) {
-                this.mPendingWrite.recycle();
-            }
-            this.mPendingWrite = out;
             if (sync) {
+                this.mWriteScheduled = false;
+                preparePendingWriteLocked();
                 commitPendingDataToDisk();
-            } else {
+            } else if (!this.mWriteScheduled) {
+                this.mWriteScheduled = true;
                 BackgroundThread.getHandler().post(new Runnable() {
                     public void run() {
+                        synchronized (BatteryStatsImpl.this) {
+                            if (!BatteryStatsImpl.this.mWriteScheduled) {
+                                return;
+                            }
+                            BatteryStatsImpl.this.mWriteScheduled = false;
+                            if (BatteryStatsImpl.this.mShuttingDown) {
+                                return;
+                            }
+                            BatteryStatsImpl.this.preparePendingWriteLocked();
+                        }
                         BatteryStatsImpl.this.commitPendingDataToDisk();
                     }
                 });
@@ -9715,39 +9730,39 @@ public class BatteryStatsImpl extends BatteryStats {
         }
     }
 
-    /* JADX WARNING: Missing block: B:7:0x000b, code:
-            r5.mWriteLock.lock();
-     */
-    /* JADX WARNING: Missing block: B:9:?, code:
-            r2 = new java.io.FileOutputStream(r5.mFile.chooseForWrite());
-            r2.write(r1.marshall());
-            r2.flush();
-            android.os.FileUtils.sync(r2);
-            r2.close();
-            r5.mFile.commit();
-     */
-    /* JADX WARNING: Missing block: B:10:0x0038, code:
-            return;
-     */
-    /* JADX WARNING: Missing block: B:14:0x003c, code:
-            r0 = move-exception;
-     */
-    /* JADX WARNING: Missing block: B:16:?, code:
-            android.util.Slog.w("BatteryStats", "Error writing battery statistics", r0);
-            r5.mFile.rollback();
-     */
-    /* JADX WARNING: Missing block: B:18:0x0055, code:
-            r1.recycle();
-            r5.mWriteLock.unlock();
-     */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
+    private void preparePendingWriteLocked() {
+        Parcel out = Parcel.obtain();
+        writeSummaryToParcel(out, true);
+        if (this.mPendingWrite != null) {
+            this.mPendingWrite.recycle();
+        }
+        this.mPendingWrite = out;
+    }
+
     public void commitPendingDataToDisk() {
+        Parcel next;
         synchronized (this) {
-            Parcel next = this.mPendingWrite;
+            next = this.mPendingWrite;
             this.mPendingWrite = null;
             if (next == null) {
+                return;
             }
         }
+        this.mWriteLock.lock();
+        try {
+            FileOutputStream stream = new FileOutputStream(this.mFile.chooseForWrite());
+            stream.write(next.marshall());
+            stream.flush();
+            FileUtils.sync(stream);
+            stream.close();
+            this.mFile.commit();
+        } catch (IOException e) {
+            Slog.w("BatteryStats", "Error writing battery statistics", e);
+            this.mFile.rollback();
+        } finally {
+            next.recycle();
+            this.mWriteLock.unlock();
+        }
     }
 
     public void readLocked() {
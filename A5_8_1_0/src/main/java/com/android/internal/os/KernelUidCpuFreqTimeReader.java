@@ -1,11 +1,13 @@
 package com.android.internal.os;
 
 import android.os.SystemClock;
+import android.util.LongArray;
 import android.util.Slog;
 import android.util.SparseArray;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import com.android.internal.util.ProcFileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import libcore.io.IoUtils;
 
 public class KernelUidCpuFreqTimeReader {
     private static final boolean DEBUG = false;
@@ -14,6 +16,8 @@ public class KernelUidCpuFreqTimeReader {
     private static final String UID_TIMES_PROC_FILE = "/proc/uid_time_in_state";
     private long[] mCpuFreqs;
     private int mCpuFreqsCount;
+    private long[] mCurUidTimeMs;
+    private long[] mDeltaUidTimeMs;
     private long mLastTimeReadMs;
     private SparseArray<long[]> mLastUidCpuFreqTimeMs = new SparseArray();
     private long mNowTimeMs;
@@ -23,72 +27,29 @@ public class KernelUidCpuFreqTimeReader {
     public interface Callback {
         void onCpuFreqs(long[] jArr);
 
+        /**
+         * The array is reused for the next uid and must not be kept.
+         */
         void onUidCpuFreqTime(int i, long[] jArr);
     }
 
-    /* JADX WARNING: Removed duplicated region for block: B:28:0x0060 A:{SYNTHETIC, Splitter: B:28:0x0060} */
-    /* JADX WARNING: Removed duplicated region for block: B:39:0x0073 A:{Catch:{ IOException -> 0x0066 }} */
-    /* JADX WARNING: Removed duplicated region for block: B:31:0x0065 A:{SYNTHETIC, Splitter: B:31:0x0065} */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
     public void readDelta(Callback callback) {
-        IOException e;
-        Throwable th;
-        Throwable th2 = null;
         if (this.mProcFileAvailable || this.mReadErrorCounter < 5) {
-            BufferedReader reader = null;
+            ProcFileReader reader = null;
             try {
-                BufferedReader reader2 = new BufferedReader(new FileReader(UID_TIMES_PROC_FILE));
-                try {
-                    this.mNowTimeMs = SystemClock.elapsedRealtime();
-                    readDelta(reader2, callback);
-                    this.mLastTimeReadMs = this.mNowTimeMs;
-                    this.mProcFileAvailable = true;
-                    if (reader2 != null) {
-                        try {
-                            reader2.close();
-                        } catch (Throwable th3) {
-                            th2 = th3;
-                        }
-                    }
-                    if (th2 != null) {
-                        try {
-                            throw th2;
-                        } catch (IOException e2) {
-                            e = e2;
-                            reader = reader2;
-                        }
-                    }
-                } catch (Throwable th4) {
-                    th = th4;
-                    reader = reader2;
-                    if (reader != null) {
-                        try {
-                            reader.close();
-                        } catch (Throwable th5) {
-                            if (th2 == null) {
-                                th2 = th5;
-                            } else if (th2 != th5) {
-                                th2.addSuppressed(th5);
-                            }
-                        }
-                    }
-                    if (th2 == null) {
-                        try {
-                            throw th2;
-                        } catch (IOException e3) {
-                            e = e3;
-                            this.mReadErrorCounter++;
-                            Slog.e(TAG, "Failed to read /proc/uid_time_in_state: " + e);
-                        }
-                    }
-                    throw th;
-                }
-            } catch (Throwable th6) {
-                th = th6;
-                if (reader != null) {
-                }
-                if (th2 == null) {
-                }
+                reader = new ProcFileReader(new FileInputStream(UID_TIMES_PROC_FILE));
+                this.mNowTimeMs = SystemClock.elapsedRealtime();
+                readDelta(reader, callback);
+                this.mLastTimeReadMs = this.mNowTimeMs;
+                this.mProcFileAvailable = true;
+            } catch (IOException e) {
+                this.mReadErrorCounter++;
+                Slog.e(TAG, "Failed to read /proc/uid_time_in_state: " + e);
+            } catch (NumberFormatException e2) {
+                this.mReadErrorCounter++;
+                Slog.e(TAG, "Failed to parse /proc/uid_time_in_state: " + e2);
+            } finally {
+                IoUtils.closeQuietly(reader);
             }
         }
     }
@@ -106,52 +67,56 @@ public class KernelUidCpuFreqTimeReader {
         }
     }
 
-    public void readDelta(BufferedReader reader, Callback callback) throws IOException {
-        String line = reader.readLine();
-        if (line != null) {
-            readCpuFreqs(line, callback);
-            while (true) {
-                line = reader.readLine();
-                if (line != null) {
-                    int index = line.indexOf(32);
-                    readTimesForUid(Integer.parseInt(line.substring(0, index - 1), 10), line.substring(index + 1, line.length()), callback);
-                } else {
-                    return;
-                }
+    /**
+     * Parses uid_time_in_state straight from its bytes. The frequency header
+     * is only parsed on the first read, and each uid's times are read into
+     * arrays owned by this reader, so a read allocates nothing per uid after
+     * the first time the uid is seen.
+     */
+    public void readDelta(ProcFileReader reader, Callback callback) throws IOException {
+        if (reader.hasMoreData()) {
+            readCpuFreqs(reader, callback);
+            while (reader.hasMoreData()) {
+                readTimesForUid((int) reader.nextLong(true), reader, callback);
             }
         }
     }
 
-    private void readTimesForUid(int uid, String line, Callback callback) {
+    private void readTimesForUid(int uid, ProcFileReader reader, Callback callback) throws IOException {
         long[] uidTimeMs = (long[]) this.mLastUidCpuFreqTimeMs.get(uid);
         if (uidTimeMs == null) {
             uidTimeMs = new long[this.mCpuFreqsCount];
             this.mLastUidCpuFreqTimeMs.put(uid, uidTimeMs);
         }
-        String[] timesStr = line.split(" ");
-        int size = timesStr.length;
+        long[] curUidTimeMs = this.mCurUidTimeMs;
+        int size = 0;
+        while (true) {
+            long value = reader.nextOptionalLong(-1);
+            if (value == -1) {
+                break;
+            }
+            if (size < curUidTimeMs.length) {
+                curUidTimeMs[size] = value;
+            }
+            size++;
+        }
+        reader.finishLine();
         if (size != uidTimeMs.length) {
             Slog.e(TAG, "No. of readings don't match cpu freqs, readings: " + size + " cpuFreqsCount: " + uidTimeMs.length);
             return;
         }
-        long[] deltaUidTimeMs = new long[size];
-        long[] curUidTimeMs = new long[size];
+        long[] deltaUidTimeMs = this.mDeltaUidTimeMs;
         boolean notify = false;
-        int i = 0;
-        while (i < size) {
-            long totalTimeMs = Long.parseLong(timesStr[i], 10) * 10;
+        for (int i = 0; i < size; i++) {
+            long totalTimeMs = curUidTimeMs[i] * 10;
             deltaUidTimeMs[i] = totalTimeMs - uidTimeMs[i];
-            if (deltaUidTimeMs[i] >= 0 && totalTimeMs >= 0) {
-                curUidTimeMs[i] = totalTimeMs;
-                if (notify || deltaUidTimeMs[i] > 0) {
-                    notify = true;
-                } else {
-                    notify = false;
-                }
-                i++;
-            } else {
+            if (deltaUidTimeMs[i] < 0 || totalTimeMs < 0) {
                 return;
             }
+            curUidTimeMs[i] = totalTimeMs;
+            if (deltaUidTimeMs[i] > 0) {
+                notify = true;
+            }
         }
         if (notify) {
             System.arraycopy(curUidTimeMs, 0, uidTimeMs, 0, size);
@@ -161,15 +126,23 @@ public class KernelUidCpuFreqTimeReader {
         }
     }
 
-    private void readCpuFreqs(String line, Callback callback) {
+    private void readCpuFreqs(ProcFileReader reader, Callback callback) throws IOException {
         if (this.mCpuFreqs == null) {
-            String[] freqStr = line.split(" ");
-            this.mCpuFreqsCount = freqStr.length - 1;
-            this.mCpuFreqs = new long[this.mCpuFreqsCount];
-            for (int i = 0; i < this.mCpuFreqsCount; i++) {
-                this.mCpuFreqs[i] = Long.parseLong(freqStr[i + 1], 10);
+            reader.nextString();
+            LongArray freqs = new LongArray();
+            while (true) {
+                long freq = reader.nextOptionalLong(-1);
+                if (freq == -1) {
+                    break;
+                }
+                freqs.add(freq);
             }
+            this.mCpuFreqsCount = freqs.size();
+            this.mCpuFreqs = freqs.toArray();
+            this.mCurUidTimeMs = new long[this.mCpuFreqsCount];
+            this.mDeltaUidTimeMs = new long[this.mCpuFreqsCount];
         }
+        reader.finishLine();
         if (callback != null) {
             callback.onCpuFreqs(this.mCpuFreqs);
         }
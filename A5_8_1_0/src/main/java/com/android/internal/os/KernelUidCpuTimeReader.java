@@ -1,15 +1,15 @@
 package com.android.internal.os;
 
 import android.os.SystemClock;
-import android.text.TextUtils.SimpleStringSplitter;
 import android.util.Slog;
 import android.util.SparseLongArray;
 import android.util.TimeUtils;
 import com.android.internal.content.NativeLibraryHelper;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import com.android.internal.util.ProcFileReader;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import libcore.io.IoUtils;
 
 public class KernelUidCpuTimeReader {
     private static final String TAG = "KernelUidCpuTimeReader";
@@ -23,117 +23,67 @@ public class KernelUidCpuTimeReader {
         void onUidCpuTime(int i, long j, long j2);
     }
 
-    /* JADX WARNING: Removed duplicated region for block: B:32:0x017a A:{SYNTHETIC, Splitter: B:32:0x017a} */
-    /* JADX WARNING: Removed duplicated region for block: B:58:0x01c5 A:{Catch:{ IOException -> 0x0180 }} */
-    /* JADX WARNING: Removed duplicated region for block: B:35:0x017f A:{SYNTHETIC, Splitter: B:35:0x017f} */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
+    /**
+     * Reads the proc file and reports the user and system time each uid has
+     * used since the last call. The file is parsed straight from its bytes
+     * by a ProcFileReader, so no String is created per line or field.
+     */
     public void readDelta(Callback callback) {
-        Throwable th;
         long nowUs = SystemClock.elapsedRealtime() * 1000;
-        Throwable th2 = null;
-        BufferedReader reader = null;
-        IOException e;
+        ProcFileReader reader = null;
         try {
-            BufferedReader reader2 = new BufferedReader(new FileReader(sProcFile));
-            try {
-                SimpleStringSplitter simpleStringSplitter = new SimpleStringSplitter(' ');
-                while (true) {
-                    String line = reader2.readLine();
-                    if (line == null) {
-                        break;
-                    }
-                    simpleStringSplitter.setString(line);
-                    String uidStr = simpleStringSplitter.next();
-                    int uid = Integer.parseInt(uidStr.substring(0, uidStr.length() - 1), 10);
-                    long userTimeUs = Long.parseLong(simpleStringSplitter.next(), 10);
-                    long systemTimeUs = Long.parseLong(simpleStringSplitter.next(), 10);
-                    if (!(callback == null || this.mLastTimeReadUs == 0)) {
-                        long userTimeDeltaUs = userTimeUs;
-                        long systemTimeDeltaUs = systemTimeUs;
-                        int index = this.mLastUserTimeUs.indexOfKey(uid);
-                        if (index >= 0) {
-                            userTimeDeltaUs = userTimeUs - this.mLastUserTimeUs.valueAt(index);
-                            systemTimeDeltaUs = systemTimeUs - this.mLastSystemTimeUs.valueAt(index);
-                            long timeDiffUs = nowUs - this.mLastTimeReadUs;
-                            if (userTimeDeltaUs < 0 || systemTimeDeltaUs < 0) {
-                                StringBuilder sb = new StringBuilder("Malformed cpu data for UID=");
-                                sb.append(uid).append("!\n");
-                                sb.append("Time between reads: ");
-                                TimeUtils.formatDuration(timeDiffUs / 1000, sb);
-                                sb.append("\n");
-                                sb.append("Previous times: u=");
-                                TimeUtils.formatDuration(this.mLastUserTimeUs.valueAt(index) / 1000, sb);
-                                sb.append(" s=");
-                                TimeUtils.formatDuration(this.mLastSystemTimeUs.valueAt(index) / 1000, sb);
-                                sb.append("\nCurrent times: u=");
-                                TimeUtils.formatDuration(userTimeUs / 1000, sb);
-                                sb.append(" s=");
-                                TimeUtils.formatDuration(systemTimeUs / 1000, sb);
-                                sb.append("\nDelta: u=");
-                                TimeUtils.formatDuration(userTimeDeltaUs / 1000, sb);
-                                sb.append(" s=");
-                                TimeUtils.formatDuration(systemTimeDeltaUs / 1000, sb);
-                                Slog.e(TAG, sb.toString());
-                                userTimeDeltaUs = 0;
-                                systemTimeDeltaUs = 0;
-                            }
-                        }
-                        if (!(userTimeDeltaUs == 0 && systemTimeDeltaUs == 0)) {
-                            callback.onUidCpuTime(uid, userTimeDeltaUs, systemTimeDeltaUs);
+            reader = new ProcFileReader(new FileInputStream(sProcFile));
+            while (reader.hasMoreData()) {
+                int uid = (int) reader.nextLong(true);
+                long userTimeUs = reader.nextLong();
+                long systemTimeUs = reader.nextLong();
+                reader.finishLine();
+                if (!(callback == null || this.mLastTimeReadUs == 0)) {
+                    long userTimeDeltaUs = userTimeUs;
+                    long systemTimeDeltaUs = systemTimeUs;
+                    int index = this.mLastUserTimeUs.indexOfKey(uid);
+                    if (index >= 0) {
+                        userTimeDeltaUs = userTimeUs - this.mLastUserTimeUs.valueAt(index);
+                        systemTimeDeltaUs = systemTimeUs - this.mLastSystemTimeUs.valueAt(index);
+                        long timeDiffUs = nowUs - this.mLastTimeReadUs;
+                        if (userTimeDeltaUs < 0 || systemTimeDeltaUs < 0) {
+                            StringBuilder sb = new StringBuilder("Malformed cpu data for UID=");
+                            sb.append(uid).append("!\n");
+                            sb.append("Time between reads: ");
+                            TimeUtils.formatDuration(timeDiffUs / 1000, sb);
+                            sb.append("\n");
+                            sb.append("Previous times: u=");
+                            TimeUtils.formatDuration(this.mLastUserTimeUs.valueAt(index) / 1000, sb);
+                            sb.append(" s=");
+                            TimeUtils.formatDuration(this.mLastSystemTimeUs.valueAt(index) / 1000, sb);
+                            sb.append("\nCurrent times: u=");
+                            TimeUtils.formatDuration(userTimeUs / 1000, sb);
+                            sb.append(" s=");
+                            TimeUtils.formatDuration(systemTimeUs / 1000, sb);
+                            sb.append("\nDelta: u=");
+                            TimeUtils.formatDuration(userTimeDeltaUs / 1000, sb);
+                            sb.append(" s=");
+                            TimeUtils.formatDuration(systemTimeDeltaUs / 1000, sb);
+                            Slog.e(TAG, sb.toString());
+                            userTimeDeltaUs = 0;
+                            systemTimeDeltaUs = 0;
                         }
                     }
-                    this.mLastUserTimeUs.put(uid, userTimeUs);
-                    this.mLastSystemTimeUs.put(uid, systemTimeUs);
-                }
-                if (reader2 != null) {
-                    try {
-                        reader2.close();
-                    } catch (Throwable th3) {
-                        th2 = th3;
-                    }
-                }
-                if (th2 != null) {
-                    try {
-                        throw th2;
-                    } catch (IOException e2) {
-                        e = e2;
+                    if (!(userTimeDeltaUs == 0 && systemTimeDeltaUs == 0)) {
+                        callback.onUidCpuTime(uid, userTimeDeltaUs, systemTimeDeltaUs);
                     }
-                } else {
-                    this.mLastTimeReadUs = nowUs;
-                }
-            } catch (Throwable th4) {
-                th = th4;
-                reader = reader2;
-                if (reader != null) {
-                }
-                if (th2 == null) {
                 }
+                this.mLastUserTimeUs.put(uid, userTimeUs);
+                this.mLastSystemTimeUs.put(uid, systemTimeUs);
             }
+        } catch (IOException e) {
             Slog.e(TAG, "Failed to read uid_cputime: " + e.getMessage());
-            this.mLastTimeReadUs = nowUs;
-        } catch (Throwable th5) {
-            th = th5;
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (Throwable th6) {
-                    if (th2 == null) {
-                        th2 = th6;
-                    } else if (th2 != th6) {
-                        th2.addSuppressed(th6);
-                    }
-                }
-            }
-            if (th2 == null) {
-                try {
-                    throw th2;
-                } catch (IOException e3) {
-                    e = e3;
-                }
-            } else {
-                throw th;
-            }
+        } catch (NumberFormatException e2) {
+            Slog.e(TAG, "Failed to parse uid_cputime: " + e2.getMessage());
+        } finally {
+            IoUtils.closeQuietly(reader);
         }
+        this.mLastTimeReadUs = nowUs;
     }
 
     public void removeUid(int uid) {
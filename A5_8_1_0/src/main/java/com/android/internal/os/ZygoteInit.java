@@ -87,17 +87,25 @@ public class ZygoteInit {
         bootTimingsTraceLog.traceBegin("PreloadResources");
         preloadResources();
         bootTimingsTraceLog.traceEnd();
-        Trace.traceBegin(16384, "PreloadAppProcessHALs");
+        bootTimingsTraceLog.traceBegin("PreloadAppProcessHALs");
         nativePreloadAppProcessHALs();
-        Trace.traceEnd(16384);
-        Trace.traceBegin(16384, "PreloadOpenGL");
+        bootTimingsTraceLog.traceEnd();
+        bootTimingsTraceLog.traceBegin("PreloadOpenGL");
         preloadOpenGL();
-        Trace.traceEnd(16384);
+        bootTimingsTraceLog.traceEnd();
+        bootTimingsTraceLog.traceBegin("PreloadSharedLibraries");
         preloadSharedLibraries();
+        bootTimingsTraceLog.traceEnd();
+        bootTimingsTraceLog.traceBegin("PreloadTextResources");
         preloadTextResources();
+        bootTimingsTraceLog.traceEnd();
+        bootTimingsTraceLog.traceBegin("PrepareWebViewInZygote");
         WebViewFactory.prepareWebViewInZygote();
+        bootTimingsTraceLog.traceEnd();
         endIcuCachePinning();
+        bootTimingsTraceLog.traceBegin("WarmUpJcaProviders");
         warmUpJcaProviders();
+        bootTimingsTraceLog.traceEnd();
         Log.d(TAG, "end preload");
         sPreloadComplete = true;
     }
@@ -182,43 +190,44 @@ public class ZygoteInit {
             }
             float defaultUtilization = runtime.getTargetHeapUtilization();
             runtime.setTargetHeapUtilization(0.8f);
-            String line;
             try {
                 BufferedReader br = new BufferedReader(new InputStreamReader(is), 256);
                 int count = 0;
+                int missing = 0;
                 while (true) {
-                    line = br.readLine();
-                    if (line != null) {
-                        line = line.trim();
-                        if (!(line.startsWith("#") || line.equals(""))) {
-                            Trace.traceBegin(16384, line);
+                    String line = br.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    line = line.trim();
+                    if (!(line.startsWith("#") || line.equals(""))) {
+                        Trace.traceBegin(16384, line);
+                        try {
                             Class.forName(line, true, null);
                             count++;
-                            Trace.traceEnd(16384);
-                        }
-                    } else {
-                        Log.i(TAG, "...preloaded " + count + " classes in " + (SystemClock.uptimeMillis() - startTime) + "ms.");
-                        IoUtils.closeQuietly(is);
-                        runtime.setTargetHeapUtilization(defaultUtilization);
-                        Trace.traceBegin(16384, "PreloadDexCaches");
-                        runtime.preloadDexCaches();
-                        Trace.traceEnd(16384);
-                        if (droppedPriviliges) {
-                            try {
-                                Os.setreuid(0, 0);
-                                Os.setregid(0, 0);
-                            } catch (ErrnoException ex2) {
-                                throw new RuntimeException("Failed to restore root", ex2);
+                        } catch (ClassNotFoundException e) {
+                            Log.w(TAG, "Class not found for preloading: " + line);
+                            missing++;
+                        } catch (UnsatisfiedLinkError e2) {
+                            Log.w(TAG, "Problem preloading " + line + ": " + e2);
+                            missing++;
+                        } catch (Throwable t) {
+                            Log.e(TAG, "Error preloading " + line + ".", t);
+                            if (t instanceof Error) {
+                                throw ((Error) t);
+                            } else if (t instanceof RuntimeException) {
+                                throw ((RuntimeException) t);
+                            } else {
+                                throw new RuntimeException(t);
                             }
                         }
+                        Trace.traceEnd(16384);
                     }
                 }
-            } catch (ClassNotFoundException e) {
-                Log.w(TAG, "Class not found for preloading: " + line);
-            } catch (UnsatisfiedLinkError e2) {
-                Log.w(TAG, "Problem preloading " + line + ": " + e2);
+                Log.i(TAG, "...preloaded " + count + " classes in " + (SystemClock.uptimeMillis() - startTime) + "ms, " + missing + " failed.");
             } catch (IOException e3) {
                 Log.e(TAG, "Error reading /system/etc/preloaded-classes.", e3);
+            } finally {
                 IoUtils.closeQuietly(is);
                 runtime.setTargetHeapUtilization(defaultUtilization);
                 Trace.traceBegin(16384, "PreloadDexCaches");
@@ -228,22 +237,8 @@ public class ZygoteInit {
                     try {
                         Os.setreuid(0, 0);
                         Os.setregid(0, 0);
-                    } catch (ErrnoException ex22) {
-                        throw new RuntimeException("Failed to restore root", ex22);
-                    }
-                }
-            } catch (Throwable th) {
-                IoUtils.closeQuietly(is);
-                runtime.setTargetHeapUtilization(defaultUtilization);
-                Trace.traceBegin(16384, "PreloadDexCaches");
-                runtime.preloadDexCaches();
-                Trace.traceEnd(16384);
-                if (droppedPriviliges) {
-                    try {
-                        Os.setreuid(0, 0);
-                        Os.setregid(0, 0);
-                    } catch (ErrnoException ex222) {
-                        throw new RuntimeException("Failed to restore root", ex222);
+                    } catch (ErrnoException ex2) {
+                        throw new RuntimeException("Failed to restore root", ex2);
                     }
                 }
             }
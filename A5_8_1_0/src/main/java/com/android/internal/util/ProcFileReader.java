@@ -96,9 +96,19 @@ public class ProcFileReader implements Closeable {
     }
 
     public long nextLong() throws IOException {
+        return nextLong(false);
+    }
+
+    /**
+     * Parses and returns the next token as a base-10 long. If stopAtInvalid
+     * is true, parsing stops at the first character that is not a digit and
+     * the value parsed so far is returned, so a token like "1000:" reads as
+     * 1000.
+     */
+    public long nextLong(boolean stopAtInvalid) throws IOException {
         int tokenIndex = nextTokenIndex();
         if (tokenIndex != -1) {
-            return parseAndConsumeLong(tokenIndex);
+            return parseAndConsumeLong(tokenIndex, stopAtInvalid);
         }
         throw new ProtocolException("Missing required long");
     }
@@ -108,7 +118,7 @@ public class ProcFileReader implements Closeable {
         if (tokenIndex == -1) {
             return def;
         }
-        return parseAndConsumeLong(tokenIndex);
+        return parseAndConsumeLong(tokenIndex, false);
     }
 
     private String parseAndConsumeString(int tokenIndex) throws IOException {
@@ -117,13 +127,16 @@ public class ProcFileReader implements Closeable {
         return s;
     }
 
-    private long parseAndConsumeLong(int tokenIndex) throws IOException {
+    private long parseAndConsumeLong(int tokenIndex, boolean stopAtInvalid) throws IOException {
         boolean negative = this.mBuffer[0] == (byte) 45;
         long result = 0;
         int i = negative ? 1 : 0;
         while (i < tokenIndex) {
             int digit = this.mBuffer[i] - 48;
             if (digit < 0 || digit > 9) {
+                if (stopAtInvalid) {
+                    break;
+                }
                 throw invalidLong(tokenIndex);
             }
             long next = (10 * result) - ((long) digit);
@@ -9,7 +9,10 @@ import com.android.okhttp.internal.io.RealConnection;
 import java.lang.ref.Reference;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Executor;
@@ -17,17 +20,40 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps idle HTTP/1.x connections and multiplexed SPDY/HTTP/2 connections
+ * for reuse. Connections are indexed by {@link Address} so a lookup only
+ * looks at the connections that could serve it, and a multiplexed
+ * connection with free stream capacity is preferred over an idle HTTP/1.x
+ * one. The pool's monitor also guards the allocation state of every
+ * {@link StreamAllocation} using it.
+ */
 public final class ConnectionPool {
     /* renamed from: -assertionsDisabled */
     static final /* synthetic */ boolean f1-assertionsDisabled = (ConnectionPool.class.desiredAssertionStatus() ^ 1);
     private static final long DEFAULT_KEEP_ALIVE_DURATION_MS = 300000;
+    private static final Comparator<RealConnection> IDLE_ORDER = new Comparator<RealConnection>() {
+        public int compare(RealConnection a, RealConnection b) {
+            if (a.idleAtNanos < b.idleAtNanos) {
+                return -1;
+            }
+            return a.idleAtNanos > b.idleAtNanos ? 1 : 0;
+        }
+    };
     private static final ConnectionPool systemDefault;
+    private long acquireCount;
+    private long acquireNanos;
     private Runnable cleanupRunnable;
     private final Deque<RealConnection> connections;
+    private final HashMap<Address, ArrayDeque<RealConnection>> connectionsByAddress;
+    private long evictedConnectionCount;
     private final Executor executor;
+    private long hitCount;
     private final long keepAliveDurationNs;
     private TcmIdleTimerMonitor mIdleMonitor;
     private int maxIdleConnections;
+    private long missCount;
+    private long openedConnectionCount;
     final RouteDatabase routeDatabase;
 
     static {
@@ -77,6 +103,7 @@ public final class ConnectionPool {
             }
         };
         this.connections = new ArrayDeque();
+        this.connectionsByAddress = new HashMap();
         this.routeDatabase = new RouteDatabase();
         this.maxIdleConnections = maxIdleConnections;
         this.keepAliveDurationNs = timeUnit.toNanos(keepAliveDuration);
@@ -125,15 +152,86 @@ public final class ConnectionPool {
         return this.connections.size() - getMultiplexedConnectionCount();
     }
 
+    /**
+     * Returns the number of times a stream found a pooled connection to
+     * reuse. Together with {@link #getMissCount} this gives the reuse rate.
+     */
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of times no pooled connection could take a new
+     * stream and a new connection had to be opened.
+     */
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of connections added to the pool. With
+     * {@link #getEvictedConnectionCount} this measures connection churn.
+     */
+    public synchronized long getOpenedConnectionCount() {
+        return this.openedConnectionCount;
+    }
+
+    /**
+     * Returns the number of connections the pool closed or dropped because
+     * they were idle too long, over the idle limit, or unusable.
+     */
+    public synchronized long getEvictedConnectionCount() {
+        return this.evictedConnectionCount;
+    }
+
+    /**
+     * Returns the number of streams that acquired a connection from this
+     * pool, pooled or newly opened.
+     */
+    public synchronized long getAcquireCount() {
+        return this.acquireCount;
+    }
+
+    /**
+     * Returns the total time streams waited for a connection, including
+     * connecting when none could be reused, in nanoseconds.
+     */
+    public synchronized long getAcquireTimeNanos() {
+        return this.acquireNanos;
+    }
+
+    void connectionAcquired(long waitNanos) {
+        if (f1-assertionsDisabled || Thread.holdsLock(this)) {
+            this.acquireCount++;
+            this.acquireNanos += waitNanos;
+            return;
+        }
+        throw new AssertionError();
+    }
+
     RealConnection get(Address address, StreamAllocation streamAllocation) {
         if (f1-assertionsDisabled || Thread.holdsLock(this)) {
-            for (RealConnection connection : this.connections) {
-                if (connection.allocations.size() < connection.allocationLimit() && address.equals(connection.getRoute().address) && (connection.noNewStreams ^ 1) != 0) {
-                    streamAllocation.acquire(connection);
-                    return connection;
+            RealConnection best = null;
+            ArrayDeque<RealConnection> candidates = (ArrayDeque) this.connectionsByAddress.get(address);
+            if (candidates != null) {
+                int bestFreeStreams = 0;
+                for (RealConnection connection : candidates) {
+                    if (!connection.noNewStreams) {
+                        int freeStreams = connection.allocationLimit() - connection.allocations.size();
+                        if (freeStreams > bestFreeStreams) {
+                            best = connection;
+                            bestFreeStreams = freeStreams;
+                        }
+                    }
                 }
             }
-            return null;
+            if (best == null) {
+                this.missCount++;
+                return null;
+            }
+            this.hitCount++;
+            streamAllocation.acquire(best);
+            return best;
         }
         throw new AssertionError();
     }
@@ -144,16 +242,36 @@ public final class ConnectionPool {
                 this.executor.execute(this.cleanupRunnable);
             }
             this.connections.add(connection);
+            Address address = connection.getRoute().address;
+            ArrayDeque<RealConnection> candidates = (ArrayDeque) this.connectionsByAddress.get(address);
+            if (candidates == null) {
+                candidates = new ArrayDeque();
+                this.connectionsByAddress.put(address, candidates);
+            }
+            candidates.add(connection);
+            this.openedConnectionCount++;
             return;
         }
         throw new AssertionError();
     }
 
+    private void remove(RealConnection connection) {
+        Address address = connection.getRoute().address;
+        ArrayDeque<RealConnection> candidates = (ArrayDeque) this.connectionsByAddress.get(address);
+        if (candidates != null && candidates.remove(connection)) {
+            if (candidates.isEmpty()) {
+                this.connectionsByAddress.remove(address);
+            }
+            this.evictedConnectionCount++;
+        }
+    }
+
     boolean connectionBecameIdle(RealConnection connection) {
         if (!f1-assertionsDisabled && !Thread.holdsLock(this)) {
             throw new AssertionError();
         } else if (connection.noNewStreams || this.maxIdleConnections == 0) {
             this.connections.remove(connection);
+            remove(connection);
             return true;
         } else {
             notifyAll();
@@ -171,6 +289,7 @@ public final class ConnectionPool {
                     connection.noNewStreams = true;
                     evictedConnections.add(connection);
                     i.remove();
+                    remove(connection);
                 }
             }
         }
@@ -180,39 +299,51 @@ public final class ConnectionPool {
         }
     }
 
+    /**
+     * Closes every connection that has been idle longer than the keep-alive
+     * duration, then the longest idle ones until at most maxIdleConnections
+     * remain, in a single pass. Returns the time until the next connection
+     * could expire, or -1 if the pool is empty.
+     */
     long cleanup(long now) {
-        int inUseConnectionCount = 0;
-        int idleConnectionCount = 0;
-        RealConnection longestIdleConnection = null;
-        long longestIdleDurationNs = Long.MIN_VALUE;
+        List<RealConnection> evictedConnections = new ArrayList();
+        long waitNanos;
         synchronized (this) {
+            int inUseConnectionCount = 0;
+            List<RealConnection> idleConnections = new ArrayList();
             for (RealConnection connection : this.connections) {
                 if (pruneAndGetAllocationCount(connection, now) > 0) {
                     inUseConnectionCount++;
                 } else {
-                    idleConnectionCount++;
-                    long idleDurationNs = now - connection.idleAtNanos;
-                    if (idleDurationNs > longestIdleDurationNs) {
-                        longestIdleDurationNs = idleDurationNs;
-                        longestIdleConnection = connection;
-                    }
+                    idleConnections.add(connection);
                 }
             }
-            long j;
-            if (longestIdleDurationNs >= this.keepAliveDurationNs || idleConnectionCount > this.maxIdleConnections) {
-                this.connections.remove(longestIdleConnection);
-                Util.closeQuietly(longestIdleConnection.getSocket());
-                return 0;
-            } else if (idleConnectionCount > 0) {
-                j = this.keepAliveDurationNs - longestIdleDurationNs;
-                return j;
+            Collections.sort(idleConnections, IDLE_ORDER);
+            int evictCount = Math.max(0, idleConnections.size() - this.maxIdleConnections);
+            long longestIdleDurationNs = Long.MIN_VALUE;
+            for (int i = 0; i < idleConnections.size(); i++) {
+                RealConnection connection = (RealConnection) idleConnections.get(i);
+                long idleDurationNs = now - connection.idleAtNanos;
+                if (i < evictCount || idleDurationNs >= this.keepAliveDurationNs) {
+                    this.connections.remove(connection);
+                    remove(connection);
+                    evictedConnections.add(connection);
+                } else if (idleDurationNs > longestIdleDurationNs) {
+                    longestIdleDurationNs = idleDurationNs;
+                }
+            }
+            if (longestIdleDurationNs != Long.MIN_VALUE) {
+                waitNanos = this.keepAliveDurationNs - longestIdleDurationNs;
             } else if (inUseConnectionCount > 0) {
-                j = this.keepAliveDurationNs;
-                return j;
+                waitNanos = this.keepAliveDurationNs;
             } else {
-                return -1;
+                waitNanos = -1;
             }
         }
+        for (int i = 0; i < evictedConnections.size(); i++) {
+            Util.closeQuietly(((RealConnection) evictedConnections.get(i)).getSocket());
+        }
+        return waitNanos;
     }
 
     private int pruneAndGetAllocationCount(RealConnection connection, long now) {
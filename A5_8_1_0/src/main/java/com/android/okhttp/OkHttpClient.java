@@ -71,6 +71,10 @@ public class OkHttpClient implements Cloneable {
                 return client.internalCache();
             }
 
+            public void connectionAcquired(ConnectionPool pool, long waitNanos) {
+                pool.connectionAcquired(waitNanos);
+            }
+
             public boolean connectionBecameIdle(ConnectionPool pool, RealConnection connection) {
                 return pool.connectionBecameIdle(connection);
             }
@@ -3,6 +3,7 @@ package com.android.okhttp.internal;
 import com.android.okhttp.internal.io.FileSystem;
 import com.android.okhttp.okio.Buffer;
 import com.android.okhttp.okio.BufferedSink;
+import com.android.okhttp.okio.BufferedSource;
 import com.android.okhttp.okio.Okio;
 import com.android.okhttp.okio.Sink;
 import com.android.okhttp.okio.Source;
@@ -23,12 +24,27 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+/**
+ * A cache that uses a bounded amount of space on a filesystem, with one
+ * file per entry value and a text journal of every operation.
+ *
+ * Replaying a long journal on startup is slow, so when the journal is
+ * rebuilt and when the cache is closed the in-memory entries are also
+ * written to a binary index, together with the journal length they
+ * reflect. On startup the index is loaded and only the journal lines
+ * appended after that length are replayed. The journal stays the source
+ * of truth: the index is deleted before the journal is replaced, and a
+ * missing or unusable index just means the whole journal is replayed.
+ */
 public final class DiskLruCache implements Closeable {
     /* renamed from: -assertionsDisabled */
     static final /* synthetic */ boolean f2-assertionsDisabled = (DiskLruCache.class.desiredAssertionStatus() ^ 1);
     static final long ANY_SEQUENCE_NUMBER = -1;
     private static final String CLEAN = "CLEAN";
     private static final String DIRTY = "DIRTY";
+    static final String INDEX_FILE = "journal.idx";
+    static final String INDEX_FILE_TEMP = "journal.idx.tmp";
+    static final int INDEX_MAGIC = 0x444c4349;
     static final String JOURNAL_FILE = "journal";
     static final String JOURNAL_FILE_BACKUP = "journal.bkp";
     static final String JOURNAL_FILE_TEMP = "journal.tmp";
@@ -80,6 +96,8 @@ public final class DiskLruCache implements Closeable {
     private final Executor executor;
     private final FileSystem fileSystem;
     private boolean hasJournalErrors;
+    private final File indexFile;
+    private final File indexFileTmp;
     private boolean initialized;
     private final File journalFile;
     private final File journalFileBackup;
@@ -326,6 +344,8 @@ public final class DiskLruCache implements Closeable {
         this.journalFile = new File(directory, JOURNAL_FILE);
         this.journalFileTmp = new File(directory, JOURNAL_FILE_TEMP);
         this.journalFileBackup = new File(directory, JOURNAL_FILE_BACKUP);
+        this.indexFile = new File(directory, INDEX_FILE);
+        this.indexFileTmp = new File(directory, INDEX_FILE_TEMP);
         this.valueCount = valueCount;
         this.maxSize = maxSize;
         this.executor = executor;
@@ -370,33 +390,125 @@ public final class DiskLruCache implements Closeable {
     }
 
     private void readJournal() throws IOException {
-        Closeable source = Okio.buffer(this.fileSystem.source(this.journalFile));
-        int lineCount;
+        BufferedSource source = Okio.buffer(this.fileSystem.source(this.journalFile));
         try {
             String magic = source.readUtf8LineStrict();
             String version = source.readUtf8LineStrict();
             String appVersionString = source.readUtf8LineStrict();
             String valueCountString = source.readUtf8LineStrict();
             String blank = source.readUtf8LineStrict();
-            if (MAGIC.equals(magic) && (VERSION_1.equals(version) ^ 1) == 0 && (Integer.toString(this.appVersion).equals(appVersionString) ^ 1) == 0 && (Integer.toString(this.valueCount).equals(valueCountString) ^ 1) == 0 && ("".equals(blank) ^ 1) == 0) {
-                lineCount = 0;
+            if (MAGIC.equals(magic) && VERSION_1.equals(version) && Integer.toString(this.appVersion).equals(appVersionString) && Integer.toString(this.valueCount).equals(valueCountString) && "".equals(blank)) {
+                long headerLength = (long) ((((magic.length() + version.length()) + appVersionString.length()) + valueCountString.length()) + 5);
+                int lineCount = readIndex(source, headerLength);
                 while (true) {
-                    readJournalLine(source.readUtf8LineStrict());
-                    lineCount++;
+                    try {
+                        readJournalLine(source.readUtf8LineStrict());
+                        lineCount++;
+                    } catch (EOFException e) {
+                        this.redundantOpCount = lineCount - this.lruEntries.size();
+                        if (source.exhausted()) {
+                            this.journalWriter = newJournalWriter();
+                        } else {
+                            rebuildJournal();
+                        }
+                        return;
+                    }
                 }
-            } else {
-                throw new IOException("unexpected journal header: [" + magic + ", " + version + ", " + valueCountString + ", " + blank + "]");
-            }
-        } catch (EOFException e) {
-            this.redundantOpCount = lineCount - this.lruEntries.size();
-            if (source.exhausted()) {
-                this.journalWriter = newJournalWriter();
-            } else {
-                rebuildJournal();
             }
+            throw new IOException("unexpected journal header: [" + magic + ", " + version + ", " + valueCountString + ", " + blank + "]");
+        } finally {
             Util.closeQuietly(source);
-        } catch (Throwable th) {
-            Util.closeQuietly(source);
+        }
+    }
+
+    /**
+     * Loads the entries from the index if it matches the journal and skips
+     * {@code journal}, positioned after its header, past the lines the
+     * index already reflects. Returns the number of journal lines skipped,
+     * or 0 if the whole journal has to be replayed.
+     */
+    private int readIndex(BufferedSource journal, long headerLength) throws IOException {
+        if (!this.fileSystem.exists(this.indexFile)) {
+            return 0;
+        }
+        BufferedSource index = null;
+        long journalLength;
+        int lineCount;
+        try {
+            index = Okio.buffer(this.fileSystem.source(this.indexFile));
+            if (index.readInt() != INDEX_MAGIC || index.readInt() != this.appVersion || index.readInt() != this.valueCount) {
+                return 0;
+            }
+            journalLength = index.readLong();
+            lineCount = index.readInt();
+            int entryCount = index.readInt();
+            if (journalLength < headerLength || journalLength > this.fileSystem.size(this.journalFile)) {
+                return 0;
+            }
+            for (int i = 0; i < entryCount; i++) {
+                boolean dirty = index.readByte() != (byte) 0;
+                String key = index.readUtf8((long) (index.readByte() & 255));
+                Entry entry = new Entry(this, key, null);
+                if (dirty) {
+                    entry.currentEditor = new Editor(this, entry, null);
+                } else {
+                    entry.readable = true;
+                    for (int t = 0; t < this.valueCount; t++) {
+                        entry.lengths[t] = index.readLong();
+                    }
+                }
+                this.lruEntries.put(key, entry);
+            }
+            if (index.readInt() != INDEX_MAGIC) {
+                this.lruEntries.clear();
+                return 0;
+            }
+        } catch (IOException e) {
+            this.lruEntries.clear();
+            return 0;
+        } finally {
+            Util.closeQuietly(index);
+        }
+        journal.skip(journalLength - headerLength);
+        return lineCount;
+    }
+
+    /**
+     * Writes the current entries to the index as the state after the first
+     * {@code journalLength} bytes, {@code lineCount} lines, of the journal.
+     * The index is only an accelerator, so failures just leave no index.
+     */
+    private void writeIndex(long journalLength, int lineCount) {
+        try {
+            BufferedSink writer = Okio.buffer(this.fileSystem.sink(this.indexFileTmp));
+            try {
+                writer.writeInt(INDEX_MAGIC);
+                writer.writeInt(this.appVersion);
+                writer.writeInt(this.valueCount);
+                writer.writeLong(journalLength);
+                writer.writeInt(lineCount);
+                writer.writeInt(this.lruEntries.size());
+                for (Entry entry : this.lruEntries.values()) {
+                    writer.writeByte(entry.currentEditor != null ? 1 : 0);
+                    writer.writeByte(entry.key.length());
+                    writer.writeUtf8(entry.key);
+                    if (entry.currentEditor == null) {
+                        for (long length : entry.lengths) {
+                            writer.writeLong(length);
+                        }
+                    }
+                }
+                writer.writeInt(INDEX_MAGIC);
+            } finally {
+                writer.close();
+            }
+            this.fileSystem.rename(this.indexFileTmp, this.indexFile);
+        } catch (IOException e) {
+            try {
+                this.fileSystem.delete(this.indexFileTmp);
+                this.fileSystem.delete(this.indexFile);
+            } catch (IOException e2) {
+            }
         }
     }
 
@@ -493,6 +605,7 @@ public final class DiskLruCache implements Closeable {
                 }
             }
             writer.close();
+            this.fileSystem.delete(this.indexFile);
             if (this.fileSystem.exists(this.journalFile)) {
                 this.fileSystem.rename(this.journalFile, this.journalFileBackup);
             }
@@ -500,6 +613,7 @@ public final class DiskLruCache implements Closeable {
             this.fileSystem.delete(this.journalFileBackup);
             this.journalWriter = newJournalWriter();
             this.hasJournalErrors = f2-assertionsDisabled;
+            writeIndex(this.fileSystem.size(this.journalFile), this.lruEntries.size());
         } catch (Throwable th) {
             writer.close();
         }
@@ -715,6 +829,9 @@ public final class DiskLruCache implements Closeable {
         trimToSize();
         this.journalWriter.close();
         this.journalWriter = null;
+        if (!this.hasJournalErrors) {
+            writeIndex(this.fileSystem.size(this.journalFile), this.redundantOpCount + this.lruEntries.size());
+        }
         this.closed = true;
     }
 
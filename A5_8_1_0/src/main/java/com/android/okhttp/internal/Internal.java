@@ -29,6 +29,8 @@ public abstract class Internal {
 
     public abstract void callEnqueue(Call call, Callback callback, boolean z);
 
+    public abstract void connectionAcquired(ConnectionPool connectionPool, long j);
+
     public abstract boolean connectionBecameIdle(ConnectionPool connectionPool, RealConnection realConnection);
 
     public abstract RealConnection get(ConnectionPool connectionPool, Address address, StreamAllocation streamAllocation);
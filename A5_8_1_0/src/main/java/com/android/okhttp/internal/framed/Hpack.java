@@ -7,20 +7,23 @@ import com.android.okhttp.okio.Okio;
 import com.android.okhttp.okio.Source;
 import com.squareup.okhttp.internal.framed.Header;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 final class Hpack {
-    private static final Map<ByteString, Integer> NAME_TO_FIRST_INDEX = nameToFirstIndex();
     private static final int PREFIX_4_BITS = 15;
     private static final int PREFIX_5_BITS = 31;
     private static final int PREFIX_6_BITS = 63;
     private static final int PREFIX_7_BITS = 127;
     private static final Header[] STATIC_HEADER_TABLE = new Header[]{new Header(Header.TARGET_AUTHORITY, ""), new Header(Header.TARGET_METHOD, "GET"), new Header(Header.TARGET_METHOD, "POST"), new Header(Header.TARGET_PATH, "/"), new Header(Header.TARGET_PATH, "/index.html"), new Header(Header.TARGET_SCHEME, "http"), new Header(Header.TARGET_SCHEME, "https"), new Header(Header.RESPONSE_STATUS, "200"), new Header(Header.RESPONSE_STATUS, "204"), new Header(Header.RESPONSE_STATUS, "206"), new Header(Header.RESPONSE_STATUS, "304"), new Header(Header.RESPONSE_STATUS, "400"), new Header(Header.RESPONSE_STATUS, "404"), new Header(Header.RESPONSE_STATUS, "500"), new Header("accept-charset", ""), new Header("accept-encoding", "gzip, deflate"), new Header("accept-language", ""), new Header("accept-ranges", ""), new Header("accept", ""), new Header("access-control-allow-origin", ""), new Header("age", ""), new Header("allow", ""), new Header("authorization", ""), new Header("cache-control", ""), new Header("content-disposition", ""), new Header("content-encoding", ""), new Header("content-language", ""), new Header("content-length", ""), new Header("content-location", ""), new Header("content-range", ""), new Header("content-type", ""), new Header("cookie", ""), new Header("date", ""), new Header("etag", ""), new Header("expect", ""), new Header("expires", ""), new Header("from", ""), new Header("host", ""), new Header("if-match", ""), new Header("if-modified-since", ""), new Header("if-none-match", ""), new Header("if-range", ""), new Header("if-unmodified-since", ""), new Header("last-modified", ""), new Header("link", ""), new Header("location", ""), new Header("max-forwards", ""), new Header("proxy-authenticate", ""), new Header("proxy-authorization", ""), new Header("range", ""), new Header("referer", ""), new Header("refresh", ""), new Header("retry-after", ""), new Header("server", ""), new Header("set-cookie", ""), new Header("strict-transport-security", ""), new Header("transfer-encoding", ""), new Header("user-agent", ""), new Header("vary", ""), new Header("via", ""), new Header("www-authenticate", "")};
+    private static final Map<Header, Integer> HEADER_TO_STATIC_INDEX = headerToStaticIndex();
+    private static final Map<ByteString, Integer> NAME_TO_FIRST_INDEX = nameToFirstIndex();
 
     static final class Reader {
         Header[] dynamicTable = new Header[8];
@@ -28,6 +31,7 @@ final class Hpack {
         int headerCount = 0;
         private final List<Header> headerList = new ArrayList();
         private int headerTableSizeSetting;
+        private final Buffer huffmanBuffer = new Buffer();
         private int maxDynamicTableByteCount;
         int nextHeaderIndex = (this.dynamicTable.length - 1);
         private final BufferedSource source;
@@ -60,7 +64,6 @@ final class Hpack {
         }
 
         private void clearDynamicTable() {
-            this.headerList.clear();
             Arrays.fill(this.dynamicTable, null);
             this.nextHeaderIndex = this.dynamicTable.length - 1;
             this.headerCount = 0;
@@ -210,31 +213,159 @@ final class Hpack {
             boolean huffmanDecode = (firstByte & 128) == 128;
             int length = readInt(firstByte, Hpack.PREFIX_7_BITS);
             if (huffmanDecode) {
-                return ByteString.of(Huffman.get().decode(this.source.readByteArray((long) length)));
+                Huffman.get().decode(this.source, (long) length, this.huffmanBuffer);
+                return this.huffmanBuffer.readByteString();
             }
             return this.source.readByteString((long) length);
         }
     }
 
+    /**
+     * Encodes header blocks using the static table, a dynamic table of the
+     * headers sent so far and Huffman coding when it is shorter.
+     *
+     * The dynamic table is indexed by header and by name, each mapped to
+     * the insertion number of its newest entry, so finding a match is a
+     * hash lookup instead of a table scan. An entry's HPACK index follows
+     * from how many entries were inserted after it.
+     */
     static final class Writer {
+        private static final int SETTINGS_HEADER_TABLE_SIZE = 4096;
+        private final ArrayDeque<Header> dynamicTable = new ArrayDeque();
+        int dynamicTableByteCount = 0;
+        private boolean emitDynamicTableSizeUpdate;
+        private long evictedCount = 0;
+        private final HashMap<Header, Long> headerToInsertion = new HashMap();
+        private long insertedCount = 0;
+        int maxDynamicTableByteCount = SETTINGS_HEADER_TABLE_SIZE;
+        private final HashMap<ByteString, Long> nameToInsertion = new HashMap();
         private final Buffer out;
+        private int smallestHeaderTableSizeSetting = Integer.MAX_VALUE;
 
         Writer(Buffer out) {
             this.out = out;
         }
 
+        /**
+         * Applies the peer's SETTINGS_HEADER_TABLE_SIZE. The table never
+         * grows past the default size; a change is announced with a dynamic
+         * table size update at the start of the next header block.
+         */
+        void setHeaderTableSizeSetting(int headerTableSizeSetting) {
+            int effectiveHeaderTableSize = Math.min(headerTableSizeSetting, SETTINGS_HEADER_TABLE_SIZE);
+            if (this.maxDynamicTableByteCount != effectiveHeaderTableSize) {
+                if (effectiveHeaderTableSize < this.maxDynamicTableByteCount) {
+                    this.smallestHeaderTableSizeSetting = Math.min(this.smallestHeaderTableSizeSetting, effectiveHeaderTableSize);
+                }
+                this.emitDynamicTableSizeUpdate = true;
+                this.maxDynamicTableByteCount = effectiveHeaderTableSize;
+                if (this.maxDynamicTableByteCount == 0) {
+                    clearDynamicTable();
+                } else if (this.dynamicTableByteCount > this.maxDynamicTableByteCount) {
+                    evictToRecoverBytes(this.dynamicTableByteCount - this.maxDynamicTableByteCount);
+                }
+            }
+        }
+
+        private void clearDynamicTable() {
+            this.dynamicTable.clear();
+            this.headerToInsertion.clear();
+            this.nameToInsertion.clear();
+            this.evictedCount = this.insertedCount;
+            this.dynamicTableByteCount = 0;
+        }
+
+        private void evictToRecoverBytes(int bytesToRecover) {
+            while (bytesToRecover > 0 && !this.dynamicTable.isEmpty()) {
+                Header evicted = (Header) this.dynamicTable.removeFirst();
+                long insertion = this.evictedCount;
+                this.evictedCount = 1 + insertion;
+                bytesToRecover -= evicted.hpackSize;
+                this.dynamicTableByteCount -= evicted.hpackSize;
+                Long newest = (Long) this.headerToInsertion.get(evicted);
+                if (newest != null && newest.longValue() == insertion) {
+                    this.headerToInsertion.remove(evicted);
+                }
+                newest = (Long) this.nameToInsertion.get(evicted.name);
+                if (newest != null && newest.longValue() == insertion) {
+                    this.nameToInsertion.remove(evicted.name);
+                }
+            }
+        }
+
+        private void insertIntoDynamicTable(Header entry) {
+            int delta = entry.hpackSize;
+            if (delta > this.maxDynamicTableByteCount) {
+                clearDynamicTable();
+                return;
+            }
+            evictToRecoverBytes((this.dynamicTableByteCount + delta) - this.maxDynamicTableByteCount);
+            this.dynamicTable.addLast(entry);
+            long insertion = this.insertedCount;
+            this.insertedCount = 1 + insertion;
+            Long boxed = Long.valueOf(insertion);
+            this.headerToInsertion.put(entry, boxed);
+            this.nameToInsertion.put(entry.name, boxed);
+            this.dynamicTableByteCount += delta;
+        }
+
+        private int dynamicTableIndex(long insertion) {
+            return Hpack.STATIC_HEADER_TABLE.length + ((int) (this.insertedCount - insertion));
+        }
+
         void writeHeaders(List<Header> headerBlock) throws IOException {
+            if (this.emitDynamicTableSizeUpdate) {
+                if (this.smallestHeaderTableSizeSetting < this.maxDynamicTableByteCount) {
+                    writeInt(this.smallestHeaderTableSizeSetting, Hpack.PREFIX_5_BITS, 32);
+                }
+                this.emitDynamicTableSizeUpdate = false;
+                this.smallestHeaderTableSizeSetting = Integer.MAX_VALUE;
+                writeInt(this.maxDynamicTableByteCount, Hpack.PREFIX_5_BITS, 32);
+            }
             int size = headerBlock.size();
             for (int i = 0; i < size; i++) {
-                ByteString name = ((Header) headerBlock.get(i)).name.toAsciiLowercase();
-                Integer staticIndex = (Integer) Hpack.NAME_TO_FIRST_INDEX.get(name);
+                Header header = (Header) headerBlock.get(i);
+                ByteString name = header.name.toAsciiLowercase();
+                if (name != header.name) {
+                    header = new Header(name, header.value);
+                }
+                Integer staticIndex = (Integer) Hpack.HEADER_TO_STATIC_INDEX.get(header);
                 if (staticIndex != null) {
-                    writeInt(staticIndex.intValue() + 1, Hpack.PREFIX_4_BITS, 0);
-                    writeByteString(((Header) headerBlock.get(i)).value);
+                    writeInt(staticIndex.intValue() + 1, Hpack.PREFIX_7_BITS, 128);
                 } else {
-                    this.out.writeByte(0);
-                    writeByteString(name);
-                    writeByteString(((Header) headerBlock.get(i)).value);
+                    Long insertion = (Long) this.headerToInsertion.get(header);
+                    if (insertion != null) {
+                        writeInt(dynamicTableIndex(insertion.longValue()), Hpack.PREFIX_7_BITS, 128);
+                    } else {
+                        int nameIndex = -1;
+                        staticIndex = (Integer) Hpack.NAME_TO_FIRST_INDEX.get(name);
+                        if (staticIndex != null) {
+                            nameIndex = staticIndex.intValue() + 1;
+                        } else {
+                            insertion = (Long) this.nameToInsertion.get(name);
+                            if (insertion != null) {
+                                nameIndex = dynamicTableIndex(insertion.longValue());
+                            }
+                        }
+                        if (name.size() > 0 && name.getByte(0) == (byte) 58 && !Header.TARGET_AUTHORITY.equals(name)) {
+                            if (nameIndex == -1) {
+                                this.out.writeByte(0);
+                                writeByteString(name);
+                            } else {
+                                writeInt(nameIndex, Hpack.PREFIX_4_BITS, 0);
+                            }
+                            writeByteString(header.value);
+                        } else {
+                            if (nameIndex == -1) {
+                                this.out.writeByte(64);
+                                writeByteString(name);
+                            } else {
+                                writeInt(nameIndex, Hpack.PREFIX_6_BITS, 64);
+                            }
+                            writeByteString(header.value);
+                            insertIntoDynamicTable(header);
+                        }
+                    }
                 }
             }
         }
@@ -254,6 +385,12 @@ final class Hpack {
         }
 
         void writeByteString(ByteString data) throws IOException {
+            int huffmanLength = Huffman.get().encodedLength(data);
+            if (huffmanLength < data.size()) {
+                writeInt(huffmanLength, Hpack.PREFIX_7_BITS, 128);
+                Huffman.get().encode(data, this.out);
+                return;
+            }
             writeInt(data.size(), Hpack.PREFIX_7_BITS, 0);
             this.out.write(data);
         }
@@ -262,6 +399,16 @@ final class Hpack {
     private Hpack() {
     }
 
+    private static Map<Header, Integer> headerToStaticIndex() {
+        Map<Header, Integer> result = new HashMap(STATIC_HEADER_TABLE.length * 2);
+        for (int i = 0; i < STATIC_HEADER_TABLE.length; i++) {
+            if (!result.containsKey(STATIC_HEADER_TABLE[i])) {
+                result.put(STATIC_HEADER_TABLE[i], Integer.valueOf(i));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
     private static Map<ByteString, Integer> nameToFirstIndex() {
         Map<okio.ByteString, Integer> result = new LinkedHashMap(STATIC_HEADER_TABLE.length);
         for (int i = 0; i < STATIC_HEADER_TABLE.length; i++) {
@@ -435,6 +435,9 @@ public final class Http2 implements Variant {
                 throw new IOException("closed");
             }
             this.maxFrameSize = peerSettings.getMaxFrameSize(this.maxFrameSize);
+            if (peerSettings.getHeaderTableSize() != -1) {
+                this.hpackWriter.setHeaderTableSizeSetting(peerSettings.getHeaderTableSize());
+            }
             frameHeader(0, 0, (byte) 4, (byte) 1);
             this.sink.flush();
         }
@@ -1,8 +1,9 @@
 package com.android.okhttp.internal.framed;
 
-import java.io.ByteArrayOutputStream;
+import com.android.okhttp.okio.BufferedSink;
+import com.android.okhttp.okio.BufferedSource;
+import com.android.okhttp.okio.ByteString;
 import java.io.IOException;
-import java.io.OutputStream;
 
 class Huffman {
     private static final int[] CODES = new int[]{8184, 8388568, 268435426, 268435427, 268435428, 268435429, 268435430, 268435431, 268435432, 16777194, 1073741820, 268435433, 268435434, 1073741821, 268435435, 268435436, 268435437, 268435438, 268435439, 268435440, 268435441, 268435442, 1073741822, 268435443, 268435444, 268435445, 268435446, 268435447, 268435448, 268435449, 268435450, 268435451, 20, 1016, 1017, 4090, 8185, 21, 248, 2042, 1018, 1019, 249, 2043, 250, 22, 23, 24, 0, 1, 2, 25, 26, 27, 28, 29, 30, 31, 92, 251, 32764, 32, 4091, 1020, 8186, 33, 93, 94, 95, 96, 97, 98, 99, 100, 101, 102, 103, 104, 105, 106, 107, 108, 109, 110, 111, 112, 113, 114, 252, 115, 253, 8187, 524272, 8188, 16380, 34, 32765, 3, 35, 4, 36, 5, 37, 38, 39, 6, 116, 117, 40, 41, 42, 7, 43, 118, 44, 8, 9, 45, 119, 120, 121, 122, 123, 32766, 2044, 16381, 8189, 268435452, 1048550, 4194258, 1048551, 1048552, 4194259, 4194260, 4194261, 8388569, 4194262, 8388570, 8388571, 8388572, 8388573, 8388574, 16777195, 8388575, 16777196, 16777197, 4194263, 8388576, 16777198, 8388577, 8388578, 8388579, 8388580, 2097116, 4194264, 8388581, 4194265, 8388582, 8388583, 16777199, 4194266, 2097117, 1048553, 4194267, 4194268, 8388584, 8388585, 2097118, 8388586, 4194269, 4194270, 16777200, 2097119, 4194271, 8388587, 8388588, 2097120, 2097121, 4194272, 2097122, 8388589, 4194273, 8388590, 8388591, 1048554, 4194274, 4194275, 4194276, 8388592, 4194277, 4194278, 8388593, 67108832, 67108833, 1048555, 524273, 4194279, 8388594, 4194280, 33554412, 67108834, 67108835, 67108836, 134217694, 134217695, 67108837, 16777201, 33554413, 524274, 2097123, 67108838, 134217696, 134217697, 67108839, 134217698, 16777202, 2097124, 2097125, 67108840, 67108841, 268435453, 134217699, 134217700, 134217701, 1048556, 16777203, 1048557, 2097126, 4194281, 2097127, 2097128, 8388595, 4194282, 4194283, 33554414, 33554415, 16777204, 16777205, 67108842, 8388596, 67108843, 134217702, 67108844, 67108845, 134217703, 134217704, 134217705, 134217706, 134217707, 268435454, 134217708, 134217709, 134217710, 134217711, 134217712, 67108846};
@@ -40,45 +41,50 @@ class Huffman {
         buildTree();
     }
 
-    void encode(byte[] data, OutputStream out) throws IOException {
+    void encode(ByteString data, BufferedSink sink) throws IOException {
         long current = 0;
         int n = 0;
-        for (byte b : data) {
-            int b2 = b & 255;
-            int code = CODES[b2];
-            int nbits = CODE_LENGTHS[b2];
+        int size = data.size();
+        for (int i = 0; i < size; i++) {
+            int b = data.getByte(i) & 255;
+            int code = CODES[b];
+            int nbits = CODE_LENGTHS[b];
             current = (current << nbits) | ((long) code);
             n += nbits;
             while (n >= 8) {
                 n -= 8;
-                out.write((int) (current >> n));
+                sink.writeByte((int) (current >> n));
             }
         }
         if (n > 0) {
-            out.write((int) ((current << (8 - n)) | ((long) (255 >>> n))));
+            sink.writeByte((int) ((current << (8 - n)) | ((long) (255 >>> n))));
         }
     }
 
-    int encodedLength(byte[] bytes) {
+    int encodedLength(ByteString bytes) {
         long len = 0;
-        for (byte b : bytes) {
-            len += (long) CODE_LENGTHS[b & 255];
+        int size = bytes.size();
+        for (int i = 0; i < size; i++) {
+            len += (long) CODE_LENGTHS[bytes.getByte(i) & 255];
         }
         return (int) ((7 + len) >> 3);
     }
 
-    byte[] decode(byte[] buf) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    /**
+     * Decodes {@code byteCount} bytes of {@code source} into {@code sink},
+     * a byte of input at a time through the 256-way lookup tables.
+     */
+    void decode(BufferedSource source, long byteCount, BufferedSink sink) throws IOException {
         Node node = this.root;
         int current = 0;
         int nbits = 0;
-        for (byte b : buf) {
-            current = (current << 8) | (b & 255);
+        for (long i = 0; i < byteCount; i++) {
+            current = (current << 8) | (source.readByte() & 255);
             nbits += 8;
             while (nbits >= 8) {
                 node = node.children[(current >>> (nbits - 8)) & 255];
                 if (node.children == null) {
-                    baos.write(node.symbol);
+                    sink.writeByte(node.symbol);
                     nbits -= node.terminalBits;
                     node = this.root;
                 } else {
@@ -91,11 +97,10 @@ class Huffman {
             if (node.children != null || node.terminalBits > nbits) {
                 break;
             }
-            baos.write(node.symbol);
+            sink.writeByte(node.symbol);
             nbits -= node.terminalBits;
             node = this.root;
         }
-        return baos.toByteArray();
     }
 
     private void buildTree() {
@@ -35,6 +35,7 @@ public final class StreamAllocation {
     public HttpStream newStream(int connectTimeout, int readTimeout, int writeTimeout, boolean connectionRetryEnabled, boolean doExtensiveHealthChecks) throws RouteException, IOException {
         try {
             HttpStream resultStream;
+            long startNanos = System.nanoTime();
             RealConnection resultConnection = findHealthyConnection(connectTimeout, readTimeout, writeTimeout, connectionRetryEnabled, doExtensiveHealthChecks);
             if (resultConnection.framedConnection != null) {
                 resultStream = new Http2xStream(this, resultConnection.framedConnection);
@@ -47,6 +48,7 @@ public final class StreamAllocation {
             synchronized (this.connectionPool) {
                 resultConnection.streamCount++;
                 this.stream = resultStream;
+                Internal.instance.connectionAcquired(this.connectionPool, System.nanoTime() - startNanos);
             }
             return resultStream;
         } catch (IOException e) {
@@ -1832,14 +1832,33 @@ class AlarmManagerService extends SystemService implements Callbacks {
     }
 
     int attemptCoalesceLocked(long whenElapsed, long maxWhen) {
+        return attemptCoalesceLocked(whenElapsed, maxWhen, false);
+    }
+
+    /**
+     * mAlarmBatches is ordered by batch start, so the scan stops at the
+     * first batch starting after maxWhen. With preferWakeup set, a batch
+     * that already wakes the device is chosen over an earlier non-wakeup
+     * one so the alarm does not turn another batch into a wakeup.
+     */
+    int attemptCoalesceLocked(long whenElapsed, long maxWhen, boolean preferWakeup) {
+        int found = -1;
         int N = this.mAlarmBatches.size();
         for (int i = 0; i < N; i++) {
             Batch b = (Batch) this.mAlarmBatches.get(i);
+            if (b.start > maxWhen) {
+                break;
+            }
             if ((b.flags & 1) == 0 && b.canHold(whenElapsed, maxWhen)) {
-                return i;
+                if (!preferWakeup || b.hasWakeups()) {
+                    return i;
+                }
+                if (found < 0) {
+                    found = i;
+                }
             }
         }
-        return -1;
+        return found;
     }
 
     void rebatchAllAlarms() {
@@ -2120,7 +2139,7 @@ class AlarmManagerService extends SystemService implements Callbacks {
         if (this.mOppoAlarmAlignment != null) {
             this.mOppoAlarmAlignment.alignWithSys(a);
         }
-        int whichBatch = (a.flags & 1) != 0 ? -1 : attemptCoalesceLocked(a.whenElapsed, a.maxWhenElapsed);
+        int whichBatch = (a.flags & 1) != 0 ? -1 : attemptCoalesceLocked(a.whenElapsed, a.maxWhenElapsed, this.mOppoAlarmAlignment != null ? this.mOppoAlarmAlignment.preferWakeupBatch(a) : false);
         if (whichBatch < 0) {
             addBatchLocked(this.mAlarmBatches, new Batch(a));
         } else {
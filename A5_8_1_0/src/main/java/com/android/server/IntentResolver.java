@@ -333,8 +333,6 @@ public abstract class IntentResolver<F extends IntentFilter, R> {
         return resultList;
     }
 
-    /* JADX WARNING: Removed duplicated region for block: B:23:0x0104  */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
     public List<R> queryIntent(Intent intent, String resolvedType, boolean defaultOnly, int userId) {
         String scheme = intent.getScheme();
         ArrayList<R> finalList = new ArrayList();
@@ -350,25 +348,12 @@ public abstract class IntentResolver<F extends IntentFilter, R> {
             int slashpos = resolvedType.indexOf(47);
             if (slashpos > 0) {
                 String baseType = resolvedType.substring(0, slashpos);
-                IntentFilter[] firstTypeCut2;
                 if (!baseType.equals("*")) {
-                    if (resolvedType.length() == slashpos + 2) {
-                        if (resolvedType.charAt(slashpos + 1) == '*') {
-                            firstTypeCut2 = (IntentFilter[]) this.mBaseTypeToFilter.get(baseType);
-                            if (debug) {
-                                Slog.v(TAG, "First type cut: " + Arrays.toString(firstTypeCut2));
-                            }
-                            IntentFilter[] secondTypeCut2 = (IntentFilter[]) this.mWildTypeToFilter.get(baseType);
-                            if (debug) {
-                                Slog.v(TAG, "Second type cut: " + Arrays.toString(secondTypeCut2));
-                            }
-                            thirdTypeCut = (IntentFilter[]) this.mWildTypeToFilter.get("*");
-                            if (debug) {
-                                Slog.v(TAG, "Third type cut: " + Arrays.toString(thirdTypeCut));
-                            }
-                        }
+                    if (resolvedType.length() == slashpos + 2 && resolvedType.charAt(slashpos + 1) == '*') {
+                        firstTypeCut = (IntentFilter[]) this.mBaseTypeToFilter.get(baseType);
+                    } else {
+                        firstTypeCut = (IntentFilter[]) this.mTypeToFilter.get(resolvedType);
                     }
-                    firstTypeCut = (IntentFilter[]) this.mTypeToFilter.get(resolvedType);
                     if (debug) {
                         Slog.v(TAG, "First type cut: " + Arrays.toString(firstTypeCut));
                     }
@@ -378,11 +363,12 @@ public abstract class IntentResolver<F extends IntentFilter, R> {
                     }
                     thirdTypeCut = (IntentFilter[]) this.mWildTypeToFilter.get("*");
                     if (debug) {
+                        Slog.v(TAG, "Third type cut: " + Arrays.toString(thirdTypeCut));
                     }
                 } else if (intent.getAction() != null) {
-                    firstTypeCut2 = (IntentFilter[]) this.mTypedActionToFilter.get(intent.getAction());
+                    firstTypeCut = (IntentFilter[]) this.mTypedActionToFilter.get(intent.getAction());
                     if (debug) {
-                        Slog.v(TAG, "Typed Action list: " + Arrays.toString(firstTypeCut2));
+                        Slog.v(TAG, "Typed Action list: " + Arrays.toString(firstTypeCut));
                     }
                 }
             }
@@ -399,7 +385,10 @@ public abstract class IntentResolver<F extends IntentFilter, R> {
                 Slog.v(TAG, "Action list: " + Arrays.toString(firstTypeCut));
             }
         }
-        FastImmutableArraySet<String> categories = getFastIntentCategories(intent);
+        FastImmutableArraySet<String> categories = null;
+        if (!(firstTypeCut == null && secondTypeCut == null && thirdTypeCut == null && schemeCut == null)) {
+            categories = getFastIntentCategories(intent);
+        }
         if (firstTypeCut != null) {
             buildResolveList(intent, categories, debug, defaultOnly, resolvedType, scheme, firstTypeCut, finalList, userId);
         }
@@ -604,8 +593,8 @@ public abstract class IntentResolver<F extends IntentFilter, R> {
         String packageName = intent.getPackage();
         boolean excludingStopped = intent.isExcludingStopped();
         if (debug) {
-            Printer logPrinter2 = new LogPrinter(2, TAG, 3);
-            logPrintWriter = new FastPrintWriter(logPrinter2);
+            logPrinter = new LogPrinter(2, TAG, 3);
+            logPrintWriter = new FastPrintWriter(logPrinter);
         } else {
             logPrinter = null;
             logPrintWriter = null;
@@ -678,19 +667,16 @@ public abstract class IntentResolver<F extends IntentFilter, R> {
                     Slog.v(TAG, "  Filter is not from package " + packageName + "; skipping");
                 }
                 i++;
-            } else if (debug && hasNonDefaults) {
-                if (dest.size() == 0) {
-                    Slog.v(TAG, "resolveIntent failed: found match, but none with CATEGORY_DEFAULT");
-                    return;
-                } else if (dest.size() > 1) {
-                    Slog.v(TAG, "resolveIntent: multiple matches, only some with CATEGORY_DEFAULT");
-                    return;
-                } else {
-                    return;
-                }
+            } else {
+                break;
             }
         }
-        if (debug) {
+        if (debug && hasNonDefaults) {
+            if (dest.size() == 0) {
+                Slog.v(TAG, "resolveIntent failed: found match, but none with CATEGORY_DEFAULT");
+            } else if (dest.size() > 1) {
+                Slog.v(TAG, "resolveIntent: multiple matches, only some with CATEGORY_DEFAULT");
+            }
         }
     }
 }
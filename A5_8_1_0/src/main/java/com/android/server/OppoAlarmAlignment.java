@@ -84,10 +84,8 @@ class OppoAlarmAlignment {
                         Slog.d(OppoAlarmAlignment.TAG, "scheduleAlignTickEvent: Long.MAX_VALUE == foundFirstElapsed.");
                     }
                     this.mAlignElapsed += alignInterval;
-                } else {
-                    while (foundFirstElapsed > this.mAlignElapsed) {
-                        this.mAlignElapsed += alignInterval;
-                    }
+                } else if (foundFirstElapsed > this.mAlignElapsed) {
+                    this.mAlignElapsed += (((foundFirstElapsed - this.mAlignElapsed) + alignInterval) - 1) / alignInterval * alignInterval;
                 }
                 if (this.mAlignElapsed == lastAlign) {
                     this.mAlignElapsed += alignInterval;
@@ -218,8 +216,8 @@ class OppoAlarmAlignment {
             }
             if (alarmWhenElapsed <= alignElapsed) {
                 if ((alarmWhenElapsed != alignElapsed || a.maxWhenElapsed != alignElapsed) && !ignoreAlarm(a)) {
-                    while (alarmWhenElapsed <= alignElapsed - this.mAlignInterval) {
-                        alignElapsed -= this.mAlignInterval;
+                    if (alarmWhenElapsed <= alignElapsed - this.mAlignInterval) {
+                        alignElapsed -= (alignElapsed - alarmWhenElapsed) / this.mAlignInterval * this.mAlignInterval;
                     }
                     long nowElapsed = SystemClock.elapsedRealtime();
                     if (alignElapsed >= alarmWhenElapsed && alignElapsed >= nowElapsed && alignElapsed > 0) {
@@ -231,6 +229,17 @@ class OppoAlarmAlignment {
         }
     }
 
+    /**
+     * While alarms are being aligned, a wakeup alarm should join a batch
+     * that already wakes the device rather than make another batch a wakeup.
+     */
+    public boolean preferWakeupBatch(Alarm a) {
+        if (this.mAlarmMS.mInteractive || !this.mNeedAlign) {
+            return false;
+        }
+        return a.type == 2 || a.type == 0;
+    }
+
     private boolean ignoreAlarm(Alarm a) {
         String pkgName;
         boolean ignore = false;
@@ -277,15 +286,7 @@ class OppoAlarmAlignment {
         synchronized (this.mLock) {
             int i;
             long whenElapsed = JobStatus.NO_LATEST_RUNTIME;
-            Batch batch = null;
-            int NB = this.mAlarmMS.mAlarmBatches.size();
-            for (i = 0; i < NB; i++) {
-                Batch b = (Batch) this.mAlarmMS.mAlarmBatches.get(i);
-                if (b.hasWakeups() && (b.flags & 1) == 0) {
-                    batch = b;
-                    break;
-                }
-            }
+            Batch batch = findFirstWakeupNonStandaloneBatch();
             if (batch == null) {
                 return JobStatus.NO_LATEST_RUNTIME;
             }
@@ -17,6 +17,7 @@ import android.os.PowerManager.WakeLock;
 import android.os.SystemClock;
 import android.os.SystemProperties;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Slog;
 import android.util.SparseArray;
 import com.android.server.am.OppoAbnormalAppManager;
@@ -27,12 +28,14 @@ import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.PriorityQueue;
 
 class OppoAlarmWakeupDetection {
     private static final String ACTION_OPPO_GUARD_ELF_MONITOR = "android.intent.action.OPPO_GUARD_ELF_MONITOR";
     private static final String ACTION_OPPO_GUARD_ELF_MONITOR_FORCESTOP = "android.intent.action.OPPO_GUARD_ELF_MONITOR_FORCESTOP";
     private static final String ATAG = "AlarmWakeupCheck";
     private static final boolean DBG = false;
+    private static final int MAX_REPORT_INTENTS = 5;
     private static final int MAX_UPLOAD_NUM = 2;
     private static final int MIN_ALARM_NUM = 15;
     private static final long MIN_SCREEN_OFF_INTERVAL = 3300000;
@@ -63,9 +66,10 @@ class OppoAlarmWakeupDetection {
     private final SparseArray<ArrayMap<String, BroadcastStats>> mBroadcastStats;
     private int mCntAlarmWakeup;
     private Context mContext;
+    private final ArraySet<BroadcastStats> mFrequentCandidates = new ArraySet();
     private WorkerHandler mHandlerTimeout;
     private final Object mLock;
-    private ArrayList<AlarmWakeupRecord> mReportList = new ArrayList();
+    private final ArrayMap<String, AlarmWakeupRecord> mReportList = new ArrayMap();
     private boolean mScreenOffRecorded = false;
     public boolean mScreenOn = true;
     private long mScreenoffElapsed;
@@ -287,6 +291,9 @@ class OppoAlarmWakeupDetection {
             if (isPendingIntentCanceled) {
                 bs.numCanceledWakeup++;
             }
+            if (bs.numAllWakeup - bs.numWakeupWhenScreenoff == MIN_ALARM_NUM) {
+                this.mFrequentCandidates.add(bs);
+            }
         }
         bs.numAllTrigger++;
         long lastTimeTrigger = bs.lastTimeTrigger;
@@ -353,10 +360,12 @@ class OppoAlarmWakeupDetection {
         }
         synchronized (this.mLock) {
             StringBuilder stringBuilder = new StringBuilder(128);
-            for (int iu = 0; iu < this.mBroadcastStats.size(); iu++) {
-                ArrayMap<String, BroadcastStats> uidStats = (ArrayMap) this.mBroadcastStats.valueAt(iu);
-                for (int ip = 0; ip < uidStats.size(); ip++) {
-                    BroadcastStats bs = (BroadcastStats) uidStats.valueAt(ip);
+            for (int ic = this.mFrequentCandidates.size() - 1; ic >= 0; ic--) {
+                BroadcastStats bs = (BroadcastStats) this.mFrequentCandidates.valueAt(ic);
+                ArrayMap<String, BroadcastStats> uidStats = (ArrayMap) this.mBroadcastStats.get(bs.mUid);
+                if (uidStats == null || uidStats.get(bs.mPackageName) != bs) {
+                    this.mFrequentCandidates.removeAt(ic);
+                } else {
                     long totalCheckTime = nowElapsed - bs.wakeupCountStartTime;
                     int numWakeup = bs.numAllWakeup - bs.numWakeupWhenScreenoff;
                     if (numWakeup >= 15 && totalCheckTime >= screenoffInterval / 2) {
@@ -373,15 +382,7 @@ class OppoAlarmWakeupDetection {
                             stringBuilder.append(") cancled(");
                             stringBuilder.append(bs.numCanceledWakeup);
                             stringBuilder.append(") ");
-                            ArrayList<AlarmIntentRecord> alarmIntentRecordList = new ArrayList();
-                            for (int is = 0; is < bs.filterStats.size(); is++) {
-                                FilterStats fs = (FilterStats) bs.filterStats.valueAt(is);
-                                int fsNumWakeup = fs.numWakeup - fs.numWakeupWhenScreenoff;
-                                if (fsNumWakeup > 0) {
-                                    alarmIntentRecordList.add(new AlarmIntentRecord(fs.mTag, fsNumWakeup, true));
-                                }
-                            }
-                            Collections.sort(alarmIntentRecordList, this.comparatorIntent);
+                            ArrayList<AlarmIntentRecord> alarmIntentRecordList = getTopIntentRecords(bs, 2, true);
                             stringBuilder.append("{ ");
                             int i = 0;
                             while (i < alarmIntentRecordList.size() && i < 2) {
@@ -461,34 +462,63 @@ class OppoAlarmWakeupDetection {
         return detected;
     }
 
+    /**
+     * System and oppo packages are never reset or reported. The package
+     * manager lookup for them is only done when a package is about to be
+     * reset after a long gap or reported, not on every alarm delivered
+     * while the screen is off.
+     */
     private void alarmAllTypeDetection(BroadcastStats bs, long nowELAPSED, long lastTimeTrigger) {
-        if (!isSystemPackage(bs.mPackageName)) {
-            if (!isOppoPackage(bs.mPackageName)) {
-                if (nowELAPSED - lastTimeTrigger >= THRESHOLD_RESET_CHECK) {
-                    resetState(bs, 0, nowELAPSED, false, true);
-                    return;
+        if (nowELAPSED - lastTimeTrigger >= THRESHOLD_RESET_CHECK) {
+            if (!isSystemPackage(bs.mPackageName) && !isOppoPackage(bs.mPackageName)) {
+                resetState(bs, 0, nowELAPSED, false, true);
+            }
+            return;
+        }
+        int numAlarm = bs.numAllTrigger - bs.numWhenScreenoff;
+        if (numAlarm >= 5 && numAlarm % 5 == 0) {
+            long totalCheckTime = (bs.lastTimeTrigger - bs.triggerCountStartTime) / 1000;
+            if (totalCheckTime > 0) {
+                long numSecondsPerAlarm = totalCheckTime / ((long) numAlarm);
+                if (numSecondsPerAlarm <= this.thresholdSeriousPerAlarm && !isOppoPackage(bs.mPackageName) && !isSystemPackage(bs.mPackageName)) {
+                    this.mWakeLockCheck.acquire(500);
+                    Message msg = this.mHandlerTimeout.obtainMessage();
+                    msg.what = 105;
+                    Bundle data = new Bundle();
+                    data.putInt("uid", bs.mUid);
+                    data.putString("pkg", bs.mPackageName);
+                    data.putLong("totalCheckTime", totalCheckTime);
+                    data.putLong("numSecondsPerAlarm", numSecondsPerAlarm);
+                    msg.setData(data);
+                    this.mHandlerTimeout.sendMessage(msg);
                 }
-                int numAlarm = bs.numAllTrigger - bs.numWhenScreenoff;
-                if (numAlarm >= 5 && numAlarm % 5 == 0) {
-                    long totalCheckTime = (bs.lastTimeTrigger - bs.triggerCountStartTime) / 1000;
-                    if (totalCheckTime > 0) {
-                        long numSecondsPerAlarm = totalCheckTime / ((long) numAlarm);
-                        if (numSecondsPerAlarm <= this.thresholdSeriousPerAlarm) {
-                            this.mWakeLockCheck.acquire(500);
-                            Message msg = this.mHandlerTimeout.obtainMessage();
-                            msg.what = 105;
-                            Bundle data = new Bundle();
-                            data.putInt("uid", bs.mUid);
-                            data.putString("pkg", bs.mPackageName);
-                            data.putLong("totalCheckTime", totalCheckTime);
-                            data.putLong("numSecondsPerAlarm", numSecondsPerAlarm);
-                            msg.setData(data);
-                            this.mHandlerTimeout.sendMessage(msg);
-                        }
-                    }
+            }
+        }
+    }
+
+    /**
+     * Returns the filters of {@code bs} with the most wakeups (or alarms)
+     * since screen off, most frequent first, keeping only {@code limit}
+     * of them in a min-heap instead of sorting every filter.
+     */
+    private ArrayList<AlarmIntentRecord> getTopIntentRecords(BroadcastStats bs, int limit, boolean wakeupOnly) {
+        PriorityQueue<AlarmIntentRecord> heap = new PriorityQueue(limit + 1, Collections.reverseOrder(this.comparatorIntent));
+        for (int is = 0; is < bs.filterStats.size(); is++) {
+            FilterStats fs = (FilterStats) bs.filterStats.valueAt(is);
+            int num = wakeupOnly ? fs.numWakeup - fs.numWakeupWhenScreenoff : fs.count - fs.numWhenScreenoff;
+            if (num > 0 && (heap.size() < limit || ((AlarmIntentRecord) heap.peek()).mNumAlarm < num)) {
+                heap.add(new AlarmIntentRecord(fs.mTag, num, wakeupOnly || fs.numWakeup != 0));
+                if (heap.size() > limit) {
+                    heap.poll();
                 }
             }
         }
+        ArrayList<AlarmIntentRecord> records = new ArrayList(heap.size());
+        while (!heap.isEmpty()) {
+            records.add((AlarmIntentRecord) heap.poll());
+        }
+        Collections.reverse(records);
+        return records;
     }
 
     /* JADX WARNING: Missing block: B:47:0x00ec, code:
@@ -518,12 +548,10 @@ class OppoAlarmWakeupDetection {
                     if (bs == null) {
                         return;
                     }
-                    ArrayList<AlarmIntentRecord> alarmIntentRecordList = new ArrayList();
                     for (int is = 0; is < bs.filterStats.size(); is++) {
                         FilterStats fs = (FilterStats) bs.filterStats.valueAt(is);
                         int fsNumWakeup = fs.numWakeup - fs.numWakeupWhenScreenoff;
                         if (fsNumWakeup > 0) {
-                            alarmIntentRecordList.add(new AlarmIntentRecord(fs.mTag, fsNumWakeup, true));
                             if (!this.isSyncAlarmWakeupFrequent && fsNumWakeup >= 5 && bs.mUid == 1000 && fs.mTag != null && fs.mTag.endsWith("syncmanager.SYNC_ALARM") && totalCheckTime / ((long) fsNumWakeup) <= this.thresholdSeriousPerWakeup) {
                                 this.isSyncAlarmWakeupFrequent = true;
                                 if (this.ADBG) {
@@ -532,8 +560,7 @@ class OppoAlarmWakeupDetection {
                             }
                         }
                     }
-                    Collections.sort(alarmIntentRecordList, this.comparatorIntent);
-                    AlarmWakeupRecord record = addReportList(bs.mUid, numSecondsPerWakeup, totalCheckTime, pkgName, alarmIntentRecordList, isNotStrict, true, bs.numCanceledWakeup);
+                    AlarmWakeupRecord record = addReportList(bs.mUid, numSecondsPerWakeup, totalCheckTime, pkgName, getTopIntentRecords(bs, MAX_REPORT_INTENTS, true), isNotStrict, true, bs.numCanceledWakeup);
                 }
             }
         }
@@ -566,16 +593,7 @@ class OppoAlarmWakeupDetection {
                     if (bs == null) {
                         return;
                     }
-                    ArrayList<AlarmIntentRecord> alarmIntentRecordList = new ArrayList();
-                    for (int is = 0; is < bs.filterStats.size(); is++) {
-                        FilterStats fs = (FilterStats) bs.filterStats.valueAt(is);
-                        int fsNumAlarm = fs.count - fs.numWhenScreenoff;
-                        if (fsNumAlarm > 0) {
-                            alarmIntentRecordList.add(new AlarmIntentRecord(fs.mTag, fsNumAlarm, fs.numWakeup != 0));
-                        }
-                    }
-                    Collections.sort(alarmIntentRecordList, this.comparatorIntent);
-                    AlarmWakeupRecord record = addReportList(bs.mUid, numSecondsPerAlarm, totalCheckTime, pkgName, alarmIntentRecordList, isNotStrict, false, bs.numCanceledWakeup);
+                    AlarmWakeupRecord record = addReportList(bs.mUid, numSecondsPerAlarm, totalCheckTime, pkgName, getTopIntentRecords(bs, MAX_REPORT_INTENTS, false), isNotStrict, false, bs.numCanceledWakeup);
                 }
             }
         }
@@ -591,6 +609,7 @@ class OppoAlarmWakeupDetection {
                 }
             }
             this.mCntAlarmWakeup = 0;
+            this.mFrequentCandidates.clear();
         }
         this.mScreenOffRecorded = true;
     }
@@ -600,6 +619,7 @@ class OppoAlarmWakeupDetection {
             bs.numWakeupWhenScreenoff = bs.numAllWakeup;
             bs.wakeupCountStartTime = wakeupStartTime;
             bs.numCanceledWakeup = 0;
+            this.mFrequentCandidates.remove(bs);
         }
         if (resetTrigger) {
             bs.numWhenScreenoff = bs.numAllTrigger;
@@ -617,14 +637,7 @@ class OppoAlarmWakeupDetection {
     }
 
     private AlarmWakeupRecord getFrequentAlarm(String pkgName) {
-        int len = this.mReportList.size();
-        for (int i = 0; i < len; i++) {
-            AlarmWakeupRecord alarmWakeupRecord = (AlarmWakeupRecord) this.mReportList.get(i);
-            if (pkgName.equals(alarmWakeupRecord.mPkgName)) {
-                return alarmWakeupRecord;
-            }
-        }
-        return null;
+        return (AlarmWakeupRecord) this.mReportList.get(pkgName);
     }
 
     private AlarmWakeupRecord addReportList(int uid, long wakeupInterval, long totalCheckTime, String pkgName, ArrayList<AlarmIntentRecord> alarmIntentRecordList, boolean notRestrictApp, boolean isWakeup, int numCanceledWakeup) {
@@ -636,7 +649,7 @@ class OppoAlarmWakeupDetection {
             alarmWakeupRecord.update(wakeupInterval, totalCheckTime, alarmIntentRecordList, isWakeup, numCanceledWakeup);
         } else {
             alarmWakeupRecord = new AlarmWakeupRecord(uid, wakeupInterval, totalCheckTime, pkgName, alarmIntentRecordList, notRestrictApp, isWakeup, numCanceledWakeup);
-            this.mReportList.add(alarmWakeupRecord);
+            this.mReportList.put(pkgName, alarmWakeupRecord);
         }
         return alarmWakeupRecord;
     }
@@ -1,7 +1,6 @@
 package com.android.server;
 
 import android.net.arp.OppoArpPeer;
-import android.os.FileObserver;
 import android.os.SystemProperties;
 import android.text.TextUtils;
 import android.util.ArrayMap;
@@ -43,16 +42,13 @@ public class OppoBPMUtils {
     private static final List<Integer> sFreezeTypeList = Arrays.asList(new Integer[]{Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(3), Integer.valueOf(4), Integer.valueOf(5), Integer.valueOf(6), Integer.valueOf(7), Integer.valueOf(8), Integer.valueOf(9)});
     private int mAppChangeCheckTime = OppoBrightUtils.HIGH_BRIGHTNESS_MAX_LUX;
     private ArrayList<String> mAppWidgetList = new ArrayList();
-    private FileObserver mAppWidgetObserver = null;
     private ArrayList<String> mAssociateKeyList = new ArrayList();
     private ArrayMap<String, String> mAssociateKeyMap = new ArrayMap();
-    private FileObserver mBpmFileObserver = null;
     private ArrayList<String> mBrdBlackList = new ArrayList();
     private ArrayList<String> mBrdWhiteKeyList = new ArrayList();
     private ArrayList<String> mBrdWhiteList = new ArrayList();
     private ArrayList<String> mCustomizeAppList = new ArrayList();
     private ArrayList<String> mDisplayDeviceList = new ArrayList();
-    private FileObserver mElsaConfigObserver = null;
     private boolean mFreezeSwitch = true;
     private ArrayList<String> mGlobalWhiteList = new ArrayList();
     private ArrayList<String> mInVisibleList = new ArrayList();
@@ -65,7 +61,6 @@ public class OppoBPMUtils {
     private boolean mPayModeSwitch = true;
     private int mPeriodCheckTime = 180000;
     private boolean mPowerConnectStatus;
-    private FileObserver mPowerStatusObserver = null;
     private int mRecentTaskNum = 3;
     private int mRecentTaskStore = 9;
     private int mScreenOffCheckTime = OppoBrightUtils.HIGH_BRIGHTNESS_MAX_LUX;
@@ -78,28 +73,6 @@ public class OppoBPMUtils {
     private ArrayList<String> mThirdAppBlackList = new ArrayList();
     private ArrayList<String> mVisibleList = new ArrayList();
 
-    private class FileObserverPolicy extends FileObserver {
-        private String mFocusPath;
-
-        public FileObserverPolicy(String path) {
-            super(path, 8);
-            this.mFocusPath = path;
-        }
-
-        public void onEvent(int event, String path) {
-            if (event != 8) {
-                return;
-            }
-            if (OppoBPMUtils.SYS_ELSA_CONFIG_FILE.equals(this.mFocusPath)) {
-                OppoProcessManager.getInstance().sendBpmEmptyMessage(100, 0);
-            } else if (OppoBPMUtils.BPM_PATH.equals(this.mFocusPath)) {
-                OppoProcessManager.getInstance().sendBpmEmptyMessage(101, 0);
-            } else if (OppoBPMUtils.POWER_CONN_STATUS_PATH.equals(this.mFocusPath)) {
-                OppoProcessManager.getInstance().sendBpmEmptyMessage(103, 0);
-            }
-        }
-    }
-
     private OppoBPMUtils() {
     }
 
@@ -159,12 +132,17 @@ public class OppoBPMUtils {
     }
 
     private void initFileObserver() {
-        this.mElsaConfigObserver = new FileObserverPolicy(SYS_ELSA_CONFIG_FILE);
-        this.mElsaConfigObserver.startWatching();
-        this.mBpmFileObserver = new FileObserverPolicy(BPM_PATH);
-        this.mBpmFileObserver.startWatching();
-        this.mPowerStatusObserver = new FileObserverPolicy(POWER_CONN_STATUS_PATH);
-        this.mPowerStatusObserver.startWatching();
+        watchFile(SYS_ELSA_CONFIG_FILE, 100);
+        watchFile(BPM_PATH, 101);
+        watchFile(POWER_CONN_STATUS_PATH, 103);
+    }
+
+    private void watchFile(String path, final int what) {
+        OppoConfigListRegistry.getInstance().watch(path, new Runnable() {
+            public void run() {
+                OppoProcessManager.getInstance().sendBpmEmptyMessage(what, 0);
+            }
+        });
     }
 
     private void clearList() {
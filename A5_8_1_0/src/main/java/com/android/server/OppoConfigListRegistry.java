@@ -0,0 +1,194 @@
+package com.android.server;
+
+import android.os.FileObserver;
+import android.os.Handler;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.util.Slog;
+import com.android.internal.os.BackgroundThread;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared registry for the config lists under /data/oppo/coloros/.
+ *
+ * Config owners register the files they parse together with a reload
+ * callback. Only one inotify watch is kept per directory, and bursts of
+ * writes to the same file (write + rename, several close_write in a row)
+ * collapse into a single reload on the background thread.
+ *
+ * Package names and actions read from those lists are interned into small
+ * integer ids so each list can be published as an immutable {@link NameSet}
+ * that readers query without taking a lock; writers build a new set and
+ * swap the reference. At most MAX_INTERNED_NAMES names are interned; a set
+ * keeps any name past that cap in its own ArraySet.
+ */
+public final class OppoConfigListRegistry {
+    private static final int DIR_EVENTS = 136;
+    private static final int MAX_INTERNED_NAMES = 4096;
+    private static final long RELOAD_DELAY = 300;
+    private static final String TAG = "OppoConfigListRegistry";
+    private static final OppoConfigListRegistry sInstance = new OppoConfigListRegistry();
+    private final ArrayMap<String, DirObserver> mDirObservers = new ArrayMap();
+    private final Handler mHandler = BackgroundThread.getHandler();
+    private final ConcurrentHashMap<String, Integer> mIds = new ConcurrentHashMap();
+    private final AtomicInteger mNextId = new AtomicInteger();
+
+    /**
+     * Immutable set of interned names, stored as a sorted id array.
+     */
+    public static final class NameSet {
+        public static final NameSet EMPTY = new NameSet(null, new int[0], new ArrayList(), null);
+        private final int[] mIds;
+        private final ArrayList<String> mNames;
+        private final ArraySet<String> mOverflow;
+        private final OppoConfigListRegistry mRegistry;
+
+        private NameSet(OppoConfigListRegistry registry, int[] ids, ArrayList<String> names, ArraySet<String> overflow) {
+            this.mRegistry = registry;
+            this.mIds = ids;
+            this.mNames = names;
+            this.mOverflow = overflow;
+        }
+
+        public boolean contains(String name) {
+            if (name == null || this.mNames.isEmpty()) {
+                return false;
+            }
+            int id = this.mRegistry.getId(name);
+            if (id >= 0 && Arrays.binarySearch(this.mIds, id) >= 0) {
+                return true;
+            }
+            return this.mOverflow != null && this.mOverflow.contains(name);
+        }
+
+        public boolean containsAny(String[] names) {
+            if (names == null || this.mNames.isEmpty()) {
+                return false;
+            }
+            for (String name : names) {
+                if (contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int size() {
+            return this.mNames.size();
+        }
+
+        /**
+         * Returns a new list with the names of this set in load order.
+         */
+        public ArrayList<String> toList() {
+            return new ArrayList(this.mNames);
+        }
+    }
+
+    private final class DirObserver extends FileObserver {
+        private final ArrayMap<String, Runnable> mFiles = new ArrayMap();
+
+        DirObserver(String dir) {
+            super(dir, DIR_EVENTS);
+        }
+
+        public void onEvent(int event, String path) {
+            Runnable reload;
+            if (path != null) {
+                synchronized (this.mFiles) {
+                    reload = (Runnable) this.mFiles.get(path);
+                }
+                if (reload != null) {
+                    OppoConfigListRegistry.this.mHandler.removeCallbacks(reload);
+                    OppoConfigListRegistry.this.mHandler.postDelayed(reload, RELOAD_DELAY);
+                }
+            }
+        }
+    }
+
+    private OppoConfigListRegistry() {
+    }
+
+    public static OppoConfigListRegistry getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Runs {@code reload} on the background thread after {@code path} has
+     * been rewritten or renamed into place. The parent directory must exist.
+     */
+    public void watch(String path, Runnable reload) {
+        File file = new File(path);
+        String dir = file.getParent();
+        synchronized (this.mDirObservers) {
+            DirObserver observer = (DirObserver) this.mDirObservers.get(dir);
+            if (observer == null) {
+                observer = new DirObserver(dir);
+                this.mDirObservers.put(dir, observer);
+                observer.startWatching();
+            }
+            synchronized (observer.mFiles) {
+                if (observer.mFiles.put(file.getName(), reload) != null) {
+                    Slog.w(TAG, "replacing watcher for " + path);
+                }
+            }
+        }
+    }
+
+    int getId(String name) {
+        Integer id = (Integer) this.mIds.get(name);
+        return id != null ? id.intValue() : -1;
+    }
+
+    private int intern(String name) {
+        Integer id = (Integer) this.mIds.get(name);
+        if (id == null) {
+            if (this.mIds.size() >= MAX_INTERNED_NAMES) {
+                return -1;
+            }
+            Integer newId = Integer.valueOf(this.mNextId.getAndIncrement());
+            id = (Integer) this.mIds.putIfAbsent(name, newId);
+            if (id == null) {
+                id = newId;
+            }
+        }
+        return id.intValue();
+    }
+
+    public NameSet newNameSet(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return NameSet.EMPTY;
+        }
+        int[] ids = new int[names.size()];
+        ArrayList<String> list = new ArrayList(names.size());
+        ArraySet<String> seen = new ArraySet(names.size());
+        ArraySet<String> overflow = null;
+        int count = 0;
+        for (String name : names) {
+            if (name != null && seen.add(name)) {
+                int id = intern(name);
+                if (id >= 0) {
+                    ids[count] = id;
+                    count++;
+                } else {
+                    if (overflow == null) {
+                        overflow = new ArraySet();
+                    }
+                    overflow.add(name);
+                }
+                list.add(name);
+            }
+        }
+        if (list.isEmpty()) {
+            return NameSet.EMPTY;
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return new NameSet(this, ids, list, overflow);
+    }
+}
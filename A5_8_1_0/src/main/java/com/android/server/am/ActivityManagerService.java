@@ -518,6 +518,7 @@ public class ActivityManagerService extends Stub implements Monitor, BatteryCall
     HashMap<String, IBinder> mAppBindArgs;
     final AppErrors mAppErrors;
     final AppOpsService mAppOpsService;
+    final OppoAthenaLowMemoryKiller mAthenaLowMemoryKiller;
     long mAppSwitchesAllowedTime;
     AssistUtils mAssistUtils;
     final SparseArray<ArrayMap<ComponentName, SparseArray<ArrayMap<String, Association>>>> mAssociations;
@@ -3241,6 +3242,7 @@ public class ActivityManagerService extends Stub implements Monitor, BatteryCall
         this.mBroadcastQueues = new BroadcastQueue[4];
         this.MAX_NUM_NOT_SHOW = 100;
         this.mOppoAppScaleHelper = null;
+        this.mAthenaLowMemoryKiller = OppoAthenaLowMemoryKiller.getInstance(this);
         this.mLockTaskPackages = new SparseArray();
         this.mLastStartProcessTime = 0;
         this.mLastStartProcessPkgName = "";
@@ -3749,6 +3751,7 @@ public class ActivityManagerService extends Stub implements Monitor, BatteryCall
         this.mBroadcastQueues[0] = this.mFgBroadcastQueue;
         this.mBroadcastQueues[1] = this.mBgBroadcastQueue;
         OppoBroadcastManager.getInstance(this);
+        this.mAthenaLowMemoryKiller = OppoAthenaLowMemoryKiller.getInstance(this);
         this.mOppoAppScaleHelper = new OppoAppScaleHelper(this.mContext);
         this.mServices = new ActiveServices(this);
         this.mProviderMap = new ProviderMap(this);
@@ -4318,6 +4321,7 @@ public class ActivityManagerService extends Stub implements Monitor, BatteryCall
             }
             this.mLruProcesses.remove(lrui);
         }
+        this.mAthenaLowMemoryKiller.onProcessRemovedLocked(app);
     }
 
     final void updateLruProcessLocked(ProcessRecord app, boolean activityChange, ProcessRecord client) {
@@ -22712,6 +22716,7 @@ public class ActivityManagerService extends Stub implements Monitor, BatteryCall
             }
             app.setAdj = app.curAdj;
             app.verifiedAdj = -10000;
+            this.mAthenaLowMemoryKiller.onOomAdjChangedLocked(app);
         }
         OppoProcessManagerHelper.resumeTopApp(app);
         if (app.setSchedGroup != app.curSchedGroup) {
@@ -110,39 +110,11 @@ public class OppoAppStartupManager {
     protected static final String UPLOAD_LOGTAG = "20089";
     protected static final String UPLOAD_THIRD_EVENTID = "startup_third_app";
     private static OppoAppStartupManager sOppoAppStartupManager = null;
-    private List<String> mActionBlackList;
-    private final Object mActionLock;
-    private List<String> mActivityBlackList;
-    private List<String> mActivityCalledKeyList;
-    private final Object mActivityCalledKeyLock;
-    private List<String> mActivityCalledWhiteCpnList;
-    private final Object mActivityCalledWhiteCpnLock;
-    private List<String> mActivityCalledWhitePkgList;
-    private final Object mActivityCalledWhitePkgLock;
-    private List<String> mActivityCallerWhitePkgList;
-    private final Object mActivityCallerWhitePkgLock;
-    private final Object mActivityLock;
-    private List<String> mActivityPkgKeyList;
-    private final Object mActivityPkgKeyLock;
     private ActivityStack mActivityStack;
     protected ActivityManagerService mAms;
     private List<String> mAssociateStartWhiteList;
     private final Object mAssociateStartWhiteLock;
     private AudioManager mAudioManager;
-    private List<String> mAuthorizeCpnList;
-    private final Object mAuthorizeCpnListLock;
-    private List<String> mBindServiceCpnWhiteList;
-    private final Object mBindServiceWhiteLock;
-    private List<String> mBlackguardActivityList;
-    private final Object mBlackguardActivityLock;
-    private List<String> mBlackguardList;
-    private final Object mBlackguardLock;
-    private List<String> mBroadcastActionWhiteList;
-    private final Object mBroadcastActionWhiteLock;
-    private List<String> mBroadcastWhiteList;
-    private final Object mBroadcastWhiteLock;
-    private List<String> mBuildAppBlackList;
-    private final Object mBuildAppBlackLock;
     private List<String> mCollectAppStartList;
     private final Object mCollectAppStartLock;
     private List<OppoAppMonitorInfo> mCollectBlackListInterceptList;
@@ -157,44 +129,22 @@ public class OppoAppStartupManager {
     private String mDefaultInputMethod;
     private ContentObserver mDufaultInputMethodObserver;
     protected boolean mDynamicDebug;
-    private List<String> mGlobalWhiteList;
     private Handler mHandler;
     private Hypnus mHypnus;
     private boolean mIsTenIntercept;
-    private List<String> mJobWhiteList;
-    private final Object mJobWhiteLock;
     private ArrayList<OppoCallActivityEntry> mLastCalledAcivityList;
     protected boolean mMonitorAll;
     private List<OppoAppMonitorInfo> mMonitorAppInfoList;
     private ArrayList<String> mMonitorAppUploadList;
-    private List<String> mNotifyWhiteList;
-    private final Object mNotifyWhiteLock;
     private final Object mPayCpnLitLock;
+    private volatile OppoAppStartupPolicy mPolicy;
     private ActivityRecord mPreRecord;
-    private List<String> mProtectList;
-    private final Object mProtectLock;
-    private List<String> mProviderBlacklist;
-    private List<String> mProviderCpnWhiteList;
-    private final Object mProviderLock;
-    private final Object mProviderWhiteLock;
-    private List<String> mReceiverActionBlackList;
-    private final Object mReceiverActionLock;
-    private List<String> mReceiverBlackList;
-    private final Object mReceiverLock;
-    private final Object mServiceLock;
-    private List<String> mSeviceCpnBlacklist;
     final BroadcastReceiver mShelperActionReceiver;
     private List<String> mStartActivityReasonList;
-    private List<String> mStartServiceWhiteCpnList;
-    private final Object mStartServiceWhiteCpnLock;
-    private List<String> mStartServiceWhiteList;
-    private final Object mStartServiceWhiteLock;
     protected boolean mSwitch;
     private boolean mSwitchBrowserInterceptUpload;
     protected boolean mSwitchInterceptActivity;
     protected boolean mSwitchMonitor;
-    private List<String> mSyncWhiteList;
-    private final Object mSyncWhiteLock;
 
     private class AppAbnormalMonitor implements Runnable {
         private String mExceptionClass;
@@ -348,64 +298,13 @@ public class OppoAppStartupManager {
         this.mSwitchInterceptActivity = false;
         this.mAms = null;
         this.mMonitorAll = SystemProperties.getBoolean("persist.sys.monitorall", false);
-        this.mServiceLock = new Object();
-        this.mReceiverLock = new Object();
-        this.mReceiverActionLock = new Object();
-        this.mProviderLock = new Object();
-        this.mActivityLock = new Object();
-        this.mActionLock = new Object();
-        this.mBlackguardLock = new Object();
-        this.mBuildAppBlackLock = new Object();
-        this.mStartServiceWhiteLock = new Object();
-        this.mStartServiceWhiteCpnLock = new Object();
-        this.mBindServiceWhiteLock = new Object();
-        this.mJobWhiteLock = new Object();
-        this.mSyncWhiteLock = new Object();
-        this.mNotifyWhiteLock = new Object();
-        this.mProviderWhiteLock = new Object();
-        this.mBroadcastWhiteLock = new Object();
-        this.mBroadcastActionWhiteLock = new Object();
-        this.mProtectLock = new Object();
         this.mAssociateStartWhiteLock = new Object();
-        this.mAuthorizeCpnListLock = new Object();
         this.mPayCpnLitLock = new Object();
         this.mCollectAppStartLock = new Object();
-        this.mActivityCallerWhitePkgLock = new Object();
-        this.mActivityCalledWhitePkgLock = new Object();
-        this.mActivityCalledWhiteCpnLock = new Object();
-        this.mActivityPkgKeyLock = new Object();
-        this.mActivityCalledKeyLock = new Object();
-        this.mBlackguardActivityLock = new Object();
         this.mCustomizeWhiteLock = new Object();
-        this.mSeviceCpnBlacklist = new ArrayList();
-        this.mReceiverBlackList = new ArrayList();
-        this.mReceiverActionBlackList = new ArrayList();
-        this.mProviderBlacklist = new ArrayList();
-        this.mActivityBlackList = new ArrayList();
-        this.mActionBlackList = new ArrayList();
-        this.mBlackguardList = new ArrayList();
         this.mCollectAppStartList = new ArrayList();
-        this.mActivityCallerWhitePkgList = new ArrayList();
-        this.mActivityCalledWhitePkgList = new ArrayList();
-        this.mActivityCalledWhiteCpnList = new ArrayList();
-        this.mActivityPkgKeyList = new ArrayList();
-        this.mActivityCalledKeyList = new ArrayList();
-        this.mBlackguardActivityList = new ArrayList();
         this.mCustomizeWhiteList = new ArrayList();
-        this.mBuildAppBlackList = new ArrayList();
-        this.mStartServiceWhiteList = new ArrayList();
-        this.mStartServiceWhiteCpnList = new ArrayList();
-        this.mBindServiceCpnWhiteList = new ArrayList();
-        this.mJobWhiteList = new ArrayList();
-        this.mSyncWhiteList = new ArrayList();
-        this.mNotifyWhiteList = new ArrayList();
-        this.mProviderCpnWhiteList = new ArrayList();
-        this.mBroadcastWhiteList = new ArrayList();
-        this.mBroadcastActionWhiteList = new ArrayList();
-        this.mProtectList = new ArrayList();
         this.mAssociateStartWhiteList = new ArrayList();
-        this.mAuthorizeCpnList = new ArrayList();
-        this.mGlobalWhiteList = new ArrayList();
         this.mMonitorAppUploadList = new ArrayList();
         this.mMonitorAppInfoList = new ArrayList();
         this.mLastCalledAcivityList = new ArrayList();
@@ -413,6 +312,7 @@ public class OppoAppStartupManager {
         this.mCollectBlackListInterceptList = new ArrayList();
         this.mCollectGamePayList = new ArrayList();
         this.mCollectPayCpnList = new ArrayList();
+        this.mPolicy = OppoAppStartupPolicy.EMPTY;
         this.mStartActivityReasonList = new ArrayList();
         this.mAudioManager = null;
         this.mHypnus = null;
@@ -458,64 +358,13 @@ public class OppoAppStartupManager {
         this.mSwitchInterceptActivity = false;
         this.mAms = null;
         this.mMonitorAll = SystemProperties.getBoolean("persist.sys.monitorall", false);
-        this.mServiceLock = new Object();
-        this.mReceiverLock = new Object();
-        this.mReceiverActionLock = new Object();
-        this.mProviderLock = new Object();
-        this.mActivityLock = new Object();
-        this.mActionLock = new Object();
-        this.mBlackguardLock = new Object();
-        this.mBuildAppBlackLock = new Object();
-        this.mStartServiceWhiteLock = new Object();
-        this.mStartServiceWhiteCpnLock = new Object();
-        this.mBindServiceWhiteLock = new Object();
-        this.mJobWhiteLock = new Object();
-        this.mSyncWhiteLock = new Object();
-        this.mNotifyWhiteLock = new Object();
-        this.mProviderWhiteLock = new Object();
-        this.mBroadcastWhiteLock = new Object();
-        this.mBroadcastActionWhiteLock = new Object();
-        this.mProtectLock = new Object();
         this.mAssociateStartWhiteLock = new Object();
-        this.mAuthorizeCpnListLock = new Object();
         this.mPayCpnLitLock = new Object();
         this.mCollectAppStartLock = new Object();
-        this.mActivityCallerWhitePkgLock = new Object();
-        this.mActivityCalledWhitePkgLock = new Object();
-        this.mActivityCalledWhiteCpnLock = new Object();
-        this.mActivityPkgKeyLock = new Object();
-        this.mActivityCalledKeyLock = new Object();
-        this.mBlackguardActivityLock = new Object();
         this.mCustomizeWhiteLock = new Object();
-        this.mSeviceCpnBlacklist = new ArrayList();
-        this.mReceiverBlackList = new ArrayList();
-        this.mReceiverActionBlackList = new ArrayList();
-        this.mProviderBlacklist = new ArrayList();
-        this.mActivityBlackList = new ArrayList();
-        this.mActionBlackList = new ArrayList();
-        this.mBlackguardList = new ArrayList();
         this.mCollectAppStartList = new ArrayList();
-        this.mActivityCallerWhitePkgList = new ArrayList();
-        this.mActivityCalledWhitePkgList = new ArrayList();
-        this.mActivityCalledWhiteCpnList = new ArrayList();
-        this.mActivityPkgKeyList = new ArrayList();
-        this.mActivityCalledKeyList = new ArrayList();
-        this.mBlackguardActivityList = new ArrayList();
         this.mCustomizeWhiteList = new ArrayList();
-        this.mBuildAppBlackList = new ArrayList();
-        this.mStartServiceWhiteList = new ArrayList();
-        this.mStartServiceWhiteCpnList = new ArrayList();
-        this.mBindServiceCpnWhiteList = new ArrayList();
-        this.mJobWhiteList = new ArrayList();
-        this.mSyncWhiteList = new ArrayList();
-        this.mNotifyWhiteList = new ArrayList();
-        this.mProviderCpnWhiteList = new ArrayList();
-        this.mBroadcastWhiteList = new ArrayList();
-        this.mBroadcastActionWhiteList = new ArrayList();
-        this.mProtectList = new ArrayList();
         this.mAssociateStartWhiteList = new ArrayList();
-        this.mAuthorizeCpnList = new ArrayList();
-        this.mGlobalWhiteList = new ArrayList();
         this.mMonitorAppUploadList = new ArrayList();
         this.mMonitorAppInfoList = new ArrayList();
         this.mLastCalledAcivityList = new ArrayList();
@@ -523,6 +372,7 @@ public class OppoAppStartupManager {
         this.mCollectBlackListInterceptList = new ArrayList();
         this.mCollectGamePayList = new ArrayList();
         this.mCollectPayCpnList = new ArrayList();
+        this.mPolicy = OppoAppStartupPolicy.EMPTY;
         this.mStartActivityReasonList = new ArrayList();
         this.mAudioManager = null;
         this.mHypnus = null;
@@ -614,7 +464,7 @@ public class OppoAppStartupManager {
                 Log.v("OppoAppStartupManager", "handleStartOrBindService cpnClassName == " + cpnClassName);
                 Log.v("OppoAppStartupManager", "handleStartOrBindService callerApp.processName == " + callerApp.processName);
             }
-            if (!(!inSeviceCpnlist(cpnClassName) || callerApp.processName == null || (callerApp.processName.contains(cpnPkgName) ^ 1) == 0)) {
+            if (this.mPolicy.isCrossPackageBlocked(OppoAppStartupPolicy.TYPE_SERVICE_CPN, callerApp.processName, cpnPkgName, cpnClassName)) {
                 if (this.mDebugSwitch) {
                     Log.v("OppoAppStartupManager", "handleStartOrBindService return undo!");
                 }
@@ -642,7 +492,7 @@ public class OppoAppStartupManager {
                 if (this.mDynamicDebug) {
                     Log.v("OppoAppStartupManager", "handleStartOrBindService pkgName == " + pkgName);
                 }
-                if (inActionlist(action) && pkgName != null && callerApp.processName != null && (callerApp.processName.contains(pkgName) ^ 1) != 0) {
+                if (this.mPolicy.isCrossPackageBlocked(OppoAppStartupPolicy.TYPE_SERVICE_ACTION, callerApp.processName, pkgName, action)) {
                     if (this.mDebugSwitch) {
                         Log.v("OppoAppStartupManager", "handleStartOrBindService return undo!");
                     }
@@ -683,7 +533,7 @@ public class OppoAppStartupManager {
                         Log.v("OppoAppStartupManager", "handleStartProvider return undo!");
                     }
                     result = true;
-                } else if (!(callerApp == null || !inProviderlist(cpnClassName) || callerApp.processName == null || (callerApp.processName.contains(cpnPkgName) ^ 1) == 0)) {
+                } else if (callerApp != null && this.mPolicy.isCrossPackageBlocked(OppoAppStartupPolicy.TYPE_PROVIDER_CPN, callerApp.processName, cpnPkgName, cpnClassName)) {
                     if (this.mDebugSwitch) {
                         Log.v("OppoAppStartupManager", "handleStartProvider return undo!");
                     }
@@ -737,7 +587,7 @@ public class OppoAppStartupManager {
                     Log.v("OppoAppStartupManager", "handleSpecialBroadcast cpnClassName == " + cpnClassName);
                     Log.v("OppoAppStartupManager", "handleSpecialBroadcast callerApp.processName == " + callerApp.processName);
                 }
-                if (!(!inReceiverlist(cpnClassName) || callerApp.processName == null || (callerApp.processName.contains(cpnPkgName) ^ 1) == 0)) {
+                if (this.mPolicy.isCrossPackageBlocked(OppoAppStartupPolicy.TYPE_RECEIVER_CPN, callerApp.processName, cpnPkgName, cpnClassName)) {
                     if (this.mDebugSwitch) {
                         Log.v("OppoAppStartupManager", "handleSpecialBroadcast return skip!");
                     }
@@ -756,7 +606,7 @@ public class OppoAppStartupManager {
                     if (this.mDynamicDebug) {
                         Log.v("OppoAppStartupManager", "handleSpecialBroadcast pkgName == " + pkgName);
                     }
-                    if (!(!inReceiverActionlist(action) || pkgName == null || callerApp.processName == null || (callerApp.processName.contains(pkgName) ^ 1) == 0)) {
+                    if (this.mPolicy.isCrossPackageBlocked(OppoAppStartupPolicy.TYPE_RECEIVER_ACTION, callerApp.processName, pkgName, action)) {
                         if (this.mDebugSwitch) {
                             Log.v("OppoAppStartupManager", "handleSpecialBroadcast return undo!");
                         }
@@ -835,7 +685,7 @@ public class OppoAppStartupManager {
                     }
                     collectLastCallActivityInfo(calledPackageName, cpnClassName);
                     return false;
-                } else if (!(!inActivityPushBlacklist(cpnClassName) || callingPackage == null || (callingPackage.contains(calledPackageName) ^ 1) == 0)) {
+                } else if (this.mPolicy.isCrossPackageBlocked(OppoAppStartupPolicy.TYPE_ACTIVITY_CPN, callingPackage, calledPackageName, cpnClassName)) {
                     if (this.mDebugSwitch) {
                         Log.v("OppoAppStartupManager", "handleStartActivity return undo!");
                     }
@@ -1332,10 +1182,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inSeviceCpnlist(String cpnClassName) {
-        boolean result;
-        synchronized (this.mServiceLock) {
-            result = this.mSeviceCpnBlacklist.contains(cpnClassName);
-        }
+        boolean result = this.mPolicy.inTypedBlackList(OppoAppStartupPolicy.TYPE_SERVICE_CPN, cpnClassName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", "inSeviceCpnlist result = " + result);
         }
@@ -1343,10 +1190,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inReceiverlist(String cpnClassName) {
-        boolean result;
-        synchronized (this.mReceiverLock) {
-            result = this.mReceiverBlackList.contains(cpnClassName);
-        }
+        boolean result = this.mPolicy.inTypedBlackList(OppoAppStartupPolicy.TYPE_RECEIVER_CPN, cpnClassName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", "inReceiverlist result = " + result);
         }
@@ -1354,10 +1198,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inReceiverActionlist(String action) {
-        boolean result;
-        synchronized (this.mReceiverActionLock) {
-            result = this.mReceiverActionBlackList.contains(action);
-        }
+        boolean result = this.mPolicy.inTypedBlackList(OppoAppStartupPolicy.TYPE_RECEIVER_ACTION, action);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", "inReceiverActionlist result = " + result);
         }
@@ -1365,10 +1206,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inProviderlist(String cpnClassName) {
-        boolean result;
-        synchronized (this.mProviderLock) {
-            result = this.mProviderBlacklist.contains(cpnClassName);
-        }
+        boolean result = this.mPolicy.inTypedBlackList(OppoAppStartupPolicy.TYPE_PROVIDER_CPN, cpnClassName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", "inProviderlist result = " + result);
         }
@@ -1376,10 +1214,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActivityPushBlacklist(String cpnClassName) {
-        boolean result;
-        synchronized (this.mActivityLock) {
-            result = this.mActivityBlackList.contains(cpnClassName);
-        }
+        boolean result = this.mPolicy.inTypedBlackList(OppoAppStartupPolicy.TYPE_ACTIVITY_CPN, cpnClassName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", "inActivityPushBlacklist result = " + result);
         }
@@ -1387,10 +1222,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActionlist(String action) {
-        boolean result;
-        synchronized (this.mActionLock) {
-            result = this.mActionBlackList.contains(action);
-        }
+        boolean result = this.mPolicy.inTypedBlackList(OppoAppStartupPolicy.TYPE_SERVICE_ACTION, action);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", "inActionlist result = " + result);
         }
@@ -1398,10 +1230,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inBlackguardList(String action) {
-        boolean result;
-        synchronized (this.mBlackguardLock) {
-            result = this.mBlackguardList.contains(action);
-        }
+        boolean result = this.mPolicy.inBlackguardList(action);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inBlackguardList result = " + result);
         }
@@ -1409,10 +1238,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActivityCallerWhitePkgList(String pkgName) {
-        boolean result;
-        synchronized (this.mActivityCallerWhitePkgLock) {
-            result = this.mActivityCallerWhitePkgList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inActivityCallerWhitePkgList(pkgName);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inActivityCallerWhitePkgList result = " + result);
         }
@@ -1420,10 +1246,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActivityCalledWhitePkgList(String pkgName) {
-        boolean result;
-        synchronized (this.mActivityCalledWhitePkgLock) {
-            result = this.mActivityCalledWhitePkgList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inActivityCalledWhitePkgList(pkgName);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inActivityCalledWhitePkgList result = " + result);
         }
@@ -1431,10 +1254,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActivityCalledWhiteCpnList(String pkgName) {
-        boolean result;
-        synchronized (this.mActivityCalledWhiteCpnLock) {
-            result = this.mActivityCalledWhiteCpnList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inActivityCalledWhiteCpnList(pkgName);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inActivityCalledWhiteCpnList result = " + result);
         }
@@ -1442,15 +1262,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActivityPkgKeyList(String pkgName) {
-        boolean result = false;
-        synchronized (this.mActivityPkgKeyLock) {
-            for (String pkgKey : this.mActivityPkgKeyList) {
-                if (pkgName.contains(pkgKey)) {
-                    result = true;
-                    break;
-                }
-            }
-        }
+        boolean result = this.mPolicy.inActivityPkgKeyList(pkgName);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inActivityPkgKeyList result = " + result);
         }
@@ -1458,10 +1270,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inActivityCalledKeyList(String pkgName) {
-        boolean result;
-        synchronized (this.mActivityCalledKeyLock) {
-            result = this.mActivityCalledKeyList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inActivityCalledKeyList(pkgName);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inActivityCalledKeyList result = " + result);
         }
@@ -1469,10 +1278,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inBlackguardActivityList(String activityCpn) {
-        boolean result;
-        synchronized (this.mBlackguardActivityLock) {
-            result = this.mBlackguardActivityList.contains(activityCpn);
-        }
+        boolean result = this.mPolicy.inBlackguardActivityList(activityCpn);
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "inBlackguardActivityList result = " + result);
         }
@@ -1491,10 +1297,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inBuildBlackList(String pkgName) {
-        boolean result;
-        synchronized (this.mBuildAppBlackLock) {
-            result = this.mBuildAppBlackList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inBuildBlackList(pkgName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inBuildBlackList result = " + result);
         }
@@ -1502,10 +1305,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inStartServiceWhiteList(String pkgName) {
-        boolean result;
-        synchronized (this.mStartServiceWhiteLock) {
-            result = this.mStartServiceWhiteList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inStartServiceWhiteList(pkgName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inStartServiceWhiteList result = " + result);
         }
@@ -1515,9 +1315,7 @@ public class OppoAppStartupManager {
     public boolean inStartServiceWhiteCpnList(ServiceRecord s) {
         boolean result = false;
         if (s.name != null) {
-            synchronized (this.mStartServiceWhiteCpnLock) {
-                result = this.mStartServiceWhiteCpnList.contains(s.name.getClassName());
-            }
+            result = this.mPolicy.inStartServiceWhiteCpnList(s.name.getClassName());
             if (this.mDynamicDebug) {
                 Log.d("OppoAppStartupManager", s.name.getClassName() + " mStartServiceWhiteCpnList result = " + result);
             }
@@ -1528,12 +1326,11 @@ public class OppoAppStartupManager {
     public boolean inBindServiceCpnWhiteList(ServiceRecord s) {
         boolean result = false;
         if (s.name != null) {
-            synchronized (this.mBindServiceWhiteLock) {
-                if (this.mBindServiceCpnWhiteList.isEmpty()) {
-                    result = OppoAppStartupListManager.getInstance().isInBindServiceCpnList(s.name.getClassName());
-                } else {
-                    result = this.mBindServiceCpnWhiteList.contains(s.name.getClassName());
-                }
+            OppoAppStartupPolicy policy = this.mPolicy;
+            if (policy.hasBindServiceCpnWhiteList()) {
+                result = policy.inBindServiceCpnWhiteList(s.name.getClassName());
+            } else {
+                result = OppoAppStartupListManager.getInstance().isInBindServiceCpnList(s.name.getClassName());
             }
         }
         if (this.mDynamicDebug) {
@@ -1543,12 +1340,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inJobWhiteList(String pkgName) {
-        boolean result = false;
-        if (pkgName != null) {
-            synchronized (this.mJobWhiteLock) {
-                result = this.mJobWhiteList.contains(pkgName);
-            }
-        }
+        boolean result = this.mPolicy.inJobWhiteList(pkgName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inJobWhiteList result = " + result);
         }
@@ -1556,12 +1348,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inSyncWhiteList(String pkgName) {
-        boolean result = false;
-        if (pkgName != null) {
-            synchronized (this.mSyncWhiteLock) {
-                result = this.mSyncWhiteList.contains(pkgName);
-            }
-        }
+        boolean result = this.mPolicy.inSyncWhiteList(pkgName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inSyncWhiteList result = " + result);
         }
@@ -1569,12 +1356,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inNotificationWhiteList(String pkgName) {
-        boolean result = false;
-        if (pkgName != null) {
-            synchronized (this.mNotifyWhiteLock) {
-                result = this.mNotifyWhiteList.contains(pkgName);
-            }
-        }
+        boolean result = this.mPolicy.inNotificationWhiteList(pkgName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inNotificationWhiteList result = " + result);
         }
@@ -1584,12 +1366,11 @@ public class OppoAppStartupManager {
     public boolean inProviderCpnWhiteList(ComponentName cpn) {
         boolean result = false;
         if (cpn != null) {
-            synchronized (this.mProviderWhiteLock) {
-                if (this.mProviderCpnWhiteList.isEmpty()) {
-                    result = OppoAppStartupListManager.getInstance().isInProviderCpnList(cpn.getClassName());
-                } else {
-                    result = this.mProviderCpnWhiteList.contains(cpn.getClassName());
-                }
+            OppoAppStartupPolicy policy = this.mPolicy;
+            if (policy.hasProviderCpnWhiteList()) {
+                result = policy.inProviderCpnWhiteList(cpn.getClassName());
+            } else {
+                result = OppoAppStartupListManager.getInstance().isInProviderCpnList(cpn.getClassName());
             }
         }
         if (this.mDynamicDebug) {
@@ -1599,10 +1380,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inBroadCastWhiteList(String pkgName) {
-        boolean result;
-        synchronized (this.mBroadcastWhiteLock) {
-            result = this.mBroadcastWhiteList.contains(pkgName);
-        }
+        boolean result = this.mPolicy.inBroadCastWhiteList(pkgName);
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inBroadCastWhiteList result = " + result);
         }
@@ -1612,9 +1390,7 @@ public class OppoAppStartupManager {
     public boolean inBroadCastActionWhiteList(Intent intent) {
         boolean result = false;
         if (!(intent == null || intent.getAction() == null)) {
-            synchronized (this.mBroadcastActionWhiteLock) {
-                result = this.mBroadcastActionWhiteList.contains(intent.getAction());
-            }
+            result = this.mPolicy.inBroadCastActionWhiteList(intent.getAction());
             if (this.mDynamicDebug) {
                 Log.d("OppoAppStartupManager", intent.getAction() + " inBroadCastActionWhiteList result = " + result);
             }
@@ -1624,12 +1400,11 @@ public class OppoAppStartupManager {
 
     public boolean inProtectWhiteList(String pkgName) {
         boolean result;
-        synchronized (this.mProtectLock) {
-            if (this.mProtectList.isEmpty()) {
-                result = OppoAppStartupListManager.getInstance().isInProtectWhiteList(pkgName);
-            } else {
-                result = this.mProtectList.contains(pkgName);
-            }
+        OppoAppStartupPolicy policy = this.mPolicy;
+        if (policy.hasProtectList()) {
+            result = policy.inProtectWhiteList(pkgName);
+        } else {
+            result = OppoAppStartupListManager.getInstance().isInProtectWhiteList(pkgName);
         }
         if (this.mDynamicDebug) {
             Log.d("OppoAppStartupManager", pkgName + " inProtectWhiteList result = " + result);
@@ -1638,10 +1413,7 @@ public class OppoAppStartupManager {
     }
 
     public boolean inGlobalWhiteList(String pkgName) {
-        if (this.mGlobalWhiteList.contains(pkgName)) {
-            return true;
-        }
-        return false;
+        return this.mPolicy.inGlobalWhiteList(pkgName);
     }
 
     public boolean inCollectAppStartList(String pkgName) {
@@ -1659,32 +1431,7 @@ public class OppoAppStartupManager {
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "updateConfiglist!");
         }
-        updateSeviceCpnBlacklist();
-        updateReceiverBlackList();
-        updateReceiverActionBlackList();
-        updateProviderBlackList();
-        updateActivityBlackList();
-        updateActionBlackList();
-        updateBlackguardList();
-        updateActivityCallerWhitePkgList();
-        updateActivityCalledWhitePkgList();
-        updateActivityCalledWhiteCpnList();
-        updateActivityPkgKeyList();
-        updateActivityCalledKeyList();
-        updateBlackguardActivityList();
-        updateBuildBlackList();
-        updateStartServiceWhiteList();
-        updateStartServiceWhiteCpnList();
-        updateBindServiceWhiteList();
-        updateJobWhiteList();
-        updateSyncWhiteList();
-        updateNotifyWhiteList();
-        updateProviderWhiteList();
-        updateBroadcastWhiteList();
-        updateBroadcastWhiteActionList();
-        updateProtectList();
-        updateGlobalWhiteList();
-        updateAuthorizeCpnList();
+        updatePolicy();
         updatePayCpnList();
         if (!this.mAms.mContext.getPackageManager().hasSystemFeature("oppo.customize.auto.start.disabled")) {
             this.mSwitchInterceptActivity = OppoAppStartupManagerUtils.getInstance().getSwitchInterceptActivity();
@@ -1717,136 +1464,6 @@ public class OppoAppStartupManager {
         OppoAppStartupManagerUtils.getInstance().cleanMonitorList();
     }
 
-    private void updateSeviceCpnBlacklist() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateSeviceCpnBlacklist!");
-        }
-        synchronized (this.mServiceLock) {
-            this.mSeviceCpnBlacklist.clear();
-            this.mSeviceCpnBlacklist.addAll(OppoAppStartupManagerUtils.getInstance().getSeviceCpnBlacklist());
-        }
-    }
-
-    private void updateReceiverBlackList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateReceiverBlackList!");
-        }
-        synchronized (this.mReceiverLock) {
-            this.mReceiverBlackList.clear();
-            this.mReceiverBlackList.addAll(OppoAppStartupManagerUtils.getInstance().getReceiverBlackList());
-        }
-    }
-
-    private void updateReceiverActionBlackList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateReceiverActionBlackList!");
-        }
-        synchronized (this.mReceiverActionLock) {
-            this.mReceiverActionBlackList.clear();
-            this.mReceiverActionBlackList.addAll(OppoAppStartupManagerUtils.getInstance().getReceiverActionBlackList());
-        }
-    }
-
-    private void updateProviderBlackList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateProviderBlackList!");
-        }
-        synchronized (this.mProviderLock) {
-            this.mProviderBlacklist.clear();
-            this.mProviderBlacklist.addAll(OppoAppStartupManagerUtils.getInstance().getProviderBlackList());
-        }
-    }
-
-    private void updateActivityBlackList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActivityBlackList!");
-        }
-        synchronized (this.mActivityLock) {
-            this.mActivityBlackList.clear();
-            this.mActivityBlackList.addAll(OppoAppStartupManagerUtils.getInstance().getActivityBlackList());
-        }
-    }
-
-    private void updateActionBlackList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActionBlackList!");
-        }
-        synchronized (this.mActionLock) {
-            this.mActionBlackList.clear();
-            this.mActionBlackList.addAll(OppoAppStartupManagerUtils.getInstance().getActionBlackList());
-        }
-    }
-
-    private void updateBlackguardList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateBlackguardList!");
-        }
-        synchronized (this.mBlackguardLock) {
-            this.mBlackguardList.clear();
-            this.mBlackguardList.addAll(OppoAppStartupManagerUtils.getInstance().getBlackguardList());
-        }
-    }
-
-    private void updateActivityCallerWhitePkgList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActivityCallerWhitePkgList!");
-        }
-        synchronized (this.mActivityCallerWhitePkgLock) {
-            this.mActivityCallerWhitePkgList.clear();
-            this.mActivityCallerWhitePkgList.addAll(OppoAppStartupManagerUtils.getInstance().getActivityCallerWhitePkgList());
-        }
-    }
-
-    private void updateActivityCalledWhitePkgList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActivityCalledWhitePkgList!");
-        }
-        synchronized (this.mActivityCalledWhitePkgLock) {
-            this.mActivityCalledWhitePkgList.clear();
-            this.mActivityCalledWhitePkgList.addAll(OppoAppStartupManagerUtils.getInstance().getActivityCalledWhitePkgList());
-        }
-    }
-
-    private void updateActivityCalledWhiteCpnList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActivityCalledWhiteCpnList!");
-        }
-        synchronized (this.mActivityCalledWhiteCpnLock) {
-            this.mActivityCalledWhiteCpnList.clear();
-            this.mActivityCalledWhiteCpnList.addAll(OppoAppStartupManagerUtils.getInstance().getActivityCalledWhiteCpnList());
-        }
-    }
-
-    private void updateActivityPkgKeyList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActivityPkgKeyList!");
-        }
-        synchronized (this.mActivityPkgKeyLock) {
-            this.mActivityPkgKeyList.clear();
-            this.mActivityPkgKeyList.addAll(OppoAppStartupManagerUtils.getInstance().getActivityPkgKeyList());
-        }
-    }
-
-    private void updateActivityCalledKeyList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateActivityCalledKeyList!");
-        }
-        synchronized (this.mActivityCalledKeyLock) {
-            this.mActivityCalledKeyList.clear();
-            this.mActivityCalledKeyList.addAll(OppoAppStartupManagerUtils.getInstance().getActivityCalledKeyList());
-        }
-    }
-
-    private void updateBlackguardActivityList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateBlackguardActivityList!");
-        }
-        synchronized (this.mBlackguardActivityLock) {
-            this.mBlackguardActivityList.clear();
-            this.mBlackguardActivityList.addAll(OppoAppStartupManagerUtils.getInstance().getBlackguardActivityList());
-        }
-    }
-
     private void updateCustomizeWhiteList() {
         if (this.mDebugSwitch) {
             Log.d("OppoAppStartupManager", "updateCustomizeWhiteList!");
@@ -1857,13 +1474,6 @@ public class OppoAppStartupManager {
         }
     }
 
-    private void updateGlobalWhiteList() {
-        if (this.mDebugSwitch) {
-            Log.d("OppoAppStartupManager", "updateGlobalWhiteList!");
-        }
-        this.mGlobalWhiteList = OppoListManager.getInstance().getGlobalWhiteList(this.mAms.mContext);
-    }
-
     private void updateMonitorAppStartList() {
         synchronized (this.mCollectAppStartLock) {
             this.mCollectAppStartList.clear();
@@ -1871,83 +1481,6 @@ public class OppoAppStartupManager {
         }
     }
 
-    private void updateBuildBlackList() {
-        synchronized (this.mBuildAppBlackLock) {
-            this.mBuildAppBlackList.clear();
-            this.mBuildAppBlackList.addAll(OppoAppStartupManagerUtils.getInstance().getBuildBlackList());
-        }
-    }
-
-    private void updateStartServiceWhiteList() {
-        synchronized (this.mStartServiceWhiteLock) {
-            this.mStartServiceWhiteList.clear();
-            this.mStartServiceWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getStartServiceWhiteList());
-        }
-    }
-
-    private void updateStartServiceWhiteCpnList() {
-        synchronized (this.mStartServiceWhiteCpnLock) {
-            this.mStartServiceWhiteCpnList.clear();
-            this.mStartServiceWhiteCpnList.addAll(OppoAppStartupManagerUtils.getInstance().getStartServiceWhiteCpnList());
-        }
-    }
-
-    private void updateBindServiceWhiteList() {
-        synchronized (this.mBindServiceCpnWhiteList) {
-            this.mBindServiceCpnWhiteList.clear();
-            this.mBindServiceCpnWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getBindServiceWhiteList());
-        }
-    }
-
-    private void updateJobWhiteList() {
-        synchronized (this.mJobWhiteLock) {
-            this.mJobWhiteList.clear();
-            this.mJobWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getJobWhiteList());
-        }
-    }
-
-    private void updateSyncWhiteList() {
-        synchronized (this.mSyncWhiteLock) {
-            this.mSyncWhiteList.clear();
-            this.mSyncWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getSyncWhiteList());
-        }
-    }
-
-    private void updateNotifyWhiteList() {
-        synchronized (this.mNotifyWhiteLock) {
-            this.mNotifyWhiteList.clear();
-            this.mNotifyWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getNotifyWhiteList());
-        }
-    }
-
-    private void updateProviderWhiteList() {
-        synchronized (this.mProviderWhiteLock) {
-            this.mProviderCpnWhiteList.clear();
-            this.mProviderCpnWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getProviderWhiteList());
-        }
-    }
-
-    private void updateBroadcastWhiteList() {
-        synchronized (this.mBroadcastWhiteLock) {
-            this.mBroadcastWhiteList.clear();
-            this.mBroadcastWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getBroadcastWhiteList());
-        }
-    }
-
-    private void updateBroadcastWhiteActionList() {
-        synchronized (this.mBroadcastActionWhiteLock) {
-            this.mBroadcastActionWhiteList.clear();
-            this.mBroadcastActionWhiteList.addAll(OppoAppStartupManagerUtils.getInstance().getBroadcastActionWhiteList());
-        }
-    }
-
-    private void updateProtectList() {
-        synchronized (this.mProtectLock) {
-            this.mProtectList.clear();
-            this.mProtectList.addAll(OppoAppStartupManagerUtils.getInstance().getProtectList());
-        }
-    }
-
     private void updateAssociateStartWhiteList() {
         synchronized (this.mAssociateStartWhiteLock) {
             this.mAssociateStartWhiteList.clear();
@@ -1955,10 +1488,14 @@ public class OppoAppStartupManager {
         }
     }
 
-    private void updateAuthorizeCpnList() {
-        synchronized (this.mAuthorizeCpnListLock) {
-            this.mAuthorizeCpnList.clear();
-            this.mAuthorizeCpnList.addAll(OppoAppStartupManagerUtils.getInstance().getAuthorizeCpnList());
+    private void updatePolicy() {
+        if (this.mDebugSwitch) {
+            Log.d("OppoAppStartupManager", "updatePolicy!");
+        }
+        synchronized (this) {
+            OppoAppStartupPolicy.Builder builder = OppoAppStartupPolicy.Builder.fromUtils(OppoAppStartupManagerUtils.getInstance());
+            builder.setGlobalWhiteList(OppoListManager.getInstance().getGlobalWhiteList(this.mAms.mContext));
+            this.mPolicy = builder.build();
         }
     }
 
@@ -2539,10 +2076,8 @@ public class OppoAppStartupManager {
             Log.d("OppoAppStartupManager", "collectLastCallActivityInfo pkgName or cpnName is null!");
             return;
         }
-        synchronized (this.mAuthorizeCpnListLock) {
-            if (this.mAuthorizeCpnList.contains(cpnName)) {
-                Log.d("OppoAppStartupManager", "collectLastCallActivityInfo cpnName must be filter!");
-            }
+        if (this.mPolicy.inAuthorizeCpnList(cpnName)) {
+            Log.d("OppoAppStartupManager", "collectLastCallActivityInfo cpnName must be filter!");
         }
     }
 
@@ -91,6 +91,7 @@ public class OppoAppStartupManagerUtils {
     private int mCallCheckCount = 50;
     private int mCheckCount = 200;
     private List<String> mCollectAppStartList = new ArrayList();
+    final Object mConfigListLock = new Object();
     private List<String> mCustomizeWhiteList = new ArrayList();
     private boolean mDebugSwitch = this.mDegugDetail;
     private boolean mDegugDetail = OppoAppStartupManager.DEBUG_DETAIL;
@@ -492,7 +493,9 @@ public class OppoAppStartupManagerUtils {
         if (this.mDebugSwitch) {
             Log.i("OppoAppStartupManager", "readStartupManagerFile start");
         }
-        readConfigFromFileLocked(new File(OPPO_STARTUP_MANAGER_FILE_PATH));
+        synchronized (this.mConfigListLock) {
+            readConfigFromFileLocked(new File(OPPO_STARTUP_MANAGER_FILE_PATH));
+        }
     }
 
     /* JADX WARNING: Removed duplicated region for block: B:355:? A:{SYNTHETIC, RETURN} */
@@ -916,92 +919,94 @@ public class OppoAppStartupManagerUtils {
     }
 
     protected void cleanConfigList() {
-        if (!this.mSeviceCpnBlacklist.isEmpty()) {
-            this.mSeviceCpnBlacklist.clear();
-        }
-        if (!this.mReceiverBlackList.isEmpty()) {
-            this.mReceiverBlackList.clear();
-        }
-        if (!this.mReceiverActionBlackList.isEmpty()) {
-            this.mReceiverActionBlackList.clear();
-        }
-        if (!this.mProviderBlackList.isEmpty()) {
-            this.mProviderBlackList.clear();
-        }
-        if (!this.mActivityBlackList.isEmpty()) {
-            this.mActivityBlackList.clear();
-        }
-        if (!this.mActionBlackList.isEmpty()) {
-            this.mActionBlackList.clear();
-        }
-        if (!this.mBlackguardList.isEmpty()) {
-            this.mBlackguardList.clear();
-        }
-        if (!this.mActivityCallerWhitePkgList.isEmpty()) {
-            this.mActivityCallerWhitePkgList.clear();
-        }
-        if (!this.mActivityCalledWhitePkgList.isEmpty()) {
-            this.mActivityCalledWhitePkgList.clear();
-        }
-        if (!this.mActivityCalledWhiteCpnList.isEmpty()) {
-            this.mActivityCalledWhiteCpnList.clear();
-        }
-        if (!this.mActivityPkgKeyList.isEmpty()) {
-            this.mActivityPkgKeyList.clear();
-        }
-        if (!this.mActivityCalledKeyList.isEmpty()) {
-            this.mActivityCalledKeyList.clear();
-        }
-        if (!this.mBlackguardActivityList.isEmpty()) {
-            this.mBlackguardActivityList.clear();
-        }
-        if (!this.mBuildAppBlackList.isEmpty()) {
-            this.mBuildAppBlackList.clear();
-        }
-        if (!this.mStartServiceWhiteList.isEmpty()) {
-            this.mStartServiceWhiteList.clear();
-        }
-        if (!this.mStartServiceWhiteCpnList.isEmpty()) {
-            this.mStartServiceWhiteCpnList.clear();
-        }
-        if (!this.mBindServiceWhiteCpnList.isEmpty()) {
-            this.mBindServiceWhiteCpnList.clear();
-        }
-        if (!this.mJobWhiteList.isEmpty()) {
-            this.mJobWhiteList.clear();
-        }
-        if (!this.mSyncWhiteList.isEmpty()) {
-            this.mSyncWhiteList.clear();
-        }
-        if (!this.mNotifyWhiteList.isEmpty()) {
-            this.mNotifyWhiteList.clear();
-        }
-        if (!this.mProviderWhiteCpnList.isEmpty()) {
-            this.mProviderWhiteCpnList.clear();
-        }
-        if (!this.mBroadcastWhitePkgList.isEmpty()) {
-            this.mBroadcastWhitePkgList.clear();
-        }
-        if (!this.mBroadcastActionWhiteList.isEmpty()) {
-            this.mBroadcastActionWhiteList.clear();
-        }
-        if (!this.mProtectWhiteList.isEmpty()) {
-            this.mProtectWhiteList.clear();
-        }
-        if (!this.mAuthorizeCpnList.isEmpty()) {
-            this.mAuthorizeCpnList.clear();
-        }
-        if (!this.mPayCpnList.isEmpty()) {
-            this.mPayCpnList.clear();
-        }
-        synchronized (this.mAamActivityWhiteListLock) {
-            if (!this.mAamActivityWhiteList.isEmpty()) {
-                this.mAamActivityWhiteList.clear();
+        synchronized (this.mConfigListLock) {
+            if (!this.mSeviceCpnBlacklist.isEmpty()) {
+                this.mSeviceCpnBlacklist.clear();
             }
-        }
-        synchronized (this.mAamProviderWhiteListLock) {
-            if (!this.mAamProviderWhiteList.isEmpty()) {
-                this.mAamProviderWhiteList.clear();
+            if (!this.mReceiverBlackList.isEmpty()) {
+                this.mReceiverBlackList.clear();
+            }
+            if (!this.mReceiverActionBlackList.isEmpty()) {
+                this.mReceiverActionBlackList.clear();
+            }
+            if (!this.mProviderBlackList.isEmpty()) {
+                this.mProviderBlackList.clear();
+            }
+            if (!this.mActivityBlackList.isEmpty()) {
+                this.mActivityBlackList.clear();
+            }
+            if (!this.mActionBlackList.isEmpty()) {
+                this.mActionBlackList.clear();
+            }
+            if (!this.mBlackguardList.isEmpty()) {
+                this.mBlackguardList.clear();
+            }
+            if (!this.mActivityCallerWhitePkgList.isEmpty()) {
+                this.mActivityCallerWhitePkgList.clear();
+            }
+            if (!this.mActivityCalledWhitePkgList.isEmpty()) {
+                this.mActivityCalledWhitePkgList.clear();
+            }
+            if (!this.mActivityCalledWhiteCpnList.isEmpty()) {
+                this.mActivityCalledWhiteCpnList.clear();
+            }
+            if (!this.mActivityPkgKeyList.isEmpty()) {
+                this.mActivityPkgKeyList.clear();
+            }
+            if (!this.mActivityCalledKeyList.isEmpty()) {
+                this.mActivityCalledKeyList.clear();
+            }
+            if (!this.mBlackguardActivityList.isEmpty()) {
+                this.mBlackguardActivityList.clear();
+            }
+            if (!this.mBuildAppBlackList.isEmpty()) {
+                this.mBuildAppBlackList.clear();
+            }
+            if (!this.mStartServiceWhiteList.isEmpty()) {
+                this.mStartServiceWhiteList.clear();
+            }
+            if (!this.mStartServiceWhiteCpnList.isEmpty()) {
+                this.mStartServiceWhiteCpnList.clear();
+            }
+            if (!this.mBindServiceWhiteCpnList.isEmpty()) {
+                this.mBindServiceWhiteCpnList.clear();
+            }
+            if (!this.mJobWhiteList.isEmpty()) {
+                this.mJobWhiteList.clear();
+            }
+            if (!this.mSyncWhiteList.isEmpty()) {
+                this.mSyncWhiteList.clear();
+            }
+            if (!this.mNotifyWhiteList.isEmpty()) {
+                this.mNotifyWhiteList.clear();
+            }
+            if (!this.mProviderWhiteCpnList.isEmpty()) {
+                this.mProviderWhiteCpnList.clear();
+            }
+            if (!this.mBroadcastWhitePkgList.isEmpty()) {
+                this.mBroadcastWhitePkgList.clear();
+            }
+            if (!this.mBroadcastActionWhiteList.isEmpty()) {
+                this.mBroadcastActionWhiteList.clear();
+            }
+            if (!this.mProtectWhiteList.isEmpty()) {
+                this.mProtectWhiteList.clear();
+            }
+            if (!this.mAuthorizeCpnList.isEmpty()) {
+                this.mAuthorizeCpnList.clear();
+            }
+            if (!this.mPayCpnList.isEmpty()) {
+                this.mPayCpnList.clear();
+            }
+            synchronized (this.mAamActivityWhiteListLock) {
+                if (!this.mAamActivityWhiteList.isEmpty()) {
+                    this.mAamActivityWhiteList.clear();
+                }
+            }
+            synchronized (this.mAamProviderWhiteListLock) {
+                if (!this.mAamProviderWhiteList.isEmpty()) {
+                    this.mAamProviderWhiteList.clear();
+                }
             }
         }
     }
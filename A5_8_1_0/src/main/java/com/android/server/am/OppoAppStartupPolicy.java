@@ -0,0 +1,280 @@
+package com.android.server.am;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable, hashed snapshot of the startup manager black/white lists.
+ * A new instance is compiled on every config reload and published by
+ * {@link OppoAppStartupManager} through a volatile reference, so the
+ * AMS start path can query it without taking any lock.
+ */
+final class OppoAppStartupPolicy {
+    static final int TYPE_SERVICE_CPN = 0;
+    static final int TYPE_SERVICE_ACTION = 1;
+    static final int TYPE_RECEIVER_CPN = 2;
+    static final int TYPE_RECEIVER_ACTION = 3;
+    static final int TYPE_PROVIDER_CPN = 4;
+    static final int TYPE_ACTIVITY_CPN = 5;
+    private static final int TYPE_COUNT = 6;
+    static final OppoAppStartupPolicy EMPTY = new Builder().build();
+    private final Set<String> mActivityCalledKeySet;
+    private final Set<String> mActivityCalledWhiteCpnSet;
+    private final Set<String> mActivityCalledWhitePkgSet;
+    private final Set<String> mActivityCallerWhitePkgSet;
+    private final String[] mActivityPkgKeys;
+    private final Set<String> mAuthorizeCpnSet;
+    private final Set<String> mBindServiceCpnWhiteSet;
+    private final Set<String> mBlackguardActivitySet;
+    private final Set<String> mBlackguardSet;
+    private final Set<String> mBroadcastActionWhiteSet;
+    private final Set<String> mBroadcastWhiteSet;
+    private final Set<String> mBuildAppBlackSet;
+    private final Set<String> mGlobalWhiteSet;
+    private final Set<String> mJobWhiteSet;
+    private final Set<String> mNotifyWhiteSet;
+    private final Set<String> mProtectSet;
+    private final Set<String> mProviderCpnWhiteSet;
+    private final Set<String> mStartServiceWhiteCpnSet;
+    private final Set<String> mStartServiceWhiteSet;
+    private final Set<String> mSyncWhiteSet;
+    private final Set<String>[] mTypedBlackSets;
+
+    static final class Builder {
+        private List<String> mActionBlackList;
+        private List<String> mActivityBlackList;
+        private List<String> mActivityCalledKeyList;
+        private List<String> mActivityCalledWhiteCpnList;
+        private List<String> mActivityCalledWhitePkgList;
+        private List<String> mActivityCallerWhitePkgList;
+        private List<String> mActivityPkgKeyList;
+        private List<String> mAuthorizeCpnList;
+        private List<String> mBindServiceCpnWhiteList;
+        private List<String> mBlackguardActivityList;
+        private List<String> mBlackguardList;
+        private List<String> mBroadcastActionWhiteList;
+        private List<String> mBroadcastWhiteList;
+        private List<String> mBuildAppBlackList;
+        private List<String> mGlobalWhiteList;
+        private List<String> mJobWhiteList;
+        private List<String> mNotifyWhiteList;
+        private List<String> mProtectList;
+        private List<String> mProviderBlackList;
+        private List<String> mProviderCpnWhiteList;
+        private List<String> mReceiverActionBlackList;
+        private List<String> mReceiverBlackList;
+        private List<String> mServiceCpnBlackList;
+        private List<String> mStartServiceWhiteCpnList;
+        private List<String> mStartServiceWhiteList;
+        private List<String> mSyncWhiteList;
+
+        Builder() {
+        }
+
+        static Builder fromUtils(OppoAppStartupManagerUtils utils) {
+            Builder builder = new Builder();
+            synchronized (utils.mConfigListLock) {
+                builder.mServiceCpnBlackList = copy(utils.getSeviceCpnBlacklist());
+                builder.mReceiverBlackList = copy(utils.getReceiverBlackList());
+                builder.mReceiverActionBlackList = copy(utils.getReceiverActionBlackList());
+                builder.mProviderBlackList = copy(utils.getProviderBlackList());
+                builder.mActivityBlackList = copy(utils.getActivityBlackList());
+                builder.mActionBlackList = copy(utils.getActionBlackList());
+                builder.mBlackguardList = copy(utils.getBlackguardList());
+                builder.mActivityCallerWhitePkgList = copy(utils.getActivityCallerWhitePkgList());
+                builder.mActivityCalledWhitePkgList = copy(utils.getActivityCalledWhitePkgList());
+                builder.mActivityCalledWhiteCpnList = copy(utils.getActivityCalledWhiteCpnList());
+                builder.mActivityPkgKeyList = copy(utils.getActivityPkgKeyList());
+                builder.mActivityCalledKeyList = copy(utils.getActivityCalledKeyList());
+                builder.mBlackguardActivityList = copy(utils.getBlackguardActivityList());
+                builder.mBuildAppBlackList = copy(utils.getBuildBlackList());
+                builder.mStartServiceWhiteList = copy(utils.getStartServiceWhiteList());
+                builder.mStartServiceWhiteCpnList = copy(utils.getStartServiceWhiteCpnList());
+                builder.mBindServiceCpnWhiteList = copy(utils.getBindServiceWhiteList());
+                builder.mJobWhiteList = copy(utils.getJobWhiteList());
+                builder.mSyncWhiteList = copy(utils.getSyncWhiteList());
+                builder.mNotifyWhiteList = copy(utils.getNotifyWhiteList());
+                builder.mProviderCpnWhiteList = copy(utils.getProviderWhiteList());
+                builder.mBroadcastWhiteList = copy(utils.getBroadcastWhiteList());
+                builder.mBroadcastActionWhiteList = copy(utils.getBroadcastActionWhiteList());
+                builder.mProtectList = copy(utils.getProtectList());
+                builder.mAuthorizeCpnList = copy(utils.getAuthorizeCpnList());
+            }
+            return builder;
+        }
+
+        private static List<String> copy(List<String> list) {
+            return list != null ? new ArrayList(list) : null;
+        }
+
+        Builder setGlobalWhiteList(List<String> list) {
+            this.mGlobalWhiteList = list;
+            return this;
+        }
+
+        OppoAppStartupPolicy build() {
+            return new OppoAppStartupPolicy(this);
+        }
+    }
+
+    private OppoAppStartupPolicy(Builder b) {
+        this.mTypedBlackSets = new Set[TYPE_COUNT];
+        this.mTypedBlackSets[TYPE_SERVICE_CPN] = compile(b.mServiceCpnBlackList);
+        this.mTypedBlackSets[TYPE_SERVICE_ACTION] = compile(b.mActionBlackList);
+        this.mTypedBlackSets[TYPE_RECEIVER_CPN] = compile(b.mReceiverBlackList);
+        this.mTypedBlackSets[TYPE_RECEIVER_ACTION] = compile(b.mReceiverActionBlackList);
+        this.mTypedBlackSets[TYPE_PROVIDER_CPN] = compile(b.mProviderBlackList);
+        this.mTypedBlackSets[TYPE_ACTIVITY_CPN] = compile(b.mActivityBlackList);
+        this.mBlackguardSet = compile(b.mBlackguardList);
+        this.mActivityCallerWhitePkgSet = compile(b.mActivityCallerWhitePkgList);
+        this.mActivityCalledWhitePkgSet = compile(b.mActivityCalledWhitePkgList);
+        this.mActivityCalledWhiteCpnSet = compile(b.mActivityCalledWhiteCpnList);
+        Set<String> keys = compile(b.mActivityPkgKeyList);
+        this.mActivityPkgKeys = (String[]) keys.toArray(new String[keys.size()]);
+        this.mActivityCalledKeySet = compile(b.mActivityCalledKeyList);
+        this.mBlackguardActivitySet = compile(b.mBlackguardActivityList);
+        this.mBuildAppBlackSet = compile(b.mBuildAppBlackList);
+        this.mStartServiceWhiteSet = compile(b.mStartServiceWhiteList);
+        this.mStartServiceWhiteCpnSet = compile(b.mStartServiceWhiteCpnList);
+        this.mBindServiceCpnWhiteSet = compile(b.mBindServiceCpnWhiteList);
+        this.mJobWhiteSet = compile(b.mJobWhiteList);
+        this.mSyncWhiteSet = compile(b.mSyncWhiteList);
+        this.mNotifyWhiteSet = compile(b.mNotifyWhiteList);
+        this.mProviderCpnWhiteSet = compile(b.mProviderCpnWhiteList);
+        this.mBroadcastWhiteSet = compile(b.mBroadcastWhiteList);
+        this.mBroadcastActionWhiteSet = compile(b.mBroadcastActionWhiteList);
+        this.mProtectSet = compile(b.mProtectList);
+        this.mGlobalWhiteSet = compile(b.mGlobalWhiteList);
+        this.mAuthorizeCpnSet = compile(b.mAuthorizeCpnList);
+    }
+
+    private static Set<String> compile(Collection<String> source) {
+        if (source == null || source.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> set = new HashSet(source);
+        set.remove(null);
+        return Collections.unmodifiableSet(set);
+    }
+
+    boolean inTypedBlackList(int type, String name) {
+        return name != null ? this.mTypedBlackSets[type].contains(name) : false;
+    }
+
+    /**
+     * Returns true if a start of {@code target} (component class or action) in
+     * {@code calleePkg} from {@code callerName} must be intercepted, i.e. the
+     * target is black listed for {@code type} and the caller is not the callee
+     * itself.
+     */
+    boolean isCrossPackageBlocked(int type, String callerName, String calleePkg, String target) {
+        if (callerName == null || calleePkg == null || target == null || !this.mTypedBlackSets[type].contains(target)) {
+            return false;
+        }
+        return !callerName.contains(calleePkg);
+    }
+
+    boolean inBlackguardList(String action) {
+        return action != null ? this.mBlackguardSet.contains(action) : false;
+    }
+
+    boolean inActivityCallerWhitePkgList(String pkgName) {
+        return pkgName != null ? this.mActivityCallerWhitePkgSet.contains(pkgName) : false;
+    }
+
+    boolean inActivityCalledWhitePkgList(String pkgName) {
+        return pkgName != null ? this.mActivityCalledWhitePkgSet.contains(pkgName) : false;
+    }
+
+    boolean inActivityCalledWhiteCpnList(String cpnName) {
+        return cpnName != null ? this.mActivityCalledWhiteCpnSet.contains(cpnName) : false;
+    }
+
+    boolean inActivityPkgKeyList(String pkgName) {
+        if (pkgName == null) {
+            return false;
+        }
+        for (String pkgKey : this.mActivityPkgKeys) {
+            if (pkgName.contains(pkgKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean inActivityCalledKeyList(String pkgName) {
+        return pkgName != null ? this.mActivityCalledKeySet.contains(pkgName) : false;
+    }
+
+    boolean inBlackguardActivityList(String activityCpn) {
+        return activityCpn != null ? this.mBlackguardActivitySet.contains(activityCpn) : false;
+    }
+
+    boolean inBuildBlackList(String pkgName) {
+        return pkgName != null ? this.mBuildAppBlackSet.contains(pkgName) : false;
+    }
+
+    boolean inStartServiceWhiteList(String pkgName) {
+        return pkgName != null ? this.mStartServiceWhiteSet.contains(pkgName) : false;
+    }
+
+    boolean inStartServiceWhiteCpnList(String cpnName) {
+        return cpnName != null ? this.mStartServiceWhiteCpnSet.contains(cpnName) : false;
+    }
+
+    boolean hasBindServiceCpnWhiteList() {
+        return !this.mBindServiceCpnWhiteSet.isEmpty();
+    }
+
+    boolean inBindServiceCpnWhiteList(String cpnName) {
+        return cpnName != null ? this.mBindServiceCpnWhiteSet.contains(cpnName) : false;
+    }
+
+    boolean inJobWhiteList(String pkgName) {
+        return pkgName != null ? this.mJobWhiteSet.contains(pkgName) : false;
+    }
+
+    boolean inSyncWhiteList(String pkgName) {
+        return pkgName != null ? this.mSyncWhiteSet.contains(pkgName) : false;
+    }
+
+    boolean inNotificationWhiteList(String pkgName) {
+        return pkgName != null ? this.mNotifyWhiteSet.contains(pkgName) : false;
+    }
+
+    boolean hasProviderCpnWhiteList() {
+        return !this.mProviderCpnWhiteSet.isEmpty();
+    }
+
+    boolean inProviderCpnWhiteList(String cpnName) {
+        return cpnName != null ? this.mProviderCpnWhiteSet.contains(cpnName) : false;
+    }
+
+    boolean inBroadCastWhiteList(String pkgName) {
+        return pkgName != null ? this.mBroadcastWhiteSet.contains(pkgName) : false;
+    }
+
+    boolean inBroadCastActionWhiteList(String action) {
+        return action != null ? this.mBroadcastActionWhiteSet.contains(action) : false;
+    }
+
+    boolean hasProtectList() {
+        return !this.mProtectSet.isEmpty();
+    }
+
+    boolean inProtectWhiteList(String pkgName) {
+        return pkgName != null ? this.mProtectSet.contains(pkgName) : false;
+    }
+
+    boolean inGlobalWhiteList(String pkgName) {
+        return pkgName != null ? this.mGlobalWhiteSet.contains(pkgName) : false;
+    }
+
+    boolean inAuthorizeCpnList(String cpnName) {
+        return cpnName != null ? this.mAuthorizeCpnSet.contains(cpnName) : false;
+    }
+}
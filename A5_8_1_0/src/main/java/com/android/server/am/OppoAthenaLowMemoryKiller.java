@@ -3,22 +3,78 @@ package com.android.server.am;
 import android.app.ActivityManager.MemoryInfo;
 import android.app.AppGlobals;
 import android.app.IAthenaLMKCallback;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.IBinder.DeathRecipient;
+import android.os.Looper;
+import android.os.Message;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.os.SystemProperties;
+import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
+import android.util.SparseArray;
 import com.android.server.storage.OppoDeviceStorageMonitorService;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 public class OppoAthenaLowMemoryKiller {
     private static final boolean DEBUG = SystemProperties.getBoolean("persist.sys.assert.panic", false);
+    private static final int KILL_CHILD_MIN_ADJ = 200;
+    private static final long MEM_POLL_INTERVAL = 50;
+    private static final long MEM_SETTLE_TIMEOUT = 1000;
+    private static final int MSG_CHECK_MEMORY = 2;
+    private static final int MSG_SCAN = 1;
     private static final String TAG = "Athena[LMK]";
     private static OppoAthenaLowMemoryKiller sInstance = null;
+    private final SparseArray<ArraySet<Candidate>> mAdjBuckets = new SparseArray();
     private final ActivityManagerService mAms;
     private IAthenaLMKCallback mCallback = null;
+    private final ArrayMap<ProcessRecord, Candidate> mCandidates = new ArrayMap();
+    private final KillHandler mHandler;
+    private final MemoryInfo mMemoryInfo = new MemoryInfo();
+    private final ArrayMap<String, ArrayList<Candidate>> mPackageIndex = new ArrayMap();
+    private final ArrayList<ProcessRecord> mPendingKills = new ArrayList();
+    private final ArrayList<String> mScanPackages = new ArrayList();
+    private int mScanPos;
+    private final ArraySet<String> mSeenPackages = new ArraySet();
+    private long mSettleDeadline;
+    private int mThresholdMemSize;
+    private int mThresholdOomAdj;
+    private final ArraySet<String> mWhiteList = new ArraySet();
+
+    private static final class Candidate {
+        int adj;
+        final ProcessRecord app;
+        final String packageName;
+
+        Candidate(ProcessRecord app) {
+            this.app = app;
+            this.packageName = app.info.packageName;
+            this.adj = app.setAdj;
+        }
+    }
+
+    private final class KillHandler extends Handler {
+        KillHandler(Looper looper) {
+            super(looper);
+        }
+
+        public void handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_SCAN:
+                    OppoAthenaLowMemoryKiller.this.selectCandidates((List) msg.obj, msg.arg1, msg.arg2);
+                    return;
+                case MSG_CHECK_MEMORY:
+                    OppoAthenaLowMemoryKiller.this.checkMemory();
+                    return;
+                default:
+                    return;
+            }
+        }
+    }
 
     private class TokenWatcher implements DeathRecipient {
         IBinder mToken;
@@ -42,9 +98,16 @@ public class OppoAthenaLowMemoryKiller {
 
     private OppoAthenaLowMemoryKiller(ActivityManagerService service) {
         this.mAms = service;
+        HandlerThread thread = new HandlerThread("AthenaLMK", -2);
+        thread.start();
+        this.mHandler = new KillHandler(thread.getLooper());
     }
 
-    public static OppoAthenaLowMemoryKiller getInstance(ActivityManagerService service) {
+    /**
+     * AMS keeps the instance in mAthenaLowMemoryKiller, so the oom_adj and
+     * LRU hooks never take this lock.
+     */
+    public static synchronized OppoAthenaLowMemoryKiller getInstance(ActivityManagerService service) {
         if (sInstance == null) {
             sInstance = new OppoAthenaLowMemoryKiller(service);
         }
@@ -61,90 +124,185 @@ public class OppoAthenaLowMemoryKiller {
         }
     }
 
+    /**
+     * Called by AMS with its lock held whenever the oom_adj of a process
+     * has been applied, keeps the adj buckets and package groups current
+     * so a scan never has to walk mLruProcesses.
+     */
+    void onOomAdjChangedLocked(ProcessRecord app) {
+        if (app.info != null && app.info.packageName != null) {
+            Candidate candidate = (Candidate) this.mCandidates.get(app);
+            if (candidate == null) {
+                candidate = new Candidate(app);
+                this.mCandidates.put(app, candidate);
+                ArrayList<Candidate> group = (ArrayList) this.mPackageIndex.get(candidate.packageName);
+                if (group == null) {
+                    group = new ArrayList(2);
+                    this.mPackageIndex.put(candidate.packageName, group);
+                }
+                group.add(candidate);
+            } else if (candidate.adj != app.setAdj) {
+                removeFromBucket(candidate);
+                candidate.adj = app.setAdj;
+            } else {
+                return;
+            }
+            ArraySet<Candidate> bucket = (ArraySet) this.mAdjBuckets.get(candidate.adj);
+            if (bucket == null) {
+                bucket = new ArraySet();
+                this.mAdjBuckets.put(candidate.adj, bucket);
+            }
+            bucket.add(candidate);
+        }
+    }
+
+    void onProcessRemovedLocked(ProcessRecord app) {
+        Candidate candidate = (Candidate) this.mCandidates.remove(app);
+        if (candidate != null) {
+            removeFromBucket(candidate);
+            ArrayList<Candidate> group = (ArrayList) this.mPackageIndex.get(candidate.packageName);
+            if (group != null) {
+                group.remove(candidate);
+                if (group.isEmpty()) {
+                    this.mPackageIndex.remove(candidate.packageName);
+                }
+            }
+        }
+    }
+
+    private void removeFromBucket(Candidate candidate) {
+        ArraySet<Candidate> bucket = (ArraySet) this.mAdjBuckets.get(candidate.adj);
+        if (bucket != null) {
+            bucket.remove(candidate);
+        }
+    }
+
     private int getAvailMemory() {
-        MemoryInfo mi = new MemoryInfo();
-        this.mAms.getMemoryInfo(mi);
-        return (int) (mi.availMem / OppoDeviceStorageMonitorService.MB_BYTES);
+        this.mAms.getMemoryInfo(this.mMemoryInfo);
+        return (int) (this.mMemoryInfo.availMem / OppoDeviceStorageMonitorService.MB_BYTES);
     }
 
+    /**
+     * Schedules a scan and returns immediately; kills are carried out on the
+     * AthenaLMK thread and the registered callback is told via onFinish().
+     * A new request supersedes one that is still in progress.
+     */
     public int doLowMemoryScan(int thresholdMemSize, int thresholdOomAdj, List<String> whiteList, List<String> list) {
-        long startTime = System.currentTimeMillis();
-        Iterable lruList = null;
-        try {
-            if (!this.mAms.mLruProcesses.isEmpty()) {
-                lruList = new ArrayList(this.mAms.mLruProcesses);
-            }
-            if (lruList == null) {
-                return -1;
-            }
-            List<ProcessRecord> childList;
-            HashMap<String, List<ProcessRecord>> candidateMap = new HashMap();
-            for (ProcessRecord app : lruList) {
-                if (app.uid > 10000 && app.curAdj >= thresholdOomAdj && app.info != null && (app.info.flags & 1) == 0) {
-                    List list2 = null;
-                    if (candidateMap.containsKey(app.info.packageName)) {
-                        list2 = (List) candidateMap.get(app.info.packageName);
-                    }
-                    if (list2 == null) {
-                        list2 = new ArrayList();
+        if (this.mAms.mLruProcesses.isEmpty()) {
+            return -1;
+        }
+        this.mHandler.removeMessages(MSG_CHECK_MEMORY);
+        this.mHandler.obtainMessage(MSG_SCAN, thresholdMemSize, thresholdOomAdj, whiteList).sendToTarget();
+        return 0;
+    }
+
+    private void selectCandidates(List<String> whiteList, int thresholdMemSize, int thresholdOomAdj) {
+        long startTime = SystemClock.uptimeMillis();
+        this.mThresholdMemSize = thresholdMemSize;
+        this.mThresholdOomAdj = thresholdOomAdj;
+        this.mWhiteList.clear();
+        if (whiteList != null) {
+            this.mWhiteList.addAll(whiteList);
+        }
+        this.mScanPackages.clear();
+        this.mSeenPackages.clear();
+        this.mScanPos = 0;
+        synchronized (this.mAms) {
+            for (int i = this.mAdjBuckets.size() - 1; i >= 0 && this.mAdjBuckets.keyAt(i) >= thresholdOomAdj; i--) {
+                ArraySet<Candidate> bucket = (ArraySet) this.mAdjBuckets.valueAt(i);
+                for (int j = bucket.size() - 1; j >= 0; j--) {
+                    Candidate candidate = (Candidate) bucket.valueAt(j);
+                    ProcessRecord app = candidate.app;
+                    if (app.uid > 10000 && app.info != null && (app.info.flags & 1) == 0 && !this.mWhiteList.contains(candidate.packageName) && this.mSeenPackages.add(candidate.packageName)) {
+                        this.mScanPackages.add(candidate.packageName);
                     }
-                    list2.add(app);
-                    candidateMap.put(app.info.packageName, list2);
                 }
             }
-            for (ProcessRecord app2 : lruList) {
-                if (app2.info != null && app2.curAdj > 200 && candidateMap.containsKey(app2.info.packageName)) {
-                    childList = (List) candidateMap.get(app2.info.packageName);
-                    if (childList == null) {
-                        childList = new ArrayList();
-                    }
-                    childList.add(app2);
-                    candidateMap.put(app2.info.packageName, childList);
-                }
+        }
+        if (DEBUG) {
+            Log.d(TAG, "selected " + this.mScanPackages.size() + " packages in " + (SystemClock.uptimeMillis() - startTime) + "ms");
+        }
+        killNextPackage();
+    }
+
+    private void killNextPackage() {
+        List<String> foregroundAppList = null;
+        boolean queriedForeground = false;
+        while (this.mScanPos < this.mScanPackages.size()) {
+            String packageName = (String) this.mScanPackages.get(this.mScanPos);
+            this.mScanPos++;
+            if (!queriedForeground) {
+                foregroundAppList = this.mAms.getAllTopPkgName();
+                queriedForeground = true;
             }
-            for (String packageName : candidateMap.keySet()) {
-                if (whiteList == null || !whiteList.contains(packageName)) {
-                    childList = (List) candidateMap.get(packageName);
-                    if (childList != null) {
-                        List<String> foregroundAppList = this.mAms.getAllTopPkgName();
-                        if (foregroundAppList == null || !foregroundAppList.contains(packageName)) {
-                            int userId = -1;
-                            for (ProcessRecord app22 : childList) {
-                                userId = app22.uid;
-                                String reason = "Athena[LMK]:" + app22.adjType;
-                                Log.w(TAG, "K [" + app22.pid + "] " + app22.processName + "(almk+" + app22.curAdj + ")");
-                                app22.kill(reason, true);
-                            }
-                            if (this.mCallback != null) {
-                                this.mCallback.onAppKilled(packageName);
-                            }
-                            AppGlobals.getPackageManager().setPackageStoppedState(packageName, true, userId);
-                            Thread.sleep(1000);
-                            if (getAvailMemory() >= thresholdMemSize) {
-                                if (DEBUG) {
-                                    Log.w(TAG, "done in advance");
-                                }
+            if (foregroundAppList == null || !foregroundAppList.contains(packageName)) {
+                int userId = -1;
+                this.mPendingKills.clear();
+                synchronized (this.mAms) {
+                    ArrayList<Candidate> group = (ArrayList) this.mPackageIndex.get(packageName);
+                    if (group != null) {
+                        for (int j = group.size() - 1; j >= 0; j--) {
+                            ProcessRecord app = ((Candidate) group.get(j)).app;
+                            // Processes at or above the requested adj, plus any other
+                            // process of the package above perceptible.
+                            if (!app.killed && (app.curAdj >= this.mThresholdOomAdj || app.curAdj > KILL_CHILD_MIN_ADJ)) {
+                                this.mPendingKills.add(app);
                             }
-                        } else if (DEBUG) {
-                            Log.d(TAG, "detect fg: " + packageName);
                         }
-                    } else {
-                        continue;
+                    }
+                    for (int j = this.mPendingKills.size() - 1; j >= 0; j--) {
+                        ProcessRecord app2 = (ProcessRecord) this.mPendingKills.get(j);
+                        userId = app2.uid;
+                        Log.w(TAG, "K [" + app2.pid + "] " + app2.processName + "(almk+" + app2.curAdj + ")");
+                        app2.kill("Athena[LMK]:" + app2.adjType, true);
                     }
                 }
-            }
-            try {
-                if (this.mCallback != null) {
-                    this.mCallback.onFinish();
+                if (!this.mPendingKills.isEmpty()) {
+                    this.mPendingKills.clear();
+                    try {
+                        if (this.mCallback != null) {
+                            this.mCallback.onAppKilled(packageName);
+                        }
+                        AppGlobals.getPackageManager().setPackageStoppedState(packageName, true, userId);
+                    } catch (RemoteException e) {
+                        e.printStackTrace();
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                    this.mSettleDeadline = SystemClock.uptimeMillis() + MEM_SETTLE_TIMEOUT;
+                    this.mHandler.sendEmptyMessageDelayed(MSG_CHECK_MEMORY, MEM_POLL_INTERVAL);
+                    return;
                 }
-            } catch (Exception e) {
-                Log.w(TAG, "onFinish Exception " + e);
+            } else if (DEBUG) {
+                Log.d(TAG, "detect fg: " + packageName);
+            }
+        }
+        finishScan();
+    }
+
+    private void checkMemory() {
+        if (getAvailMemory() >= this.mThresholdMemSize) {
+            if (DEBUG) {
+                Log.w(TAG, "done in advance");
+            }
+            finishScan();
+        } else if (SystemClock.uptimeMillis() < this.mSettleDeadline) {
+            this.mHandler.sendEmptyMessageDelayed(MSG_CHECK_MEMORY, MEM_POLL_INTERVAL);
+        } else {
+            killNextPackage();
+        }
+    }
+
+    private void finishScan() {
+        this.mScanPackages.clear();
+        this.mSeenPackages.clear();
+        this.mScanPos = 0;
+        try {
+            if (this.mCallback != null) {
+                this.mCallback.onFinish();
             }
-            return 0;
-        } catch (RemoteException e2) {
-            e2.printStackTrace();
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        } catch (Exception e) {
+            Log.w(TAG, "onFinish Exception " + e);
         }
     }
 }
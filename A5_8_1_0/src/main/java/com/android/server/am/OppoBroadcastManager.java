@@ -13,7 +13,6 @@ import android.database.ContentObserver;
 import android.media.AudioManager;
 import android.net.Uri;
 import android.net.arp.OppoArpPeer;
-import android.os.FileObserver;
 import android.os.Handler;
 import android.os.PowerManagerInternal;
 import android.os.ServiceManager;
@@ -25,6 +24,7 @@ import android.util.Xml;
 import android.view.inputmethod.InputMethodInfo;
 import com.android.server.InputMethodManagerService;
 import com.android.server.LocalServices;
+import com.android.server.OppoConfigListRegistry;
 import com.android.server.ServiceThread;
 import com.android.server.coloros.OppoListManager;
 import java.io.File;
@@ -76,7 +76,6 @@ class OppoBroadcastManager {
     private AppWidgetManager mAppWidgetMgr = null;
     private AudioManager mAudioManager = null;
     private List<String> mBroadcastNameList;
-    private FileObserverPolicy mConfigFileObserver;
     private Context mContext;
     private String mCurrentDefaultImePkgName = null;
     private boolean mEnableAdjustOrderedBroadcastRecQue = false;
@@ -124,24 +123,6 @@ class OppoBroadcastManager {
         }
     };
 
-    private class FileObserverPolicy extends FileObserver {
-        private String focusPath;
-
-        public FileObserverPolicy(String path) {
-            super(path, 8);
-            this.focusPath = path;
-        }
-
-        public void onEvent(int event, String path) {
-            if (event == 8 && this.focusPath.equals(OppoBroadcastManager.OPPO_SKIP_BROADCAST_CONFIG)) {
-                if (OppoBroadcastManager.DEBUG_BROADCAST_FIREWALL_LIGHT) {
-                    Slog.i(OppoBroadcastManager.TAG, "onEvent: focusPath = OPPO_SKIP_BROADCAST_CONFIG");
-                }
-                OppoBroadcastManager.this.readConfigFile();
-            }
-        }
-    }
-
     private class ImeSettingsObserver extends ContentObserver {
         private Handler mHandler;
 
@@ -329,8 +310,14 @@ class OppoBroadcastManager {
     }
 
     private void initFileObserver() {
-        this.mConfigFileObserver = new FileObserverPolicy(OPPO_SKIP_BROADCAST_CONFIG);
-        this.mConfigFileObserver.startWatching();
+        OppoConfigListRegistry.getInstance().watch(OPPO_SKIP_BROADCAST_CONFIG, new Runnable() {
+            public void run() {
+                if (OppoBroadcastManager.DEBUG_BROADCAST_FIREWALL_LIGHT) {
+                    Slog.i(OppoBroadcastManager.TAG, "onEvent: focusPath = OPPO_SKIP_BROADCAST_CONFIG");
+                }
+                OppoBroadcastManager.this.readConfigFile();
+            }
+        });
     }
 
     public List<String> readXMLFile(String path, String name) {
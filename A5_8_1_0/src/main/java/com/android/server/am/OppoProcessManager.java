@@ -23,6 +23,8 @@ import android.util.Slog;
 import android.view.inputmethod.InputMethodInfo;
 import com.android.server.OppoBPMHelper;
 import com.android.server.OppoBPMUtils;
+import com.android.server.OppoConfigListRegistry;
+import com.android.server.OppoConfigListRegistry.NameSet;
 import com.android.server.coloros.OppoListManager;
 import com.android.server.oppo.ElsaManagerProxy;
 import com.android.server.oppo.IElsaManager;
@@ -121,29 +123,22 @@ public class OppoProcessManager {
     private ActivityManagerService mActivityManager = null;
     private ArrayMap<String, Integer> mAllAppRecordMap = new ArrayMap();
     private long mAppChangeCheckTime = 30000;
-    private List<String> mAppWidgetList = new ArrayList();
-    private final Object mAppWidgetLock = new Object();
+    private volatile NameSet mAppWidgetList = NameSet.EMPTY;
     private ArrayList<String> mAssociateKeyList = new ArrayList();
     private ArrayMap<String, String> mAssociateKeyMap = new ArrayMap();
     private AudioManager mAudioManager;
     private boolean mBPMSwitch = true;
-    private List<String> mBlackAppBrdList = new ArrayList();
-    private final Object mBlackAppBrdLock = new Object();
-    private List<String> mBlackAppList = new ArrayList();
-    private final Object mBlackAppLock = new Object();
-    private List<String> mBlackSysAppList = new ArrayList();
-    private final Object mBlackSysAppLock = new Object();
+    private volatile NameSet mBlackAppBrdList = NameSet.EMPTY;
+    private volatile NameSet mBlackAppList = NameSet.EMPTY;
+    private volatile NameSet mBlackSysAppList = NameSet.EMPTY;
     private BPMHandler mBpmHandler = null;
-    private List<String> mBpmList = new ArrayList();
-    private final Object mBpmLock = new Object();
-    private List<String> mBrdList = new ArrayList();
-    private final Object mBrdLock = new Object();
+    private volatile NameSet mBpmList = NameSet.EMPTY;
+    private volatile NameSet mBrdList = NameSet.EMPTY;
     private ArrayList<String> mBrdWhiteKeyList = new ArrayList();
     private IOppoAppFreezeController mController = null;
     private List<String> mCprList = new ArrayList();
     private final Object mCprLock = new Object();
-    private List<String> mCustomizeAppList = new ArrayList();
-    private final Object mCustomizeAppLock = new Object();
+    private volatile NameSet mCustomizeAppList = NameSet.EMPTY;
     boolean mDebugSwitch = (sDebugDetail | this.mDynamicDebug);
     private String mDefaultInputMethod = null;
     private ContentObserver mDefaultInputMethodObserver = new ContentObserver(this.mBpmHandler) {
@@ -151,8 +146,7 @@ public class OppoProcessManager {
             OppoProcessManager.this.mDefaultInputMethod = OppoProcessManager.this.getDefaultInputMethod();
         }
     };
-    private ArrayList<String> mDisplayDeviceList = new ArrayList();
-    private final Object mDisplayDeviceListLock = new Object();
+    private volatile NameSet mDisplayDeviceList = NameSet.EMPTY;
     boolean mDynamicDebug = false;
     private boolean mFeatureExpRom = false;
     private boolean mFreezeSwitch = true;
@@ -161,14 +155,13 @@ public class OppoProcessManager {
     private boolean mIsInOffHook = false;
     private boolean mIsScreenOn = true;
     private int mModeStatus = 0;
-    private List<String> mNewPolicyBrdActionWhiteList = new ArrayList();
+    private volatile NameSet mNewPolicyBrdActionWhiteList = NameSet.EMPTY;
     private boolean mNewPolicyBrdEnable = false;
-    private List<String> mNewPolicyBrdPkgWhiteList = new ArrayList();
+    private volatile NameSet mNewPolicyBrdPkgWhiteList = NameSet.EMPTY;
     private long mPayModeEnterTime = 5000;
     private boolean mPaySafeSwitch = false;
     private long mPeriodCheckTime = 180000;
-    private List<String> mPkgList = new ArrayList();
-    private final Object mPkgLock = new Object();
+    private volatile NameSet mPkgList = NameSet.EMPTY;
     private boolean mPowerConnStatus = false;
     private PowerManagerInternal mPowerManagerInternal = null;
     private int mRecentNum = 0;
@@ -180,8 +173,7 @@ public class OppoProcessManager {
     private boolean mStrictMode = false;
     private long mStrictModeEnterTime = 60000;
     private boolean mStrictModeSwitch = true;
-    private List<String> mStrictWhitePkgList = new ArrayList();
-    private final Object mStrictWhitePkgListLock = new Object();
+    private volatile NameSet mStrictWhitePkgList = NameSet.EMPTY;
     private ArrayList<Integer> mVisibleWindowList = new ArrayList();
     private ArrayMap<Integer, List<Integer>> mVisibleWindowMap = new ArrayMap();
     private WindowManagerService mWindowManager = null;
@@ -595,7 +587,7 @@ public class OppoProcessManager {
     }
 
     private void updateWidgets() {
-        OppoBPMHelper.updateProviders(this.mAppWidgetList);
+        OppoBPMHelper.updateProviders(this.mAppWidgetList.toList());
     }
 
     private void updateWidget(String pkg) {
@@ -730,7 +722,7 @@ public class OppoProcessManager {
     private void displayListToSendBroadcastLocked() {
         if (this.mActivityManager != null) {
             Intent intent = new Intent(UPDATE_DISPLAY_DEVICE_ACTION);
-            intent.putExtra(UPDATE_DISPLAY_DEVICE_KEY, this.mDisplayDeviceList);
+            intent.putExtra(UPDATE_DISPLAY_DEVICE_KEY, this.mDisplayDeviceList.toList());
             this.mActivityManager.mContext.sendBroadcast(intent);
         }
     }
@@ -865,113 +857,43 @@ public class OppoProcessManager {
     }
 
     public boolean isInBpmList(String pkgName) {
-        synchronized (this.mBpmLock) {
-            if (this.mBpmList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mBpmList.contains(pkgName);
     }
 
     public boolean isInBpmList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mBpmLock) {
-            for (String pkg : this.mBpmList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mBpmList.containsAny(app.getPackageList());
     }
 
     public boolean isInPkgList(String pkgName) {
-        synchronized (this.mPkgLock) {
-            if (this.mPkgList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mPkgList.contains(pkgName);
     }
 
     public boolean isInPkgList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mPkgLock) {
-            for (String pkg : this.mPkgList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mPkgList.containsAny(app.getPackageList());
     }
 
     public boolean isInAppWidgetList(String pkgName) {
-        synchronized (this.mAppWidgetLock) {
-            if (this.mAppWidgetList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mAppWidgetList.contains(pkgName);
     }
 
     public boolean isInAppWidgetList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mAppWidgetLock) {
-            for (String pkg : this.mAppWidgetList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mAppWidgetList.containsAny(app.getPackageList());
     }
 
     public boolean isInDisplayDeviceList(String pkgName) {
-        synchronized (this.mDisplayDeviceListLock) {
-            if (this.mDisplayDeviceList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mDisplayDeviceList.contains(pkgName);
     }
 
     public boolean isInDisplayDeviceList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mDisplayDeviceListLock) {
-            for (String pkg : this.mDisplayDeviceList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mDisplayDeviceList.containsAny(app.getPackageList());
     }
 
     public boolean isInCustomizeAppList(String pkgName) {
-        synchronized (this.mCustomizeAppLock) {
-            if (this.mCustomizeAppList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mCustomizeAppList.contains(pkgName);
     }
 
     public boolean isInCustomizeAppList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mCustomizeAppLock) {
-            for (String pkg : this.mCustomizeAppList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mCustomizeAppList.containsAny(app.getPackageList());
     }
 
     public boolean isInGlobalWhiteList(String pkgName) {
@@ -1021,84 +943,37 @@ public class OppoProcessManager {
     }
 
     public boolean isInBlackSysAppList(String pkgName) {
-        synchronized (this.mBlackSysAppLock) {
-            if (this.mBlackSysAppList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mBlackSysAppList.contains(pkgName);
     }
 
     public boolean isInBlackSysAppList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mBlackSysAppLock) {
-            for (String pkg : this.mBlackSysAppList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mBlackSysAppList.containsAny(app.getPackageList());
     }
 
     public boolean isInBlackList(String pkgName) {
-        synchronized (this.mBlackAppLock) {
-            if (this.mBlackAppList.contains(pkgName)) {
-                return true;
-            }
-            return false;
-        }
+        return this.mBlackAppList.contains(pkgName);
     }
 
     public boolean isInBlackList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mBlackAppLock) {
-            for (String pkg : this.mBlackAppList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mBlackAppList.containsAny(app.getPackageList());
     }
 
     public boolean isInBrdList(BroadcastRecord r) {
         if (r == null || r.intent == null) {
             return false;
         }
-        synchronized (this.mBrdLock) {
-            if (this.mBrdList.contains(r.intent.getAction())) {
-                return true;
-            }
-            return false;
-        }
+        return this.mBrdList.contains(r.intent.getAction());
     }
 
     public boolean isInNewPolicyBrdPkgWhiteList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mNewPolicyBrdPkgWhiteList) {
-            for (String pkg : this.mNewPolicyBrdPkgWhiteList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mNewPolicyBrdPkgWhiteList.containsAny(app.getPackageList());
     }
 
     public boolean isInNewPolicyBrdActionWhiteList(BroadcastRecord r) {
         if (r == null || r.intent == null) {
             return false;
         }
-        synchronized (this.mNewPolicyBrdActionWhiteList) {
-            if (this.mNewPolicyBrdActionWhiteList.contains(r.intent.getAction())) {
-                return true;
-            }
-            return false;
-        }
+        return this.mNewPolicyBrdActionWhiteList.contains(r.intent.getAction());
     }
 
     public boolean isInContentProviderWhiteList(String pkgName) {
@@ -1119,46 +994,27 @@ public class OppoProcessManager {
     }
 
     public boolean isInBlackAppBrdList(BroadcastRecord r) {
-        if (r == null || r.intent == null) {
+        if (r == null || r.intent == null || !this.mBlackAppBrdList.contains(r.intent.getAction())) {
             return false;
         }
-        synchronized (this.mBlackAppBrdLock) {
-            if (this.mBlackAppBrdList.contains(r.intent.getAction())) {
-                if (this.mDebugSwitch) {
-                    Log.d(TAG, "isInBlackAppBrdList " + r.intent.getAction());
-                }
-                return true;
-            }
-            return false;
+        if (this.mDebugSwitch) {
+            Log.d(TAG, "isInBlackAppBrdList " + r.intent.getAction());
         }
+        return true;
     }
 
     public boolean isInStrictWhitePkgList(String pkg) {
-        if (pkg == null) {
+        if (pkg == null || !this.mStrictWhitePkgList.contains(pkg)) {
             return false;
         }
-        synchronized (this.mStrictWhitePkgListLock) {
-            if (this.mStrictWhitePkgList.contains(pkg)) {
-                if (this.mDebugSwitch) {
-                    Log.d(TAG, "isInStrictWhitePkgList " + pkg);
-                }
-                return true;
-            }
-            return false;
+        if (this.mDebugSwitch) {
+            Log.d(TAG, "isInStrictWhitePkgList " + pkg);
         }
+        return true;
     }
 
     public boolean isInStrictWhitePkgList(ProcessRecord app) {
-        boolean result = false;
-        synchronized (this.mStrictWhitePkgListLock) {
-            for (String pkg : this.mStrictWhitePkgList) {
-                if (isInclude(pkg, app.getPackageList())) {
-                    result = true;
-                    break;
-                }
-            }
-        }
-        return result;
+        return this.mStrictWhitePkgList.containsAny(app.getPackageList());
     }
 
     public boolean isInBrdWhiteKey(ProcessRecord app) {
@@ -1178,30 +1034,21 @@ public class OppoProcessManager {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateBpmList!");
         }
-        synchronized (this.mBpmLock) {
-            this.mBpmList.clear();
-            this.mBpmList.addAll(OppoBPMUtils.getInstance().getVisibleList());
-        }
+        this.mBpmList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getVisibleList());
     }
 
     public void updatePkgList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updatePkgList!");
         }
-        synchronized (this.mPkgLock) {
-            this.mPkgList.clear();
-            this.mPkgList.addAll(OppoBPMUtils.getInstance().getInVisibleList());
-        }
+        this.mPkgList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getInVisibleList());
     }
 
     public void updateBrdList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateBrdList!");
         }
-        synchronized (this.mBrdLock) {
-            this.mBrdList.clear();
-            this.mBrdList.addAll(OppoBPMUtils.getInstance().getBrdWhiteList());
-        }
+        this.mBrdList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getBrdWhiteList());
     }
 
     public void updateCprList() {
@@ -1214,80 +1061,56 @@ public class OppoProcessManager {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateBlackSysAppList!");
         }
-        synchronized (this.mBlackSysAppLock) {
-            this.mBlackSysAppList.clear();
-            this.mBlackSysAppList.addAll(OppoBPMUtils.getInstance().getSysBlackList());
-        }
+        this.mBlackSysAppList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getSysBlackList());
     }
 
     public void updateAppWidgetList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateAppWidgetList!");
         }
-        synchronized (this.mAppWidgetLock) {
-            this.mAppWidgetList.clear();
-            this.mAppWidgetList.addAll(OppoBPMUtils.getInstance().getAppWidgetList());
-        }
+        this.mAppWidgetList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getAppWidgetList());
     }
 
     public void updateBlackAppList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateBlackAppList!");
         }
-        synchronized (this.mBlackAppLock) {
-            this.mBlackAppList.clear();
-            this.mBlackAppList.addAll(OppoBPMUtils.getInstance().getThirdAppBlackList());
-        }
+        this.mBlackAppList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getThirdAppBlackList());
     }
 
     public void updateStrictWhitePkgList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateStrictWhitePkgList!");
         }
-        synchronized (this.mStrictWhitePkgListLock) {
-            this.mStrictWhitePkgList.clear();
-            this.mStrictWhitePkgList.addAll(OppoBPMUtils.getInstance().getStrictModeList());
-        }
+        this.mStrictWhitePkgList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getStrictModeList());
     }
 
     public void updateCustomizeAppList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateCustomizeAppList!");
         }
-        synchronized (this.mCustomizeAppLock) {
-            this.mCustomizeAppList.clear();
-            this.mCustomizeAppList.addAll(OppoBPMUtils.getInstance().getCustomizeAppList());
-        }
+        this.mCustomizeAppList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getCustomizeAppList());
     }
 
     public void updateBrdBlackList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateBrdBlackList!");
         }
-        synchronized (this.mBlackAppBrdLock) {
-            this.mBlackAppBrdList.clear();
-            this.mBlackAppBrdList.addAll(OppoBPMUtils.getInstance().getBrdBlackList());
-        }
+        this.mBlackAppBrdList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getBrdBlackList());
     }
 
     public void updateNewPolicyBrdPkgWhiteList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateNewPolicyBrdPkgWhiteList!");
         }
-        synchronized (this.mNewPolicyBrdPkgWhiteList) {
-            this.mNewPolicyBrdPkgWhiteList.clear();
-            this.mNewPolicyBrdPkgWhiteList.addAll(OppoBPMUtils.getInstance().getNewPolicyBrdPkgWhiteList());
-        }
+        this.mNewPolicyBrdPkgWhiteList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getNewPolicyBrdPkgWhiteList());
     }
 
     public void updateNewPolicyBrdActionWhiteList() {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateNewPolicyBrdActionWhiteList!");
         }
-        synchronized (this.mNewPolicyBrdActionWhiteList) {
-            this.mNewPolicyBrdActionWhiteList.clear();
-            this.mNewPolicyBrdActionWhiteList.addAll(OppoBPMUtils.getInstance().getNewPolicyBrdActionWhiteList());
-        }
+        this.mNewPolicyBrdActionWhiteList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getNewPolicyBrdActionWhiteList());
     }
 
     public void updateGlobalWhiteList() {
@@ -1313,10 +1136,7 @@ public class OppoProcessManager {
         if (this.mDebugSwitch) {
             Log.d(TAG, "updateDisplayDeviceList!");
         }
-        synchronized (this.mDisplayDeviceListLock) {
-            this.mDisplayDeviceList.clear();
-            this.mDisplayDeviceList.addAll(OppoBPMUtils.getInstance().getDisplayDeviceList());
-        }
+        this.mDisplayDeviceList = OppoConfigListRegistry.getInstance().newNameSet(OppoBPMUtils.getInstance().getDisplayDeviceList());
     }
 
     public void updateBrdWhiteKeyList() {
@@ -1385,11 +1205,10 @@ public class OppoProcessManager {
 
     public void handleAppWidgetUpdateMsg() {
         String widgetPkgName = null;
-        List<String> oldAppWidgetList = new ArrayList();
-        oldAppWidgetList.addAll(this.mAppWidgetList);
+        NameSet oldAppWidgetList = this.mAppWidgetList;
         updateAppWidgetList();
         if (this.mAppWidgetList.size() > oldAppWidgetList.size()) {
-            for (String pkg : this.mAppWidgetList) {
+            for (String pkg : this.mAppWidgetList.toList()) {
                 if (!oldAppWidgetList.contains(pkg)) {
                     widgetPkgName = pkg;
                     break;
@@ -1399,7 +1218,6 @@ public class OppoProcessManager {
         if (isEnable()) {
             updateProcessStateForWidgetChanged(widgetPkgName);
         }
-        oldAppWidgetList.clear();
     }
 
     public void handlePowerConnStsUpdateMsg() {
@@ -7,7 +7,6 @@ import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
-import android.os.FileObserver;
 import android.os.FileUtils;
 import android.os.Handler;
 import android.os.HandlerThread;
@@ -23,6 +22,7 @@ import android.util.Log;
 import android.util.Xml;
 import com.android.server.OppoBPMHelper;
 import com.android.server.OppoBPMUtils;
+import com.android.server.OppoConfigListRegistry;
 import com.android.server.am.ActivityManagerService;
 import com.android.server.am.OppoCrashClearManager;
 import com.android.server.am.OppoFreeFormManagerService;
@@ -124,21 +124,17 @@ public class OppoListManager {
     private static OppoListManager sOppoListManager = null;
     private boolean DEBUG_SWITCH = SystemProperties.getBoolean("persist.sys.assert.panic", false);
     private List<String> mAccountSyncWhiteList = new ArrayList();
-    private FileObserverPolicy mAccountSyncWhiteListFileObserver = null;
     private final Object mAccountSyncWhiteListLock = new Object();
     private List<String> mAllowManifestNetBroList = new ArrayList();
     private List<String> mAppPhoneCpnList = new ArrayList();
     private final Object mAppPhoneCpnListLock = new Object();
-    private FileObserverPolicy mAutoBootFileObserver = null;
     private List<String> mAutoBootWhiteList = new ArrayList();
     private final Object mAutoBootWhiteListLock = new Object();
     private List<String> mBackClipInterceptWhiteList = new ArrayList();
-    private FileObserverPolicy mBackKeyCleanupFilterFileObserver = null;
     private final Object mBackKeyCleanupFilterListLock = new Object();
     private List<String> mBackKeyFilterList = new ArrayList();
     private boolean mBackKeyInitFromFile = false;
     private boolean mBackKeyKillSwitch = true;
-    private FileObserverPolicy mBrowserInterceptFileObserver = null;
     private List<String> mBrowserWhiteList = new ArrayList();
     private final Object mBrowserWhiteListLock = new Object();
     private Context mContext;
@@ -175,59 +171,15 @@ public class OppoListManager {
     private List<String> mRemoveTaskFilterProcessList = new ArrayList();
     private List<String> mSecurePayActivityList = new ArrayList();
     private ArrayMap<String, List<String>> mStartForbiddenList = new ArrayMap();
-    private FileObserverPolicy mStartForbiddenObserver = null;
     private List<String> mStartFromControlCenterPkgList = new ArrayList();
     private final Object mStartFromControlCenterPkgLock = new Object();
     private List<String> mStartFromNotifyPkgList = new ArrayList();
     private final Object mStartFromNotifyPkgLock = new Object();
     private HashSet<String> mSystemAppList = new HashSet(300);
     private final Object mSystemAppListLock = new Object();
-    private FileObserverPolicy mSystemConfigFileObserver = null;
     private final Object mSystemConfigListLock = new Object();
     private boolean mUploadSelfProtectSwitch = true;
 
-    private class FileObserverPolicy extends FileObserver {
-        private String mFocusPath;
-
-        public FileObserverPolicy(String path) {
-            super(path, 8);
-            this.mFocusPath = path;
-        }
-
-        public void onEvent(int event, String path) {
-            if (event == 8) {
-                if (this.mFocusPath.equals(OppoListManager.AUTOBOOT_MANGER_FILE)) {
-                    Log.i(OppoListManager.TAG, "focusPath AUTOBOOT_MANGER_FILE!");
-                    OppoListManager.this.readAutoBootListFile();
-                }
-                if (this.mFocusPath.equals(OppoListManager.BROWSER_WHITE_LIST_FILE)) {
-                    Log.i(OppoListManager.TAG, "focusPath BROWSER_WHITE_LIST_FILE!");
-                    OppoListManager.this.readBrowserWhiteListFile();
-                }
-                if (this.mFocusPath.equals(OppoListManager.SYSTEM_CONFIG_LIST_FILE)) {
-                    Log.i(OppoListManager.TAG, "/data/oppo/coloros/config/systemConfigList.xml changed!");
-                    synchronized (OppoListManager.this.mSystemConfigListLock) {
-                        OppoListManager.this.readSystemConfigListLocked();
-                    }
-                }
-                if (this.mFocusPath.equals(OppoListManager.OPPO_ROM_BLACK_LIST_FILE)) {
-                    Log.i(OppoListManager.TAG, "/data/oppo/coloros/startup/sys_rom_black_list.xml changed!");
-                    synchronized (OppoListManager.mSFLock) {
-                        OppoListManager.this.readRomListFileLocked();
-                    }
-                }
-                if (this.mFocusPath.equals(OppoListManager.BACK_KEY_FILTER_FILE)) {
-                    Log.i(OppoListManager.TAG, "focusPath BACK_KEY_FILTER_FILE!");
-                    OppoListManager.this.readBackKeyCleanupFilterFile();
-                }
-                if (this.mFocusPath.equals(OppoListManager.ACCOUNTSYNC_MANGER_FILE)) {
-                    Log.i(OppoListManager.TAG, "focusPath ACCOUNTSYNC_MANGER_FILE!");
-                    OppoListManager.this.readAccountSyncWhiteListFile();
-                }
-            }
-        }
-    }
-
     private class OppoListManagerHandler extends Handler {
         public OppoListManagerHandler(Looper looper) {
             super(looper);
@@ -373,18 +325,47 @@ public class OppoListManager {
     }
 
     private void initFileObserver() {
-        this.mAutoBootFileObserver = new FileObserverPolicy(AUTOBOOT_MANGER_FILE);
-        this.mAutoBootFileObserver.startWatching();
-        this.mBrowserInterceptFileObserver = new FileObserverPolicy(BROWSER_WHITE_LIST_FILE);
-        this.mBrowserInterceptFileObserver.startWatching();
-        this.mSystemConfigFileObserver = new FileObserverPolicy(SYSTEM_CONFIG_LIST_FILE);
-        this.mSystemConfigFileObserver.startWatching();
-        this.mStartForbiddenObserver = new FileObserverPolicy(OPPO_ROM_BLACK_LIST_FILE);
-        this.mStartForbiddenObserver.startWatching();
-        this.mBackKeyCleanupFilterFileObserver = new FileObserverPolicy(BACK_KEY_FILTER_FILE);
-        this.mBackKeyCleanupFilterFileObserver.startWatching();
-        this.mAccountSyncWhiteListFileObserver = new FileObserverPolicy(ACCOUNTSYNC_MANGER_FILE);
-        this.mAccountSyncWhiteListFileObserver.startWatching();
+        OppoConfigListRegistry registry = OppoConfigListRegistry.getInstance();
+        registry.watch(AUTOBOOT_MANGER_FILE, new Runnable() {
+            public void run() {
+                Log.i(OppoListManager.TAG, "focusPath AUTOBOOT_MANGER_FILE!");
+                OppoListManager.this.readAutoBootListFile();
+            }
+        });
+        registry.watch(BROWSER_WHITE_LIST_FILE, new Runnable() {
+            public void run() {
+                Log.i(OppoListManager.TAG, "focusPath BROWSER_WHITE_LIST_FILE!");
+                OppoListManager.this.readBrowserWhiteListFile();
+            }
+        });
+        registry.watch(SYSTEM_CONFIG_LIST_FILE, new Runnable() {
+            public void run() {
+                Log.i(OppoListManager.TAG, "/data/oppo/coloros/config/systemConfigList.xml changed!");
+                synchronized (OppoListManager.this.mSystemConfigListLock) {
+                    OppoListManager.this.readSystemConfigListLocked();
+                }
+            }
+        });
+        registry.watch(OPPO_ROM_BLACK_LIST_FILE, new Runnable() {
+            public void run() {
+                Log.i(OppoListManager.TAG, "/data/oppo/coloros/startup/sys_rom_black_list.xml changed!");
+                synchronized (OppoListManager.mSFLock) {
+                    OppoListManager.this.readRomListFileLocked();
+                }
+            }
+        });
+        registry.watch(BACK_KEY_FILTER_FILE, new Runnable() {
+            public void run() {
+                Log.i(OppoListManager.TAG, "focusPath BACK_KEY_FILTER_FILE!");
+                OppoListManager.this.readBackKeyCleanupFilterFile();
+            }
+        });
+        registry.watch(ACCOUNTSYNC_MANGER_FILE, new Runnable() {
+            public void run() {
+                Log.i(OppoListManager.TAG, "focusPath ACCOUNTSYNC_MANGER_FILE!");
+                OppoListManager.this.readAccountSyncWhiteListFile();
+            }
+        });
     }
 
     public boolean isAppStartForbidden(String pkgName) {
@@ -15,7 +15,10 @@ import android.os.SystemProperties;
 import android.os.UserHandle;
 import android.util.Log;
 import com.android.internal.app.IHypnusService.Stub;
+import com.android.internal.util.DumpUtils;
 import com.oppo.hypnus.Hypnus;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.Timer;
@@ -254,4 +257,14 @@ public class HypnusService extends Stub {
             Log.i(TAG, "enableWifiPowerSaveMode");
         }
     }
+
+    protected void dump(FileDescriptor fd, PrintWriter pw, String[] args) {
+        if (DumpUtils.checkDumpPermission(this.mContext, TAG, pw)) {
+            if (this.mHyp != null) {
+                this.mHyp.dump(pw);
+            } else {
+                pw.println("mHyp is not initialized!");
+            }
+        }
+    }
 }
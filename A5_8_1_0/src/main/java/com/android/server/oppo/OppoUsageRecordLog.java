@@ -0,0 +1,278 @@
+package com.android.server.oppo;
+
+import android.util.Slog;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented store for the usage history records of
+ * OppoUsageService (app usage, install/uninstall events, boot times, ...).
+ *
+ * Records are appended with their length and a CRC, so appending never
+ * rewrites earlier data and payloads of any length are stored whole. A
+ * segment is named after the time of its first record in hex and is closed
+ * once it reaches MAX_SEGMENT_BYTES or spans more than SEGMENT_SPAN_MS;
+ * only the newest MAX_SEGMENTS segments are kept. A torn record at the end
+ * of a segment (power loss during a write) is dropped when the segment is
+ * reopened, and readers stop at the first record that does not check out.
+ *
+ * Record layout (big endian):
+ * <pre>
+ * long time, int length, byte[length] utf-8 payload, int crc32
+ * </pre>
+ */
+final class OppoUsageRecordLog {
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_PAYLOAD = 65536;
+    private static final long MAX_SEGMENT_BYTES = 2097152;
+    private static final int MAX_SEGMENTS = 2;
+    private static final long SEGMENT_SPAN_MS = 2592000000L;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TAG = "OppoUsageRecordLog";
+    private final CRC32 mCrc = new CRC32();
+    private long mCurBytes;
+    private RandomAccessFile mCurOut = null;
+    private long mCurStartTime;
+    private final File mDir;
+    private final byte[] mHeader = new byte[HEADER_SIZE];
+    private final ArrayList<File> mSegments = new ArrayList();
+
+    interface RecordVisitor {
+        boolean onRecord(long time, String content);
+    }
+
+    OppoUsageRecordLog(File dir) {
+        this.mDir = dir;
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        loadSegments();
+    }
+
+    private void loadSegments() {
+        String[] names = this.mDir.list();
+        if (names != null) {
+            Arrays.sort(names);
+            for (String name : names) {
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    this.mSegments.add(new File(this.mDir, name));
+                }
+            }
+        }
+        if (!this.mSegments.isEmpty()) {
+            File last = (File) this.mSegments.get(this.mSegments.size() - 1);
+            this.mCurStartTime = parseStartTime(last);
+            this.mCurBytes = last.length();
+        }
+    }
+
+    private static long parseStartTime(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Appends one record. Returns false, without storing anything, if the
+     * record could not be written or its payload is larger than
+     * MAX_PAYLOAD bytes; payloads are never truncated.
+     */
+    synchronized boolean append(long time, String content) {
+        if (content == null || content.isEmpty()) {
+            return false;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_PAYLOAD) {
+            Slog.w(TAG, "rejecting " + bytes.length + " byte record in " + this.mDir);
+            return false;
+        }
+        try {
+            if (this.mSegments.isEmpty() || this.mCurBytes >= MAX_SEGMENT_BYTES || time - this.mCurStartTime >= SEGMENT_SPAN_MS) {
+                rollOver(time);
+            }
+            if (this.mCurOut == null) {
+                openCurrent();
+            }
+            byte[] record = new byte[(HEADER_SIZE + bytes.length) + 4];
+            putLong(record, 0, time);
+            putInt(record, 8, bytes.length);
+            System.arraycopy(bytes, 0, record, HEADER_SIZE, bytes.length);
+            putInt(record, record.length - 4, crc(record, record.length - 4));
+            this.mCurOut.write(record);
+            this.mCurBytes += (long) record.length;
+            return true;
+        } catch (IOException e) {
+            Slog.w(TAG, "append failed in " + this.mDir, e);
+            closeCurrent();
+            return false;
+        }
+    }
+
+    /**
+     * Closes the current segment so the next record starts a new one named
+     * after {@code time}. Used to keep imported history files apart.
+     */
+    synchronized void startSegment(long time) {
+        rollOver(time);
+    }
+
+    private void rollOver(long time) {
+        closeCurrent();
+        File segment = new File(this.mDir, String.format("%016x", new Object[]{Long.valueOf(time)}) + SEGMENT_SUFFIX);
+        if (!this.mSegments.isEmpty()) {
+            File last = (File) this.mSegments.get(this.mSegments.size() - 1);
+            if (segment.getName().compareTo(last.getName()) <= 0) {
+                segment = new File(this.mDir, String.format("%016x", new Object[]{Long.valueOf(parseStartTime(last) + 1)}) + SEGMENT_SUFFIX);
+            }
+        }
+        this.mSegments.add(segment);
+        this.mCurStartTime = time;
+        this.mCurBytes = 0;
+        while (this.mSegments.size() > MAX_SEGMENTS) {
+            ((File) this.mSegments.remove(0)).delete();
+        }
+    }
+
+    private void openCurrent() throws IOException {
+        this.mCurOut = new RandomAccessFile((File) this.mSegments.get(this.mSegments.size() - 1), "rw");
+        long length = this.mCurOut.length();
+        long valid = scan(this.mCurOut, 0, 0, null);
+        if (valid != length) {
+            Slog.w(TAG, "dropping torn tail of " + (length - valid) + " bytes in " + this.mDir);
+            this.mCurOut.setLength(valid);
+        }
+        this.mCurOut.seek(valid);
+        this.mCurBytes = valid;
+    }
+
+    private void closeCurrent() {
+        if (this.mCurOut != null) {
+            try {
+                this.mCurOut.close();
+            } catch (IOException e) {
+            }
+            this.mCurOut = null;
+        }
+    }
+
+    /**
+     * Reads records from the start of {@code in} until the end of the file,
+     * the first record that is truncated or fails its CRC, or until the
+     * visitor returns false or has been given {@code limit} records. The
+     * first {@code offset} records are checked but not decoded. Returns the
+     * offset just past the last valid record read.
+     */
+    private long scan(RandomAccessFile in, int offset, int limit, RecordVisitor visitor) throws IOException {
+        long end = in.length();
+        long pos = 0;
+        int index = 0;
+        in.seek(0);
+        while (end - pos >= ((long) (HEADER_SIZE + 4))) {
+            in.readFully(this.mHeader);
+            int length = getInt(this.mHeader, 8);
+            if (length < 0 || length > MAX_PAYLOAD || ((long) ((HEADER_SIZE + length) + 4)) > end - pos) {
+                break;
+            }
+            byte[] record = new byte[(HEADER_SIZE + length) + 4];
+            System.arraycopy(this.mHeader, 0, record, 0, HEADER_SIZE);
+            in.readFully(record, HEADER_SIZE, length + 4);
+            if (getInt(record, record.length - 4) != crc(record, record.length - 4)) {
+                Slog.w(TAG, "bad crc at " + pos + " in " + this.mDir);
+                break;
+            }
+            pos += (long) record.length;
+            if (visitor != null && index++ >= offset && (!visitor.onRecord(getLong(record, 0), new String(record, HEADER_SIZE, length, StandardCharsets.UTF_8)) || index - offset >= limit)) {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    synchronized int getSegmentCount() {
+        return this.mSegments.size();
+    }
+
+    /**
+     * Streams up to {@code limit} records of one segment, newest segment
+     * first ({@code age} 0), in the order they were written, starting at
+     * record {@code offset}. Stops early when the visitor returns false.
+     */
+    synchronized void read(int age, int offset, int limit, RecordVisitor visitor) {
+        int index = (this.mSegments.size() - 1) - age;
+        if (index >= 0 && limit > 0) {
+            File segment = (File) this.mSegments.get(index);
+            if (segment.exists()) {
+                RandomAccessFile in = null;
+                try {
+                    in = new RandomAccessFile(segment, "r");
+                    scan(in, offset, limit, visitor);
+                } catch (IOException e) {
+                    Slog.w(TAG, "read failed " + segment, e);
+                } finally {
+                    if (in != null) {
+                        try {
+                            in.close();
+                        } catch (IOException e2) {
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes and deletes the segment being written, so an import that
+     * failed half way leaves nothing behind.
+     */
+    synchronized void dropCurrentSegment() {
+        closeCurrent();
+        if (!this.mSegments.isEmpty()) {
+            ((File) this.mSegments.remove(this.mSegments.size() - 1)).delete();
+        }
+        if (!this.mSegments.isEmpty()) {
+            File last = (File) this.mSegments.get(this.mSegments.size() - 1);
+            this.mCurStartTime = parseStartTime(last);
+            this.mCurBytes = last.length();
+        }
+    }
+
+    private int crc(byte[] record, int length) {
+        this.mCrc.reset();
+        this.mCrc.update(record, 0, length);
+        return (int) this.mCrc.getValue();
+    }
+
+    private static void putLong(byte[] b, int off, long v) {
+        for (int i = 7; i >= 0; i--) {
+            b[off + i] = (byte) ((int) v);
+            v >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | ((long) (b[off + i] & 255));
+        }
+        return v;
+    }
+
+    private static void putInt(byte[] b, int off, int v) {
+        b[off] = (byte) (v >>> 24);
+        b[off + 1] = (byte) (v >>> 16);
+        b[off + 2] = (byte) (v >>> 8);
+        b[off + 3] = (byte) v;
+    }
+
+    private static int getInt(byte[] b, int off) {
+        return ((((b[off] & 255) << 24) | ((b[off + 1] & 255) << 16)) | ((b[off + 2] & 255) << 8)) | (b[off + 3] & 255);
+    }
+}
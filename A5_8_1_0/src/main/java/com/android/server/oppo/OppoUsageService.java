@@ -23,6 +23,7 @@ import android.telephony.TelephonyManager;
 import android.text.format.Time;
 import android.util.Base64;
 import android.util.Slog;
+import com.android.server.oppo.OppoUsageRecordLog.RecordVisitor;
 import com.android.server.usage.UnixCalendar;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -313,58 +314,115 @@ public final class OppoUsageService extends Stub {
     private class CacheRecordsRecorder extends UsageDataRecorder {
         private static final boolean DBG_SD = false;
         private static final String LOGTAG = "CacheRecordsRecorder";
-        private static final long MAX_LEN_FOR_ONE_FILE = 2097152;
-        private File mCurHistoryFile = null;
         protected String mFileName = null;
-        private File mPreHistoryFile = null;
+        private OppoUsageRecordLog mRecordLog = null;
 
         public CacheRecordsRecorder(Context context, Kahaleesi localKahaleesi, String fileName) {
             super(context, localKahaleesi);
-            if (fileName == null || (fileName.isEmpty() ^ 1) == 0) {
+            if (fileName == null || fileName.isEmpty()) {
                 fileName = "default";
             }
             this.mFileName = fileName;
-            this.mCurHistoryFile = new File(this.mUsageCacheFileDir, this.mFileName + ".dat");
-            this.mPreHistoryFile = new File(this.mUsageCacheFileDir, this.mFileName + "-pre.dat");
+            this.mRecordLog = new OppoUsageRecordLog(new File(this.mUsageCacheFileDir, this.mFileName + ".log"));
+            migrateOldDataFile(new File(this.mUsageCacheFileDir, this.mFileName + "-pre.dat"));
+            migrateOldDataFile(new File(this.mUsageCacheFileDir, this.mFileName + ".dat"));
+        }
+
+        /**
+         * Imports a history file from before the record log into a segment
+         * of its own, so the old previous and current files stay the
+         * previous and current history. The file holds encrypted lines, so
+         * each line is decrypted and encrypted again before it is stored.
+         * The old file is only deleted once every line has been stored; a
+         * failed import drops its segment and is retried on the next boot.
+         */
+        private void migrateOldDataFile(File oldFile) {
+            if (oldFile.exists()) {
+                long time = oldFile.lastModified();
+                boolean started = false;
+                boolean complete = true;
+                BufferedReader reader = null;
+                try {
+                    reader = new BufferedReader(new InputStreamReader(new FileInputStream(oldFile)));
+                    while (true) {
+                        String line = reader.readLine();
+                        if (line == null) {
+                            break;
+                        }
+                        String content = line.isEmpty() ? null : this.mLocalKahaleesi.unfrozenFromFire(line);
+                        if (!(content == null || content.isEmpty())) {
+                            if (!started) {
+                                this.mRecordLog.startSegment(time);
+                                started = true;
+                            }
+                            if (!this.mRecordLog.append(time, this.mLocalKahaleesi.frozenIntoIce(content))) {
+                                complete = false;
+                                break;
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    Slog.w(OppoUsageService.TAG, "migrate " + oldFile + " failed.", e);
+                    complete = false;
+                } finally {
+                    if (reader != null) {
+                        try {
+                            reader.close();
+                        } catch (IOException e2) {
+                        }
+                    }
+                }
+                if (complete) {
+                    oldFile.delete();
+                    return;
+                }
+                if (started) {
+                    this.mRecordLog.dropCurrentSegment();
+                }
+                Slog.w(OppoUsageService.TAG, "keeping " + oldFile + " after a failed import.");
+            }
         }
 
         public boolean saveContentList(ArrayList<String> contentList) {
             if (contentList == null || contentList.size() <= 0) {
                 return false;
             }
-            if (!this.mCurHistoryFile.exists()) {
-                try {
-                    this.mCurHistoryFile.createNewFile();
-                } catch (IOException ioe) {
-                    Slog.e(LOGTAG, "create history file failed!", ioe);
-                    return false;
+            long time = System.currentTimeMillis();
+            boolean res = false;
+            for (String contentStr : contentList) {
+                if (!(contentStr == null || contentStr.isEmpty())) {
+                    res |= this.mRecordLog.append(time, this.mLocalKahaleesi.frozenIntoIce(contentStr));
                 }
-            } else if (this.mCurHistoryFile.length() > MAX_LEN_FOR_ONE_FILE && clearOldDataFile()) {
-                this.mCurHistoryFile = new File(this.mUsageCacheFileDir, this.mFileName + ".dat");
-                this.mPreHistoryFile = new File(this.mUsageCacheFileDir, this.mFileName + "-pre.dat");
             }
-            return doSaveData(contentList, this.mCurHistoryFile, true, true);
-        }
-
-        private boolean clearOldDataFile() {
-            if (this.mPreHistoryFile.exists()) {
-                this.mPreHistoryFile.delete();
-            }
-            return this.mCurHistoryFile.renameTo(this.mPreHistoryFile);
+            return res;
         }
 
         public List<String> getCurHistoryFileInfoList() {
-            if (this.mCurHistoryFile.exists()) {
-                return loadHistoryDataFromFile(this.mCurHistoryFile);
-            }
-            return null;
+            return getHistoryInfoList(0, 0, Integer.MAX_VALUE);
         }
 
         public List<String> getPreHistoryFileInfoList() {
-            if (this.mPreHistoryFile.exists()) {
-                return loadHistoryDataFromFile(this.mPreHistoryFile);
+            return getHistoryInfoList(1, 0, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Returns up to {@code limit} records of one history segment,
+         * starting at record {@code offset}, or null if there is no such
+         * segment. Records are decrypted as they are streamed from the log,
+         * so only the returned page is held in memory.
+         */
+        public List<String> getHistoryInfoList(int age, int offset, int limit) {
+            if (age >= this.mRecordLog.getSegmentCount()) {
+                return null;
             }
-            return null;
+            final ArrayList<String> resList = new ArrayList();
+            this.mRecordLog.read(age, offset, limit, new RecordVisitor() {
+                public boolean onRecord(long time, String content) {
+                    resList.add(CacheRecordsRecorder.this.mLocalKahaleesi.unfrozenFromFire(content));
+                    return true;
+                }
+            });
+            return resList;
         }
     }
 
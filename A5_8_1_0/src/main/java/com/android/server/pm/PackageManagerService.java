@@ -588,6 +588,7 @@ public class PackageManagerService extends Stub implements PackageSender {
     ComponentName mCustomResolverComponentName;
     private List<String> mCustomizeList = new ArrayList();
     private List<String> mCustomizeSystemAppBlacklist = new ArrayList();
+    private long mDataScanTime;
     private final DefaultContainerConnection mDefContainerConn = new DefaultContainerConnection();
     final int mDefParseFlags;
     @GuardedBy("mPackages")
@@ -694,6 +695,7 @@ public class PackageManagerService extends Stub implements PackageSender {
     private ArrayMap<OriginInfo, String> mRunningInstallerPkgName = new ArrayMap();
     final SparseArray<PostInstallData> mRunningInstalls = new SparseArray();
     volatile boolean mSafeMode;
+    private final ArrayMap<String, long[]> mScanDirTimings = new ArrayMap();
     final int mSdkVersion = VERSION.SDK_INT;
     final String[] mSeparateProcesses;
     final ServiceIntentResolver mServices = new ServiceIntentResolver(this, null);
@@ -759,6 +761,7 @@ public class PackageManagerService extends Stub implements PackageSender {
     final String mStorageManagerPackage;
     final SparseArray<ArraySet<String>> mSystemPermissions;
     volatile boolean mSystemReady;
+    private long mSystemScanTime;
     private boolean mThemeIconsChanged = false;
     private FileObserver mThemeIconsFileObserver = new FileObserver("/data/theme/icons", 1546) {
         public void onEvent(int event, String path) {
@@ -2730,6 +2733,7 @@ public class PackageManagerService extends Stub implements PackageSender {
         public static final int DUMP_PREFERRED_XML = 8192;
         public static final int DUMP_PROVIDERS = 1024;
         public static final int DUMP_RECEIVER_RESOLVERS = 16;
+        public static final int DUMP_SCAN_TIMES = 16777216;
         public static final int DUMP_SERVICE_RESOLVERS = 8;
         public static final int DUMP_SHARED_USERS = 256;
         public static final int DUMP_VERIFIERS = 2048;
@@ -5025,6 +5029,7 @@ public class PackageManagerService extends Stub implements PackageSender {
         int cachedSystemApps = PackageParser.sCachedPackageReadCount.get();
         this.mSettings.pruneSharedUsersLPw();
         long systemScanTime = SystemClock.uptimeMillis() - startTime;
+        this.mSystemScanTime = systemScanTime;
         int systemPackagesCount = this.mPackages.size();
         String str = TAG;
         StringBuilder append = new StringBuilder().append("Finished scanning system apps. Time: ").append(systemScanTime).append(" ms, packageCount: ").append(systemPackagesCount).append(" , timePerPackage: ");
@@ -5093,6 +5098,7 @@ public class PackageManagerService extends Stub implements PackageSender {
             decompressSystemApplications(stubSystemApps, scanFlags);
             int cachedNonSystemApps = PackageParser.sCachedPackageReadCount.get() - cachedSystemApps;
             long dataScanTime = (SystemClock.uptimeMillis() - systemScanTime) - startTime;
+            this.mDataScanTime = dataScanTime;
             int dataPackagesCount = this.mPackages.size() - systemPackagesCount;
             str = TAG;
             append = new StringBuilder().append("Finished scanning non-system apps. Time: ").append(dataScanTime).append(" ms, packageCount: ").append(dataPackagesCount).append(" , timePerPackage: ");
@@ -10581,11 +10587,55 @@ public class PackageManagerService extends Stub implements PackageSender {
 
     private void scanDirTracedLI(File dir, int parseFlags, int scanFlags, long currentTime) {
         Trace.traceBegin(262144, "scanDir [" + dir.getAbsolutePath() + "]");
+        long startTime = SystemClock.uptimeMillis();
+        int startCount = this.mPackages.size();
         try {
             scanDirLI(dir, parseFlags, scanFlags, currentTime);
         } finally {
             Trace.traceEnd(262144);
-        }
+            synchronized (this.mScanDirTimings) {
+                this.mScanDirTimings.put(dir.getAbsolutePath(), new long[]{SystemClock.uptimeMillis() - startTime, (long) (this.mPackages.size() - startCount)});
+            }
+        }
+    }
+
+    /**
+     * Prints the boot scan time of each package directory and the time the
+     * package parser has spent reading its cache, parsing and writing the
+     * cache since the system server started.
+     */
+    private void dumpBootScanTimings(PrintWriter pw) {
+        pw.println("Boot scan timings:");
+        pw.print("  system apps=");
+        pw.print(this.mSystemScanTime);
+        pw.print("ms data apps=");
+        pw.print(this.mDataScanTime);
+        pw.println("ms");
+        synchronized (this.mScanDirTimings) {
+            for (int i = 0; i < this.mScanDirTimings.size(); i++) {
+                long[] timing = (long[]) this.mScanDirTimings.valueAt(i);
+                pw.print("  ");
+                pw.print((String) this.mScanDirTimings.keyAt(i));
+                pw.print(": ");
+                pw.print(timing[0]);
+                pw.print("ms, ");
+                pw.print(timing[1]);
+                pw.println(" packages");
+            }
+        }
+        pw.println("Package parser:");
+        pw.print("  cache hits=");
+        pw.print(PackageParser.sCachedPackageReadCount.get());
+        pw.print(" read=");
+        pw.print(PackageParser.sCacheReadNanos.get() / 1000000);
+        pw.println("ms");
+        pw.print("  parsed=");
+        pw.print(PackageParser.sParsedPackageCount.get());
+        pw.print(" parse=");
+        pw.print(PackageParser.sParseNanos.get() / 1000000);
+        pw.print("ms cache write=");
+        pw.print(PackageParser.sCacheWriteNanos.get() / 1000000);
+        pw.println("ms");
     }
 
     private void scanDirLI(File dir, int parseFlags, int scanFlags, long currentTime) {
@@ -20526,6 +20576,7 @@ public class PackageManagerService extends Stub implements PackageSender {
                         pw.println("    check-permission <permission> <package> [<user>]: does pkg hold perm?");
                         pw.println("    dexopt: dump dexopt state");
                         pw.println("    compiler-stats: dump compiler statistics");
+                        pw.println("    scan-times: boot package scan and package parser timings");
                         pw.println("    enabled-overlays: dump list of enabled overlay packages");
                         pw.println("    <package.name>: info about given package");
                         return;
@@ -20646,6 +20697,8 @@ public class PackageManagerService extends Stub implements PackageSender {
                             dumpState.setDump(DumpState.DUMP_COMPILER_STATS);
                         } else if ("changes".equals(cmd)) {
                             dumpState.setDump(DumpState.DUMP_CHANGES);
+                        } else if ("scan-times".equals(cmd)) {
+                            dumpState.setDump(DumpState.DUMP_SCAN_TIMES);
                         } else if ("write".equals(cmd)) {
                             synchronized (this.mPackages) {
                                 this.mSettings.writeLPr();
@@ -21083,6 +21136,12 @@ public class PackageManagerService extends Stub implements PackageSender {
                     }
                     dumpCompilerStatsLPr(pw, packageName);
                 }
+                if (!checkin && dumpState.isDumping(DumpState.DUMP_SCAN_TIMES) && packageName == null) {
+                    if (dumpState.onTitlePrinted()) {
+                        pw.println();
+                    }
+                    dumpBootScanTimings(pw);
+                }
                 if (!checkin && dumpState.isDumping(512) && packageName == null) {
                     if (dumpState.onTitlePrinted()) {
                         pw.println();
@@ -66,6 +66,7 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -78,6 +79,8 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -185,6 +188,8 @@ final class Settings {
     private final File mKernelMappingFilename;
     public final KeySetManagerService mKeySetManagerService;
     private final ArrayMap<Long, Integer> mKeySetRefs;
+    private int mLastSerializedSettingsLength;
+    private byte[] mLastWrittenSettingsDigest;
     private final Object mLock;
     final SparseIntArray mNextAppLinkGeneration;
     private final SparseArray<Object> mOtherUserIds;
@@ -2321,125 +2326,187 @@ final class Settings {
     }
 
     void writeLPr() {
+        this.mPastSignatures.clear();
+        try {
+            byte[] settings = serializeSettingsLPr();
+            if (!isSettingsFileCurrentLPr(settings) && !writeSettingsFileLPr(settings)) {
+                return;
+            }
+            writeKernelMappingLPr();
+            writePackageListLPr();
+            writeAllUsersPackageRestrictionsLPr();
+            writeAllRuntimePermissionsLPr();
+        } catch (XmlPullParserException e) {
+            Slog.wtf("PackageManager", "Unable to write package manager settings, current changes will be lost at reboot", e);
+        } catch (IOException e2) {
+            Slog.wtf("PackageManager", "Unable to write package manager settings, current changes will be lost at reboot", e2);
+        }
+    }
+
+    /**
+     * Returns true if packages.xml on disk is the last file written by this
+     * process and has the same contents as {@code settings}, in which case
+     * rewriting it, re-verifying it and copying the verified backup can all
+     * be skipped.
+     */
+    private boolean isSettingsFileCurrentLPr(byte[] settings) {
+        if (this.mLastWrittenSettingsDigest == null || this.mBackupSettingsFilename.exists() || this.mSettingsFilename.length() != ((long) settings.length) || !this.mBackupVerifiedFilename.exists()) {
+            return false;
+        }
+        return Arrays.equals(this.mLastWrittenSettingsDigest, digestSettings(settings));
+    }
+
+    private static byte[] digestSettings(byte[] settings) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(settings);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces packages.xml with {@code settings}. The committed file is
+     * parsed once from disk, and only if it reads back cleanly is it
+     * promoted to packages-backup-verified.xml, written from the same bytes
+     * instead of copying the file. Otherwise the settings backup is kept.
+     * Returns false if the current settings could not be backed up or
+     * written.
+     */
+    private boolean writeSettingsFileLPr(byte[] settings) {
+        this.mLastWrittenSettingsDigest = null;
         if (this.mSettingsFilename.exists()) {
             if (this.mBackupSettingsFilename.exists()) {
                 this.mSettingsFilename.delete();
                 Slog.w("PackageManager", "Preserving older settings backup");
             } else if (!this.mSettingsFilename.renameTo(this.mBackupSettingsFilename)) {
                 Slog.wtf("PackageManager", "Unable to backup package manager settings,  current changes will be lost at reboot");
-                return;
+                return false;
             }
         }
-        this.mPastSignatures.clear();
         try {
-            int i;
-            FileOutputStream fstr = new FileOutputStream(this.mSettingsFilename);
-            OutputStream bufferedOutputStream = new BufferedOutputStream(fstr);
-            XmlSerializer serializer = new FastXmlSerializer();
-            serializer.setOutput(bufferedOutputStream, StandardCharsets.UTF_8.name());
-            serializer.startDocument(null, Boolean.valueOf(true));
-            serializer.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
-            serializer.startTag(null, "packages");
-            for (i = 0; i < this.mVersion.size(); i++) {
-                String volumeUuid = (String) this.mVersion.keyAt(i);
-                VersionInfo ver = (VersionInfo) this.mVersion.valueAt(i);
-                serializer.startTag(null, "version");
-                XmlUtils.writeStringAttribute(serializer, ATTR_VOLUME_UUID, volumeUuid);
-                XmlUtils.writeIntAttribute(serializer, ATTR_SDK_VERSION, ver.sdkVersion);
-                XmlUtils.writeIntAttribute(serializer, ATTR_DATABASE_VERSION, ver.databaseVersion);
-                XmlUtils.writeStringAttribute(serializer, ATTR_FINGERPRINT, ver.fingerprint);
-                serializer.endTag(null, "version");
-            }
-            if (this.mVerifierDeviceIdentity != null) {
-                serializer.startTag(null, "verifier");
-                serializer.attribute(null, "device", this.mVerifierDeviceIdentity.toString());
-                serializer.endTag(null, "verifier");
-            }
-            if (this.mReadExternalStorageEnforced != null) {
-                serializer.startTag(null, TAG_READ_EXTERNAL_STORAGE);
-                serializer.attribute(null, ATTR_ENFORCEMENT, this.mReadExternalStorageEnforced.booleanValue() ? LocationManagerService.OPPO_FAKE_LOCATOIN_SWITCH_ON : "0");
-                serializer.endTag(null, TAG_READ_EXTERNAL_STORAGE);
-            }
-            serializer.startTag(null, "permission-trees");
-            for (BasePermission bp : this.mPermissionTrees.values()) {
-                writePermissionLPr(serializer, bp);
-            }
-            serializer.endTag(null, "permission-trees");
-            serializer.startTag(null, "permissions");
-            for (BasePermission bp2 : this.mPermissions.values()) {
-                writePermissionLPr(serializer, bp2);
-            }
-            serializer.endTag(null, "permissions");
-            for (PackageSetting pkg : this.mPackages.values()) {
-                writePackageLPr(serializer, pkg);
-            }
-            for (PackageSetting pkg2 : this.mDisabledSysPackages.values()) {
-                writeDisabledSysPackageLPr(serializer, pkg2);
-            }
-            for (SharedUserSetting usr : this.mSharedUsers.values()) {
-                serializer.startTag(null, TAG_SHARED_USER);
-                serializer.attribute(null, ATTR_NAME, usr.name);
-                serializer.attribute(null, "userId", Integer.toString(usr.userId));
-                usr.signatures.writeXml(serializer, "sigs", this.mPastSignatures);
-                writePermissionsLPr(serializer, usr.getPermissionsState().getInstallPermissionStates());
-                serializer.endTag(null, TAG_SHARED_USER);
-            }
-            if (this.mPackagesToBeCleaned.size() > 0) {
-                for (PackageCleanItem item : this.mPackagesToBeCleaned) {
-                    String userStr = Integer.toString(item.userId);
-                    serializer.startTag(null, "cleaning-package");
-                    serializer.attribute(null, ATTR_NAME, item.packageName);
-                    serializer.attribute(null, ATTR_CODE, item.andCode ? "true" : "false");
-                    serializer.attribute(null, ATTR_USER, userStr);
-                    serializer.endTag(null, "cleaning-package");
-                }
-            }
-            if (this.mRenamedPackages.size() > 0) {
-                for (Entry<String, String> e : this.mRenamedPackages.entrySet()) {
-                    serializer.startTag(null, "renamed-package");
-                    serializer.attribute(null, "new", (String) e.getKey());
-                    serializer.attribute(null, "old", (String) e.getValue());
-                    serializer.endTag(null, "renamed-package");
-                }
-            }
-            int numIVIs = this.mRestoredIntentFilterVerifications.size();
-            if (numIVIs > 0) {
-                serializer.startTag(null, "restored-ivi");
-                for (i = 0; i < numIVIs; i++) {
-                    writeDomainVerificationsLPr(serializer, (IntentFilterVerificationInfo) this.mRestoredIntentFilterVerifications.valueAt(i));
-                }
-                serializer.endTag(null, "restored-ivi");
-            }
-            this.mKeySetManagerService.writeKeySetManagerServiceLPr(serializer);
-            serializer.endTag(null, "packages");
-            serializer.endDocument();
-            bufferedOutputStream.flush();
-            FileUtils.sync(fstr);
-            bufferedOutputStream.close();
+            writeSettingsBytes(this.mSettingsFilename, settings);
             if (oppoParsePackagesXml(this.mSettingsFilename)) {
                 if (this.mBackupVerifiedFilename.exists()) {
                     this.mBackupVerifiedFilename.delete();
                 }
                 this.mBackupSettingsFilename.delete();
-                FileUtils.copyFile(this.mSettingsFilename, this.mBackupVerifiedFilename);
+                writeSettingsBytes(this.mBackupVerifiedFilename, settings);
                 FileUtils.setPermissions(this.mSettingsFilename.toString(), 432, -1, -1);
                 FileUtils.setPermissions(this.mBackupVerifiedFilename.toString(), 432, -1, -1);
+                this.mLastWrittenSettingsDigest = digestSettings(settings);
             }
-            writeKernelMappingLPr();
-            writePackageListLPr();
-            writeAllUsersPackageRestrictionsLPr();
-            writeAllRuntimePermissionsLPr();
-        } catch (XmlPullParserException e2) {
-            Slog.wtf("PackageManager", "Unable to write package manager settings, current changes will be lost at reboot", e2);
+            return true;
+        } catch (IOException e) {
+            Slog.wtf("PackageManager", "Unable to write package manager settings, current changes will be lost at reboot", e);
             if (this.mSettingsFilename.exists() && !this.mSettingsFilename.delete()) {
                 Slog.wtf("PackageManager", "Failed to clean up mangled file: " + this.mSettingsFilename);
             }
-        } catch (IOException e3) {
-            Slog.wtf("PackageManager", "Unable to write package manager settings, current changes will be lost at reboot", e3);
-            Slog.wtf("PackageManager", "Failed to clean up mangled file: " + this.mSettingsFilename);
+            return false;
         }
     }
 
+    private static void writeSettingsBytes(File file, byte[] settings) throws IOException {
+        FileOutputStream fstr = new FileOutputStream(file);
+        try {
+            fstr.write(settings);
+            FileUtils.sync(fstr);
+        } finally {
+            fstr.close();
+        }
+    }
+
+    /**
+     * Serializes packages.xml into memory. The file is usually a few hundred
+     * kilobytes, and keeping it in memory lets writeLPr() verify and compare
+     * it without reading it back from disk.
+     */
+    private byte[] serializeSettingsLPr() throws IOException, XmlPullParserException {
+        int i;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.mLastSerializedSettingsLength > 0 ? this.mLastSerializedSettingsLength + 4096 : 65536);
+        XmlSerializer serializer = new FastXmlSerializer();
+        serializer.setOutput(out, StandardCharsets.UTF_8.name());
+        serializer.startDocument(null, Boolean.valueOf(true));
+        serializer.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
+        serializer.startTag(null, "packages");
+        for (i = 0; i < this.mVersion.size(); i++) {
+            String volumeUuid = (String) this.mVersion.keyAt(i);
+            VersionInfo ver = (VersionInfo) this.mVersion.valueAt(i);
+            serializer.startTag(null, "version");
+            XmlUtils.writeStringAttribute(serializer, ATTR_VOLUME_UUID, volumeUuid);
+            XmlUtils.writeIntAttribute(serializer, ATTR_SDK_VERSION, ver.sdkVersion);
+            XmlUtils.writeIntAttribute(serializer, ATTR_DATABASE_VERSION, ver.databaseVersion);
+            XmlUtils.writeStringAttribute(serializer, ATTR_FINGERPRINT, ver.fingerprint);
+            serializer.endTag(null, "version");
+        }
+        if (this.mVerifierDeviceIdentity != null) {
+            serializer.startTag(null, "verifier");
+            serializer.attribute(null, "device", this.mVerifierDeviceIdentity.toString());
+            serializer.endTag(null, "verifier");
+        }
+        if (this.mReadExternalStorageEnforced != null) {
+            serializer.startTag(null, TAG_READ_EXTERNAL_STORAGE);
+            serializer.attribute(null, ATTR_ENFORCEMENT, this.mReadExternalStorageEnforced.booleanValue() ? LocationManagerService.OPPO_FAKE_LOCATOIN_SWITCH_ON : "0");
+            serializer.endTag(null, TAG_READ_EXTERNAL_STORAGE);
+        }
+        serializer.startTag(null, "permission-trees");
+        for (BasePermission bp : this.mPermissionTrees.values()) {
+            writePermissionLPr(serializer, bp);
+        }
+        serializer.endTag(null, "permission-trees");
+        serializer.startTag(null, "permissions");
+        for (BasePermission bp2 : this.mPermissions.values()) {
+            writePermissionLPr(serializer, bp2);
+        }
+        serializer.endTag(null, "permissions");
+        for (PackageSetting pkg : this.mPackages.values()) {
+            writePackageLPr(serializer, pkg);
+        }
+        for (PackageSetting pkg2 : this.mDisabledSysPackages.values()) {
+            writeDisabledSysPackageLPr(serializer, pkg2);
+        }
+        for (SharedUserSetting usr : this.mSharedUsers.values()) {
+            serializer.startTag(null, TAG_SHARED_USER);
+            serializer.attribute(null, ATTR_NAME, usr.name);
+            serializer.attribute(null, "userId", Integer.toString(usr.userId));
+            usr.signatures.writeXml(serializer, "sigs", this.mPastSignatures);
+            writePermissionsLPr(serializer, usr.getPermissionsState().getInstallPermissionStates());
+            serializer.endTag(null, TAG_SHARED_USER);
+        }
+        if (this.mPackagesToBeCleaned.size() > 0) {
+            for (PackageCleanItem item : this.mPackagesToBeCleaned) {
+                String userStr = Integer.toString(item.userId);
+                serializer.startTag(null, "cleaning-package");
+                serializer.attribute(null, ATTR_NAME, item.packageName);
+                serializer.attribute(null, ATTR_CODE, item.andCode ? "true" : "false");
+                serializer.attribute(null, ATTR_USER, userStr);
+                serializer.endTag(null, "cleaning-package");
+            }
+        }
+        if (this.mRenamedPackages.size() > 0) {
+            for (Entry<String, String> e : this.mRenamedPackages.entrySet()) {
+                serializer.startTag(null, "renamed-package");
+                serializer.attribute(null, "new", (String) e.getKey());
+                serializer.attribute(null, "old", (String) e.getValue());
+                serializer.endTag(null, "renamed-package");
+            }
+        }
+        int numIVIs = this.mRestoredIntentFilterVerifications.size();
+        if (numIVIs > 0) {
+            serializer.startTag(null, "restored-ivi");
+            for (i = 0; i < numIVIs; i++) {
+                writeDomainVerificationsLPr(serializer, (IntentFilterVerificationInfo) this.mRestoredIntentFilterVerifications.valueAt(i));
+            }
+            serializer.endTag(null, "restored-ivi");
+        }
+        this.mKeySetManagerService.writeKeySetManagerServiceLPr(serializer);
+        serializer.endTag(null, "packages");
+        serializer.endDocument();
+        serializer.flush();
+        byte[] settings = out.toByteArray();
+        this.mLastSerializedSettingsLength = settings.length;
+        return settings;
+    }
+
     public void checkPackageXml() {
         boolean settingsExists = this.mSettingsFilename.exists();
         boolean packageVerifiedExists = this.mBackupVerifiedFilename.exists();
@@ -0,0 +1,290 @@
+package com.oppo.hypnus;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.SparseArray;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes Hypnus hints to the sysfs nodes on a dedicated thread so callers
+ * (often the UI thread or an AMS lock holder) never block on the kernel.
+ *
+ * Callers only append to a lock-free queue; the dispatcher drains everything
+ * queued since its last run in one go. Action requests for the same action
+ * are merged into one write that covers the latest expiry, pending scene
+ * changes collapse to the newest one, and an action write is dropped when
+ * the previous write was the same action and its boost already lasts at
+ * least as long. The node files stay open between writes.
+ */
+final class HypnusHintDispatcher {
+    private static final int KIND_ACTION = 0;
+    private static final int KIND_BURST = 1;
+    private static final int KIND_NOTIFICATION = 2;
+    private static final int KIND_SCENE = 3;
+    private static final int KIND_SCENE_EVENT = 4;
+    private static final int NODE_ACTION = 0;
+    private static final int NODE_COUNT = 3;
+    private static final int NODE_NOTIFICATION = 1;
+    private static final int NODE_SCENE = 2;
+    private static final String TAG = "HypnusHint";
+    private final ArrayList<Hint> mBatch = new ArrayList();
+    private final Runnable mDrain = new Runnable() {
+        public void run() {
+            HypnusHintDispatcher.this.drain();
+        }
+    };
+    private final Handler mHandler;
+    private int mLastAction = -1;
+    private long mLastExpiry;
+    private final FileOutputStream[] mNodes = new FileOutputStream[NODE_COUNT];
+    private final SparseArray<Hint> mPendingActions = new SparseArray();
+    private final ConcurrentLinkedQueue<Hint> mQueue = new ConcurrentLinkedQueue();
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private final SparseArray<ActionStats> mStats = new SparseArray();
+
+    private static final class ActionStats {
+        long coalesced;
+        long deduped;
+        long failed;
+        long maxLatencyUs;
+        long requests;
+        long totalLatencyUs;
+        long writes;
+
+        private ActionStats() {
+        }
+    }
+
+    private static final class Hint {
+        int action;
+        long expiry;
+        final int kind;
+        final long queueTime = System.nanoTime();
+        String text;
+        int timeout;
+
+        Hint(int kind, int action, int timeout, String text) {
+            this.kind = kind;
+            this.action = action;
+            this.timeout = timeout;
+            this.text = text;
+            this.expiry = SystemClock.uptimeMillis() + ((long) timeout);
+        }
+    }
+
+    HypnusHintDispatcher() {
+        HandlerThread thread = new HandlerThread(TAG, -4);
+        thread.start();
+        this.mHandler = new Handler(thread.getLooper());
+    }
+
+    void setAction(int action, int timeout) {
+        enqueue(new Hint(KIND_ACTION, action, timeout, null));
+    }
+
+    void setBurst(int action, int timeout, int tid) {
+        enqueue(new Hint(KIND_BURST, action, timeout, String.format(Locale.US, "%d %d %d", new Object[]{Integer.valueOf(action), Integer.valueOf(timeout), Integer.valueOf(tid)})));
+    }
+
+    void setNotification(String info) {
+        enqueue(new Hint(KIND_NOTIFICATION, -1, 0, info));
+    }
+
+    void setScene(String info) {
+        enqueue(new Hint(KIND_SCENE, -1, 0, info));
+    }
+
+    /**
+     * Scene node writes that are events rather than state (boot complete)
+     * and must not be folded into a later scene change.
+     */
+    void sendSceneEvent(String info) {
+        enqueue(new Hint(KIND_SCENE_EVENT, -1, 0, info));
+    }
+
+    private void enqueue(Hint hint) {
+        this.mQueue.offer(hint);
+        if (this.mScheduled.compareAndSet(false, true)) {
+            this.mHandler.post(this.mDrain);
+        }
+    }
+
+    private void drain() {
+        this.mScheduled.set(false);
+        Hint scene = null;
+        synchronized (this.mStats) {
+            while (true) {
+                Hint hint = (Hint) this.mQueue.poll();
+                if (hint == null) {
+                    break;
+                }
+                if (hint.kind == KIND_ACTION) {
+                    getStats(hint.action).requests++;
+                    Hint pending = (Hint) this.mPendingActions.get(hint.action);
+                    if (pending == null) {
+                        this.mPendingActions.put(hint.action, hint);
+                        this.mBatch.add(hint);
+                    } else {
+                        getStats(hint.action).coalesced++;
+                        merge(pending, hint);
+                    }
+                } else if (hint.kind != KIND_SCENE) {
+                    if (hint.kind == KIND_BURST) {
+                        getStats(hint.action).requests++;
+                    }
+                    this.mBatch.add(hint);
+                } else if (scene == null) {
+                    scene = hint;
+                    this.mBatch.add(hint);
+                } else {
+                    scene.text = hint.text;
+                }
+            }
+        }
+        this.mPendingActions.clear();
+        for (int i = 0; i < this.mBatch.size(); i++) {
+            dispatch((Hint) this.mBatch.get(i));
+        }
+        this.mBatch.clear();
+    }
+
+    /**
+     * A later cancel (timeout 0) wins, otherwise the merged boost lasts
+     * until the latest expiry of the two requests.
+     */
+    private static void merge(Hint pending, Hint hint) {
+        if (hint.timeout == 0 || pending.timeout == 0) {
+            pending.timeout = hint.timeout;
+            pending.expiry = hint.expiry;
+        } else if (hint.expiry > pending.expiry) {
+            pending.expiry = hint.expiry;
+        }
+    }
+
+    private void dispatch(Hint hint) {
+        switch (hint.kind) {
+            case KIND_ACTION:
+                dispatchAction(hint);
+                return;
+            case KIND_BURST:
+                this.mLastAction = -1;
+                finish(hint, write(NODE_ACTION, hint.text));
+                return;
+            case KIND_NOTIFICATION:
+                write(NODE_NOTIFICATION, hint.text);
+                return;
+            default:
+                write(NODE_SCENE, hint.text);
+                return;
+        }
+    }
+
+    private void dispatchAction(Hint hint) {
+        int timeout = 0;
+        if (hint.timeout != 0) {
+            long now = SystemClock.uptimeMillis();
+            if (hint.expiry <= now || (this.mLastAction == hint.action && this.mLastExpiry >= hint.expiry)) {
+                synchronized (this.mStats) {
+                    getStats(hint.action).deduped++;
+                }
+                return;
+            }
+            timeout = (int) (hint.expiry - now);
+        }
+        boolean written = write(NODE_ACTION, String.format(Locale.US, "%d %d", new Object[]{Integer.valueOf(hint.action), Integer.valueOf(timeout)}));
+        if (!written || timeout == 0) {
+            this.mLastAction = -1;
+        } else {
+            this.mLastAction = hint.action;
+            this.mLastExpiry = hint.expiry;
+        }
+        finish(hint, written);
+    }
+
+    private void finish(Hint hint, boolean written) {
+        long latencyUs = (System.nanoTime() - hint.queueTime) / 1000;
+        synchronized (this.mStats) {
+            ActionStats stats = getStats(hint.action);
+            if (written) {
+                stats.writes++;
+                stats.totalLatencyUs += latencyUs;
+                if (latencyUs > stats.maxLatencyUs) {
+                    stats.maxLatencyUs = latencyUs;
+                }
+            } else {
+                stats.failed++;
+            }
+        }
+    }
+
+    private ActionStats getStats(int action) {
+        ActionStats stats = (ActionStats) this.mStats.get(action);
+        if (stats != null) {
+            return stats;
+        }
+        stats = new ActionStats();
+        this.mStats.put(action, stats);
+        return stats;
+    }
+
+    private boolean write(int node, String info) {
+        FileOutputStream out = this.mNodes[node];
+        try {
+            if (out == null) {
+                File file = new File(getNodePath(node));
+                if (!file.canWrite()) {
+                    return false;
+                }
+                out = new FileOutputStream(file);
+                this.mNodes[node] = out;
+            }
+            out.write(info.getBytes(StandardCharsets.US_ASCII));
+            return true;
+        } catch (FileNotFoundException e) {
+            Log.w(TAG, "open " + getNodePath(node) + " failed: " + e);
+            return false;
+        } catch (IOException e2) {
+            Log.w(TAG, "write " + info + " to " + getNodePath(node) + " failed: " + e2);
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e3) {
+                }
+            }
+            this.mNodes[node] = null;
+            return false;
+        }
+    }
+
+    private static String getNodePath(int node) {
+        switch (node) {
+            case NODE_ACTION:
+                return Hypnus.ACTIONINFO;
+            case NODE_NOTIFICATION:
+                return Hypnus.NOTIFICATIONINFO;
+            default:
+                return Hypnus.SCENEINFO;
+        }
+    }
+
+    void dump(PrintWriter pw) {
+        pw.println("Hypnus hints:");
+        synchronized (this.mStats) {
+            for (int i = 0; i < this.mStats.size(); i++) {
+                ActionStats stats = (ActionStats) this.mStats.valueAt(i);
+                pw.println("  action " + this.mStats.keyAt(i) + ": requests=" + stats.requests + " writes=" + stats.writes + " coalesced=" + stats.coalesced + " deduped=" + stats.deduped + " failed=" + stats.failed + " avgLatencyUs=" + (stats.writes > 0 ? stats.totalLatencyUs / stats.writes : 0) + " maxLatencyUs=" + stats.maxLatencyUs);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ public class DataTypeConstants {
     public static final int APP_LOG = 1002;
     public static final int APP_START = 1000;
     public static final int COMMON = 1006;
+    public static final int COMMON_LIST = 1010;
     public static final int DEBUG_TYPE = 1009;
     public static final int DYNAMIC_EVENT_TYPE = 1007;
     public static final int EXCEPTION = 1004;
@@ -4,7 +4,12 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build.VERSION;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
 import android.os.UserHandle;
+import android.util.ArrayMap;
+import com.android.internal.os.BackgroundThread;
 import com.oppo.statistics.DataTypeConstants;
 import com.oppo.statistics.data.AppLogBean;
 import com.oppo.statistics.data.AppStartBean;
@@ -21,6 +26,7 @@ import com.oppo.statistics.data.UserActionBean;
 import com.oppo.statistics.util.AccountUtil;
 import com.oppo.statistics.util.ApkInfoUtil;
 import com.oppo.statistics.util.LogUtil;
+import java.util.ArrayList;
 
 public class RecordHandler {
     private static final String ACTION_AMOUNT = "actionAmount";
@@ -38,9 +44,16 @@ public class RecordHandler {
     private static final String EXCEPTION = "exception";
     private static final String EXCEPTION_COUNT = "count";
     private static final String EXCEPTION_TIME = "time";
+    private static final long FLUSH_DELAY_MS = 30000;
     private static final String LOGIN_TIME = "loginTime";
     private static final String LOG_MAP = "logMap";
     private static final String LOG_TAG = "logTag";
+    private static final String MAP_LIST = "mapList";
+    private static final int MAX_BATCH_EVENTS = 32;
+    private static final int MAX_MAP_LIST_LENGTH = 50000;
+    private static final int MAX_PENDING_EVENTS = 256;
+    private static final int MSG_ADD_COMMON = 1;
+    private static final int MSG_FLUSH = 2;
     private static final String PAGE_VISIT_ACTIVIES = "activities";
     private static final String PAGE_VISIT_DURATION = "duration";
     private static final String PAGE_VISIT_TIME = "time";
@@ -49,6 +62,37 @@ public class RecordHandler {
     private static final String UPLOAD_MODE = "uploadMode";
     private static final String UPLOAD_NOW = "uploadNow";
     private static Context mContext;
+    private static CommonHandler sCommonHandler;
+    private static final ArrayMap<String, ArrayList<CommonBean>> sPendingCommon = new ArrayMap();
+    private static int sPendingCount = 0;
+
+    /**
+     * Coalesces TYPE_COMMON beans of the same logTag/eventId so that they
+     * reach the statistics service as one COMMON_LIST intent instead of one
+     * startService() per event.
+     */
+    private static final class CommonHandler extends Handler {
+        CommonHandler(Looper looper) {
+            super(looper);
+        }
+
+        public void handleMessage(Message msg) {
+            try {
+                switch (msg.what) {
+                    case MSG_ADD_COMMON:
+                        RecordHandler.enqueueCommon((CommonBean) msg.obj);
+                        return;
+                    case MSG_FLUSH:
+                        RecordHandler.flushAllCommon();
+                        return;
+                    default:
+                        return;
+                }
+            } catch (Throwable e) {
+                LogUtil.e(RecordHandler.TAG, e);
+            }
+        }
+    }
 
     /* Code decompiled incorrectly, please refer to instructions dump. */
     public static void addTask(Context context, StatisticBean bean) {
@@ -112,15 +156,8 @@ public class RecordHandler {
                     startDcsService(mContext, intent);
                     break;
                 case DataConstants.TYPE_COMMON /*9*/:
-                    CommonBean commonBean = (CommonBean) bean;
                     LogUtil.d("NearMeStatistics", "bean:" + bean.toString());
-                    intent = getCommonStartServiceIntent();
-                    intent.putExtra(UPLOAD_NOW, commonBean.getUploadNow());
-                    intent.putExtra(LOG_TAG, commonBean.getLogTag());
-                    intent.putExtra(EVENT_ID, commonBean.getEventID());
-                    intent.putExtra(LOG_MAP, commonBean.getLogMap());
-                    intent.putExtra(DATA_TYPE, DataTypeConstants.COMMON);
-                    startDcsService(mContext, intent);
+                    getCommonHandler().obtainMessage(MSG_ADD_COMMON, bean).sendToTarget();
                     break;
                 case DataConstants.DYNAMIC_EVENT /*10*/:
                     DynamicEventBean dynamicBean = (DynamicEventBean) bean;
@@ -151,6 +188,101 @@ public class RecordHandler {
         }
     }
 
+    private static synchronized CommonHandler getCommonHandler() {
+        if (sCommonHandler == null) {
+            sCommonHandler = new CommonHandler(BackgroundThread.get().getLooper());
+        }
+        return sCommonHandler;
+    }
+
+    private static void enqueueCommon(CommonBean bean) {
+        String key = bean.getLogTag() + "/" + bean.getEventID();
+        ArrayList<CommonBean> batch = (ArrayList) sPendingCommon.get(key);
+        if (batch == null) {
+            batch = new ArrayList();
+            sPendingCommon.put(key, batch);
+        }
+        batch.add(bean);
+        sPendingCount++;
+        if (bean.getUploadNow() || batch.size() >= MAX_BATCH_EVENTS) {
+            sPendingCommon.remove(key);
+            flushCommon(batch, bean.getUploadNow());
+        } else if (sPendingCount >= MAX_PENDING_EVENTS) {
+            flushAllCommon();
+        } else if (!sCommonHandler.hasMessages(MSG_FLUSH)) {
+            sCommonHandler.sendEmptyMessageDelayed(MSG_FLUSH, FLUSH_DELAY_MS);
+        }
+    }
+
+    private static void flushAllCommon() {
+        sCommonHandler.removeMessages(MSG_FLUSH);
+        for (int i = sPendingCommon.size() - 1; i >= 0; i--) {
+            flushCommon((ArrayList) sPendingCommon.valueAt(i), false);
+        }
+        sPendingCommon.clear();
+        sPendingCount = 0;
+    }
+
+    /**
+     * A single bean keeps the plain COMMON intent; more beans are joined into
+     * JSON map lists of at most MAX_MAP_LIST_LENGTH characters each. A bean
+     * too large for any map list is sent on its own as COMMON.
+     */
+    private static void flushCommon(ArrayList<CommonBean> batch, boolean uploadNow) {
+        int size = batch.size();
+        sPendingCount -= size;
+        CommonBean first = (CommonBean) batch.get(0);
+        if (size == 1) {
+            sendCommon(first, uploadNow);
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append('[');
+        for (int i = 0; i < size; i++) {
+            CommonBean bean = (CommonBean) batch.get(i);
+            String logMap = bean.getLogMap();
+            if (logMap == null) {
+                logMap = "{}";
+            }
+            if (logMap.length() + 2 >= MAX_MAP_LIST_LENGTH) {
+                sendCommon(bean, uploadNow);
+            } else {
+                if (builder.length() > 1 && (builder.length() + logMap.length()) + 2 >= MAX_MAP_LIST_LENGTH) {
+                    sendCommonList(first, uploadNow, builder.append(']').toString());
+                    builder.setLength(1);
+                }
+                if (builder.length() > 1) {
+                    builder.append(',');
+                }
+                builder.append(logMap);
+            }
+        }
+        if (builder.length() > 1) {
+            sendCommonList(first, uploadNow, builder.append(']').toString());
+        }
+    }
+
+    private static void sendCommon(CommonBean bean, boolean uploadNow) {
+        Intent intent = getCommonIntent(bean, uploadNow, DataTypeConstants.COMMON);
+        intent.putExtra(LOG_MAP, bean.getLogMap());
+        startDcsService(mContext, intent);
+    }
+
+    private static void sendCommonList(CommonBean first, boolean uploadNow, String mapList) {
+        Intent intent = getCommonIntent(first, uploadNow, DataTypeConstants.COMMON_LIST);
+        intent.putExtra(MAP_LIST, mapList);
+        startDcsService(mContext, intent);
+    }
+
+    private static Intent getCommonIntent(CommonBean bean, boolean uploadNow, int dataType) {
+        Intent intent = getCommonStartServiceIntent();
+        intent.putExtra(UPLOAD_NOW, uploadNow);
+        intent.putExtra(LOG_TAG, bean.getLogTag());
+        intent.putExtra(EVENT_ID, bean.getEventID());
+        intent.putExtra(DATA_TYPE, dataType);
+        return intent;
+    }
+
     private static void startDcsService(Context context, Intent intent) {
         if (VERSION.SDK_INT >= 17) {
             context.startServiceAsUser(intent, UserHandle.OWNER);
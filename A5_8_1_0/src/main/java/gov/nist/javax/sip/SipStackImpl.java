@@ -14,6 +14,7 @@ import gov.nist.javax.sip.parser.StringMsgParser;
 import gov.nist.javax.sip.stack.DefaultMessageLogFactory;
 import gov.nist.javax.sip.stack.DefaultRouter;
 import gov.nist.javax.sip.stack.MessageProcessor;
+import gov.nist.javax.sip.stack.SIPStackTimer;
 import gov.nist.javax.sip.stack.SIPTransactionStack;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -187,6 +188,17 @@ public class SipStackImpl extends SIPTransactionStack implements SipStack, SipSt
                             throw new PeerUnavailableException("can't find or instantiate AddressResolver implementation: " + path);
                         }
                     }
+                    if (configurationProperties.containsKey("gov.nist.javax.sip.TIMER_CLASS_NAME")) {
+                        path = configurationProperties.getProperty("gov.nist.javax.sip.TIMER_CLASS_NAME");
+                        try {
+                            SIPStackTimer timer = (SIPStackTimer) Class.forName(path).getConstructor(new Class[0]).newInstance(new Object[0]);
+                            getTimer().stop();
+                            setTimer(timer);
+                            this.timerClassName = path;
+                        } catch (Exception e4) {
+                            throw new PeerUnavailableException("can't find or instantiate SIPStackTimer implementation: " + path);
+                        }
+                    }
                     String maxConnections = configurationProperties.getProperty("gov.nist.javax.sip.MAX_CONNECTIONS");
                     if (maxConnections != null) {
                         try {
@@ -207,6 +219,17 @@ public class SipStackImpl extends SIPTransactionStack implements SipStack, SipSt
                             }
                         }
                     }
+                    this.useNioTcp = configurationProperties.getProperty("gov.nist.javax.sip.USE_NIO_TCP", "false").equalsIgnoreCase("true");
+                    String nioWorkerThreads = configurationProperties.getProperty("gov.nist.javax.sip.NIO_WORKER_THREADS");
+                    if (nioWorkerThreads != null) {
+                        try {
+                            this.nioWorkerThreads = Math.max(1, Integer.parseInt(nioWorkerThreads));
+                        } catch (NumberFormatException ex4) {
+                            if (isLoggingEnabled()) {
+                                getStackLogger().logError("nio worker threads - bad value " + ex4.getMessage());
+                            }
+                        }
+                    }
                     String serverTransactionTableSize = configurationProperties.getProperty("gov.nist.javax.sip.MAX_SERVER_TRANSACTIONS");
                     if (serverTransactionTableSize != null) {
                         try {
@@ -3,11 +3,11 @@ package gov.nist.javax.sip.clientauthutils;
 import gov.nist.javax.sip.SipStackImpl;
 import gov.nist.javax.sip.message.SIPRequest;
 import gov.nist.javax.sip.stack.SIPClientTransaction;
+import gov.nist.javax.sip.stack.SIPStackTimer;
 import java.text.ParseException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.ListIterator;
-import java.util.Timer;
 import javax.sip.ClientTransaction;
 import javax.sip.DialogState;
 import javax.sip.InvalidArgumentException;
@@ -31,7 +31,7 @@ public class AuthenticationHelperImpl implements AuthenticationHelper {
     private CredentialsCache cachedCredentials;
     private HeaderFactory headerFactory;
     private SipStackImpl sipStack;
-    Timer timer;
+    SIPStackTimer timer;
 
     public AuthenticationHelperImpl(SipStackImpl sipStack, AccountManager accountManager, HeaderFactory headerFactory) {
         this.accountManager = accountManager;
@@ -1,19 +1,19 @@
 package gov.nist.javax.sip.clientauthutils;
 
+import gov.nist.javax.sip.stack.SIPStackTimer;
+import gov.nist.javax.sip.stack.SIPStackTimerTask;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.sip.header.AuthorizationHeader;
 
 class CredentialsCache {
     private ConcurrentHashMap<String, List<AuthorizationHeader>> authorizationHeaders = new ConcurrentHashMap();
-    private Timer timer;
+    private SIPStackTimer timer;
 
-    class TimeoutTask extends TimerTask {
+    class TimeoutTask extends SIPStackTimerTask {
         String callId;
         String userName;
 
@@ -22,12 +22,12 @@ class CredentialsCache {
             this.userName = userName;
         }
 
-        public void run() {
+        protected void runTask() {
             CredentialsCache.this.authorizationHeaders.remove(this.callId);
         }
     }
 
-    CredentialsCache(Timer timer) {
+    CredentialsCache(SIPStackTimer timer) {
         this.timer = timer;
     }
 
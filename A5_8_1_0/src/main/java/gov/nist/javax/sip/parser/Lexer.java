@@ -4,9 +4,13 @@ import gov.nist.core.LexerCore;
 import gov.nist.core.Separators;
 import gov.nist.javax.sip.header.extensions.ReferencesHeader;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.sip.header.ReferToHeader;
 
 public class Lexer extends LexerCore {
+    /** Lexer tables that are fully populated and safe to share without locking. */
+    private static final ConcurrentHashMap<String, Hashtable> readyLexers = new ConcurrentHashMap();
+
     public static String getHeaderName(String line) {
         if (line == null) {
             return null;
@@ -40,6 +44,12 @@ public class Lexer extends LexerCore {
     }
 
     public void selectLexer(String lexerName) {
+        Hashtable ready = (Hashtable) readyLexers.get(lexerName);
+        if (ready != null) {
+            this.currentLexer = ready;
+            this.currentLexerName = lexerName;
+            return;
+        }
         synchronized (lexerTables) {
             this.currentLexer = (Hashtable) lexerTables.get(lexerName);
             this.currentLexerName = lexerName;
@@ -161,6 +171,7 @@ public class Lexer extends LexerCore {
                     addKeyword("sips".toUpperCase(), TokenTypes.SIPS);
                 }
             }
+            readyLexers.put(lexerName, this.currentLexer);
         }
     }
 }
@@ -1,7 +1,5 @@
 package gov.nist.javax.sip.parser;
 
-import gov.nist.core.InternalErrorHandler;
-import gov.nist.javax.sip.header.SIPHeaderNamesCache;
 import gov.nist.javax.sip.header.extensions.ReferencesHeader;
 import gov.nist.javax.sip.parser.extensions.JoinParser;
 import gov.nist.javax.sip.parser.extensions.MinSEParser;
@@ -24,129 +22,355 @@ import gov.nist.javax.sip.parser.ims.SecurityClientParser;
 import gov.nist.javax.sip.parser.ims.SecurityServerParser;
 import gov.nist.javax.sip.parser.ims.SecurityVerifyParser;
 import gov.nist.javax.sip.parser.ims.ServiceRouteParser;
-import java.lang.reflect.Constructor;
 import java.text.ParseException;
-import java.util.Hashtable;
+import java.util.Arrays;
 import javax.sip.header.ReferToHeader;
 
+/**
+ * Creates the header parser for a header line.
+ *
+ * The header name is looked up straight from the line through a perfect
+ * hash over the known (lower case) header names: the table size and hash
+ * multiplier are chosen at class initialization so that no two names share
+ * a slot, so a lookup is one case-insensitive hash of the name plus one
+ * comparison, with no substring, lower-casing or reflection.
+ */
 public class ParserFactory {
-    private static Class[] constructorArgs = new Class[1];
-    private static Hashtable parserConstructorCache = new Hashtable();
-    private static Hashtable<String, Class<? extends HeaderParser>> parserTable = new Hashtable();
+    private static final String[] headerNames = new String[]{
+        "reply-to",
+        "in-reply-to",
+        "accept-encoding",
+        "accept-language",
+        "t",
+        "to",
+        "from",
+        "f",
+        "cseq",
+        "via",
+        "v",
+        "contact",
+        "m",
+        "content-type",
+        "c",
+        "content-length",
+        "l",
+        "authorization",
+        "www-authenticate",
+        "call-id",
+        "i",
+        "route",
+        "record-route",
+        "date",
+        "proxy-authorization",
+        "proxy-authenticate",
+        "retry-after",
+        "require",
+        "proxy-require",
+        "timestamp",
+        "unsupported",
+        "user-agent",
+        "supported",
+        "k",
+        "server",
+        "subject",
+        "s",
+        "subscription-state",
+        "max-forwards",
+        "mime-version",
+        "min-expires",
+        "organization",
+        "priority",
+        "rack",
+        "rseq",
+        "reason",
+        "warning",
+        "expires",
+        "event",
+        "o",
+        "error-info",
+        "content-language",
+        "content-encoding",
+        "e",
+        "content-disposition",
+        "call-info",
+        "authentication-info",
+        "allow",
+        "allow-events",
+        "u",
+        "alert-info",
+        "accept",
+        ReferToHeader.NAME.toLowerCase(),
+        "r",
+        "sip-etag",
+        "sip-if-match",
+        "p-access-network-info",
+        "p-asserted-identity",
+        "p-preferred-identity",
+        "p-charging-vector",
+        "p-charging-function-addresses",
+        "p-media-authorization",
+        "path",
+        "privacy",
+        "service-route",
+        "p-visited-network-id",
+        "p-associated-uri",
+        "p-called-party-id",
+        "security-server",
+        "security-client",
+        "security-verify",
+        "referred-by",
+        "b",
+        "session-expires",
+        "x",
+        "min-se",
+        "replaces",
+        "join",
+        ReferencesHeader.NAME.toLowerCase()};
+    private static int nameMask;
+    private static int nameMultiplier;
+    private static int[] nameTable;
 
     static {
-        constructorArgs[0] = String.class;
-        parserTable.put("Reply-To".toLowerCase(), ReplyToParser.class);
-        parserTable.put("In-Reply-To".toLowerCase(), InReplyToParser.class);
-        parserTable.put("Accept-Encoding".toLowerCase(), AcceptEncodingParser.class);
-        parserTable.put("Accept-Language".toLowerCase(), AcceptLanguageParser.class);
-        parserTable.put("t", ToParser.class);
-        parserTable.put("To".toLowerCase(), ToParser.class);
-        parserTable.put("From".toLowerCase(), FromParser.class);
-        parserTable.put("f", FromParser.class);
-        parserTable.put("CSeq".toLowerCase(), CSeqParser.class);
-        parserTable.put("Via".toLowerCase(), ViaParser.class);
-        parserTable.put("v", ViaParser.class);
-        parserTable.put("Contact".toLowerCase(), ContactParser.class);
-        parserTable.put("m", ContactParser.class);
-        parserTable.put("Content-Type".toLowerCase(), ContentTypeParser.class);
-        parserTable.put("c", ContentTypeParser.class);
-        parserTable.put("Content-Length".toLowerCase(), ContentLengthParser.class);
-        parserTable.put("l", ContentLengthParser.class);
-        parserTable.put("Authorization".toLowerCase(), AuthorizationParser.class);
-        parserTable.put("WWW-Authenticate".toLowerCase(), WWWAuthenticateParser.class);
-        parserTable.put("Call-ID".toLowerCase(), CallIDParser.class);
-        parserTable.put("i", CallIDParser.class);
-        parserTable.put("Route".toLowerCase(), RouteParser.class);
-        parserTable.put("Record-Route".toLowerCase(), RecordRouteParser.class);
-        parserTable.put("Date".toLowerCase(), DateParser.class);
-        parserTable.put("Proxy-Authorization".toLowerCase(), ProxyAuthorizationParser.class);
-        parserTable.put("Proxy-Authenticate".toLowerCase(), ProxyAuthenticateParser.class);
-        parserTable.put("Retry-After".toLowerCase(), RetryAfterParser.class);
-        parserTable.put("Require".toLowerCase(), RequireParser.class);
-        parserTable.put("Proxy-Require".toLowerCase(), ProxyRequireParser.class);
-        parserTable.put("Timestamp".toLowerCase(), TimeStampParser.class);
-        parserTable.put("Unsupported".toLowerCase(), UnsupportedParser.class);
-        parserTable.put("User-Agent".toLowerCase(), UserAgentParser.class);
-        parserTable.put("Supported".toLowerCase(), SupportedParser.class);
-        parserTable.put("k", SupportedParser.class);
-        parserTable.put("Server".toLowerCase(), ServerParser.class);
-        parserTable.put("Subject".toLowerCase(), SubjectParser.class);
-        parserTable.put("s", SubjectParser.class);
-        parserTable.put("Subscription-State".toLowerCase(), SubscriptionStateParser.class);
-        parserTable.put("Max-Forwards".toLowerCase(), MaxForwardsParser.class);
-        parserTable.put("MIME-Version".toLowerCase(), MimeVersionParser.class);
-        parserTable.put("Min-Expires".toLowerCase(), MinExpiresParser.class);
-        parserTable.put("Organization".toLowerCase(), OrganizationParser.class);
-        parserTable.put("Priority".toLowerCase(), PriorityParser.class);
-        parserTable.put("RAck".toLowerCase(), RAckParser.class);
-        parserTable.put("RSeq".toLowerCase(), RSeqParser.class);
-        parserTable.put("Reason".toLowerCase(), ReasonParser.class);
-        parserTable.put("Warning".toLowerCase(), WarningParser.class);
-        parserTable.put("Expires".toLowerCase(), ExpiresParser.class);
-        parserTable.put("Event".toLowerCase(), EventParser.class);
-        parserTable.put("o", EventParser.class);
-        parserTable.put("Error-Info".toLowerCase(), ErrorInfoParser.class);
-        parserTable.put("Content-Language".toLowerCase(), ContentLanguageParser.class);
-        parserTable.put("Content-Encoding".toLowerCase(), ContentEncodingParser.class);
-        parserTable.put("e", ContentEncodingParser.class);
-        parserTable.put("Content-Disposition".toLowerCase(), ContentDispositionParser.class);
-        parserTable.put("Call-Info".toLowerCase(), CallInfoParser.class);
-        parserTable.put("Authentication-Info".toLowerCase(), AuthenticationInfoParser.class);
-        parserTable.put("Allow".toLowerCase(), AllowParser.class);
-        parserTable.put("Allow-Events".toLowerCase(), AllowEventsParser.class);
-        parserTable.put("u", AllowEventsParser.class);
-        parserTable.put("Alert-Info".toLowerCase(), AlertInfoParser.class);
-        parserTable.put("Accept".toLowerCase(), AcceptParser.class);
-        parserTable.put(ReferToHeader.NAME.toLowerCase(), ReferToParser.class);
-        parserTable.put("r", ReferToParser.class);
-        parserTable.put("SIP-ETag".toLowerCase(), SIPETagParser.class);
-        parserTable.put("SIP-If-Match".toLowerCase(), SIPIfMatchParser.class);
-        parserTable.put("P-Access-Network-Info".toLowerCase(), PAccessNetworkInfoParser.class);
-        parserTable.put("P-Asserted-Identity".toLowerCase(), PAssertedIdentityParser.class);
-        parserTable.put("P-Preferred-Identity".toLowerCase(), PPreferredIdentityParser.class);
-        parserTable.put("P-Charging-Vector".toLowerCase(), PChargingVectorParser.class);
-        parserTable.put("P-Charging-Function-Addresses".toLowerCase(), PChargingFunctionAddressesParser.class);
-        parserTable.put("P-Media-Authorization".toLowerCase(), PMediaAuthorizationParser.class);
-        parserTable.put("Path".toLowerCase(), PathParser.class);
-        parserTable.put("Privacy".toLowerCase(), PrivacyParser.class);
-        parserTable.put("Service-Route".toLowerCase(), ServiceRouteParser.class);
-        parserTable.put("P-Visited-Network-ID".toLowerCase(), PVisitedNetworkIDParser.class);
-        parserTable.put("P-Associated-URI".toLowerCase(), PAssociatedURIParser.class);
-        parserTable.put("P-Called-Party-ID".toLowerCase(), PCalledPartyIDParser.class);
-        parserTable.put("Security-Server".toLowerCase(), SecurityServerParser.class);
-        parserTable.put("Security-Client".toLowerCase(), SecurityClientParser.class);
-        parserTable.put("Security-Verify".toLowerCase(), SecurityVerifyParser.class);
-        parserTable.put("Referred-By".toLowerCase(), ReferredByParser.class);
-        parserTable.put("b", ReferToParser.class);
-        parserTable.put("Session-Expires".toLowerCase(), SessionExpiresParser.class);
-        parserTable.put("x", SessionExpiresParser.class);
-        parserTable.put("Min-SE".toLowerCase(), MinSEParser.class);
-        parserTable.put("Replaces".toLowerCase(), ReplacesParser.class);
-        parserTable.put("Join".toLowerCase(), JoinParser.class);
-        parserTable.put(ReferencesHeader.NAME.toLowerCase(), ReferencesParser.class);
+        int size = Integer.highestOneBit(headerNames.length * 4);
+        if (size < headerNames.length * 4) {
+            size <<= 1;
+        }
+        while (!buildNameTable(size)) {
+            size <<= 1;
+        }
+    }
+
+    private static boolean buildNameTable(int size) {
+        int[] table = new int[size];
+        for (int multiplier = 31; multiplier < 8192; multiplier += 2) {
+            boolean collision = false;
+            for (int id = 0; id < headerNames.length; id++) {
+                String name = headerNames[id];
+                int slot = hash(name, 0, name.length(), multiplier) & (size - 1);
+                if (table[slot] != 0) {
+                    collision = true;
+                    break;
+                }
+                table[slot] = id + 1;
+            }
+            if (!collision) {
+                nameTable = table;
+                nameMask = size - 1;
+                nameMultiplier = multiplier;
+                return true;
+            }
+            Arrays.fill(table, 0);
+        }
+        return false;
+    }
+
+    private static int hash(String line, int start, int end, int multiplier) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + 32);
+            }
+            h = (h * multiplier) + c;
+        }
+        return (h >>> 16) ^ h;
+    }
+
+    /**
+     * Returns the parser id of the header name in line[start, end), or -1
+     * when it is not a header with a dedicated parser.
+     */
+    private static int lookupHeader(String line, int start, int end) {
+        int id = nameTable[hash(line, start, end, nameMultiplier) & nameMask] - 1;
+        if (id < 0) {
+            return -1;
+        }
+        String name = headerNames[id];
+        if (name.length() == end - start && line.regionMatches(true, start, name, 0, name.length())) {
+            return id;
+        }
+        return -1;
     }
 
     public static HeaderParser createParser(String line) throws ParseException {
-        String headerName = Lexer.getHeaderName(line);
-        String headerValue = Lexer.getHeaderValue(line);
-        if (headerName == null || headerValue == null) {
+        int colon = line == null ? -1 : line.indexOf(':');
+        if (colon < 1) {
             throw new ParseException("The header name or value is null", 0);
         }
-        Class parserClass = (Class) parserTable.get(SIPHeaderNamesCache.toLowerCase(headerName));
-        if (parserClass == null) {
-            return new HeaderParser(line);
+        int start = 0;
+        int end = colon;
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
         }
-        try {
-            Constructor cons = (Constructor) parserConstructorCache.get(parserClass);
-            if (cons == null) {
-                cons = parserClass.getConstructor(constructorArgs);
-                parserConstructorCache.put(parserClass, cons);
-            }
-            return (HeaderParser) cons.newInstance(new Object[]{line});
-        } catch (Exception ex) {
-            InternalErrorHandler.handleException(ex);
-            return null;
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        switch (lookupHeader(line, start, end)) {
+            case 0:
+                return new ReplyToParser(line);
+            case 1:
+                return new InReplyToParser(line);
+            case 2:
+                return new AcceptEncodingParser(line);
+            case 3:
+                return new AcceptLanguageParser(line);
+            case 4:
+            case 5:
+                return new ToParser(line);
+            case 6:
+            case 7:
+                return new FromParser(line);
+            case 8:
+                return new CSeqParser(line);
+            case 9:
+            case 10:
+                return new ViaParser(line);
+            case 11:
+            case 12:
+                return new ContactParser(line);
+            case 13:
+            case 14:
+                return new ContentTypeParser(line);
+            case 15:
+            case 16:
+                return new ContentLengthParser(line);
+            case 17:
+                return new AuthorizationParser(line);
+            case 18:
+                return new WWWAuthenticateParser(line);
+            case 19:
+            case 20:
+                return new CallIDParser(line);
+            case 21:
+                return new RouteParser(line);
+            case 22:
+                return new RecordRouteParser(line);
+            case 23:
+                return new DateParser(line);
+            case 24:
+                return new ProxyAuthorizationParser(line);
+            case 25:
+                return new ProxyAuthenticateParser(line);
+            case 26:
+                return new RetryAfterParser(line);
+            case 27:
+                return new RequireParser(line);
+            case 28:
+                return new ProxyRequireParser(line);
+            case 29:
+                return new TimeStampParser(line);
+            case 30:
+                return new UnsupportedParser(line);
+            case 31:
+                return new UserAgentParser(line);
+            case 32:
+            case 33:
+                return new SupportedParser(line);
+            case 34:
+                return new ServerParser(line);
+            case 35:
+            case 36:
+                return new SubjectParser(line);
+            case 37:
+                return new SubscriptionStateParser(line);
+            case 38:
+                return new MaxForwardsParser(line);
+            case 39:
+                return new MimeVersionParser(line);
+            case 40:
+                return new MinExpiresParser(line);
+            case 41:
+                return new OrganizationParser(line);
+            case 42:
+                return new PriorityParser(line);
+            case 43:
+                return new RAckParser(line);
+            case 44:
+                return new RSeqParser(line);
+            case 45:
+                return new ReasonParser(line);
+            case 46:
+                return new WarningParser(line);
+            case 47:
+                return new ExpiresParser(line);
+            case 48:
+            case 49:
+                return new EventParser(line);
+            case 50:
+                return new ErrorInfoParser(line);
+            case 51:
+                return new ContentLanguageParser(line);
+            case 52:
+            case 53:
+                return new ContentEncodingParser(line);
+            case 54:
+                return new ContentDispositionParser(line);
+            case 55:
+                return new CallInfoParser(line);
+            case 56:
+                return new AuthenticationInfoParser(line);
+            case 57:
+                return new AllowParser(line);
+            case 58:
+            case 59:
+                return new AllowEventsParser(line);
+            case 60:
+                return new AlertInfoParser(line);
+            case 61:
+                return new AcceptParser(line);
+            case 62:
+            case 63:
+            case 82:
+                return new ReferToParser(line);
+            case 64:
+                return new SIPETagParser(line);
+            case 65:
+                return new SIPIfMatchParser(line);
+            case 66:
+                return new PAccessNetworkInfoParser(line);
+            case 67:
+                return new PAssertedIdentityParser(line);
+            case 68:
+                return new PPreferredIdentityParser(line);
+            case 69:
+                return new PChargingVectorParser(line);
+            case 70:
+                return new PChargingFunctionAddressesParser(line);
+            case 71:
+                return new PMediaAuthorizationParser(line);
+            case 72:
+                return new PathParser(line);
+            case 73:
+                return new PrivacyParser(line);
+            case 74:
+                return new ServiceRouteParser(line);
+            case 75:
+                return new PVisitedNetworkIDParser(line);
+            case 76:
+                return new PAssociatedURIParser(line);
+            case 77:
+                return new PCalledPartyIDParser(line);
+            case 78:
+                return new SecurityServerParser(line);
+            case 79:
+                return new SecurityClientParser(line);
+            case 80:
+                return new SecurityVerifyParser(line);
+            case 81:
+                return new ReferredByParser(line);
+            case 83:
+            case 84:
+                return new SessionExpiresParser(line);
+            case 85:
+                return new MinSEParser(line);
+            case 86:
+                return new ReplacesParser(line);
+            case 87:
+                return new JoinParser(line);
+            case 88:
+                return new ReferencesParser(line);
+            default:
+                return new HeaderParser(line);
         }
     }
 }
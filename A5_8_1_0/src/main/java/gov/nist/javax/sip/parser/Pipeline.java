@@ -1,43 +1,60 @@
 package gov.nist.javax.sip.parser;
 
 import gov.nist.core.InternalErrorHandler;
+import gov.nist.javax.sip.stack.SIPStackTimer;
 import gov.nist.javax.sip.stack.SIPStackTimerTask;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedList;
-import java.util.NoSuchElementException;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands the bytes read from a TCP/TLS socket by the channel thread to the
+ * PipelinedMsgParser thread.
+ *
+ * There is exactly one writer (the channel thread) and one reader (the
+ * parser thread), so the chunks are passed through a fixed single-producer,
+ * single-consumer ring with volatile indexes and park/unpark instead of a
+ * locked list. write() copies into 4K chunks taken from a pool shared by
+ * all pipelines and the reader returns each chunk to the pool as soon as it
+ * has consumed it, so an idle connection holds no buffers. The writer
+ * blocks when RING_SIZE chunks are waiting.
+ *
+ * The read timeout is a deadline: startTimer() and stopTimer() only set it,
+ * and a single timer task per pipeline checks it when it fires and re-arms
+ * itself while a read is still in progress.
+ */
 public class Pipeline extends InputStream {
-    private LinkedList buffList = new LinkedList();
-    private Buffer currentBuffer;
-    private boolean isClosed;
-    private TimerTask myTimerTask;
+    private static final int CHUNK_SIZE = 4096;
+    private static final int MAX_POOLED_CHUNKS = 256;
+    private static final int RING_SIZE = 64;
+    private static final ConcurrentLinkedQueue<byte[]> chunkPool = new ConcurrentLinkedQueue();
+    private static final AtomicInteger pooledChunks = new AtomicInteger();
+    private volatile long head;
+    private volatile boolean isClosed;
     private InputStream pipe;
+    private volatile long readDeadline;
     private int readTimeout;
-    private Timer timer;
-
-    class Buffer {
+    private volatile Thread reader;
+    private final Buffer[] ring = new Buffer[RING_SIZE];
+    private volatile long tail;
+    private SIPStackTimer timer;
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+    private volatile Thread writer;
+
+    static class Buffer {
         byte[] bytes;
         int length;
         int ptr = 0;
 
-        public Buffer(byte[] bytes, int length) {
-            this.length = length;
-            this.bytes = bytes;
-        }
-
-        public int getNextByte() {
-            byte[] bArr = this.bytes;
-            int i = this.ptr;
-            this.ptr = i + 1;
-            return bArr[i] & 255;
+        Buffer() {
         }
     }
 
     class MyTimer extends SIPStackTimerTask {
-        private boolean isCancelled;
         Pipeline pipeline;
 
         protected MyTimer(Pipeline pipeline) {
@@ -45,50 +62,107 @@ public class Pipeline extends InputStream {
         }
 
         protected void runTask() {
-            if (!this.isCancelled) {
-                try {
-                    this.pipeline.close();
-                } catch (Exception ex) {
-                    InternalErrorHandler.handleException(ex);
-                }
-            }
+            this.pipeline.checkReadDeadline();
         }
+    }
 
-        public boolean cancel() {
-            boolean retval = super.cancel();
-            this.isCancelled = true;
-            return retval;
+    public Pipeline(InputStream pipe, int readTimeout, SIPStackTimer timer) {
+        this.timer = timer;
+        this.pipe = pipe;
+        this.readTimeout = readTimeout;
+        for (int i = 0; i < RING_SIZE; i++) {
+            this.ring[i] = new Buffer();
+        }
+    }
+
+    private static byte[] obtainChunk() {
+        byte[] chunk = (byte[]) chunkPool.poll();
+        if (chunk == null) {
+            return new byte[CHUNK_SIZE];
+        }
+        pooledChunks.decrementAndGet();
+        return chunk;
+    }
+
+    private static void recycleChunk(byte[] chunk) {
+        if (pooledChunks.incrementAndGet() <= MAX_POOLED_CHUNKS) {
+            chunkPool.offer(chunk);
+        } else {
+            pooledChunks.decrementAndGet();
         }
     }
 
     public void startTimer() {
         if (this.readTimeout != -1) {
-            this.myTimerTask = new MyTimer(this);
-            this.timer.schedule(this.myTimerTask, (long) this.readTimeout);
+            this.readDeadline = System.currentTimeMillis() + ((long) this.readTimeout);
+            if (this.timerArmed.compareAndSet(false, true)) {
+                this.timer.schedule(new MyTimer(this), (long) this.readTimeout);
+            }
         }
     }
 
     public void stopTimer() {
-        if (!(this.readTimeout == -1 || this.myTimerTask == null)) {
-            this.myTimerTask.cancel();
+        if (this.readTimeout != -1) {
+            this.readDeadline = 0;
         }
     }
 
-    public Pipeline(InputStream pipe, int readTimeout, Timer timer) {
-        this.timer = timer;
-        this.pipe = pipe;
-        this.readTimeout = readTimeout;
+    /**
+     * Runs on the timer thread: closes the pipeline if the current read is
+     * past its deadline, re-arms for the remaining time if it is not, and
+     * disarms when no read is in progress.
+     */
+    private void checkReadDeadline() {
+        long deadline = this.readDeadline;
+        if (deadline == 0) {
+            this.timerArmed.set(false);
+            deadline = this.readDeadline;
+            if (deadline == 0 || !this.timerArmed.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining > 0) {
+            this.timer.schedule(new MyTimer(this), remaining);
+            return;
+        }
+        try {
+            close();
+        } catch (Exception ex) {
+            InternalErrorHandler.handleException(ex);
+        }
     }
 
     public void write(byte[] bytes, int start, int length) throws IOException {
-        if (this.isClosed) {
-            throw new IOException("Closed!!");
-        }
-        Buffer buff = new Buffer(bytes, length);
-        buff.ptr = start;
-        synchronized (this.buffList) {
-            this.buffList.add(buff);
-            this.buffList.notifyAll();
+        while (length > 0) {
+            if (this.isClosed) {
+                throw new IOException("Closed!!");
+            }
+            long tail = this.tail;
+            if (tail - this.head >= ((long) RING_SIZE)) {
+                this.writer = Thread.currentThread();
+                if (tail - this.head >= ((long) RING_SIZE) && !this.isClosed) {
+                    LockSupport.park(this);
+                }
+                this.writer = null;
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("Interrupted while writing the pipeline");
+                }
+            } else {
+                int count = Math.min(length, CHUNK_SIZE);
+                Buffer buff = this.ring[(int) (tail % ((long) RING_SIZE))];
+                buff.bytes = obtainChunk();
+                System.arraycopy(bytes, start, buff.bytes, 0, count);
+                buff.length = count;
+                buff.ptr = 0;
+                this.tail = 1 + tail;
+                Thread reader = this.reader;
+                if (reader != null) {
+                    LockSupport.unpark(reader);
+                }
+                start += count;
+                length -= count;
+            }
         }
     }
 
@@ -96,59 +170,85 @@ public class Pipeline extends InputStream {
         if (this.isClosed) {
             throw new IOException("Closed!!");
         }
-        Buffer buff = new Buffer(bytes, bytes.length);
-        synchronized (this.buffList) {
-            this.buffList.add(buff);
-            this.buffList.notifyAll();
-        }
+        write(bytes, 0, bytes.length);
     }
 
     public void close() throws IOException {
         this.isClosed = true;
-        synchronized (this.buffList) {
-            this.buffList.notifyAll();
+        Thread reader = this.reader;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+        Thread writer = this.writer;
+        if (writer != null) {
+            LockSupport.unpark(writer);
         }
         this.pipe.close();
     }
 
-    /* JADX WARNING: Missing block: B:11:0x0026, code:
-            return r2;
-     */
-    /* JADX WARNING: Missing block: B:31:0x0066, code:
-            return r2;
+    /**
+     * Returns the chunk at the head of the ring, waiting for the writer if
+     * the ring is empty, or null once the pipeline is closed and drained.
      */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
-    public int read() throws IOException {
-        synchronized (this.buffList) {
-            int retval;
-            if (this.currentBuffer != null && this.currentBuffer.ptr < this.currentBuffer.length) {
-                retval = this.currentBuffer.getNextByte();
-                if (this.currentBuffer.ptr == this.currentBuffer.length) {
-                    this.currentBuffer = null;
-                }
-            } else if (this.isClosed && this.buffList.isEmpty()) {
-                return -1;
-            } else {
-                do {
-                    try {
-                        if (this.buffList.isEmpty()) {
-                            this.buffList.wait();
-                        } else {
-                            this.currentBuffer = (Buffer) this.buffList.removeFirst();
-                            retval = this.currentBuffer.getNextByte();
-                            if (this.currentBuffer.ptr == this.currentBuffer.length) {
-                                this.currentBuffer = null;
-                            }
-                        }
-                    } catch (InterruptedException ex) {
-                        throw new IOException(ex.getMessage());
-                    } catch (NoSuchElementException ex2) {
-                        ex2.printStackTrace();
-                        throw new IOException(ex2.getMessage());
-                    }
-                } while (!this.isClosed);
-                return -1;
+    private Buffer nextBuffer() throws IOException {
+        while (true) {
+            long head = this.head;
+            if (head < this.tail) {
+                return this.ring[(int) (head % ((long) RING_SIZE))];
+            }
+            if (this.isClosed) {
+                return null;
+            }
+            this.reader = Thread.currentThread();
+            if (head >= this.tail && !this.isClosed) {
+                LockSupport.park(this);
             }
+            this.reader = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException("Interrupted while reading the pipeline");
+            }
+        }
+    }
+
+    private void release(Buffer buff) {
+        recycleChunk(buff.bytes);
+        buff.bytes = null;
+        this.head++;
+        Thread writer = this.writer;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public int read() throws IOException {
+        Buffer buff = nextBuffer();
+        if (buff == null) {
+            return -1;
+        }
+        byte[] bArr = buff.bytes;
+        int i = buff.ptr;
+        buff.ptr = i + 1;
+        int retval = bArr[i] & 255;
+        if (buff.ptr == buff.length) {
+            release(buff);
+        }
+        return retval;
+    }
+
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        Buffer buff = nextBuffer();
+        if (buff == null) {
+            return -1;
+        }
+        int count = Math.min(length, buff.length - buff.ptr);
+        System.arraycopy(buff.bytes, buff.ptr, bytes, offset, count);
+        buff.ptr += count;
+        if (buff.ptr == buff.length) {
+            release(buff);
         }
+        return count;
     }
 }
@@ -16,7 +16,7 @@ import gov.nist.javax.sip.header.StatusLine;
 import gov.nist.javax.sip.message.SIPMessage;
 import gov.nist.javax.sip.message.SIPRequest;
 import gov.nist.javax.sip.message.SIPResponse;
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 
 public class StringMsgParser {
@@ -81,35 +81,35 @@ public class StringMsgParser {
                 } catch (ArrayIndexOutOfBoundsException e2) {
                 }
             }
-            try {
-                currentLine = trimEndOfLine(new String(msgBuffer, lineStart, i - lineStart, "UTF-8"));
-                if (currentLine.length() == 0) {
+            int lineEnd = i;
+            while (lineEnd > lineStart && (msgBuffer[lineEnd - 1] & 255) <= 32) {
+                lineEnd--;
+            }
+            currentLine = new String(msgBuffer, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            if (currentLine.length() == 0) {
+                if (!(currentHeader == null || message == null)) {
+                    processHeader(currentHeader, message);
+                }
+            } else if (isFirstLine) {
+                message = processFirstLine(currentLine);
+            } else {
+                char firstChar = currentLine.charAt(0);
+                if (firstChar != 9 && firstChar != ' ') {
                     if (!(currentHeader == null || message == null)) {
                         processHeader(currentHeader, message);
                     }
-                } else if (isFirstLine) {
-                    message = processFirstLine(currentLine);
+                    currentHeader = currentLine;
+                } else if (currentHeader == null) {
+                    throw new ParseException("Bad header continuation.", 0);
                 } else {
-                    char firstChar = currentLine.charAt(0);
-                    if (firstChar != 9 && firstChar != ' ') {
-                        if (!(currentHeader == null || message == null)) {
-                            processHeader(currentHeader, message);
-                        }
-                        currentHeader = currentLine;
-                    } else if (currentHeader == null) {
-                        throw new ParseException("Bad header continuation.", 0);
-                    } else {
-                        currentHeader = currentHeader + currentLine.substring(1);
-                    }
-                }
-                if (msgBuffer[i] == (byte) 13 && msgBuffer.length > i + 1 && msgBuffer[i + 1] == (byte) 10) {
-                    i++;
+                    currentHeader = currentHeader + currentLine.substring(1);
                 }
+            }
+            if (msgBuffer[i] == (byte) 13 && msgBuffer.length > i + 1 && msgBuffer[i + 1] == (byte) 10) {
                 i++;
-                isFirstLine = false;
-            } catch (UnsupportedEncodingException e3) {
-                throw new ParseException("Bad message encoding!", 0);
             }
+            i++;
+            isFirstLine = false;
         } while (currentLine.length() > 0);
         if (message == null) {
             throw new ParseException("Bad message", 0);
@@ -0,0 +1,88 @@
+package gov.nist.javax.sip.stack;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link SIPStackTimer} backed by a {@link java.util.Timer}; the behaviour
+ * of the stack before the timing wheel was introduced.
+ */
+public class DefaultSIPStackTimer implements SIPStackTimer {
+    private volatile long maxTickLag;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean started = true;
+    private final Timer timer = new Timer();
+
+    public boolean schedule(SIPStackTimerTask task, long delay) {
+        return schedule(task, delay, 0);
+    }
+
+    public boolean schedule(final SIPStackTimerTask task, long delay, final long period) {
+        if (!this.started || !task.bind(this)) {
+            return false;
+        }
+        TimerTask timerTask = new TimerTask() {
+            public void run() {
+                long lag = System.currentTimeMillis() - scheduledExecutionTime();
+                if (lag > DefaultSIPStackTimer.this.maxTickLag) {
+                    DefaultSIPStackTimer.this.maxTickLag = lag;
+                }
+                if (period <= 0) {
+                    if (task.retire()) {
+                        DefaultSIPStackTimer.this.pendingCount.decrementAndGet();
+                        task.run();
+                    }
+                } else if (task.isCancelled()) {
+                    cancel();
+                } else {
+                    task.run();
+                }
+            }
+        };
+        task.handle = timerTask;
+        this.pendingCount.incrementAndGet();
+        try {
+            if (period > 0) {
+                this.timer.schedule(timerTask, delay, period);
+            } else {
+                this.timer.schedule(timerTask, delay);
+            }
+            return true;
+        } catch (IllegalStateException e) {
+            if (task.retire()) {
+                this.pendingCount.decrementAndGet();
+            }
+            return false;
+        }
+    }
+
+    public boolean cancel(SIPStackTimerTask task) {
+        TimerTask timerTask = (TimerTask) task.handle;
+        if (timerTask != null) {
+            timerTask.cancel();
+        }
+        if (!task.retire()) {
+            return false;
+        }
+        this.pendingCount.decrementAndGet();
+        return true;
+    }
+
+    public long getMaxTickLag() {
+        return this.maxTickLag;
+    }
+
+    public int getPendingCount() {
+        return this.pendingCount.get();
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    public void stop() {
+        this.started = false;
+        this.timer.cancel();
+    }
+}
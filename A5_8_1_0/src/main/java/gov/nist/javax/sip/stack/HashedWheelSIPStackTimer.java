@@ -0,0 +1,281 @@
+package gov.nist.javax.sip.stack;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link SIPStackTimer} built on a hashed timing wheel.
+ *
+ * Time is cut into ticks of tickDuration milliseconds and a task lives in
+ * the bucket of the tick it expires in, with a round count for deadlines
+ * more than one wheel revolution away. Scheduling and cancelling only
+ * append to lock-free queues; the timer thread moves them into or out of
+ * the buckets (doubly linked, so removal is O(1)) before each batch of
+ * ticks, so a cancelled task is dropped right away instead of waiting for
+ * its deadline as with java.util.Timer. When it falls behind, the thread
+ * processes all due ticks in one pass, and it sleeps until the next
+ * non-empty bucket rather than waking every tick.
+ */
+public class HashedWheelSIPStackTimer implements SIPStackTimer, Runnable {
+    private static final long DEFAULT_TICK_DURATION = 10;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private final ConcurrentLinkedQueue<SIPStackTimerTask> cancelledTasks;
+    private volatile long maxTickLag;
+    private final int mask;
+    private final ConcurrentLinkedQueue<SIPStackTimerTask> newTasks;
+    private final AtomicInteger pendingCount;
+    private final long startTime;
+    private volatile boolean started;
+    private final Thread thread;
+    private long tick;
+    private final long tickDuration;
+    private volatile long wakeTime;
+    private final Bucket[] wheel;
+
+    private static final class Bucket {
+        SIPStackTimerTask head;
+        SIPStackTimerTask tail;
+
+        private Bucket() {
+        }
+
+        void add(SIPStackTimerTask task) {
+            task.bucket = this;
+            task.prev = this.tail;
+            task.next = null;
+            if (this.tail == null) {
+                this.head = task;
+            } else {
+                this.tail.next = task;
+            }
+            this.tail = task;
+        }
+
+        void remove(SIPStackTimerTask task) {
+            if (task.prev == null) {
+                this.head = task.next;
+            } else {
+                task.prev.next = task.next;
+            }
+            if (task.next == null) {
+                this.tail = task.prev;
+            } else {
+                task.next.prev = task.prev;
+            }
+            task.bucket = null;
+            task.prev = null;
+            task.next = null;
+        }
+    }
+
+    public HashedWheelSIPStackTimer() {
+        this(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    public HashedWheelSIPStackTimer(long tickDuration, int wheelSize) {
+        this.cancelledTasks = new ConcurrentLinkedQueue();
+        this.newTasks = new ConcurrentLinkedQueue();
+        this.pendingCount = new AtomicInteger();
+        this.started = true;
+        this.wakeTime = Long.MAX_VALUE;
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("bad tick duration or wheel size");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickDuration = tickDuration;
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.wheel[i] = new Bucket();
+        }
+        this.startTime = now();
+        this.thread = new Thread(this);
+        this.thread.setName("SIPStackTimer");
+        this.thread.start();
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1000000;
+    }
+
+    public boolean schedule(SIPStackTimerTask task, long delay) {
+        return scheduleTask(task, delay, 0);
+    }
+
+    public boolean schedule(SIPStackTimerTask task, long delay, long period) {
+        if (period > 0) {
+            return scheduleTask(task, delay, period);
+        }
+        throw new IllegalArgumentException("Non-positive period.");
+    }
+
+    private boolean scheduleTask(SIPStackTimerTask task, long delay, long period) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Negative delay.");
+        } else if (!this.started || !task.bind(this)) {
+            return false;
+        } else {
+            task.deadline = now() + delay;
+            task.period = period;
+            this.pendingCount.incrementAndGet();
+            this.newTasks.offer(task);
+            if (task.deadline < this.wakeTime) {
+                LockSupport.unpark(this.thread);
+            }
+            return true;
+        }
+    }
+
+    public boolean cancel(SIPStackTimerTask task) {
+        if (!task.retire()) {
+            return false;
+        }
+        this.pendingCount.decrementAndGet();
+        this.cancelledTasks.offer(task);
+        return true;
+    }
+
+    public long getMaxTickLag() {
+        return this.maxTickLag;
+    }
+
+    public int getPendingCount() {
+        return this.pendingCount.get();
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    public void stop() {
+        this.started = false;
+        LockSupport.unpark(this.thread);
+    }
+
+    public void run() {
+        ArrayList<SIPStackTimerTask> expired = new ArrayList();
+        while (this.started) {
+            removeCancelledTasks();
+            addNewTasks();
+            long now = now();
+            long currentTick = (now - this.startTime) / this.tickDuration;
+            if (currentTick >= this.tick) {
+                long wakeTime = this.wakeTime;
+                if (wakeTime != Long.MAX_VALUE && now - wakeTime > this.maxTickLag) {
+                    this.maxTickLag = now - wakeTime;
+                }
+                while (this.tick <= currentTick) {
+                    expire(this.wheel[(int) (this.tick & ((long) this.mask))], expired);
+                    this.tick++;
+                }
+                for (int i = 0; i < expired.size(); i++) {
+                    runTask((SIPStackTimerTask) expired.get(i));
+                }
+                expired.clear();
+            }
+            waitForNextTick();
+        }
+        this.newTasks.clear();
+        this.cancelledTasks.clear();
+    }
+
+    private void removeCancelledTasks() {
+        while (true) {
+            SIPStackTimerTask task = (SIPStackTimerTask) this.cancelledTasks.poll();
+            if (task != null) {
+                Bucket bucket = (Bucket) task.bucket;
+                if (bucket != null) {
+                    bucket.remove(task);
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void addNewTasks() {
+        while (true) {
+            SIPStackTimerTask task = (SIPStackTimerTask) this.newTasks.poll();
+            if (task == null) {
+                return;
+            }
+            if (!task.isCancelled()) {
+                add(task);
+            }
+        }
+    }
+
+    private void add(SIPStackTimerTask task) {
+        long expiryTick = ((task.deadline - this.startTime) + (this.tickDuration - 1)) / this.tickDuration;
+        if (expiryTick < this.tick) {
+            expiryTick = this.tick;
+        }
+        task.rounds = (int) ((expiryTick - this.tick) / ((long) this.wheel.length));
+        this.wheel[(int) (((long) this.mask) & expiryTick)].add(task);
+    }
+
+    private static void expire(Bucket bucket, ArrayList<SIPStackTimerTask> expired) {
+        SIPStackTimerTask task = bucket.head;
+        while (task != null) {
+            SIPStackTimerTask next = task.next;
+            if (task.rounds > 0) {
+                task.rounds--;
+            } else {
+                bucket.remove(task);
+                expired.add(task);
+            }
+            task = next;
+        }
+    }
+
+    private void runTask(SIPStackTimerTask task) {
+        if (task.period <= 0) {
+            if (task.retire()) {
+                this.pendingCount.decrementAndGet();
+                task.run();
+            }
+        } else if (!task.isCancelled()) {
+            task.run();
+            if (!task.isCancelled()) {
+                task.deadline = now() + task.period;
+                add(task);
+            }
+        }
+    }
+
+    private void waitForNextTick() {
+        long nextTick = -1;
+        for (int i = 0; i < this.wheel.length; i++) {
+            if (this.wheel[(int) ((this.tick + ((long) i)) & ((long) this.mask))].head != null) {
+                nextTick = this.tick + ((long) i);
+                break;
+            }
+        }
+        if (nextTick < 0) {
+            this.wakeTime = Long.MAX_VALUE;
+            if (this.newTasks.isEmpty() && this.started) {
+                LockSupport.park(this);
+            }
+            long currentTick = (now() - this.startTime) / this.tickDuration;
+            if (currentTick > this.tick) {
+                this.tick = currentTick;
+            }
+            return;
+        }
+        long due = this.startTime + (this.tickDuration * nextTick);
+        this.wakeTime = due;
+        while (this.started && this.newTasks.isEmpty()) {
+            long now = now();
+            if (now < due) {
+                LockSupport.parkNanos(this, (due - now) * 1000000);
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,655 @@
+package gov.nist.javax.sip.stack;
+
+import gov.nist.core.InternalErrorHandler;
+import gov.nist.core.Separators;
+import gov.nist.javax.sip.header.CSeq;
+import gov.nist.javax.sip.header.CallID;
+import gov.nist.javax.sip.header.From;
+import gov.nist.javax.sip.header.RequestLine;
+import gov.nist.javax.sip.header.StatusLine;
+import gov.nist.javax.sip.header.To;
+import gov.nist.javax.sip.header.Via;
+import gov.nist.javax.sip.header.ViaList;
+import gov.nist.javax.sip.message.SIPMessage;
+import gov.nist.javax.sip.message.SIPRequest;
+import gov.nist.javax.sip.message.SIPResponse;
+import gov.nist.javax.sip.parser.SIPMessageListener;
+import gov.nist.javax.sip.parser.StringMsgParser;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sip.ListeningPoint;
+import javax.sip.address.Hop;
+import javax.sip.message.Response;
+
+/**
+ * TCP message channel served by {@link NioTcpMessageProcessor}.
+ *
+ * Bytes read by the selector thread are split into complete messages
+ * (header block plus Content-Length bytes of body) without parsing them;
+ * the messages are then parsed and processed in arrival order on the
+ * processor's worker pool. Writes go straight to the socket and only
+ * the part the kernel does not accept is queued for the selector thread.
+ */
+public class NioTcpMessageChannel extends MessageChannel implements SIPMessageListener, RawMessageChannel {
+    private static final int CONNECT_TIMEOUT = 8000;
+    private static final int DEFAULT_MAX_MESSAGE_SIZE = 1048576;
+    private static final int MAX_QUEUED_WRITES = 64;
+    protected boolean isCached;
+    protected boolean isRunning;
+    protected String key;
+    protected String myAddress;
+    protected int myPort;
+    private byte[] pending = new byte[4096];
+    private int pendingCount;
+    protected InetAddress peerAddress;
+    protected int peerPort;
+    protected String peerProtocol;
+    private final AtomicBoolean processing = new AtomicBoolean();
+    private final Runnable processTask = new Runnable() {
+        public void run() {
+            NioTcpMessageChannel.this.processQueued();
+        }
+    };
+    private final ConcurrentLinkedQueue<byte[]> received = new ConcurrentLinkedQueue();
+    private SelectionKey selectionKey;
+    protected SIPTransactionStack sipStack;
+    private SocketChannel socketChannel;
+    private NioTcpMessageProcessor tcpMessageProcessor;
+    private final LinkedList<ByteBuffer> writeQueue = new LinkedList();
+
+    protected NioTcpMessageChannel(SocketChannel socketChannel, SIPTransactionStack sipStack, NioTcpMessageProcessor msgProcessor) {
+        if (sipStack.isLoggingEnabled()) {
+            sipStack.getStackLogger().logDebug("creating new NioTcpMessageChannel ");
+        }
+        this.socketChannel = socketChannel;
+        this.peerAddress = socketChannel.socket().getInetAddress();
+        this.peerPort = socketChannel.socket().getPort();
+        this.myAddress = msgProcessor.getIpAddress().getHostAddress();
+        this.sipStack = sipStack;
+        this.tcpMessageProcessor = msgProcessor;
+        this.myPort = this.tcpMessageProcessor.getPort();
+        this.messageProcessor = msgProcessor;
+        onConnected();
+    }
+
+    protected NioTcpMessageChannel(InetAddress inetAddr, int port, SIPTransactionStack sipStack, NioTcpMessageProcessor messageProcessor) {
+        if (sipStack.isLoggingEnabled()) {
+            sipStack.getStackLogger().logDebug("creating new NioTcpMessageChannel ");
+        }
+        this.peerAddress = inetAddr;
+        this.peerPort = port;
+        this.myPort = messageProcessor.getPort();
+        this.peerProtocol = ListeningPoint.TCP;
+        this.sipStack = sipStack;
+        this.tcpMessageProcessor = messageProcessor;
+        this.myAddress = messageProcessor.getIpAddress().getHostAddress();
+        this.key = MessageChannel.getKey(this.peerAddress, this.peerPort, ListeningPoint.TCP);
+        this.messageProcessor = messageProcessor;
+    }
+
+    private void onConnected() {
+        synchronized (this.tcpMessageProcessor) {
+            NioTcpMessageProcessor nioTcpMessageProcessor = this.tcpMessageProcessor;
+            nioTcpMessageProcessor.useCount++;
+        }
+        this.isRunning = true;
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    public boolean isReliable() {
+        return true;
+    }
+
+    public void close() {
+        SocketChannel socketChannel;
+        boolean wasRunning;
+        synchronized (this) {
+            socketChannel = this.socketChannel;
+            this.socketChannel = null;
+            wasRunning = this.isRunning;
+            this.isRunning = false;
+            this.pendingCount = 0;
+        }
+        synchronized (this.writeQueue) {
+            this.writeQueue.clear();
+        }
+        if (socketChannel != null) {
+            try {
+                socketChannel.close();
+            } catch (IOException ex) {
+                if (this.sipStack.isLoggingEnabled()) {
+                    this.sipStack.getStackLogger().logDebug("Error closing socket " + ex);
+                }
+            }
+        }
+        if (wasRunning) {
+            this.tcpMessageProcessor.remove(this);
+            synchronized (this.tcpMessageProcessor) {
+                NioTcpMessageProcessor nioTcpMessageProcessor = this.tcpMessageProcessor;
+                nioTcpMessageProcessor.useCount--;
+            }
+        }
+        if (this.sipStack.isLoggingEnabled()) {
+            this.sipStack.getStackLogger().logDebug("Closing message Channel " + this);
+        }
+    }
+
+    public SIPTransactionStack getSIPStack() {
+        return this.sipStack;
+    }
+
+    public String getTransport() {
+        return ListeningPoint.TCP;
+    }
+
+    public String getPeerAddress() {
+        if (this.peerAddress != null) {
+            return this.peerAddress.getHostAddress();
+        }
+        return getHost();
+    }
+
+    protected InetAddress getPeerInetAddress() {
+        return this.peerAddress;
+    }
+
+    public String getPeerProtocol() {
+        return this.peerProtocol;
+    }
+
+    /**
+     * Returns the connected socket channel, connecting to the peer first if
+     * this is an outgoing channel or the previous connection was lost. A
+     * cached channel that reconnects is put back in the processor's cache,
+     * which close() removed it from.
+     */
+    private SocketChannel connect() throws IOException {
+        SocketChannel socketChannel;
+        synchronized (this) {
+            if (this.socketChannel != null) {
+                return this.socketChannel;
+            }
+            socketChannel = SocketChannel.open();
+            try {
+                socketChannel.socket().connect(new InetSocketAddress(this.peerAddress, this.peerPort), CONNECT_TIMEOUT);
+                socketChannel.configureBlocking(false);
+            } catch (IOException ex) {
+                socketChannel.close();
+                if (this.sipStack.isLoggingEnabled()) {
+                    this.sipStack.getStackLogger().logError("Could not connect to " + this.peerAddress + Separators.COLON + this.peerPort);
+                }
+                throw ex;
+            }
+            this.socketChannel = socketChannel;
+            this.pendingCount = 0;
+        }
+        onConnected();
+        this.tcpMessageProcessor.register(this, socketChannel);
+        if (this.isCached) {
+            this.tcpMessageProcessor.cacheMessageChannel(this);
+        }
+        return socketChannel;
+    }
+
+    /**
+     * Writes {@code msg}, queueing what the socket does not accept. If the
+     * write fails the connection is closed and, like the blocking TCP
+     * channel, reconnected and the message resent once when {@code retry}
+     * is set.
+     */
+    private void sendMessage(byte[] msg, boolean retry) throws IOException {
+        SocketChannel socketChannel = connect();
+        ByteBuffer buffer = ByteBuffer.wrap(msg);
+        IOException writeError = null;
+        synchronized (this.writeQueue) {
+            if (this.writeQueue.isEmpty()) {
+                try {
+                    socketChannel.write(buffer);
+                    if (!buffer.hasRemaining()) {
+                        return;
+                    }
+                } catch (IOException ex) {
+                    writeError = ex;
+                }
+            }
+            if (writeError == null) {
+                if (this.writeQueue.size() >= MAX_QUEUED_WRITES) {
+                    throw new IOException("Write queue full for " + getKey());
+                }
+                this.writeQueue.add(buffer);
+                if (this.writeQueue.size() == 1) {
+                    this.tcpMessageProcessor.runOnSelector(new Runnable() {
+                        public void run() {
+                            NioTcpMessageChannel.this.setInterest(5);
+                        }
+                    });
+                }
+                return;
+            }
+        }
+        if (this.sipStack.isLoggingEnabled()) {
+            this.sipStack.getStackLogger().logDebug("IOException writing to " + getKey() + " " + writeError);
+        }
+        close();
+        if (retry) {
+            sendMessage(msg, false);
+            return;
+        }
+        throw writeError;
+    }
+
+    private void setInterest(int ops) {
+        SelectionKey selectionKey = this.selectionKey;
+        if (selectionKey != null && selectionKey.isValid()) {
+            selectionKey.interestOps(ops);
+        }
+    }
+
+    /**
+     * Called on the selector thread when the socket accepts more data.
+     */
+    void writeReady() {
+        try {
+            synchronized (this.writeQueue) {
+                SocketChannel socketChannel = this.socketChannel;
+                while (!this.writeQueue.isEmpty() && socketChannel != null) {
+                    ByteBuffer buffer = (ByteBuffer) this.writeQueue.getFirst();
+                    socketChannel.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        return;
+                    }
+                    this.writeQueue.removeFirst();
+                }
+                setInterest(1);
+            }
+        } catch (IOException ex) {
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug("IOException writing to " + getKey() + " " + ex);
+            }
+            close();
+        }
+    }
+
+    /**
+     * Called on the selector thread when the socket is readable;
+     * {@code buffer} is the processor's shared read buffer.
+     */
+    void readReady(ByteBuffer buffer) {
+        SocketChannel socketChannel = this.socketChannel;
+        if (socketChannel != null) {
+            try {
+                int nbytes = socketChannel.read(buffer);
+                if (nbytes == -1) {
+                    close();
+                    return;
+                }
+                buffer.flip();
+                append(buffer);
+                frameMessages();
+            } catch (IOException ex) {
+                if (this.sipStack.isLoggingEnabled()) {
+                    this.sipStack.getStackLogger().logDebug("IOException  closing sock " + ex);
+                }
+                close();
+            }
+        }
+    }
+
+    private void append(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (this.pendingCount + length > this.pending.length) {
+            this.pending = Arrays.copyOf(this.pending, Math.max(this.pending.length * 2, this.pendingCount + length));
+        }
+        buffer.get(this.pending, this.pendingCount, length);
+        this.pendingCount += length;
+    }
+
+    /**
+     * Moves every complete message in the read buffer to the receive queue
+     * and keeps the incomplete tail for the next read.
+     */
+    private void frameMessages() {
+        byte[] buf = this.pending;
+        int count = this.pendingCount;
+        int start = 0;
+        boolean framed = false;
+        int maxMessageSize = this.sipStack.getMaxMessageSize();
+        if (maxMessageSize <= 0) {
+            maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+        }
+        while (true) {
+            while (start < count && (buf[start] == (byte) 13 || buf[start] == (byte) 10)) {
+                start++;
+            }
+            int headerEnd = findHeaderEnd(buf, start, count);
+            if (headerEnd < 0) {
+                break;
+            }
+            int contentLength = getContentLength(buf, start, headerEnd);
+            if (contentLength < 0 || contentLength > maxMessageSize - (headerEnd - start)) {
+                if (this.sipStack.isLoggingEnabled()) {
+                    this.sipStack.getStackLogger().logDebug("Bad Content-Length " + contentLength + ", closing " + getKey());
+                }
+                close();
+                return;
+            }
+            int end = headerEnd + contentLength;
+            if (end > count) {
+                break;
+            }
+            this.received.offer(Arrays.copyOfRange(buf, start, end));
+            framed = true;
+            start = end;
+        }
+        if (start > 0) {
+            System.arraycopy(buf, start, buf, 0, count - start);
+            this.pendingCount = count - start;
+        }
+        if (this.pendingCount > maxMessageSize) {
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug("Message size exceeded, closing " + getKey());
+            }
+            close();
+        } else if (framed && this.processing.compareAndSet(false, true)) {
+            this.tcpMessageProcessor.execute(this.processTask);
+        }
+    }
+
+    /**
+     * Returns the offset just past the blank line that ends the header
+     * block starting at {@code start}, or -1 if it has not arrived yet.
+     */
+    private static int findHeaderEnd(byte[] buf, int start, int count) {
+        for (int i = start; i < count - 1; i++) {
+            if (buf[i] == (byte) 10) {
+                if (buf[i + 1] == (byte) 10) {
+                    return i + 2;
+                }
+                if (buf[i + 1] == (byte) 13 && i + 2 < count && buf[i + 2] == (byte) 10) {
+                    return i + 3;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the Content-Length (or compact "l") header in the header block,
+     * 0 if there is none and -1 if its value is not a non-negative int.
+     */
+    private static int getContentLength(byte[] buf, int start, int end) {
+        int lineStart = start;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == (byte) 10) {
+                int colon = lineStart;
+                while (colon < i && buf[colon] != (byte) 58) {
+                    colon++;
+                }
+                int nameEnd = colon;
+                while (nameEnd > lineStart && (buf[nameEnd - 1] == (byte) 32 || buf[nameEnd - 1] == (byte) 9)) {
+                    nameEnd--;
+                }
+                if (colon < i && (matches(buf, lineStart, nameEnd, "content-length") || matches(buf, lineStart, nameEnd, "l"))) {
+                    int value = 0;
+                    int digits = 0;
+                    boolean trailing = false;
+                    for (int j = colon + 1; j < i; j++) {
+                        int digit = buf[j] - 48;
+                        if (digit >= 0 && digit <= 9 && !trailing) {
+                            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                                return -1;
+                            }
+                            value = (value * 10) + digit;
+                            digits++;
+                        } else if (buf[j] == (byte) 32 || buf[j] == (byte) 9 || buf[j] == (byte) 13) {
+                            trailing = digits > 0;
+                        } else {
+                            return -1;
+                        }
+                    }
+                    return digits > 0 ? value : -1;
+                }
+                lineStart = i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean matches(byte[] buf, int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase((char) buf[start + i]) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void processQueued() {
+        do {
+            while (true) {
+                byte[] msg = (byte[]) this.received.poll();
+                if (msg == null) {
+                    break;
+                }
+                try {
+                    SIPMessage sipMessage = new StringMsgParser(this).parseSIPMessage(msg);
+                    if (sipMessage != null) {
+                        processMessage(sipMessage);
+                    }
+                } catch (ParseException ex) {
+                    if (this.sipStack.isLoggingEnabled()) {
+                        this.sipStack.getStackLogger().logDebug("Detected a parse error " + ex);
+                    }
+                } catch (Exception ex2) {
+                    if (this.sipStack.isLoggingEnabled()) {
+                        this.sipStack.getStackLogger().logException(ex2);
+                    }
+                    this.received.clear();
+                    close();
+                }
+            }
+            this.processing.set(false);
+            if (this.received.isEmpty()) {
+                return;
+            }
+        } while (this.processing.compareAndSet(false, true));
+    }
+
+    public void sendMessage(SIPMessage sipMessage) throws IOException {
+        byte[] msg = sipMessage.encodeAsBytes(getTransport());
+        long time = System.currentTimeMillis();
+        sendMessage(msg, true);
+        if (this.sipStack.getStackLogger().isLoggingEnabled(16)) {
+            logMessage(sipMessage, this.peerAddress, this.peerPort, time);
+        }
+    }
+
+    public void sendMessage(byte[] message, InetAddress receiverAddress, int receiverPort, boolean retry) throws IOException {
+        if (message == null || receiverAddress == null) {
+            throw new IllegalArgumentException("Null argument");
+        }
+        if (receiverAddress.equals(this.peerAddress) && receiverPort == this.peerPort) {
+            sendMessage(message, retry);
+        } else {
+            ((NioTcpMessageChannel) this.tcpMessageProcessor.createMessageChannel(receiverAddress, receiverPort)).sendMessage(message, retry);
+        }
+    }
+
+    public void handleException(ParseException ex, SIPMessage sipMessage, Class hdrClass, String header, String message) throws ParseException {
+        if (this.sipStack.isLoggingEnabled()) {
+            this.sipStack.getStackLogger().logException(ex);
+        }
+        if (hdrClass == null || !(hdrClass.equals(From.class) || hdrClass.equals(To.class) || hdrClass.equals(CSeq.class) || hdrClass.equals(Via.class) || hdrClass.equals(CallID.class) || hdrClass.equals(RequestLine.class) || hdrClass.equals(StatusLine.class))) {
+            sipMessage.addUnparsed(header);
+            return;
+        }
+        if (this.sipStack.isLoggingEnabled()) {
+            this.sipStack.getStackLogger().logDebug("Encountered Bad Message \n" + sipMessage.toString());
+        }
+        String msgString = sipMessage.toString();
+        if (!msgString.startsWith("SIP/") && !msgString.startsWith("ACK ")) {
+            String badReqRes = createBadReqRes(msgString, ex);
+            if (badReqRes != null) {
+                if (this.sipStack.isLoggingEnabled()) {
+                    this.sipStack.getStackLogger().logDebug("Sending automatic 400 Bad Request:");
+                    this.sipStack.getStackLogger().logDebug(badReqRes);
+                }
+                try {
+                    sendMessage(badReqRes.getBytes(), getPeerInetAddress(), getPeerPort(), false);
+                } catch (IOException e) {
+                    this.sipStack.getStackLogger().logException(e);
+                }
+            } else if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug("Could not formulate automatic 400 Bad Request");
+            }
+        }
+        throw ex;
+    }
+
+    public void processMessage(SIPMessage sipMessage) throws Exception {
+        if (sipMessage.getFrom() == null || sipMessage.getTo() == null || sipMessage.getCallId() == null || sipMessage.getCSeq() == null || sipMessage.getViaHeaders() == null) {
+            String badmsg = sipMessage.encode();
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug(">>> Dropped Bad Msg");
+                this.sipStack.getStackLogger().logDebug(badmsg);
+            }
+            return;
+        }
+        ViaList viaList = sipMessage.getViaHeaders();
+        if (sipMessage instanceof SIPRequest) {
+            Via v = (Via) viaList.getFirst();
+            Hop hop = this.sipStack.addressResolver.resolveAddress(v.getHop());
+            this.peerProtocol = v.getTransport();
+            try {
+                if (v.hasParameter("rport") || !hop.getHost().equals(this.peerAddress.getHostAddress())) {
+                    v.setParameter("received", this.peerAddress.getHostAddress());
+                }
+                v.setParameter("rport", Integer.toString(this.peerPort));
+            } catch (ParseException ex) {
+                InternalErrorHandler.handleException(ex, this.sipStack.getStackLogger());
+            }
+            if (!this.isCached) {
+                this.tcpMessageProcessor.cacheMessageChannel(this);
+                this.isCached = true;
+            }
+        }
+        long receptionTime = System.currentTimeMillis();
+        if (sipMessage instanceof SIPRequest) {
+            SIPRequest sipRequest = (SIPRequest) sipMessage;
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug("----Processing Message---");
+            }
+            if (this.sipStack.getStackLogger().isLoggingEnabled(16)) {
+                this.sipStack.serverLogger.logMessage(sipMessage, getPeerHostPort().toString(), getMessageProcessor().getIpAddress().getHostAddress() + Separators.COLON + getMessageProcessor().getPort(), false, receptionTime);
+            }
+            if (this.sipStack.getMaxMessageSize() > 0) {
+                if ((sipRequest.getContentLength() == null ? 0 : sipRequest.getContentLength().getContentLength()) + sipRequest.getSize() > this.sipStack.getMaxMessageSize()) {
+                    sendMessage(sipRequest.createResponse(Response.MESSAGE_TOO_LARGE).encodeAsBytes(getTransport()), false);
+                    throw new Exception("Message size exceeded");
+                }
+            }
+            ServerRequestInterface sipServerRequest = this.sipStack.newSIPServerRequest(sipRequest, this);
+            if (sipServerRequest != null) {
+                try {
+                    sipServerRequest.processRequest(sipRequest, this);
+                } finally {
+                    if ((sipServerRequest instanceof SIPTransaction) && !((SIPServerTransaction) sipServerRequest).passToListener()) {
+                        ((SIPTransaction) sipServerRequest).releaseSem();
+                    }
+                }
+            } else if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logWarning("Dropping request -- could not acquire semaphore in 10 sec");
+            }
+            return;
+        }
+        SIPResponse sipResponse = (SIPResponse) sipMessage;
+        try {
+            sipResponse.checkHeaders();
+            if (this.sipStack.getMaxMessageSize() > 0) {
+                if ((sipResponse.getContentLength() == null ? 0 : sipResponse.getContentLength().getContentLength()) + sipResponse.getSize() > this.sipStack.getMaxMessageSize()) {
+                    if (this.sipStack.isLoggingEnabled()) {
+                        this.sipStack.getStackLogger().logDebug("Message size exceeded");
+                    }
+                    return;
+                }
+            }
+            ServerResponseInterface sipServerResponse = this.sipStack.newSIPServerResponse(sipResponse, this);
+            if (sipServerResponse == null) {
+                this.sipStack.getStackLogger().logWarning("Application is blocked -- could not acquire semaphore -- dropping response");
+                return;
+            }
+            try {
+                if (!(sipServerResponse instanceof SIPClientTransaction) || ((SIPClientTransaction) sipServerResponse).checkFromTag(sipResponse)) {
+                    sipServerResponse.processResponse(sipResponse, this);
+                } else if (this.sipStack.isLoggingEnabled()) {
+                    this.sipStack.getStackLogger().logError("Dropping response message with invalid tag >>> " + sipResponse);
+                }
+            } finally {
+                if ((sipServerResponse instanceof SIPTransaction) && !((SIPTransaction) sipServerResponse).passToListener()) {
+                    ((SIPTransaction) sipServerResponse).releaseSem();
+                }
+            }
+        } catch (ParseException e) {
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logError("Dropping Badly formatted response message >>> " + sipResponse);
+            }
+        }
+    }
+
+    protected void uncache() {
+        if (this.isCached && !this.isRunning) {
+            this.tcpMessageProcessor.remove(this);
+        }
+    }
+
+    public boolean equals(Object other) {
+        return this == other;
+    }
+
+    public String getKey() {
+        if (this.key != null) {
+            return this.key;
+        }
+        this.key = MessageChannel.getKey(this.peerAddress, this.peerPort, ListeningPoint.TCP);
+        return this.key;
+    }
+
+    public String getViaHost() {
+        return this.myAddress;
+    }
+
+    public int getViaPort() {
+        return this.myPort;
+    }
+
+    public int getPeerPort() {
+        return this.peerPort;
+    }
+
+    public int getPeerPacketSourcePort() {
+        return this.peerPort;
+    }
+
+    public InetAddress getPeerPacketSourceAddress() {
+        return this.peerAddress;
+    }
+
+    public boolean isSecure() {
+        return false;
+    }
+}
@@ -0,0 +1,270 @@
+package gov.nist.javax.sip.stack;
+
+import gov.nist.core.HostPort;
+import gov.nist.core.InternalErrorHandler;
+import gov.nist.javax.sip.address.ParameterNames;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.sip.ListeningPoint;
+
+/**
+ * TCP message processor driven by a single selector thread.
+ *
+ * The selector thread accepts connections, reads whatever is available
+ * into a shared buffer and splits it into SIP messages; parsing and
+ * processing of complete messages runs on a small fixed worker pool, one
+ * message at a time per connection so that messages from a peer are still
+ * handled in order. Unlike TCPMessageProcessor no thread is kept per
+ * connection.
+ */
+public class NioTcpMessageProcessor extends MessageProcessor {
+    private static final int READ_BUFFER_SIZE = 65536;
+    private ArrayList<NioTcpMessageChannel> incomingTcpMessageChannels = new ArrayList();
+    private boolean isRunning;
+    protected int nConnections;
+    private final ConcurrentLinkedQueue<Runnable> pendingChanges = new ConcurrentLinkedQueue();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Hashtable tcpMessageChannels = new Hashtable();
+    protected int useCount;
+    private ExecutorService workers;
+
+    protected NioTcpMessageProcessor(InetAddress ipAddress, SIPTransactionStack sipStack, int port) {
+        super(ipAddress, port, ParameterNames.TCP, sipStack);
+        this.sipStack = sipStack;
+    }
+
+    public void start() throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.socket().setReuseAddress(true);
+        this.serverChannel.socket().bind(new InetSocketAddress(getIpAddress(), getPort()));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, 16);
+        if (getIpAddress().getHostAddress().equals("0.0.0.0") || getIpAddress().getHostAddress().equals("::0")) {
+            super.setIpAddress(this.serverChannel.socket().getInetAddress());
+        }
+        this.workers = Executors.newFixedThreadPool(this.sipStack.nioWorkerThreads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                thread.setName("NioTcpWorkerThread");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.isRunning = true;
+        Thread thread = new Thread(this);
+        thread.setName("NioTcpMessageProcessorThread");
+        thread.setPriority(10);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void run() {
+        while (this.isRunning) {
+            try {
+                this.selector.select();
+                while (true) {
+                    Runnable change = (Runnable) this.pendingChanges.poll();
+                    if (change == null) {
+                        break;
+                    }
+                    change.run();
+                }
+                Iterator<SelectionKey> it = this.selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = (SelectionKey) it.next();
+                    it.remove();
+                    if (key.isValid()) {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            NioTcpMessageChannel channel = (NioTcpMessageChannel) key.attachment();
+                            if (key.isWritable()) {
+                                channel.writeReady();
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                this.readBuffer.clear();
+                                channel.readReady(this.readBuffer);
+                            }
+                        }
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                this.isRunning = false;
+            } catch (IOException ex) {
+                if (this.sipStack.isLoggingEnabled()) {
+                    getSIPStack().getStackLogger().logException(ex);
+                }
+            } catch (Exception ex2) {
+                InternalErrorHandler.handleException(ex2);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel socketChannel = this.serverChannel.accept();
+        if (socketChannel != null) {
+            synchronized (this) {
+                if (this.sipStack.maxConnections == -1 || this.nConnections < this.sipStack.maxConnections) {
+                    this.nConnections++;
+                    if (this.sipStack.isLoggingEnabled()) {
+                        getSIPStack().getStackLogger().logDebug("Accepting new connection!");
+                    }
+                    socketChannel.configureBlocking(false);
+                    NioTcpMessageChannel channel = new NioTcpMessageChannel(socketChannel, this.sipStack, this);
+                    channel.setSelectionKey(socketChannel.register(this.selector, 1, channel));
+                    this.incomingTcpMessageChannels.add(channel);
+                    return;
+                }
+                if (this.sipStack.isLoggingEnabled()) {
+                    getSIPStack().getStackLogger().logDebug("Rejecting connection -- max connections reached");
+                }
+                socketChannel.close();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code change} on the selector thread before its next select;
+     * registrations and interest changes must not race with select().
+     */
+    void runOnSelector(Runnable change) {
+        this.pendingChanges.offer(change);
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    void register(final NioTcpMessageChannel channel, final SocketChannel socketChannel) {
+        runOnSelector(new Runnable() {
+            public void run() {
+                try {
+                    channel.setSelectionKey(socketChannel.register(NioTcpMessageProcessor.this.selector, 1, channel));
+                } catch (IOException ex) {
+                    if (NioTcpMessageProcessor.this.sipStack.isLoggingEnabled()) {
+                        NioTcpMessageProcessor.this.sipStack.getStackLogger().logException(ex);
+                    }
+                    channel.close();
+                }
+            }
+        });
+    }
+
+    void execute(Runnable task) {
+        this.workers.execute(task);
+    }
+
+    public String getTransport() {
+        return ParameterNames.TCP;
+    }
+
+    public SIPTransactionStack getSIPStack() {
+        return this.sipStack;
+    }
+
+    public synchronized void stop() {
+        this.isRunning = false;
+        try {
+            this.serverChannel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        ArrayList<NioTcpMessageChannel> channels = new ArrayList(this.tcpMessageChannels.values());
+        channels.addAll(this.incomingTcpMessageChannels);
+        for (NioTcpMessageChannel next : channels) {
+            next.close();
+        }
+        try {
+            this.selector.close();
+        } catch (IOException e2) {
+            e2.printStackTrace();
+        }
+        this.workers.shutdown();
+    }
+
+    protected synchronized void remove(NioTcpMessageChannel tcpMessageChannel) {
+        String key = tcpMessageChannel.getKey();
+        if (this.sipStack.isLoggingEnabled()) {
+            this.sipStack.getStackLogger().logDebug(Thread.currentThread() + " removing " + key);
+        }
+        if (this.tcpMessageChannels.get(key) == tcpMessageChannel) {
+            this.tcpMessageChannels.remove(key);
+        }
+        if (this.incomingTcpMessageChannels.remove(tcpMessageChannel)) {
+            this.nConnections--;
+        }
+    }
+
+    public synchronized MessageChannel createMessageChannel(HostPort targetHostPort) throws IOException {
+        return createMessageChannel(targetHostPort.getInetAddress(), targetHostPort.getPort());
+    }
+
+    protected synchronized void cacheMessageChannel(NioTcpMessageChannel messageChannel) {
+        String key = messageChannel.getKey();
+        NioTcpMessageChannel currentChannel = (NioTcpMessageChannel) this.tcpMessageChannels.get(key);
+        if (!(currentChannel == null || currentChannel == messageChannel)) {
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug("Closing " + key);
+            }
+            currentChannel.close();
+        }
+        if (this.sipStack.isLoggingEnabled()) {
+            this.sipStack.getStackLogger().logDebug("Caching " + key);
+        }
+        this.tcpMessageChannels.put(key, messageChannel);
+    }
+
+    public synchronized MessageChannel createMessageChannel(InetAddress host, int port) throws IOException {
+        try {
+            String key = MessageChannel.getKey(host, port, ListeningPoint.TCP);
+            NioTcpMessageChannel retval = (NioTcpMessageChannel) this.tcpMessageChannels.get(key);
+            if (retval != null) {
+                return retval;
+            }
+            retval = new NioTcpMessageChannel(host, port, this.sipStack, this);
+            this.tcpMessageChannels.put(key, retval);
+            retval.isCached = true;
+            if (this.sipStack.isLoggingEnabled()) {
+                this.sipStack.getStackLogger().logDebug("key " + key);
+                this.sipStack.getStackLogger().logDebug("Creating " + retval);
+            }
+            return retval;
+        } catch (UnknownHostException ex) {
+            throw new IOException(ex.getMessage());
+        }
+    }
+
+    public int getMaximumMessageSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    public boolean inUse() {
+        return this.useCount != 0;
+    }
+
+    public int getDefaultTargetPort() {
+        return 5060;
+    }
+
+    public boolean isSecure() {
+        return false;
+    }
+}
@@ -22,7 +22,6 @@ import gov.nist.javax.sip.message.SIPResponse;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ListIterator;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.sip.ClientTransaction;
 import javax.sip.Dialog;
@@ -625,7 +624,7 @@ public class SIPClientTransaction extends SIPTransaction implements ServerRespon
 
     protected void startTransactionTimer() {
         if (this.transactionTimerStarted.compareAndSet(false, true)) {
-            TimerTask myTimer = new TransactionTimer();
+            SIPStackTimerTask myTimer = new TransactionTimer();
             if (this.sipStack.getTimer() != null) {
                 this.sipStack.getTimer().schedule(myTimer, (long) this.BASE_TIMER_INTERVAL, (long) this.BASE_TIMER_INTERVAL);
             }
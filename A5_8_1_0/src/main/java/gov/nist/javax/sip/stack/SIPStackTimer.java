@@ -0,0 +1,47 @@
+package gov.nist.javax.sip.stack;
+
+/**
+ * Timer service used by the stack for transaction, retransmission, dialog
+ * and read timeouts.
+ *
+ * The implementation is chosen with the gov.nist.javax.sip.TIMER_CLASS_NAME
+ * property and must have a public no-argument constructor; the default is
+ * {@link HashedWheelSIPStackTimer}. Tasks run one at a time on the timer's
+ * own thread, as with {@link java.util.Timer}.
+ *
+ * Implementations must be in this package: the task bookkeeping they rely
+ * on ({@link SIPStackTimerTask} bind, retire and the queue fields) is
+ * package-private.
+ */
+public interface SIPStackTimer {
+    /**
+     * Called when a scheduled task is cancelled; returns true if the task
+     * still had a pending run.
+     */
+    boolean cancel(SIPStackTimerTask task);
+
+    /**
+     * Returns the largest delay seen between a tick's due time and the time
+     * it was processed, in milliseconds.
+     */
+    long getMaxTickLag();
+
+    int getPendingCount();
+
+    boolean isStarted();
+
+    /**
+     * Runs {@code task} once after {@code delay} milliseconds. Returns false
+     * if the task was already scheduled or cancelled, or the timer was
+     * stopped.
+     */
+    boolean schedule(SIPStackTimerTask task, long delay);
+
+    /**
+     * Runs {@code task} after {@code delay} milliseconds and then every
+     * {@code period} milliseconds after the end of the previous run.
+     */
+    boolean schedule(SIPStackTimerTask task, long delay, long period);
+
+    void stop();
+}
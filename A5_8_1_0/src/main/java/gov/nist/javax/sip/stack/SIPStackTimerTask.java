@@ -1,8 +1,25 @@
 package gov.nist.javax.sip.stack;
 
-import java.util.TimerTask;
+/**
+ * A task run by the stack's {@link SIPStackTimer}. The fields below are
+ * owned by the timer the task is scheduled on.
+ *
+ * The scheduling state (bind, retire and the queue fields) is
+ * package-private, so only timers in gov.nist.javax.sip.stack are
+ * supported; subclasses only implement {@link #runTask}.
+ */
+public abstract class SIPStackTimerTask implements Runnable {
+    Object bucket;
+    private volatile boolean cancelled;
+    long deadline;
+    volatile Object handle;
+    SIPStackTimerTask next;
+    long period;
+    SIPStackTimerTask prev;
+    private boolean retired;
+    int rounds;
+    private volatile SIPStackTimer timer;
 
-public abstract class SIPStackTimerTask extends TimerTask {
     protected abstract void runTask();
 
     public final void run() {
@@ -13,4 +30,48 @@ public abstract class SIPStackTimerTask extends TimerTask {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Cancels the task. Returns true if this prevented at least one pending
+     * run, like {@link java.util.TimerTask#cancel}.
+     */
+    public boolean cancel() {
+        if (this.cancelled) {
+            return false;
+        }
+        this.cancelled = true;
+        SIPStackTimer timer = this.timer;
+        if (timer == null) {
+            return false;
+        }
+        return timer.cancel(this);
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Binds the task to {@code timer}; fails if the task was already
+     * scheduled or cancelled.
+     */
+    synchronized boolean bind(SIPStackTimer timer) {
+        if (this.cancelled || this.timer != null) {
+            return false;
+        }
+        this.timer = timer;
+        return true;
+    }
+
+    /**
+     * Marks the task as no longer pending. Returns true only for the first
+     * call, so a run and a cancel that race settle on one outcome.
+     */
+    synchronized boolean retire() {
+        if (this.retired) {
+            return false;
+        }
+        this.retired = true;
+        return true;
+    }
 }
@@ -2,6 +2,7 @@ package gov.nist.javax.sip.stack;
 
 import gov.nist.core.Host;
 import gov.nist.core.HostPort;
+import gov.nist.core.InternalErrorHandler;
 import gov.nist.core.Separators;
 import gov.nist.core.ServerLogger;
 import gov.nist.core.StackLogger;
@@ -34,7 +35,6 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Set;
-import java.util.Timer;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.sip.ClientTransaction;
@@ -86,6 +86,7 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
     private Collection<MessageProcessor> messageProcessors;
     protected boolean needsLogging;
     protected NetworkLayer networkLayer;
+    protected int nioWorkerThreads;
     private boolean non2XXAckPassedToListener;
     protected String outboundProxy;
     private ConcurrentHashMap<String, SIPServerTransaction> pendingTransactions;
@@ -110,11 +111,13 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
     private ConcurrentHashMap<String, SIPServerTransaction> terminatedServerTransactionsPendingAck;
     protected ThreadAuditor threadAuditor;
     protected int threadPoolSize;
-    private Timer timer;
+    private SIPStackTimer timer;
+    protected String timerClassName;
     protected boolean toExit;
     boolean udpFlag;
     protected boolean unlimitedClientTransactionTableSize;
     protected boolean unlimitedServerTransactionTableSize;
+    protected boolean useNioTcp;
     protected boolean useRouterForAll;
 
     class PingTimer extends SIPStackTimerTask {
@@ -174,6 +177,7 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
         this.toExit = false;
         this.forkedEvents = new HashSet();
         this.threadPoolSize = -1;
+        this.nioWorkerThreads = 4;
         this.cacheServerConnections = true;
         this.cacheClientConnections = true;
         this.maxConnections = -1;
@@ -189,7 +193,7 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
         this.terminatedServerTransactionsPendingAck = new ConcurrentHashMap();
         this.mergeTable = new ConcurrentHashMap();
         this.retransmissionAlertTransactions = new ConcurrentHashMap();
-        this.timer = new Timer();
+        this.timer = createTimer();
         this.pendingTransactions = new ConcurrentHashMap();
         this.forkedClientTransactionTable = new ConcurrentHashMap();
         if (getThreadAuditor().isEnabled()) {
@@ -212,7 +216,7 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
         this.earlyDialogTable = new ConcurrentHashMap();
         this.terminatedServerTransactionsPendingAck = new ConcurrentHashMap();
         this.forkedClientTransactionTable = new ConcurrentHashMap();
-        this.timer = new Timer();
+        this.timer = createTimer();
         this.activeClientTransactionCount = new AtomicInteger(0);
     }
 
@@ -856,7 +860,7 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
 
     public void stopStack() {
         if (this.timer != null) {
-            this.timer.cancel();
+            this.timer.stop();
         }
         this.timer = null;
         this.pendingTransactions.clear();
@@ -1016,6 +1020,11 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
             this.udpFlag = true;
             return udpMessageProcessor;
         } else if (transport.equalsIgnoreCase(ParameterNames.TCP)) {
+            if (this.useNioTcp) {
+                NioTcpMessageProcessor nioTcpMessageProcessor = new NioTcpMessageProcessor(ipAddress, this, port);
+                addMessageProcessor(nioTcpMessageProcessor);
+                return nioTcpMessageProcessor;
+            }
             TCPMessageProcessor tcpMessageProcessor = new TCPMessageProcessor(ipAddress, this, port);
             addMessageProcessor(tcpMessageProcessor);
             return tcpMessageProcessor;
@@ -1288,11 +1297,26 @@ public abstract class SIPTransactionStack implements SIPTransactionEventListener
         return (Dialog) this.dialogTable.get(retval.toString().toLowerCase());
     }
 
-    public void setTimer(Timer timer) {
+    /**
+     * Creates the timer named by gov.nist.javax.sip.TIMER_CLASS_NAME, or the
+     * default timing wheel.
+     */
+    private SIPStackTimer createTimer() {
+        if (this.timerClassName != null) {
+            try {
+                return (SIPStackTimer) Class.forName(this.timerClassName).getConstructor(new Class[0]).newInstance(new Object[0]);
+            } catch (Exception ex) {
+                InternalErrorHandler.handleException(ex);
+            }
+        }
+        return new HashedWheelSIPStackTimer();
+    }
+
+    public void setTimer(SIPStackTimer timer) {
         this.timer = timer;
     }
 
-    public Timer getTimer() {
+    public SIPStackTimer getTimer() {
         return this.timer;
     }
 
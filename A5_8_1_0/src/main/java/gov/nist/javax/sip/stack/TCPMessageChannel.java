@@ -23,7 +23,6 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.text.ParseException;
-import java.util.TimerTask;
 import javax.sip.ListeningPoint;
 import javax.sip.address.Hop;
 import javax.sip.message.Response;
@@ -164,7 +163,7 @@ public class TCPMessageChannel extends MessageChannel implements SIPMessageListe
         Socket sock = this.sipStack.ioHandler.sendBytes(this.messageProcessor.getIpAddress(), receiverAddress, receiverPort, ListeningPoint.TCP, message, retry, this);
         if (sock != this.mySock && sock != null) {
             if (this.mySock != null) {
-                this.sipStack.getTimer().schedule(new TimerTask() {
+                this.sipStack.getTimer().schedule(new SIPStackTimerTask() {
                     public boolean cancel() {
                         try {
                             TCPMessageChannel.this.mySock.close();
@@ -174,7 +173,7 @@ public class TCPMessageChannel extends MessageChannel implements SIPMessageListe
                         return true;
                     }
 
-                    public void run() {
+                    protected void runTask() {
                         try {
                             TCPMessageChannel.this.mySock.close();
                         } catch (IOException e) {
@@ -378,9 +377,9 @@ public class TCPMessageChannel extends MessageChannel implements SIPMessageListe
         TCPMessageProcessor tCPMessageProcessor = this.tcpMessageProcessor;
         tCPMessageProcessor.useCount++;
         this.isRunning = true;
+        byte[] msg = new byte[4096];
         while (true) {
             try {
-                byte[] msg = new byte[4096];
                 int nbytes = this.myClientInputStream.read(msg, 0, 4096);
                 if (nbytes == -1) {
                     hispipe.write("\r\n\r\n".getBytes("UTF-8"));
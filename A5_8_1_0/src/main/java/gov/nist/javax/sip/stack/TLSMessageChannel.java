@@ -383,9 +383,9 @@ public final class TLSMessageChannel extends MessageChannel implements SIPMessag
         TLSMessageProcessor tLSMessageProcessor = this.tlsMessageProcessor;
         tLSMessageProcessor.useCount++;
         this.isRunning = true;
+        byte[] msg = new byte[4096];
         while (true) {
             try {
-                byte[] msg = new byte[4096];
                 int nbytes = this.myClientInputStream.read(msg, 0, 4096);
                 if (nbytes == -1) {
                     hispipe.write("\r\n\r\n".getBytes("UTF-8"));
@@ -24,7 +24,7 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.text.ParseException;
 import java.util.Hashtable;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import javax.sip.ListeningPoint;
 import javax.sip.address.Hop;
 
@@ -42,7 +42,7 @@ public class UDPMessageChannel extends MessageChannel implements ParseExceptionL
     private long receptionTime;
     protected SIPTransactionStack sipStack;
 
-    class PingBackTimerTask extends TimerTask {
+    class PingBackTimerTask extends SIPStackTimerTask {
         String ipAddress;
         int port;
 
@@ -52,7 +52,7 @@ public class UDPMessageChannel extends MessageChannel implements ParseExceptionL
             UDPMessageChannel.this.pingBackRecord.put(ipAddress + Separators.COLON + port, this);
         }
 
-        public void run() {
+        protected void runTask() {
             UDPMessageChannel.this.pingBackRecord.remove(this.ipAddress + Separators.COLON + this.port);
         }
 
@@ -97,10 +97,6 @@ public class UDPMessageChannel extends MessageChannel implements ParseExceptionL
         }
     }
 
-    /* JADX WARNING: Missing block: B:29:0x006a, code:
-            r9.incomingPacket = r2;
-     */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
     public void run() {
         ThreadHandle threadHandle = null;
         do {
@@ -110,25 +106,24 @@ public class UDPMessageChannel extends MessageChannel implements ParseExceptionL
                 this.myParser.setParseExceptionListener(this);
             }
             if (this.sipStack.threadPoolSize != -1) {
-                synchronized (((UDPMessageProcessor) this.messageProcessor).messageQueue) {
-                    while (((UDPMessageProcessor) this.messageProcessor).messageQueue.isEmpty()) {
-                        if (((UDPMessageProcessor) this.messageProcessor).isRunning) {
-                            if (threadHandle == null) {
-                                try {
-                                    threadHandle = this.sipStack.getThreadAuditor().addCurrentThread();
-                                } catch (InterruptedException e) {
-                                    if (!((UDPMessageProcessor) this.messageProcessor).isRunning) {
-                                        return;
-                                    }
-                                }
-                            }
-                            threadHandle.ping();
-                            ((UDPMessageProcessor) this.messageProcessor).messageQueue.wait(threadHandle.getPingIntervalInMillisecs());
-                        } else {
-                            return;
-                        }
+                UDPMessageProcessor udpMessageProcessor = (UDPMessageProcessor) this.messageProcessor;
+                if (threadHandle == null) {
+                    threadHandle = this.sipStack.getThreadAuditor().addCurrentThread();
+                }
+                packet = null;
+                while (packet == null) {
+                    if (!udpMessageProcessor.isRunning) {
+                        return;
                     }
-                    packet = (DatagramPacket) ((UDPMessageProcessor) this.messageProcessor).messageQueue.removeFirst();
+                    threadHandle.ping();
+                    try {
+                        long pingInterval = threadHandle.getPingIntervalInMillisecs();
+                        packet = pingInterval > 0 ? (DatagramPacket) udpMessageProcessor.messageQueue.poll(pingInterval, TimeUnit.MILLISECONDS) : (DatagramPacket) udpMessageProcessor.messageQueue.take();
+                    } catch (InterruptedException e) {
+                    }
+                }
+                if (packet == UDPMessageProcessor.STOP_PACKET) {
+                    return;
                 }
             } else {
                 packet = this.incomingPacket;
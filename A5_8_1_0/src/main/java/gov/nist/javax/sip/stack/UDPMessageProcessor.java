@@ -11,15 +11,18 @@ import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.concurrent.LinkedBlockingQueue;
 import org.ccil.cowan.tagsoup.HTMLModels;
 
 public class UDPMessageProcessor extends MessageProcessor {
     private static final int HIGHWAT = 5000;
     private static final int LOWAT = 2500;
-    protected boolean isRunning;
+    static final DatagramPacket STOP_PACKET = new DatagramPacket(new byte[0], 0);
+    protected volatile boolean isRunning;
     protected LinkedList messageChannels;
-    protected LinkedList messageQueue = new LinkedList();
+    protected final LinkedBlockingQueue<DatagramPacket> messageQueue = new LinkedBlockingQueue();
     private int port;
     protected DatagramSocket sock;
     protected int threadPoolSize;
@@ -64,31 +67,39 @@ public class UDPMessageProcessor extends MessageProcessor {
             }
         }
         ThreadHandle threadHandle = this.sipStack.getThreadAuditor().addCurrentThread();
+        byte[] receiveBuffer = null;
+        DatagramPacket receivePacket = null;
         while (this.isRunning) {
             try {
                 threadHandle.ping();
                 int bufsize = this.sock.getReceiveBufferSize();
-                DatagramPacket packet = new DatagramPacket(new byte[bufsize], bufsize);
-                this.sock.receive(packet);
+                if (receiveBuffer == null || receiveBuffer.length != bufsize) {
+                    receiveBuffer = new byte[bufsize];
+                    receivePacket = new DatagramPacket(receiveBuffer, bufsize);
+                }
+                receivePacket.setData(receiveBuffer, 0, bufsize);
+                this.sock.receive(receivePacket);
+                int length = receivePacket.getLength();
+                DatagramPacket packet = new DatagramPacket(Arrays.copyOf(receiveBuffer, length), length, receivePacket.getAddress(), receivePacket.getPort());
                 if (this.sipStack.stackDoesCongestionControl) {
-                    if (this.messageQueue.size() >= HIGHWAT) {
+                    int queueSize = this.messageQueue.size();
+                    if (queueSize >= HIGHWAT) {
                         if (this.sipStack.isLoggingEnabled()) {
                             this.sipStack.getStackLogger().logDebug("Dropping message -- queue length exceeded");
                         }
-                    } else if (this.messageQueue.size() > LOWAT && this.messageQueue.size() < HIGHWAT) {
-                        float threshold = ((float) (this.messageQueue.size() - 2500)) / 2500.0f;
+                        continue;
+                    } else if (queueSize > LOWAT) {
+                        float threshold = ((float) (queueSize - 2500)) / 2500.0f;
                         if (Math.random() > 1.0d - ((double) threshold)) {
                             if (this.sipStack.isLoggingEnabled()) {
                                 this.sipStack.getStackLogger().logDebug("Dropping message with probability  " + (1.0d - ((double) threshold)));
                             }
+                            continue;
                         }
                     }
                 }
                 if (this.sipStack.threadPoolSize != -1) {
-                    synchronized (this.messageQueue) {
-                        this.messageQueue.add(packet);
-                        this.messageQueue.notify();
-                    }
+                    this.messageQueue.offer(packet);
                 } else {
                     UDPMessageChannel uDPMessageChannel = new UDPMessageChannel(this.sipStack, this, packet);
                 }
@@ -98,9 +109,7 @@ public class UDPMessageProcessor extends MessageProcessor {
                     getSIPStack().getStackLogger().logDebug("UDPMessageProcessor: Stopping");
                 }
                 this.isRunning = false;
-                synchronized (this.messageQueue) {
-                    this.messageQueue.notifyAll();
-                }
+                wakeWorkers();
             } catch (IOException ex) {
                 this.isRunning = false;
                 ex.printStackTrace();
@@ -118,10 +127,16 @@ public class UDPMessageProcessor extends MessageProcessor {
     }
 
     public void stop() {
-        synchronized (this.messageQueue) {
-            this.isRunning = false;
-            this.messageQueue.notifyAll();
-            this.sock.close();
+        this.isRunning = false;
+        this.sock.close();
+        wakeWorkers();
+    }
+
+    private void wakeWorkers() {
+        if (this.messageChannels != null) {
+            for (int i = 0; i < this.messageChannels.size(); i++) {
+                this.messageQueue.offer(STOP_PACKET);
+            }
         }
     }
 
@@ -154,12 +169,6 @@ public class UDPMessageProcessor extends MessageProcessor {
     }
 
     public boolean inUse() {
-        boolean z = false;
-        synchronized (this.messageQueue) {
-            if (this.messageQueue.size() != 0) {
-                z = true;
-            }
-        }
-        return z;
+        return !this.messageQueue.isEmpty();
     }
 }
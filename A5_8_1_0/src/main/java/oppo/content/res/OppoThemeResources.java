@@ -47,7 +47,7 @@ public class OppoThemeResources {
         this.mMetaData = metaData;
         this.mPackageName = name;
         this.mResources = resources;
-        checkUpdate();
+        checkUpdateInner();
     }
 
     public boolean hasValues() {
@@ -77,6 +77,11 @@ public class OppoThemeResources {
     }
 
     public boolean checkUpdate() {
+        OppoThemeZipFileCache.getInstance().onThemeUpdate();
+        return checkUpdateInner();
+    }
+
+    private boolean checkUpdateInner() {
         boolean isFileUpdata = false;
         boolean isWrappedUpdata = false;
         if (this.mPackageZipFile == null) {
@@ -0,0 +1,356 @@
+package oppo.content.res;
+
+import android.content.res.AssetManager;
+import android.content.res.ResourcesImpl;
+import android.os.Build;
+import android.os.FileUtils;
+import android.os.Process;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+import android.util.Log;
+import android.util.SparseArray;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.ZipFile;
+
+/**
+ * Read-only, memory-mapped view of the theme values (colors, dimens,
+ * strings, ...) of one theme package, keyed by resolved resource id.
+ *
+ * The index is written only by the system, when a theme or the locale is
+ * applied, and app processes map it read-only. A file that is not owned by
+ * the system or is writable by others is ignored. The key is a SHA-256 over
+ * the build fingerprint, the theme path, the mtime and entry count of the
+ * theme and app-name string zips, the locale and, for app packages, the
+ * paths loaded into the AssetManager, so it is computed without touching
+ * the file system. The body carries a crc32 and its tables are bounds and
+ * order checked before use.
+ *
+ * Layout (big endian):
+ * <pre>
+ * int magic, int version, byte[32] key, long crc32 of the rest
+ * int intCount, intCount * (int id, int value)              sorted by id
+ * int strCount, strCount * (int id, int offset, int length) sorted by id
+ * byte[] utf-8 string pool
+ * </pre>
+ */
+final class OppoThemeValueIndex {
+    private static final int HEADER_SIZE = 48;
+    private static final String INDEX_DIR = "/data/theme/.index/";
+    private static final int INDEX_MAGIC = 1330926665;
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int INDEX_VERSION = 3;
+    private static final int INT_ENTRY_SIZE = 8;
+    private static final int KEY_SIZE = 32;
+    private static final int MAX_COOKIE_COUNT = 256;
+    private static final int STR_ENTRY_SIZE = 12;
+    private static final String TAG = "OppoThemeValueIndex";
+    private final ByteBuffer mBuffer;
+    private final SparseArray<CharSequence> mDecoded = new SparseArray();
+    private final int mIntCount;
+    private final int mIntTable;
+    private final int mStrCount;
+    private final int mStrPool;
+    private final int mStrTable;
+
+    private OppoThemeValueIndex(ByteBuffer buffer, int intTable, int intCount, int strTable, int strCount) {
+        this.mBuffer = buffer;
+        this.mIntTable = intTable;
+        this.mIntCount = intCount;
+        this.mStrTable = strTable;
+        this.mStrCount = strCount;
+        this.mStrPool = (strCount * STR_ENTRY_SIZE) + strTable;
+    }
+
+    static File getIndexFile(String themePath, Locale locale) {
+        return new File(INDEX_DIR + Integer.toHexString(themePath.hashCode()) + "_" + new File(themePath).getName() + "_" + (locale != null ? locale.toLanguageTag() : "und") + INDEX_SUFFIX);
+    }
+
+    /**
+     * Returns the key an index built from the given theme and string zips,
+     * locale and resource tables must carry, or null if it cannot be
+     * computed. Pass null {@code resources} for the framework packages,
+     * whose ids are covered by the build fingerprint.
+     */
+    static byte[] computeKey(String themePath, long themeTime, ZipFile themeZip, long stringTime, ZipFile stringZip, Locale locale, ResourcesImpl resources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer scratch = ByteBuffer.allocate(24);
+            digest.update(Build.FINGERPRINT.getBytes(StandardCharsets.UTF_8));
+            digest.update(themePath.getBytes(StandardCharsets.UTF_8));
+            scratch.putLong(themeTime).putInt(themeZip != null ? themeZip.size() : -1);
+            scratch.putLong(stringTime).putInt(stringZip != null ? stringZip.size() : -1);
+            digest.update(scratch.array(), 0, 24);
+            digest.update((locale != null ? locale.toLanguageTag() : "und").getBytes(StandardCharsets.UTF_8));
+            if (resources != null) {
+                AssetManager assets = resources.getAssets();
+                for (int cookie = 1; cookie < MAX_COOKIE_COUNT; cookie++) {
+                    String path;
+                    try {
+                        path = assets.getCookieName(cookie);
+                    } catch (RuntimeException e) {
+                        break;
+                    }
+                    if (path == null) {
+                        break;
+                    }
+                    digest.update(path.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            Log.w(TAG, "computeKey failed e: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Maps {@code file} and returns it if it is owned by the system, carries
+     * {@code key}, its crc matches and its tables are well formed, otherwise
+     * returns null.
+     */
+    static OppoThemeValueIndex open(File file, byte[] key) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            StructStat stat = Os.fstat(raf.getFD());
+            if (stat.st_uid != Process.SYSTEM_UID || (stat.st_mode & (OsConstants.S_IWGRP | OsConstants.S_IWOTH)) != 0) {
+                Log.w(TAG, "ignoring index not owned by system " + file);
+                return null;
+            }
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < ((long) (HEADER_SIZE + 8)) || size > 2147483647L) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != INDEX_MAGIC || buffer.getInt() != INDEX_VERSION) {
+                return null;
+            }
+            byte[] fileKey = new byte[KEY_SIZE];
+            buffer.get(fileKey);
+            if (!Arrays.equals(fileKey, key)) {
+                return null;
+            }
+            long crc = buffer.getLong();
+            CRC32 crc32 = new CRC32();
+            crc32.update(buffer.duplicate());
+            if (crc32.getValue() != crc) {
+                Log.w(TAG, "corrupt index " + file);
+                return null;
+            }
+            int intCount = buffer.getInt();
+            int intTable = buffer.position();
+            if (intCount < 0 || ((long) intCount) * ((long) INT_ENTRY_SIZE) > ((long) (buffer.remaining() - 4))) {
+                return null;
+            }
+            buffer.position((intCount * INT_ENTRY_SIZE) + intTable);
+            int strCount = buffer.getInt();
+            int strTable = buffer.position();
+            if (strCount < 0 || ((long) strCount) * ((long) STR_ENTRY_SIZE) > ((long) buffer.remaining())) {
+                return null;
+            }
+            OppoThemeValueIndex index = new OppoThemeValueIndex(buffer, intTable, intCount, strTable, strCount);
+            if (index.isWellFormed()) {
+                return index;
+            }
+            Log.w(TAG, "malformed index " + file);
+            return null;
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (Exception e2) {
+            Log.w(TAG, "open index failed " + file + " e: " + e2);
+            return null;
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e3) {
+                }
+            }
+        }
+    }
+
+    private boolean isWellFormed() {
+        int poolSize = this.mBuffer.limit() - this.mStrPool;
+        for (int i = 1; i < this.mIntCount; i++) {
+            if (this.mBuffer.getInt(((i - 1) * INT_ENTRY_SIZE) + this.mIntTable) >= this.mBuffer.getInt((i * INT_ENTRY_SIZE) + this.mIntTable)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < this.mStrCount; i++) {
+            int pos = (i * STR_ENTRY_SIZE) + this.mStrTable;
+            if (i > 0 && this.mBuffer.getInt(pos - STR_ENTRY_SIZE) >= this.mBuffer.getInt(pos)) {
+                return false;
+            }
+            int offset = this.mBuffer.getInt(pos + 4);
+            int length = this.mBuffer.getInt(pos + 8);
+            if (offset < 0 || length < 0 || offset > poolSize - length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the index directory if needed and deletes every index in it,
+     * so indexes of removed themes, packages or locales do not pile up.
+     * Returns false if the caller is not the system or the directory cannot
+     * be created.
+     */
+    static boolean resetIndexDir() {
+        if (Process.myUid() != Process.SYSTEM_UID) {
+            return false;
+        }
+        File dir = new File(INDEX_DIR);
+        if (!dir.isDirectory()) {
+            if (!dir.mkdirs()) {
+                Log.w(TAG, "cannot create " + dir);
+                return false;
+            }
+            FileUtils.setPermissions(dir.getPath(), 493, -1, -1);
+        }
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(INDEX_SUFFIX)) {
+                    file.delete();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the index for {@code key}. Only plain String values are stored,
+     * so nothing is written if a value carries spans. Must only be called by
+     * the system after {@link #resetIndexDir} succeeded.
+     */
+    static void write(File file, byte[] key, SparseArray integers, SparseArray charSequences) {
+        if (key == null) {
+            return;
+        }
+        int strCount = charSequences.size();
+        for (int i = 0; i < strCount; i++) {
+            if (!(charSequences.valueAt(i) instanceof String)) {
+                return;
+            }
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = null;
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(body);
+            int intCount = integers.size();
+            data.writeInt(intCount);
+            for (int i = 0; i < intCount; i++) {
+                data.writeInt(integers.keyAt(i));
+                data.writeInt(((Integer) integers.valueAt(i)).intValue());
+            }
+            byte[][] pool = new byte[strCount][];
+            data.writeInt(strCount);
+            int offset = 0;
+            for (int i = 0; i < strCount; i++) {
+                pool[i] = ((String) charSequences.valueAt(i)).getBytes(StandardCharsets.UTF_8);
+                data.writeInt(charSequences.keyAt(i));
+                data.writeInt(offset);
+                data.writeInt(pool[i].length);
+                offset += pool[i].length;
+            }
+            for (byte[] bytes : pool) {
+                data.write(bytes);
+            }
+            data.flush();
+            byte[] payload = body.toByteArray();
+            CRC32 crc32 = new CRC32();
+            crc32.update(payload);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).put(key).putLong(crc32.getValue());
+            out = new FileOutputStream(tmp);
+            out.write(header.array());
+            out.write(payload);
+            out.close();
+            out = null;
+            FileUtils.setPermissions(tmp.getPath(), 420, -1, -1);
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            Log.w(TAG, "write index failed " + file + " e: " + e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e2) {
+                }
+            }
+        }
+    }
+
+    private int find(int table, int count, int entrySize, int id) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = this.mBuffer.getInt((mid * entrySize) + table);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId <= id) {
+                return (mid * entrySize) + table;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    Integer getInt(int id) {
+        int pos = find(this.mIntTable, this.mIntCount, INT_ENTRY_SIZE, id);
+        if (pos < 0) {
+            return null;
+        }
+        return Integer.valueOf(this.mBuffer.getInt(pos + 4));
+    }
+
+    CharSequence getCharSequence(int id) {
+        synchronized (this.mDecoded) {
+            CharSequence value = (CharSequence) this.mDecoded.get(id);
+            if (value != null) {
+                return value;
+            }
+            int pos = find(this.mStrTable, this.mStrCount, STR_ENTRY_SIZE, id);
+            if (pos < 0) {
+                return null;
+            }
+            int offset = this.mBuffer.getInt(pos + 4);
+            int length = this.mBuffer.getInt(pos + 8);
+            ByteBuffer slice = this.mBuffer.duplicate();
+            slice.position(this.mStrPool + offset);
+            slice.limit((this.mStrPool + offset) + length);
+            value = StandardCharsets.UTF_8.decode(slice).toString();
+            this.mDecoded.put(id, value);
+            return value;
+        }
+    }
+
+    boolean hasValues() {
+        return this.mIntCount > 0 || this.mStrCount > 0;
+    }
+}
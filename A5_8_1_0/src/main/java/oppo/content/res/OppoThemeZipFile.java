@@ -1,26 +1,27 @@
 package oppo.content.res;
 
 import android.app.OppoThemeHelper;
+import android.content.Context;
+import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.res.ResourcesImpl;
 import android.text.TextUtils;
 import android.util.DisplayMetrics;
 import android.util.Log;
 import android.util.SparseArray;
+import android.util.Xml;
 import com.android.internal.util.XmlUtils;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.ref.WeakReference;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import oppo.content.res.OppoThemeResources.MetaData;
+import oppo.content.res.OppoThemeZipFileCache.Loader;
 import oppo.util.OppoDisplayUtils;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
-import org.xmlpull.v1.XmlPullParserFactory;
 
 public class OppoThemeZipFile {
     private static final String ANDROID_PACKAGE = "android";
@@ -45,7 +46,6 @@ public class OppoThemeZipFile {
     private static final String TRUE = "true";
     private static int[] sDensities = OppoDisplayUtils.getBestDensityOrder(sDensity);
     private static int sDensity = DisplayMetrics.DENSITY_DEVICE;
-    private static Map<String, WeakReference<OppoThemeZipFile>> sThemeZipFiles = new HashMap();
     private final boolean DEBUG;
     private SparseArray mCharSequences;
     private SparseArray mIntegers;
@@ -56,6 +56,7 @@ public class OppoThemeZipFile {
     private ResourcesImpl mResources;
     private long mStringLastTime;
     private String mStringPath;
+    private OppoThemeValueIndex mValueIndex;
     private ZipFile mStringZipFile;
     private ZipFile mZipFile;
     private Locale mlastLocale;
@@ -85,6 +86,7 @@ public class OppoThemeZipFile {
         this.mStringZipFile = null;
         this.mStringPath = null;
         this.mlastLocale = null;
+        this.mValueIndex = null;
         this.mLastModifyTime = -1;
         this.mStringLastTime = -1;
         this.mIntegers = new SparseArray();
@@ -99,70 +101,53 @@ public class OppoThemeZipFile {
         this.mStringPath = path;
     }
 
-    protected static synchronized OppoThemeZipFile getThemeZipFile(MetaData metadata, String packageName, ResourcesImpl resources) {
-        Throwable th;
-        synchronized (OppoThemeZipFile.class) {
-            if (metadata == null) {
-                return null;
+    protected static OppoThemeZipFile getThemeZipFile(final MetaData metadata, final String packageName, final ResourcesImpl resources) {
+        if (metadata == null) {
+            return null;
+        }
+        return OppoThemeZipFileCache.getInstance().get(metadata.themePath + packageName, new Loader() {
+            public OppoThemeZipFile load(String path, OppoThemeZipFile previous) {
+                return OppoThemeZipFile.loadThemeZipFile(path, metadata, packageName, resources, previous);
+            }
+        });
+    }
+
+    private static OppoThemeZipFile loadThemeZipFile(String path, MetaData metadata, String packageName, ResourcesImpl resources, OppoThemeZipFile previous) {
+        File file = null;
+        String stringPath = null;
+        if ("/data/theme/".equalsIgnoreCase(metadata.themePath)) {
+            stringPath = APP_NAME_ZIP_PATH + packageName;
+            file = new File(stringPath);
+        }
+        boolean isPackageFile = false;
+        boolean isStringFile = false;
+        try {
+            if (new File(path).exists()) {
+                isPackageFile = true;
             }
+        } catch (Exception e) {
+            Log.w(TAG, "getThemeZipFile Exception e: " + e);
+        }
+        if (file != null) {
             try {
-                String path = metadata.themePath + packageName;
-                File file = null;
-                String stringPath = null;
-                if ("/data/theme/".equalsIgnoreCase(metadata.themePath)) {
-                    stringPath = APP_NAME_ZIP_PATH + packageName;
-                    file = new File(stringPath);
-                }
-                boolean isPackageFile = false;
-                boolean isStringFile = false;
-                try {
-                    if (new File(path).exists()) {
-                        isPackageFile = true;
-                    }
-                } catch (Exception e) {
-                    Log.w(TAG, "getThemeZipFile Exception e: " + e);
-                } catch (Throwable th2) {
-                }
-                if (file != null) {
-                    try {
-                        if (file.exists()) {
-                            isStringFile = true;
-                        }
-                    } catch (Exception e2) {
-                        Log.w(TAG, "getThemeZipFile Exception e: " + e2);
-                    } catch (Throwable th3) {
-                    }
-                }
-                if (isStringFile || (isPackageFile ^ 1) == 0) {
-                    OppoThemeZipFile themeZipFile;
-                    WeakReference weakreference = (WeakReference) sThemeZipFiles.get(path);
-                    if (weakreference != null) {
-                        themeZipFile = (OppoThemeZipFile) weakreference.get();
-                    } else {
-                        themeZipFile = null;
-                    }
-                    if (themeZipFile != null) {
-                        return themeZipFile;
-                    }
-                    OppoThemeZipFile themeZipFile2;
-                    try {
-                        themeZipFile2 = new OppoThemeZipFile(path, metadata, getPackageName(packageName), resources);
-                        if (isStringFile) {
-                            themeZipFile2.setStringPath(stringPath);
-                        }
-                        sThemeZipFiles.put(path, new WeakReference(themeZipFile2));
-                        return themeZipFile2;
-                    } catch (Throwable th4) {
-                        th = th4;
-                        themeZipFile2 = themeZipFile;
-                        throw th;
-                    }
+                if (file.exists()) {
+                    isStringFile = true;
                 }
-                return null;
-            } catch (Throwable th5) {
-                th = th5;
+            } catch (Exception e2) {
+                Log.w(TAG, "getThemeZipFile Exception e: " + e2);
             }
         }
+        if (!isStringFile && !isPackageFile) {
+            return null;
+        }
+        OppoThemeZipFile themeZipFile = previous;
+        if (themeZipFile == null) {
+            themeZipFile = new OppoThemeZipFile(path, metadata, getPackageName(packageName), resources);
+        }
+        if (isStringFile) {
+            themeZipFile.setStringPath(stringPath);
+        }
+        return themeZipFile;
     }
 
     public ThemeFileInfo getInputStream(String path) {
@@ -187,7 +172,7 @@ public class OppoThemeZipFile {
             if (i > 0) {
                 String str1 = path.substring(i);
                 for (int j = 0; j < sDensities.length; j++) {
-                    themeFileInfo = getZipInputStream(String.format("%s%s%s", new Object[]{str2, OppoDisplayUtils.getDensitySuffix(sDensities[j]), str1}), file);
+                    themeFileInfo = getZipInputStream(str2 + OppoDisplayUtils.getDensitySuffix(sDensities[j]) + str1, file);
                     if (themeFileInfo != null) {
                         if (sDensities[j] > 1) {
                             themeFileInfo.mDensity = sDensities[j];
@@ -253,17 +238,30 @@ public class OppoThemeZipFile {
         }
         this.mIntegers.clear();
         this.mCharSequences.clear();
+        this.mValueIndex = null;
     }
 
     public CharSequence getThemeCharSequence(int i) {
+        OppoThemeValueIndex valueIndex = this.mValueIndex;
+        if (valueIndex != null) {
+            return valueIndex.getCharSequence(i);
+        }
         return (CharSequence) this.mCharSequences.get(i);
     }
 
     public Integer getThemeInt(int id) {
+        OppoThemeValueIndex valueIndex = this.mValueIndex;
+        if (valueIndex != null) {
+            return valueIndex.getInt(id);
+        }
         return (Integer) this.mIntegers.get(id);
     }
 
     public boolean hasValues() {
+        OppoThemeValueIndex valueIndex = this.mValueIndex;
+        if (valueIndex != null) {
+            return valueIndex.hasValues();
+        }
         if (this.mIntegers.size() > 0 || this.mCharSequences.size() > 0) {
             return true;
         }
@@ -292,6 +290,20 @@ public class OppoThemeZipFile {
             clean(this.mStringZipFile);
         }
         openZipFile();
+        if (this.mZipFile != null || this.mStringZipFile != null) {
+            byte[] indexKey = getValueIndexKey(locale);
+            if (indexKey != null) {
+                this.mValueIndex = OppoThemeValueIndex.open(OppoThemeValueIndex.getIndexFile(this.mPath, locale), indexKey);
+                if (this.mValueIndex != null) {
+                    return true;
+                }
+            }
+        }
+        loadThemeValues(locale);
+        return true;
+    }
+
+    private void loadThemeValues(Locale locale) {
         if (!this.mPackageName.equals("android") && !this.mPackageName.equals("oppo")) {
             String country = locale.getCountry();
             String language = locale.getLanguage();
@@ -318,7 +330,64 @@ public class OppoThemeZipFile {
         } else if (this.mZipFile != null) {
             loadThemeValues(0, this.mZipFile);
         }
-        return true;
+    }
+
+    /**
+     * The framework packages resolve the same ids in every process, so only
+     * app packages key their index on the loaded asset paths.
+     */
+    private byte[] getValueIndexKey(Locale locale) {
+        ResourcesImpl resources = (this.mPackageName.equals("android") || this.mPackageName.equals("oppo")) ? null : this.mResources;
+        return OppoThemeValueIndex.computeKey(this.mPath, this.mLastModifyTime, this.mZipFile, this.mStringLastTime, this.mStringZipFile, locale, resources);
+    }
+
+    /**
+     * Rebuilds the value index of every installed theme package for the
+     * current locale. Called by the system on a background thread when a
+     * theme or the locale is applied; app processes only open the index.
+     */
+    public static void buildValueIndexes(Context context) {
+        if (!OppoThemeValueIndex.resetIndexDir()) {
+            return;
+        }
+        for (MetaData metaData : OppoThemeResources.THEME_PATHS) {
+            File[] files = new File(metaData.themePath).listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    String name = file.getName();
+                    if (file.isFile() && !name.startsWith(".")) {
+                        String packageName = getPackageName(name);
+                        ResourcesImpl resources;
+                        if (packageName.equals("android") || packageName.equals("oppo")) {
+                            resources = context.getResources().getImpl();
+                        } else {
+                            try {
+                                resources = context.createPackageContext(packageName, 0).getResources().getImpl();
+                            } catch (NameNotFoundException e) {
+                                continue;
+                            }
+                        }
+                        OppoThemeZipFile themeZipFile = loadThemeZipFile(metaData.themePath + name, metaData, name, resources, null);
+                        if (themeZipFile != null) {
+                            themeZipFile.writeValueIndex();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeValueIndex() {
+        Locale locale = this.mResources.getConfiguration().locale;
+        openZipFile();
+        if (this.mZipFile != null || this.mStringZipFile != null) {
+            loadThemeValues(locale);
+            if (hasValues()) {
+                OppoThemeValueIndex.write(OppoThemeValueIndex.getIndexFile(this.mPath, locale), getValueIndexKey(locale), this.mIntegers, this.mCharSequences);
+            }
+            clean(this.mStringZipFile);
+            clean(this.mZipFile);
+        }
     }
 
     private void openZipFile() {
@@ -370,7 +439,7 @@ public class OppoThemeZipFile {
             BufferedInputStream bufferedinputstream = null;
             try {
                 inputStream = themeFileInfo.mInput;
-                XmlPullParser xmlpullparser = XmlPullParserFactory.newInstance().newPullParser();
+                XmlPullParser xmlpullparser = Xml.newPullParser();
                 BufferedInputStream bufferedinputstream2 = new BufferedInputStream(inputStream, INPUT_STREAM_CACHE_BYTE_COUNT);
                 try {
                     xmlpullparser.setInput(bufferedinputstream2, null);
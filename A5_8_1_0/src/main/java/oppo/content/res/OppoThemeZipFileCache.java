@@ -0,0 +1,143 @@
+package oppo.content.res;
+
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide cache of {@link OppoThemeZipFile}s keyed by theme file path.
+ *
+ * Lookups are served from a ConcurrentHashMap without locking; only a miss
+ * takes one of a fixed set of striped locks so that two threads resolving
+ * the same path do not both stat the disk and open the file. Paths without
+ * a theme file are cached as negative entries. Every entry is stamped with
+ * the theme version current at the time it was resolved, and
+ * {@link OppoThemeResources#checkUpdate()} bumps that version, so both
+ * positive and negative entries are re-validated once after a theme or
+ * locale change.
+ */
+public final class OppoThemeZipFileCache {
+    private static final int LOCK_STRIPES = 16;
+    private static final int MAX_ENTRIES = 128;
+    private static final OppoThemeZipFileCache sInstance = new OppoThemeZipFileCache();
+    private final AtomicLong mAccessTick = new AtomicLong();
+    private final ConcurrentHashMap<String, CacheEntry> mEntries = new ConcurrentHashMap();
+    private final AtomicLong mEvictions = new AtomicLong();
+    private final AtomicLong mHits = new AtomicLong();
+    private final Object[] mLocks = new Object[LOCK_STRIPES];
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mNegativeHits = new AtomicLong();
+    private final AtomicInteger mVersion = new AtomicInteger();
+
+    interface Loader {
+        OppoThemeZipFile load(String path, OppoThemeZipFile previous);
+    }
+
+    private static final class CacheEntry {
+        volatile long lastAccess;
+        final WeakReference<OppoThemeZipFile> ref;
+        final int version;
+
+        CacheEntry(OppoThemeZipFile file, int version, long tick) {
+            this.ref = file != null ? new WeakReference(file) : null;
+            this.version = version;
+            this.lastAccess = tick;
+        }
+
+        boolean isNegative() {
+            return this.ref == null;
+        }
+    }
+
+    private OppoThemeZipFileCache() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.mLocks[i] = new Object();
+        }
+    }
+
+    public static OppoThemeZipFileCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Marks every cached entry stale; called when a theme or locale change
+     * makes ResourcesImpl re-check its theme resources.
+     */
+    public void onThemeUpdate() {
+        this.mVersion.incrementAndGet();
+    }
+
+    OppoThemeZipFile get(String path, Loader loader) {
+        int version = this.mVersion.get();
+        CacheEntry entry = (CacheEntry) this.mEntries.get(path);
+        OppoThemeZipFile file = lookup(entry, version);
+        if (file != null || (entry != null && entry.isNegative() && entry.version == version)) {
+            return file;
+        }
+        synchronized (this.mLocks[(path.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES]) {
+            entry = (CacheEntry) this.mEntries.get(path);
+            file = lookup(entry, version);
+            if (file != null || (entry != null && entry.isNegative() && entry.version == version)) {
+                return file;
+            }
+            this.mMisses.incrementAndGet();
+            OppoThemeZipFile previous = null;
+            if (!(entry == null || entry.ref == null)) {
+                previous = (OppoThemeZipFile) entry.ref.get();
+            }
+            file = loader.load(path, previous);
+            this.mEntries.put(path, new CacheEntry(file, version, this.mAccessTick.incrementAndGet()));
+        }
+        if (this.mEntries.size() > MAX_ENTRIES) {
+            trim();
+        }
+        return file;
+    }
+
+    private OppoThemeZipFile lookup(CacheEntry entry, int version) {
+        if (entry == null || entry.version != version) {
+            return null;
+        }
+        if (entry.isNegative()) {
+            this.mNegativeHits.incrementAndGet();
+            return null;
+        }
+        OppoThemeZipFile file = (OppoThemeZipFile) entry.ref.get();
+        if (file != null) {
+            this.mHits.incrementAndGet();
+            entry.lastAccess = this.mAccessTick.incrementAndGet();
+        }
+        return file;
+    }
+
+    private void trim() {
+        int version = this.mVersion.get();
+        Iterator<Entry<String, CacheEntry>> it = this.mEntries.entrySet().iterator();
+        String oldest = null;
+        long oldestAccess = Long.MAX_VALUE;
+        while (it.hasNext()) {
+            Entry<String, CacheEntry> e = (Entry) it.next();
+            CacheEntry entry = (CacheEntry) e.getValue();
+            if (entry.version != version || (entry.ref != null && entry.ref.get() == null)) {
+                it.remove();
+                this.mEvictions.incrementAndGet();
+            } else if (entry.lastAccess < oldestAccess) {
+                oldestAccess = entry.lastAccess;
+                oldest = (String) e.getKey();
+            }
+        }
+        if (this.mEntries.size() > MAX_ENTRIES && oldest != null && this.mEntries.remove(oldest) != null) {
+            this.mEvictions.incrementAndGet();
+        }
+    }
+
+    public void dump(PrintWriter pw) {
+        pw.println(" Theme Files");
+        pw.println("  entries=" + this.mEntries.size() + " version=" + this.mVersion.get());
+        pw.println("  hits=" + this.mHits.get() + " negativeHits=" + this.mNegativeHits.get() + " misses=" + this.mMisses.get() + " evictions=" + this.mEvictions.get());
+    }
+}
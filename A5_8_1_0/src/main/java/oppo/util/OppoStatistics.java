@@ -5,13 +5,16 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.SystemProperties;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.Slog;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.Map.Entry;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -24,14 +27,44 @@ public class OppoStatistics {
     private static final int COMMON_LIST = 1010;
     private static final String DATA_TYPE = "dataType";
     private static final String EVENT_ID = "eventID";
+    private static final long FLUSH_DELAY_MS = 30000;
     private static final String LOG_MAP = "logMap";
     private static final String LOG_TAG = "logTag";
     private static final String MAP_LIST = "mapList";
+    private static final int MAX_BATCH_EVENTS = 32;
+    private static final int MAX_MAP_LIST_LENGTH = 50000;
+    private static final int MAX_PENDING_EVENTS = 256;
     private static final String SSOID = "ssoid";
     private static final String TAG = "OppoStatistics--";
     private static final String UPLOAD_NOW = "uploadNow";
     private static int appId = 20120;
-    private static ExecutorService sSingleThreadExecutor = Executors.newSingleThreadExecutor();
+    private static ScheduledFuture<?> sFlushFuture = null;
+    private static final Runnable sFlushRunnable = new Runnable() {
+        public void run() {
+            OppoStatistics.sFlushFuture = null;
+            OppoStatistics.flushAll();
+        }
+    };
+    private static final ArrayMap<String, PendingBatch> sPendingBatches = new ArrayMap();
+    private static int sPendingCount = 0;
+    private static ScheduledExecutorService sSingleThreadExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * Events of one logTag/eventId waiting on the executor thread. Each event
+     * is kept as a flat key/value array and only encoded to JSON once per
+     * batch when it is handed to the statistics service.
+     */
+    private static final class PendingBatch {
+        Context context;
+        final String eventId;
+        final ArrayList<String[]> events = new ArrayList();
+        final String logTag;
+
+        PendingBatch(String logTag, String eventId) {
+            this.logTag = logTag;
+            this.eventId = eventId;
+        }
+    }
 
     public static void onCommon(Context context, String logTag, String eventId, Map<String, String> logMap, boolean uploadNow) {
         if (context == null) {
@@ -42,34 +75,14 @@ public class OppoStatistics {
             Slog.d("common_test", "onCommon begin: logTag=" + logTag + ", eventId=" + eventId + ", logMap=" + logMap + ", uploadNow=" + uploadNow);
         }
         if (!TextUtils.isEmpty(logTag)) {
-            Map<String, String> cloneMap;
-            if (logMap != null) {
-                cloneMap = new HashMap(logMap);
-            } else {
-                cloneMap = new HashMap();
-            }
+            final String[] pairs = toPairs(logMap);
             final String str = eventId;
             final boolean z = uploadNow;
             final String str2 = logTag;
             final Context context2 = context;
             sSingleThreadExecutor.execute(new Runnable() {
                 public void run() {
-                    Intent intent = new Intent();
-                    intent.setComponent(new ComponentName("com.nearme.statistics.rom", "com.nearme.statistics.rom.service.ReceiverService"));
-                    intent.putExtra(OppoStatistics.APP_PACKAGE, "system");
-                    intent.putExtra(OppoStatistics.APP_NAME, "system");
-                    intent.putExtra(OppoStatistics.APP_VERSION, "system");
-                    intent.putExtra(OppoStatistics.SSOID, "system");
-                    intent.putExtra(OppoStatistics.APP_ID, OppoStatistics.appId);
-                    intent.putExtra(OppoStatistics.EVENT_ID, str);
-                    intent.putExtra(OppoStatistics.UPLOAD_NOW, z);
-                    intent.putExtra(OppoStatistics.LOG_TAG, str2);
-                    intent.putExtra(OppoStatistics.LOG_MAP, OppoStatistics.getCommonObject(cloneMap).toString());
-                    intent.putExtra(OppoStatistics.DATA_TYPE, 1006);
-                    if (context2 != null) {
-                        context2.startService(intent);
-                    }
-                    cloneMap.clear();
+                    OppoStatistics.enqueue(context2, str2, str, pairs, z);
                 }
             });
         }
@@ -109,21 +122,7 @@ public class OppoStatistics {
                     } catch (OutOfMemoryError e) {
                         Slog.d("common_list_test", "onCommon--Error:" + e);
                     }
-                    Intent intent = new Intent();
-                    intent.setComponent(new ComponentName("com.nearme.statistics.rom", "com.nearme.statistics.rom.service.ReceiverService"));
-                    intent.putExtra(OppoStatistics.APP_PACKAGE, "system");
-                    intent.putExtra(OppoStatistics.APP_NAME, "system");
-                    intent.putExtra(OppoStatistics.APP_VERSION, "system");
-                    intent.putExtra(OppoStatistics.SSOID, "system");
-                    intent.putExtra(OppoStatistics.APP_ID, OppoStatistics.appId);
-                    intent.putExtra(OppoStatistics.EVENT_ID, str);
-                    intent.putExtra(OppoStatistics.UPLOAD_NOW, z);
-                    intent.putExtra(OppoStatistics.LOG_TAG, str2);
-                    intent.putExtra(OppoStatistics.MAP_LIST, mapListStr);
-                    intent.putExtra(OppoStatistics.DATA_TYPE, OppoStatistics.COMMON_LIST);
-                    if (context2 != null) {
-                        context2.startService(intent);
-                    }
+                    OppoStatistics.sendMapList(context2, str2, str, mapListStr, z);
                     cloneList.clear();
                 }
             });
@@ -146,6 +145,142 @@ public class OppoStatistics {
         }
     }
 
+    private static String[] toPairs(Map<String, String> logMap) {
+        if (logMap == null || logMap.isEmpty()) {
+            return new String[0];
+        }
+        try {
+            String[] pairs = new String[(logMap.size() * 2)];
+            int i = 0;
+            for (Entry<String, String> entry : logMap.entrySet()) {
+                pairs[i] = (String) entry.getKey();
+                pairs[i + 1] = (String) entry.getValue();
+                i += 2;
+            }
+            return pairs;
+        } catch (Exception e) {
+            Slog.w(TAG, "Exception: " + e);
+            return new String[0];
+        }
+    }
+
+    private static void appendPairs(StringBuilder builder, String[] pairs) {
+        builder.append('{');
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (pairs[i] != null && pairs[i + 1] != null) {
+                if (builder.charAt(builder.length() - 1) != '{') {
+                    builder.append(',');
+                }
+                builder.append(JSONObject.quote(pairs[i])).append(':');
+                builder.append(JSONObject.quote(pairs[i + 1]));
+            }
+        }
+        builder.append('}');
+    }
+
+    private static void enqueue(Context context, String logTag, String eventId, String[] pairs, boolean uploadNow) {
+        String key = logTag + '/' + eventId;
+        PendingBatch batch = (PendingBatch) sPendingBatches.get(key);
+        if (batch == null) {
+            batch = new PendingBatch(logTag, eventId);
+            sPendingBatches.put(key, batch);
+        }
+        batch.context = context;
+        batch.events.add(pairs);
+        sPendingCount++;
+        if (uploadNow || batch.events.size() >= MAX_BATCH_EVENTS) {
+            flushBatch(batch, uploadNow);
+            sPendingBatches.remove(key);
+        } else if (sPendingCount >= MAX_PENDING_EVENTS) {
+            flushAll();
+        } else if (sFlushFuture == null) {
+            sFlushFuture = sSingleThreadExecutor.schedule(sFlushRunnable, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void flushAll() {
+        for (int i = sPendingBatches.size() - 1; i >= 0; i--) {
+            flushBatch((PendingBatch) sPendingBatches.valueAt(i), false);
+        }
+        sPendingBatches.clear();
+        sPendingCount = 0;
+        if (sFlushFuture != null) {
+            sFlushFuture.cancel(false);
+            sFlushFuture = null;
+        }
+    }
+
+    /**
+     * Hands the batch to the statistics service: a single event keeps the
+     * plain COMMON format, more events go out as COMMON_LIST map lists that
+     * are split so none exceeds MAX_MAP_LIST_LENGTH. An event too large for
+     * any map list is sent on its own as COMMON.
+     */
+    private static void flushBatch(PendingBatch batch, boolean uploadNow) {
+        int size = batch.events.size();
+        sPendingCount -= size;
+        if (size == 1) {
+            StringBuilder builder = new StringBuilder();
+            appendPairs(builder, (String[]) batch.events.get(0));
+            sendMap(batch.context, batch.logTag, batch.eventId, builder.toString(), uploadNow);
+        } else if (size > 1) {
+            StringBuilder builder = new StringBuilder();
+            StringBuilder event = new StringBuilder();
+            builder.append('[');
+            for (int i = 0; i < size; i++) {
+                event.setLength(0);
+                appendPairs(event, (String[]) batch.events.get(i));
+                if (event.length() + 2 >= MAX_MAP_LIST_LENGTH) {
+                    sendMap(batch.context, batch.logTag, batch.eventId, event.toString(), uploadNow);
+                } else {
+                    if (builder.length() > 1 && (builder.length() + event.length()) + 2 >= MAX_MAP_LIST_LENGTH) {
+                        sendMapList(batch.context, batch.logTag, batch.eventId, builder.append(']').toString(), uploadNow);
+                        builder.setLength(1);
+                    }
+                    if (builder.length() > 1) {
+                        builder.append(',');
+                    }
+                    builder.append(event);
+                }
+            }
+            if (builder.length() > 1) {
+                sendMapList(batch.context, batch.logTag, batch.eventId, builder.append(']').toString(), uploadNow);
+            }
+        }
+        batch.events.clear();
+    }
+
+    private static Intent getServiceIntent(String logTag, String eventId, boolean uploadNow, int dataType) {
+        Intent intent = new Intent();
+        intent.setComponent(new ComponentName("com.nearme.statistics.rom", "com.nearme.statistics.rom.service.ReceiverService"));
+        intent.putExtra(APP_PACKAGE, "system");
+        intent.putExtra(APP_NAME, "system");
+        intent.putExtra(APP_VERSION, "system");
+        intent.putExtra(SSOID, "system");
+        intent.putExtra(APP_ID, appId);
+        intent.putExtra(EVENT_ID, eventId);
+        intent.putExtra(UPLOAD_NOW, uploadNow);
+        intent.putExtra(LOG_TAG, logTag);
+        intent.putExtra(DATA_TYPE, dataType);
+        return intent;
+    }
+
+    private static void sendMap(Context context, String logTag, String eventId, String logMapStr, boolean uploadNow) {
+        Intent intent = getServiceIntent(logTag, eventId, uploadNow, COMMON);
+        intent.putExtra(LOG_MAP, logMapStr);
+        if (context != null) {
+            context.startService(intent);
+        }
+    }
+
+    private static void sendMapList(Context context, String logTag, String eventId, String mapListStr, boolean uploadNow) {
+        Intent intent = getServiceIntent(logTag, eventId, uploadNow, COMMON_LIST);
+        intent.putExtra(MAP_LIST, mapListStr);
+        if (context != null) {
+            context.startService(intent);
+        }
+    }
+
     private static JSONObject getCommonObject(Map<String, String> logMap) {
         JSONObject jsonObject = new JSONObject();
         if (!(logMap == null || (logMap.isEmpty() ^ 1) == 0)) {
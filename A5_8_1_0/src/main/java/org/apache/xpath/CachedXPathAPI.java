@@ -57,11 +57,11 @@ public class CachedXPathAPI {
             namespaceNode = ((Document) namespaceNode).getDocumentElement();
         }
         PrefixResolver prefixResolver = new PrefixResolverDefault(namespaceNode);
-        return new XPath(str, null, prefixResolver, 0, null).execute(this.xpathSupport, this.xpathSupport.getDTMHandleFromNode(contextNode), prefixResolver);
+        return XPathCache.getXPath(str, prefixResolver).execute(this.xpathSupport, this.xpathSupport.getDTMHandleFromNode(contextNode), prefixResolver);
     }
 
     public XObject eval(Node contextNode, String str, PrefixResolver prefixResolver) throws TransformerException {
-        XPath xpath = new XPath(str, null, prefixResolver, 0, null);
+        XPath xpath = XPathCache.getXPath(str, prefixResolver);
         XPathContext xpathSupport = new XPathContext(false);
         return xpath.execute(xpathSupport, xpathSupport.getDTMHandleFromNode(contextNode), prefixResolver);
     }
@@ -0,0 +1,461 @@
+package org.apache.xpath;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.xpath.XPathConstants;
+import org.apache.xml.utils.PrefixResolver;
+import org.apache.xpath.objects.XString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Evaluates a forward-only subset of XPath directly against SAX events, so
+ * the document never has to be built as a DOM or DTM.
+ *
+ * Supported expressions are location paths, absolute or relative to the
+ * document node, made of child and descendant steps ("/", "//", "child::",
+ * "descendant::") with element name tests ("name", "p:name", "*", "p:*"),
+ * each optionally filtered by attribute predicates ("[@a]", "[@a='v']",
+ * "[@a!='v']"), and optionally ending in a named attribute step ("/@a").
+ * {@link #compile} returns null for anything else and the caller should
+ * use the DTM based {@link XPath}.
+ *
+ * Matching keeps one bit per step for every open element, so memory is
+ * proportional to the element depth and the size of the first match, not
+ * to the document. The whole document is still parsed so that errors in
+ * it are reported the same way as when it is built as a tree.
+ */
+public final class StreamingXPath {
+    private static final String ANY_NAMESPACE = new String("*");
+    private static final int MAX_STEPS = 62;
+    private final Step attributeStep;
+    private final Step[] elementSteps;
+    private final String expression;
+
+    private static final class Predicate {
+        final String localName;
+        final boolean negate;
+        final String namespace;
+        final String value;
+
+        Predicate(String namespace, String localName, String value, boolean negate) {
+            this.namespace = namespace;
+            this.localName = localName;
+            this.value = value;
+            this.negate = negate;
+        }
+
+        boolean matches(Attributes attributes) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                if (nameMatches(this.namespace, this.localName, attributes.getURI(i), attributes.getLocalName(i))) {
+                    if (this.value == null) {
+                        return true;
+                    }
+                    return this.value.equals(attributes.getValue(i)) != this.negate;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Step {
+        final boolean descendant;
+        final String localName;
+        final String namespace;
+        final Predicate[] predicates;
+
+        Step(boolean descendant, String namespace, String localName, Predicate[] predicates) {
+            this.descendant = descendant;
+            this.namespace = namespace;
+            this.localName = localName;
+            this.predicates = predicates;
+        }
+
+        boolean matches(String uri, String localName, Attributes attributes) {
+            if (!nameMatches(this.namespace, this.localName, uri, localName)) {
+                return false;
+            }
+            for (Predicate predicate : this.predicates) {
+                if (!predicate.matches(attributes)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Turns SAX events into the string value of the first node selected by
+     * the path, in document order.
+     */
+    private final class Handler extends DefaultHandler {
+        private int captureDepth = -1;
+        private int depth;
+        private boolean done;
+        private final boolean needValue;
+        private long[] states = new long[16];
+        private StringBuilder value;
+
+        Handler(boolean needValue) {
+            this.needValue = needValue;
+            this.states[0] = 1;
+        }
+
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (this.done) {
+                return;
+            }
+            Step[] steps = StreamingXPath.this.elementSteps;
+            long parent = this.states[this.depth];
+            long state = 0;
+            for (int k = 0; k < steps.length; k++) {
+                if (((1L << k) & parent) != 0) {
+                    Step step = steps[k];
+                    if (step.descendant) {
+                        state |= 1L << k;
+                    }
+                    if (step.matches(uri, localName, attributes)) {
+                        state |= 1L << (k + 1);
+                    }
+                }
+            }
+            this.depth++;
+            if (this.depth == this.states.length) {
+                long[] grown = new long[(this.depth * 2)];
+                System.arraycopy(this.states, 0, grown, 0, this.depth);
+                this.states = grown;
+            }
+            this.states[this.depth] = state;
+            if (this.captureDepth < 0 && ((1L << steps.length) & state) != 0) {
+                Step attributeStep = StreamingXPath.this.attributeStep;
+                if (attributeStep == null) {
+                    this.value = new StringBuilder();
+                    if (this.needValue) {
+                        this.captureDepth = this.depth;
+                    } else {
+                        this.done = true;
+                    }
+                    return;
+                }
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    if (nameMatches(attributeStep.namespace, attributeStep.localName, attributes.getURI(i), attributes.getLocalName(i))) {
+                        this.value = new StringBuilder(attributes.getValue(i));
+                        this.done = true;
+                        return;
+                    }
+                }
+            }
+        }
+
+        public void endElement(String uri, String localName, String qName) {
+            if (!this.done) {
+                if (this.depth == this.captureDepth) {
+                    this.done = true;
+                }
+                this.depth--;
+            }
+        }
+
+        public void characters(char[] ch, int start, int length) {
+            if (this.captureDepth >= 0 && !this.done) {
+                this.value.append(ch, start, length);
+            }
+        }
+
+        public void ignorableWhitespace(char[] ch, int start, int length) {
+            characters(ch, start, length);
+        }
+    }
+
+    private StreamingXPath(String expression, Step[] elementSteps, Step attributeStep) {
+        this.expression = expression;
+        this.elementSteps = elementSteps;
+        this.attributeStep = attributeStep;
+    }
+
+    /**
+     * Compiles {@code expression} for streaming evaluation with the document
+     * node as context, or returns null if it is outside the supported subset
+     * or uses a prefix {@code prefixResolver} cannot resolve.
+     */
+    public static StreamingXPath compile(String expression, PrefixResolver prefixResolver) {
+        return new Parser(expression, prefixResolver).parse();
+    }
+
+    /**
+     * Evaluates {@code expression} straight from the parser's events when it
+     * is in the streaming subset and {@code returnType} is not a node type.
+     * Returns null when the caller has to build the source as a DOM.
+     */
+    public static Object evaluate(String expression, PrefixResolver prefixResolver, InputSource source, QName returnType) throws IOException, SAXException {
+        if (returnType.equals(XPathConstants.NODE) || returnType.equals(XPathConstants.NODESET)) {
+            return null;
+        }
+        StreamingXPath streamingXPath = compile(expression, prefixResolver);
+        if (streamingXPath == null) {
+            return null;
+        }
+        if (returnType.equals(XPathConstants.STRING)) {
+            return streamingXPath.str(source);
+        }
+        if (returnType.equals(XPathConstants.NUMBER)) {
+            return new Double(streamingXPath.num(source));
+        }
+        return new Boolean(streamingXPath.bool(source));
+    }
+
+    public String getExpression() {
+        return this.expression;
+    }
+
+    /**
+     * Returns true if the path selects at least one node of the document.
+     */
+    public boolean bool(InputSource source) throws IOException, SAXException {
+        return run(source, false) != null;
+    }
+
+    /**
+     * Returns the number value of the first node the path selects, NaN if
+     * it selects none.
+     */
+    public double num(InputSource source) throws IOException, SAXException {
+        return new XString(str(source)).num();
+    }
+
+    /**
+     * Returns the string value of the first node the path selects, or the
+     * empty string if it selects none.
+     */
+    public String str(InputSource source) throws IOException, SAXException {
+        StringBuilder value = run(source, true);
+        return value != null ? value.toString() : "";
+    }
+
+    private StringBuilder run(InputSource source, boolean needValue) throws IOException, SAXException {
+        Handler handler = new Handler(needValue);
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setValidating(false);
+            XMLReader reader = factory.newSAXParser().getXMLReader();
+            reader.setContentHandler(handler);
+            reader.setErrorHandler(handler);
+            reader.parse(source);
+            return handler.value;
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private static boolean nameMatches(String namespace, String localName, String uri, String name) {
+        if (localName != null && !localName.equals(name)) {
+            return false;
+        }
+        if (namespace == ANY_NAMESPACE) {
+            return true;
+        }
+        if (namespace == null) {
+            return uri == null || uri.length() == 0;
+        }
+        return namespace.equals(uri);
+    }
+
+    /**
+     * Recursive descent over the supported subset. Any token it does not
+     * expect makes the whole expression unsupported rather than an error;
+     * the XPath compiler reports real syntax errors.
+     */
+    private static final class Parser {
+        private final String expression;
+        private String localName;
+        private String namespace;
+        private int pos;
+        private final PrefixResolver prefixResolver;
+
+        Parser(String expression, PrefixResolver prefixResolver) {
+            this.expression = expression;
+            this.prefixResolver = prefixResolver;
+        }
+
+        StreamingXPath parse() {
+            ArrayList<Step> steps = new ArrayList();
+            Step attributeStep = null;
+            skipWhitespace();
+            boolean descendant = false;
+            if (skip("//")) {
+                descendant = true;
+            } else {
+                skip("/");
+            }
+            while (true) {
+                skipWhitespace();
+                if (skip("@") || skip("attribute::")) {
+                    if (descendant || !parseName(false)) {
+                        return null;
+                    }
+                    attributeStep = new Step(false, this.namespace, this.localName, new Predicate[0]);
+                    skipWhitespace();
+                    if (this.pos < this.expression.length()) {
+                        return null;
+                    }
+                    break;
+                }
+                if (skip("descendant::")) {
+                    if (descendant) {
+                        return null;
+                    }
+                    descendant = true;
+                } else {
+                    skip("child::");
+                }
+                if (!parseName(true)) {
+                    return null;
+                }
+                String stepNamespace = this.namespace;
+                String stepLocalName = this.localName;
+                ArrayList<Predicate> predicates = new ArrayList();
+                while (true) {
+                    skipWhitespace();
+                    if (!skip("[")) {
+                        break;
+                    }
+                    Predicate predicate = parsePredicate();
+                    if (predicate == null) {
+                        return null;
+                    }
+                    predicates.add(predicate);
+                }
+                steps.add(new Step(descendant, stepNamespace, stepLocalName, (Predicate[]) predicates.toArray(new Predicate[predicates.size()])));
+                if (this.pos == this.expression.length()) {
+                    break;
+                }
+                if (skip("//")) {
+                    descendant = true;
+                } else if (skip("/")) {
+                    descendant = false;
+                } else {
+                    return null;
+                }
+            }
+            if (steps.size() > MAX_STEPS) {
+                return null;
+            }
+            return new StreamingXPath(this.expression, (Step[]) steps.toArray(new Step[steps.size()]), attributeStep);
+        }
+
+        private Predicate parsePredicate() {
+            skipWhitespace();
+            if (!skip("@") || !parseName(false)) {
+                return null;
+            }
+            String predicateNamespace = this.namespace;
+            String predicateLocalName = this.localName;
+            skipWhitespace();
+            if (skip("]")) {
+                return new Predicate(predicateNamespace, predicateLocalName, null, false);
+            }
+            boolean negate = skip("!=");
+            if (!negate && !skip("=")) {
+                return null;
+            }
+            skipWhitespace();
+            if (this.pos == this.expression.length()) {
+                return null;
+            }
+            char quote = this.expression.charAt(this.pos);
+            if (quote != '\'' && quote != '\"') {
+                return null;
+            }
+            int end = this.expression.indexOf(quote, this.pos + 1);
+            if (end < 0) {
+                return null;
+            }
+            String value = this.expression.substring(this.pos + 1, end);
+            this.pos = end + 1;
+            skipWhitespace();
+            if (skip("]")) {
+                return new Predicate(predicateNamespace, predicateLocalName, value, negate);
+            }
+            return null;
+        }
+
+        /**
+         * Parses a name test into namespace and localName, a null localName
+         * meaning any name. Wildcards are only accepted for elements.
+         */
+        private boolean parseName(boolean allowWildcard) {
+            String prefix = null;
+            String name = parseNCName();
+            if (name == null) {
+                if (!allowWildcard || !skip("*")) {
+                    return false;
+                }
+                this.namespace = ANY_NAMESPACE;
+                this.localName = null;
+                return true;
+            }
+            if (this.pos + 1 < this.expression.length() && this.expression.charAt(this.pos) == ':' && this.expression.charAt(this.pos + 1) != ':') {
+                this.pos++;
+                prefix = name;
+                name = parseNCName();
+                if (name == null) {
+                    if (!allowWildcard || !skip("*")) {
+                        return false;
+                    }
+                }
+            }
+            skipWhitespace();
+            if (this.pos < this.expression.length() && (this.expression.charAt(this.pos) == '(' || this.expression.charAt(this.pos) == ':')) {
+                return false;
+            }
+            if (prefix == null) {
+                this.namespace = null;
+            } else if (this.prefixResolver == null) {
+                return false;
+            } else {
+                this.namespace = this.prefixResolver.getNamespaceForPrefix(prefix);
+                if (this.namespace == null) {
+                    return false;
+                }
+            }
+            this.localName = name;
+            return true;
+        }
+
+        private String parseNCName() {
+            int start = this.pos;
+            while (this.pos < this.expression.length()) {
+                char c = this.expression.charAt(this.pos);
+                if (!Character.isLetter(c) && c != '_' && (this.pos == start || !(Character.isDigit(c) || c == '-' || c == '.'))) {
+                    break;
+                }
+                this.pos++;
+            }
+            if (this.pos == start) {
+                return null;
+            }
+            return this.expression.substring(start, this.pos);
+        }
+
+        private boolean skip(String token) {
+            if (!this.expression.startsWith(token, this.pos)) {
+                return false;
+            }
+            this.pos += token.length();
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (this.pos < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.pos))) {
+                this.pos++;
+            }
+        }
+    }
+}
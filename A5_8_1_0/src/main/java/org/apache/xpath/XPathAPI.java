@@ -44,11 +44,11 @@ public class XPathAPI {
             namespaceNode = ((Document) namespaceNode).getDocumentElement();
         }
         PrefixResolver prefixResolver = new PrefixResolverDefault(namespaceNode);
-        return new XPath(str, null, prefixResolver, 0, null).execute(xpathSupport, xpathSupport.getDTMHandleFromNode(contextNode), prefixResolver);
+        return XPathCache.getXPath(str, prefixResolver).execute(xpathSupport, xpathSupport.getDTMHandleFromNode(contextNode), prefixResolver);
     }
 
     public static XObject eval(Node contextNode, String str, PrefixResolver prefixResolver) throws TransformerException {
-        XPath xpath = new XPath(str, null, prefixResolver, 0, null);
+        XPath xpath = XPathCache.getXPath(str, prefixResolver);
         XPathContext xpathSupport = new XPathContext(false);
         return xpath.execute(xpathSupport, xpathSupport.getDTMHandleFromNode(contextNode), prefixResolver);
     }
@@ -0,0 +1,197 @@
+package org.apache.xpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.xml.transform.TransformerException;
+import org.apache.xml.utils.DefaultErrorHandler;
+import org.apache.xml.utils.PrefixResolver;
+import org.apache.xpath.compiler.Compiler;
+import org.apache.xpath.compiler.FunctionTable;
+import org.apache.xpath.compiler.XPathParser;
+import org.w3c.dom.Node;
+
+/**
+ * Process wide cache of compiled XPath select expressions, used by
+ * XPathAPI, CachedXPathAPI and the JAXP XPath implementation instead of
+ * compiling the expression on every call.
+ *
+ * A compiled XPath keeps the prefix resolver it was compiled with, so a
+ * cached expression is never compiled against the caller's resolver.
+ * Instead the prefixes the expression uses are resolved once against the
+ * caller's resolver into an immutable {@link SnapshotPrefixResolver}, the
+ * expression is compiled against that snapshot, and the entry is only
+ * reused for a caller whose resolver yields an equal snapshot. The cache
+ * holds no reference to a caller's DOM node or NamespaceContext, and the
+ * least recently used entry is evicted once it is full.
+ */
+public final class XPathCache {
+    private static final int MAX_ENTRIES = 256;
+    private static final LinkedHashMap<String, Entry> sCache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> entry) {
+            return size() > XPathCache.MAX_ENTRIES;
+        }
+    };
+
+    private static final class Entry {
+        final SnapshotPrefixResolver resolver;
+        final XPath xpath;
+
+        Entry(XPath xpath, SnapshotPrefixResolver resolver) {
+            this.xpath = xpath;
+            this.resolver = resolver;
+        }
+    }
+
+    /**
+     * Collects the prefixes the lexer asks for while an expression is
+     * parsed. Used by one thread for one parse and then dropped.
+     */
+    private static final class RecordingPrefixResolver implements PrefixResolver {
+        private final PrefixResolver delegate;
+        final ArrayList<String> prefixes = new ArrayList();
+
+        RecordingPrefixResolver(PrefixResolver delegate) {
+            this.delegate = delegate;
+        }
+
+        public String getBaseIdentifier() {
+            return this.delegate.getBaseIdentifier();
+        }
+
+        public String getNamespaceForPrefix(String prefix) {
+            return record(prefix, this.delegate.getNamespaceForPrefix(prefix));
+        }
+
+        public String getNamespaceForPrefix(String prefix, Node context) {
+            return record(prefix, this.delegate.getNamespaceForPrefix(prefix, context));
+        }
+
+        public boolean handlesNullPrefixes() {
+            return this.delegate.handlesNullPrefixes();
+        }
+
+        private String record(String prefix, String uri) {
+            if (!this.prefixes.contains(prefix)) {
+                this.prefixes.add(prefix);
+            }
+            return uri;
+        }
+    }
+
+    /**
+     * Immutable prefix to URI bindings of one resolver, limited to the
+     * prefixes a given expression uses.
+     */
+    private static final class SnapshotPrefixResolver implements PrefixResolver {
+        private final String baseIdentifier;
+        private final boolean handlesNullPrefixes;
+        private final int hashCode;
+        private final String[] prefixes;
+        private final String[] uris;
+
+        SnapshotPrefixResolver(String[] prefixes, PrefixResolver resolver) {
+            this.prefixes = prefixes;
+            this.uris = new String[prefixes.length];
+            for (int i = 0; i < prefixes.length; i++) {
+                this.uris[i] = resolver.getNamespaceForPrefix(prefixes[i]);
+            }
+            this.baseIdentifier = resolver.getBaseIdentifier();
+            this.handlesNullPrefixes = resolver.handlesNullPrefixes();
+            this.hashCode = (Arrays.hashCode(this.uris) * 31) + (this.handlesNullPrefixes ? 1 : 0);
+        }
+
+        public String getBaseIdentifier() {
+            return this.baseIdentifier;
+        }
+
+        public String getNamespaceForPrefix(String prefix) {
+            for (int i = 0; i < this.prefixes.length; i++) {
+                if (this.prefixes[i].equals(prefix)) {
+                    return this.uris[i];
+                }
+            }
+            return null;
+        }
+
+        public String getNamespaceForPrefix(String prefix, Node context) {
+            return getNamespaceForPrefix(prefix);
+        }
+
+        public boolean handlesNullPrefixes() {
+            return this.handlesNullPrefixes;
+        }
+
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SnapshotPrefixResolver)) {
+                return false;
+            }
+            SnapshotPrefixResolver other = (SnapshotPrefixResolver) o;
+            if (this.handlesNullPrefixes != other.handlesNullPrefixes || !Arrays.equals(this.prefixes, other.prefixes) || !Arrays.equals(this.uris, other.uris)) {
+                return false;
+            }
+            if (this.baseIdentifier == null) {
+                return other.baseIdentifier == null;
+            }
+            return this.baseIdentifier.equals(other.baseIdentifier);
+        }
+    }
+
+    private XPathCache() {
+    }
+
+    /**
+     * Returns a compiled select expression for {@code expression}, compiling
+     * it if no entry with the same namespace bindings as
+     * {@code prefixResolver} is cached.
+     */
+    public static XPath getXPath(String expression, PrefixResolver prefixResolver) throws TransformerException {
+        Entry entry;
+        synchronized (sCache) {
+            entry = (Entry) sCache.get(expression);
+        }
+        SnapshotPrefixResolver snapshot = null;
+        if (prefixResolver != null) {
+            String[] prefixes;
+            if (entry == null || entry.resolver == null || entry.resolver.handlesNullPrefixes != prefixResolver.handlesNullPrefixes()) {
+                prefixes = collectPrefixes(expression, prefixResolver);
+            } else {
+                prefixes = entry.resolver.prefixes;
+            }
+            snapshot = new SnapshotPrefixResolver(prefixes, prefixResolver);
+        }
+        if (entry != null) {
+            if (snapshot == null) {
+                if (entry.resolver == null) {
+                    return entry.xpath;
+                }
+            } else if (snapshot.equals(entry.resolver)) {
+                return entry.xpath;
+            }
+        }
+        XPath xpath = new XPath(expression, null, snapshot, 0, null);
+        synchronized (sCache) {
+            sCache.put(expression, new Entry(xpath, snapshot));
+        }
+        return xpath;
+    }
+
+    /**
+     * Parses {@code expression} without compiling it and returns the
+     * prefixes it resolves, in lookup order.
+     */
+    private static String[] collectPrefixes(String expression, PrefixResolver prefixResolver) throws TransformerException {
+        RecordingPrefixResolver recorder = new RecordingPrefixResolver(prefixResolver);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler();
+        new XPathParser(errorHandler, null).initXPath(new Compiler(errorHandler, null, new FunctionTable()), expression, recorder);
+        return (String[]) recorder.prefixes.toArray(new String[recorder.prefixes.size()]);
+    }
+}
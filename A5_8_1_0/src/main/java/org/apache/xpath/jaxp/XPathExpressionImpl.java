@@ -10,6 +10,7 @@ import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFunctionException;
 import javax.xml.xpath.XPathFunctionResolver;
 import javax.xml.xpath.XPathVariableResolver;
+import org.apache.xpath.StreamingXPath;
 import org.apache.xpath.XPath;
 import org.apache.xpath.XPathContext;
 import org.apache.xpath.objects.XObject;
@@ -100,6 +101,10 @@ public class XPathExpressionImpl implements XPathExpression {
             throw new NullPointerException(XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_SOURCE_RETURN_TYPE_CANNOT_BE_NULL, null));
         } else if (isSupported(returnType)) {
             try {
+                Object result = StreamingXPath.evaluate(this.xpath.getPatternString(), this.prefixResolver, source, returnType);
+                if (result != null) {
+                    return result;
+                }
                 if (dbf == null) {
                     dbf = DocumentBuilderFactory.newInstance();
                     dbf.setNamespaceAware(true);
@@ -14,6 +14,8 @@ import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFunctionException;
 import javax.xml.xpath.XPathFunctionResolver;
 import javax.xml.xpath.XPathVariableResolver;
+import org.apache.xpath.StreamingXPath;
+import org.apache.xpath.XPathCache;
 import org.apache.xpath.XPathContext;
 import org.apache.xpath.objects.XObject;
 import org.apache.xpath.res.XPATHErrorResources;
@@ -102,7 +104,7 @@ public class XPathImpl implements XPath {
 
     private XObject eval(String expression, Object contextItem) throws TransformerException {
         XPathContext xpathSupport;
-        org.apache.xpath.XPath xpath = new org.apache.xpath.XPath(expression, null, this.prefixResolver, 0);
+        org.apache.xpath.XPath xpath = XPathCache.getXPath(expression, this.prefixResolver);
         if (this.functionResolver != null) {
             xpathSupport = new XPathContext(new JAXPExtensionsProvider(this.functionResolver, this.featureSecureProcessing), false);
         } else {
@@ -172,7 +174,7 @@ public class XPathImpl implements XPath {
             throw new NullPointerException(XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_ARG_CANNOT_BE_NULL, new Object[]{"XPath expression"}));
         }
         try {
-            return new XPathExpressionImpl(new org.apache.xpath.XPath(expression, null, this.prefixResolver, 0), this.prefixResolver, this.functionResolver, this.variableResolver, this.featureSecureProcessing);
+            return new XPathExpressionImpl(XPathCache.getXPath(expression, this.prefixResolver), this.prefixResolver, this.functionResolver, this.variableResolver, this.featureSecureProcessing);
         } catch (TransformerException te) {
             throw new XPathExpressionException(te);
         }
@@ -187,6 +189,10 @@ public class XPathImpl implements XPath {
             throw new NullPointerException(XPATHMessages.createXPATHMessage(XPATHErrorResources.ER_ARG_CANNOT_BE_NULL, new Object[]{"returnType"}));
         } else if (isSupported(returnType)) {
             try {
+                Object result = StreamingXPath.evaluate(expression, this.prefixResolver, source, returnType);
+                if (result != null) {
+                    return result;
+                }
                 return getResultAsType(eval(expression, getParser().parse(source)), returnType);
             } catch (SAXException e) {
                 throw new XPathExpressionException(e);